@@ -1,7 +1,5 @@
 package org.drools.beliefs.bayes;
 
-import java.util.Arrays;
-
 public class BayesAbsorption {
     int[]           srcVarPos;
     int[]           srcVarPosMultipliers;
@@ -15,8 +13,19 @@ public class BayesAbsorption {
 
     int[]           path;
 
+    double[]        absorbedPotentials;
+
 
     public BayesAbsorption(int[] srcVarPos, double[] oldSrcPotentials, double[] srcPotentials, int[] srcVarPosMultipliers, BayesVariable[] trgVars, double[] trgPotentials) {
+        this(srcVarPos, oldSrcPotentials, srcPotentials, srcVarPosMultipliers, trgVars, trgPotentials, null);
+    }
+
+    /**
+     * @param absorbedPotentials buffer, of the same length as the srcPotentials, for the ratio of the new and old potentials.
+     *                           If null a new array is allocated for each absorption.
+     */
+    public BayesAbsorption(int[] srcVarPos, double[] oldSrcPotentials, double[] srcPotentials, int[] srcVarPosMultipliers, BayesVariable[] trgVars, double[] trgPotentials, double[] absorbedPotentials) {
+        this.absorbedPotentials = absorbedPotentials;
         this.srcVarPos = srcVarPos;
         this.srcVarPosMultipliers = srcVarPosMultipliers;
         this.srcPotentials = srcPotentials;
@@ -28,7 +37,11 @@ public class BayesAbsorption {
     }
 
     public void absorb() {
-        srcPotentials = dividePotentials(srcPotentials, oldSrcPotentials);
+        if ( absorbedPotentials == null ) {
+            srcPotentials = dividePotentials(srcPotentials, oldSrcPotentials);
+        } else {
+            srcPotentials = dividePotentials(srcPotentials, oldSrcPotentials, absorbedPotentials);
+        }
 
         trgPotentialIndex = 0;
         srcPotentialIndex = 0;
@@ -48,7 +61,11 @@ public class BayesAbsorption {
     }
 
     public static double[] dividePotentials(double[] potentials, double[] oldPotentials) {
-        double[] absorbedPotentials = Arrays.copyOf( potentials, potentials.length);
+        return dividePotentials(potentials, oldPotentials, new double[potentials.length]);
+    }
+
+    public static double[] dividePotentials(double[] potentials, double[] oldPotentials, double[] absorbedPotentials) {
+        System.arraycopy(potentials, 0, absorbedPotentials, 0, potentials.length);
         for ( int i = 0; i < potentials.length; i++ ) {
             double oldP = oldPotentials[i];
             if (oldP == 0.0) {
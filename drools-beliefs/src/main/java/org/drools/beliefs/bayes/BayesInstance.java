@@ -4,17 +4,24 @@ import org.drools.beliefs.graph.Graph;
 import org.drools.beliefs.graph.GraphNode;
 import org.drools.core.util.BitMaskUtil;
 import org.kie.api.runtime.rule.FactHandle;
+import org.kie.internal.concurrent.ExecutorProviderFactory;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 public class BayesInstance<T> {
+    // minimum number of potentials in a subtree, for it to be propagated by another thread
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
     private Graph<BayesVariable>       graph;
     private JunctionTree               tree;
     private Map<String, BayesVariable> variables;
@@ -22,11 +29,23 @@ public class BayesInstance<T> {
     private BayesLikelyhood[]          likelyhoods;
     private long                       dirty;
     private long                       decided;
+    private boolean                    retracted;
+    private boolean                    consistent;
+    private boolean                    parallelPropagation;
 
     private CliqueState[]        cliqueStates;
     private SeparatorState[]     separatorStates;
     private BayesVariableState[] varStates;
 
+    // preallocated for passing the messages, indexed by clique or separator id
+    private BayesVariable[][]    cliqueVars;
+    private int[][]              parentSepVarPos;
+    private int[][]              childSepVarPos;
+    private int[][]              sepVarMultipliers;
+    private double[][]           oldSepPotentials;
+    private double[][]           absorbedSepPotentials;
+    private int[]                subtreeSizes;
+
     private GlobalUpdateListener globalUpdateListener;
     private PassMessageListener  passMessageListener;
 
@@ -58,6 +77,8 @@ public class BayesInstance<T> {
             separatorStates[sep.getId()] = sep.createState();
         }
 
+        initMessageBuffers();
+
         varStates = new BayesVariableState[graph.size()];
         for (GraphNode<BayesVariable> node : graph) {
             BayesVariable var = node.getContent();
@@ -66,6 +87,44 @@ public class BayesInstance<T> {
         }
     }
 
+    private void initMessageBuffers() {
+        JunctionTreeClique[] cliques = tree.getJunctionTreeNodes();
+        cliqueVars = new BayesVariable[cliques.length][];
+        for ( JunctionTreeClique clique : cliques ) {
+            cliqueVars[clique.getId()] = clique.getValues().toArray(new BayesVariable[clique.getValues().size()]);
+        }
+
+        JunctionTreeSeparator[] seps = tree.getJunctionTreeSeparators();
+        parentSepVarPos = new int[seps.length][];
+        childSepVarPos = new int[seps.length][];
+        sepVarMultipliers = new int[seps.length][];
+        oldSepPotentials = new double[seps.length][];
+        absorbedSepPotentials = new double[seps.length][];
+        for ( JunctionTreeSeparator sep : seps ) {
+            int id = sep.getId();
+            BayesVariable[] sepVars = sep.getValues().toArray(new BayesVariable[sep.getValues().size()]);
+            parentSepVarPos[id] = PotentialMultiplier.createSubsetVarPos(cliqueVars[sep.getParent().getId()], sepVars);
+            childSepVarPos[id] = PotentialMultiplier.createSubsetVarPos(cliqueVars[sep.getChild().getId()], sepVars);
+            sepVarMultipliers[id] = PotentialMultiplier.createIndexMultipliers(sepVars, PotentialMultiplier.createNumberOfStates(sepVars));
+            oldSepPotentials[id] = new double[separatorStates[id].getPotentials().length];
+            absorbedSepPotentials[id] = new double[separatorStates[id].getPotentials().length];
+        }
+
+        subtreeSizes = new int[cliques.length];
+        if ( tree.getRoot() != null ) {
+            initSubtreeSize(tree.getRoot());
+        }
+    }
+
+    private int initSubtreeSize(JunctionTreeClique clique) {
+        int size = cliqueStates[clique.getId()].getPotentials().length;
+        for ( JunctionTreeSeparator sep : clique.getChildren() ) {
+            size += initSubtreeSize(sep.getChild());
+        }
+        subtreeSizes[clique.getId()] = size;
+        return size;
+    }
+
     public void reset() {
         for (JunctionTreeClique clique : tree.getJunctionTreeNodes()) {
             clique.resetState(cliqueStates[clique.getId()]);
@@ -78,8 +137,9 @@ public class BayesInstance<T> {
         for (GraphNode<BayesVariable> node : graph) {
             BayesVariable var = node.getContent();
             BayesVariableState varState =  varStates[var.getId()];
-            varState.setDistribution( new double[ varState.getDistribution().length]);
+            Arrays.fill( varState.getDistribution(), 0 );
         }
+        consistent = false;
     }
 
     public void setTargetClass(Class<T> targetClass) {
@@ -154,6 +214,18 @@ public class BayesInstance<T> {
         this.passMessageListener = passMessageListener;
     }
 
+    public boolean isParallelPropagation() {
+        return parallelPropagation;
+    }
+
+    /**
+     * When enabled the global update propagates the independent subtrees of large junction trees in parallel,
+     * so the listeners can be called concurrently and the order of the messages is not deterministic.
+     */
+    public void setParallelPropagation(boolean parallelPropagation) {
+        this.parallelPropagation = parallelPropagation;
+    }
+
     public Map<String, BayesVariable> getVariables() {
         return variables;
     }
@@ -193,6 +265,9 @@ public class BayesInstance<T> {
 
     public void unsetLikelyhood(BayesVariable var) {
         int id = var.getId();
+        if ( this.likelyhoods[id] != null ) {
+            retracted = true;
+        }
         this.likelyhoods[id] = null;
         dirty = BitMaskUtil.set(dirty, id);
     }
@@ -208,25 +283,61 @@ public class BayesInstance<T> {
         int id = likelyhood.getVariable().getId();
         BayesLikelyhood old = this.likelyhoods[id];
         if ( old == null || !old.equals( likelyhood ) ) {
+            if ( old != null ) {
+                retracted = true;
+            }
             this.likelyhoods[likelyhood.getVariable().getId()] = likelyhood;
             dirty = BitMaskUtil.set(dirty, id);
         }
     }
 
+    /**
+     * Propagates the evidence changed since the last global update, so any number of likelyhoods can be set
+     * before a single propagation.
+     * Evidence can only be multiplied into the potentials: while it is only added, just the cliques between the new
+     * evidence and the root collect it, before distributing it from the root. When evidence is changed or removed,
+     * the potentials are reset and all the evidence is propagated through the whole tree again.
+     */
     public void globalUpdate() {
         if ( !isDecided() ) {
             throw new IllegalStateException("Cannot perform global upset, while one ore more variables are undecided" );
         }
-        if ( isDirty() ) {
-            reset();
+        if ( !consistent || retracted ) {
+            if ( isDirty() ) {
+                reset();
+            }
+            applyEvidence();
+            propagate(tree.getRoot(), null);
+        } else if ( isDirty() ) {
+            propagate(tree.getRoot(), applyChangedEvidence());
         }
-        applyEvidence();
-        //recurseGlobalUpdate(tree.getRoot());
-        globalUpdate(tree.getRoot());
         dirty = 0;
+        retracted = false;
+        consistent = true;
+    }
+
+    private boolean[] applyChangedEvidence() {
+        boolean[] changed = new boolean[cliqueStates.length];
+        for ( int i = 0; i < likelyhoods.length; i++ ) {
+            BayesLikelyhood l = likelyhoods[i];
+            if ( l != null && BitMaskUtil.isPositionSet(dirty, i) ) {
+                int family = l.getVariable().getFamily();
+                l.multiplyInto(cliqueStates[family].getPotentials());
+                BayesAbsorption.normalize(cliqueStates[family].getPotentials());
+
+                // mark the path to the root, that has to collect the new evidence
+                JunctionTreeClique clique = tree.getJunctionTreeNodes()[family];
+                while ( clique != null && !changed[clique.getId()] ) {
+                    changed[clique.getId()] = true;
+                    clique = clique.getParentSeparator() != null ? clique.getParentSeparator().getParent() : null;
+                }
+            }
+        }
+        return changed;
     }
 
     public void applyEvidence() {
+        consistent = false;
         for ( int i = 0; i < likelyhoods.length; i++ ) {
             BayesLikelyhood l = likelyhoods[i];
             if ( l != null ) {
@@ -250,6 +361,114 @@ public class BayesInstance<T> {
         }
     }
 
+    private void propagate(JunctionTreeClique root, boolean[] changed) {
+        if ( globalUpdateListener != null ) {
+            globalUpdateListener.beforeGlobalUpdate(cliqueStates[root.getId()]);
+        }
+        collect(root, changed);
+        distribute(root);
+        if ( globalUpdateListener != null ) {
+            globalUpdateListener.afterGlobalUpdate(cliqueStates[root.getId()]);
+        }
+    }
+
+    /**
+     * Collects the evidence of the subtree into the clique, skipping the children that did not change when a
+     * changed array is given. The messages are passed in the same order as collectEvidence, unless subtrees are forked.
+     */
+    private void collect(JunctionTreeClique clique, boolean[] changed) {
+        List<FutureTask<Object>> forked = null;
+        List<JunctionTreeSeparator> forkedSeps = null;
+        for ( JunctionTreeSeparator sep : clique.getChildren() ) {
+            JunctionTreeClique child = sep.getChild();
+            if ( changed != null && !changed[child.getId()] ) {
+                continue;
+            }
+            if ( isForked(child) ) {
+                if ( forked == null ) {
+                    forked = new ArrayList<FutureTask<Object>>();
+                    forkedSeps = new ArrayList<JunctionTreeSeparator>();
+                }
+                forked.add( fork(new SubtreePropagation(child, changed, true)) );
+                forkedSeps.add( sep );
+            } else {
+                collect(child, changed);
+                passMessage(child, sep, clique);
+            }
+        }
+        if ( forked != null ) {
+            join(forked);
+            // the messages into the same clique are absorbed one at a time
+            for ( JunctionTreeSeparator sep : forkedSeps ) {
+                passMessage(sep.getChild(), sep, clique);
+            }
+        }
+    }
+
+    private void distribute(JunctionTreeClique clique) {
+        List<FutureTask<Object>> forked = null;
+        for ( JunctionTreeSeparator sep : clique.getChildren() ) {
+            JunctionTreeClique child = sep.getChild();
+            passMessage(clique, sep, child);
+            if ( isForked(child) ) {
+                if ( forked == null ) {
+                    forked = new ArrayList<FutureTask<Object>>();
+                }
+                forked.add( fork(new SubtreePropagation(child, null, false)) );
+            } else {
+                distribute(child);
+            }
+        }
+        if ( forked != null ) {
+            join(forked);
+        }
+    }
+
+    private boolean isForked(JunctionTreeClique clique) {
+        return parallelPropagation && subtreeSizes[clique.getId()] >= PARALLEL_THRESHOLD;
+    }
+
+    private static FutureTask<Object> fork(Runnable propagation) {
+        FutureTask<Object> task = new FutureTask<Object>(propagation, null);
+        ExecutorProviderFactory.getExecutorProvider().getExecutor().execute(task);
+        return task;
+    }
+
+    private static void join(List<FutureTask<Object>> tasks) {
+        for ( FutureTask<Object> task : tasks ) {
+            // runs the task in this thread if no worker took it yet, so waiting can't starve the executor
+            task.run();
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException( "Interrupted while propagating the evidence", e );
+            } catch (ExecutionException e) {
+                throw new RuntimeException( "Unable to propagate the evidence", e.getCause() );
+            }
+        }
+    }
+
+    private class SubtreePropagation implements Runnable {
+        private final JunctionTreeClique clique;
+        private final boolean[]          changed;
+        private final boolean            collect;
+
+        private SubtreePropagation(JunctionTreeClique clique, boolean[] changed, boolean collect) {
+            this.clique = clique;
+            this.changed = changed;
+            this.collect = collect;
+        }
+
+        public void run() {
+            if ( collect ) {
+                collect(clique, changed);
+            } else {
+                distribute(clique);
+            }
+        }
+    }
+
     public void recurseGlobalUpdate(JunctionTreeClique clique) {
         globalUpdate(clique);
 
@@ -351,51 +570,32 @@ public class BayesInstance<T> {
      * @param targetClique
      */
     public void passMessage( JunctionTreeClique sourceClique, JunctionTreeSeparator sep, JunctionTreeClique targetClique) {
-        double[] sepPots = separatorStates[sep.getId()].getPotentials();
-        double[] oldSepPots = Arrays.copyOf(sepPots, sepPots.length);
-
-        BayesVariable[] sepVars = sep.getValues().toArray(new BayesVariable[sep.getValues().size()]);
+        int sepId = sep.getId();
+        double[] sepPots = separatorStates[sepId].getPotentials();
+        // the buffers of a separator are only used by the message passing through it, so they can be reused
+        double[] oldSepPots = oldSepPotentials[sepId];
+        System.arraycopy(sepPots, 0, oldSepPots, 0, sepPots.length);
 
         if ( passMessageListener != null ) {
             passMessageListener.beforeProjectAndAbsorb(sourceClique, sep, targetClique, oldSepPots);
         }
 
-        project(sepVars, cliqueStates[sourceClique.getId()], separatorStates[sep.getId()]);
+        new BayesProjection(cliqueVars[sourceClique.getId()], cliqueStates[sourceClique.getId()].getPotentials(),
+                            getSepVarPos(sourceClique, sep), sepVarMultipliers[sepId], sepPots).project();
         if ( passMessageListener != null ) {
             passMessageListener.afterProject(sourceClique, sep, targetClique, oldSepPots);
         }
 
-        absorb(sepVars, cliqueStates[targetClique.getId()], separatorStates[sep.getId()], oldSepPots);
+        new BayesAbsorption(getSepVarPos(targetClique, sep), oldSepPots, sepPots, sepVarMultipliers[sepId],
+                            cliqueVars[targetClique.getId()], cliqueStates[targetClique.getId()].getPotentials(),
+                            absorbedSepPotentials[sepId]).absorb();
         if ( passMessageListener != null ) {
             passMessageListener.afterAbsorb(sourceClique, sep, targetClique, oldSepPots);
         }
     }
 
-    //private static void project(BayesVariable[] sepVars, JunctionTreeNode node, JunctionTreeSeparator sep) {
-    private static void project(BayesVariable[] sepVars, CliqueState clique, SeparatorState separator) {
-        //JunctionTreeNode node, JunctionTreeSeparator sep
-        BayesVariable[] vars = clique.getJunctionTreeClique().getValues().toArray(new BayesVariable[clique.getJunctionTreeClique().getValues().size()]);
-        int[] sepVarPos = PotentialMultiplier.createSubsetVarPos(vars, sepVars);
-
-        int sepVarNumberOfStates = PotentialMultiplier.createNumberOfStates(sepVars);
-        int[] sepVarMultipliers = PotentialMultiplier.createIndexMultipliers(sepVars, sepVarNumberOfStates);
-
-        BayesProjection p = new BayesProjection(vars, clique.getPotentials(), sepVarPos, sepVarMultipliers, separator.getPotentials());
-        p.project();
-    }
-
-    //private static void absorb(BayesVariable[] sepVars, JunctionTreeNode node, JunctionTreeSeparator sep, double[] oldSepPots ) {
-    private static void absorb(BayesVariable[] sepVars, CliqueState clique, SeparatorState separator, double[] oldSepPots ) {
-        //BayesVariable[] vars = node.getValues().toArray( new BayesVariable[node.getValues().size()] );
-        BayesVariable[] vars = clique.getJunctionTreeClique().getValues().toArray(new BayesVariable[clique.getJunctionTreeClique().getValues().size()]);
-
-        int[] sepVarPos = PotentialMultiplier.createSubsetVarPos(vars, sepVars);
-
-        int sepVarNumberOfStates = PotentialMultiplier.createNumberOfStates(sepVars);
-        int[] sepVarMultipliers = PotentialMultiplier.createIndexMultipliers(sepVars, sepVarNumberOfStates);
-
-        BayesAbsorption p = new BayesAbsorption(sepVarPos, oldSepPots, separator.getPotentials(), sepVarMultipliers, vars, clique.getPotentials());
-        p.absorb();
+    private int[] getSepVarPos(JunctionTreeClique clique, JunctionTreeSeparator sep) {
+        return clique == sep.getChild() ? childSepVarPos[sep.getId()] : parentSepVarPos[sep.getId()];
     }
 
     public BayesVariableState marginalize(String name) {
@@ -121,6 +121,36 @@ public class SprinkerTest {
         assertArray( new double[]{0.82, 0.18},  scaleDouble( 3,  bayesInstance.marginalize("WetGrass").getDistribution() ) );
     }
 
+    @Test
+    public void testIncrementalEvidence() {
+        JunctionTreeBuilder jtBuilder = new JunctionTreeBuilder( graph );
+        JunctionTree jTree = jtBuilder.build();
+
+        BayesInstance bayesInstance = new BayesInstance(jTree);
+        bayesInstance.globalUpdate();
+        assertArray( new double[]{0.353, 0.647},  scaleDouble( 3,  bayesInstance.marginalize("WetGrass").getDistribution() ) );
+
+        // only added evidence, so it is collected from its cliques and distributed, without resetting the tree
+        bayesInstance.setLikelyhood( "Sprinkler", new double[]{1.0, 0.0} );
+        bayesInstance.setLikelyhood( "Cloudy", new double[]{1.0, 0.0} );
+        bayesInstance.globalUpdate();
+
+        assertArray(new double[]{1.0, 0.0}, scaleDouble(3, bayesInstance.marginalize("Cloudy").getDistribution()));
+        assertArray( new double[]{0.8, 0.2},  scaleDouble( 3,  bayesInstance.marginalize("Rain").getDistribution()  ) );
+        assertArray( new double[]{1.0, 0.0},  scaleDouble(3, bayesInstance.marginalize("Sprinkler").getDistribution()) );
+        assertArray( new double[]{0.82, 0.18},  scaleDouble( 3,  bayesInstance.marginalize("WetGrass").getDistribution() ) );
+
+        // nothing changed, so the evidence must not be applied twice
+        bayesInstance.globalUpdate();
+        assertArray( new double[]{0.82, 0.18},  scaleDouble( 3,  bayesInstance.marginalize("WetGrass").getDistribution() ) );
+
+        // changed evidence resets the tree
+        bayesInstance.unsetLikelyhood( (BayesVariable) bayesInstance.getVariables().get("Sprinkler") );
+        bayesInstance.unsetLikelyhood( (BayesVariable) bayesInstance.getVariables().get("Cloudy") );
+        bayesInstance.globalUpdate();
+        assertArray( new double[]{0.353, 0.647},  scaleDouble( 3,  bayesInstance.marginalize("WetGrass").getDistribution() ) );
+    }
+
     public static void marginalize(BayesVariableState varState,  CliqueState cliqueState) {
         JunctionTreeClique jtNode = cliqueState.getJunctionTreeClique();
         new Marginalizer(jtNode.getValues().toArray( new BayesVariable[jtNode.getValues().size()]), cliqueState.getPotentials(), varState.getVariable(), varState.getDistribution() );
@@ -24,6 +24,7 @@ import org.drools.compiler.compiler.PackageRegistry;
 import org.drools.compiler.compiler.xml.RulesSemanticModule;
 import org.drools.compiler.kie.builder.impl.AbstractKieModule.CompilationCache;
 import org.drools.compiler.rule.builder.DroolsCompilerComponentFactory;
+import org.drools.compiler.rule.builder.dialect.java.PersistentClassFileCache;
 import org.drools.core.base.evaluators.EvaluatorDefinition;
 import org.drools.core.base.evaluators.EvaluatorRegistry;
 import org.drools.core.common.ProjectClassLoader;
@@ -115,6 +116,8 @@ public class KnowledgeBuilderConfigurationImpl
 
     private File                              dumpDirectory;
 
+    private File                              classFileCacheDirectory;
+
     private boolean                           allowMultipleNamespaces = true;
 
     private boolean                           processStringEscapes    = true;
@@ -238,6 +241,8 @@ public class KnowledgeBuilderConfigurationImpl
 
         buildDumpDirectory();
 
+        buildClassFileCacheDirectory();
+
         buildSeverityMap();
 
         setProperty(ProcessStringEscapesOption.PROPERTY_NAME,
@@ -284,6 +289,8 @@ public class KnowledgeBuilderConfigurationImpl
             this.evaluatorRegistry.addEvaluatorDefinition(value);
         } else if (name.equals(DumpDirOption.PROPERTY_NAME)) {
             buildDumpDirectory(value);
+        } else if (name.equals(PersistentClassFileCache.PROPERTY_NAME)) {
+            buildClassFileCacheDirectory(value);
         } else if (name.equals(DefaultPackageNameOption.PROPERTY_NAME)) {
             setDefaultPackageName(value);
         } else if (name.equals(ProcessStringEscapesOption.PROPERTY_NAME)) {
@@ -328,6 +335,8 @@ public class KnowledgeBuilderConfigurationImpl
             return evalDef != null ? evalDef.getClass().getName() : null;
         } else if (name.equals(DumpDirOption.PROPERTY_NAME)) {
             return this.dumpDirectory != null ? this.dumpDirectory.toString() : null;
+        } else if (name.equals(PersistentClassFileCache.PROPERTY_NAME)) {
+            return this.classFileCacheDirectory != null ? this.classFileCacheDirectory.toString() : null;
         } else if (name.equals(ProcessStringEscapesOption.PROPERTY_NAME)) {
             return String.valueOf(isProcessStringEscapes());
         } else if (name.equals(ClassLoaderCacheOption.PROPERTY_NAME)) {
@@ -670,6 +679,31 @@ public class KnowledgeBuilderConfigurationImpl
         this.dumpDirectory = dumpDir;
     }
 
+    private void buildClassFileCacheDirectory() {
+        buildClassFileCacheDirectory(this.chainedProperties.getProperty(PersistentClassFileCache.PROPERTY_NAME,
+                null));
+    }
+
+    private void buildClassFileCacheDirectory(String cacheDirStr) {
+        if (cacheDirStr != null) {
+            setClassFileCacheDir(new File(cacheDirStr));
+        }
+    }
+
+    public File getClassFileCacheDir() {
+        return this.classFileCacheDirectory;
+    }
+
+    public void setClassFileCacheDir(File cacheDir) {
+        if (!cacheDir.exists()) {
+            cacheDir.mkdirs();
+        }
+        if (!cacheDir.isDirectory() || !cacheDir.canWrite() || !cacheDir.canRead()) {
+            throw new RuntimeException("Drools class file cache directory is not accessible: " + cacheDir.toString());
+        }
+        this.classFileCacheDirectory = cacheDir;
+    }
+
     public boolean isProcessStringEscapes() {
         return processStringEscapes;
     }
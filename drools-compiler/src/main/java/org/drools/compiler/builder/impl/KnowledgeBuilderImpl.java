@@ -892,6 +892,21 @@ public class KnowledgeBuilderImpl implements KnowledgeBuilder {
         compileAllRules(packageDescr, pkgRegistry);
     }
 
+    /**
+     * Compiles the rules of a descriptor into the package already registered for its namespace,
+     * without merging the descriptor into the ones retained by this builder for that package,
+     * so that large amounts of generated rules can be streamed into the builder in chunks.
+     * Falls back to {@link #addPackage(PackageDescr)} if the package hasn't been added yet.
+     */
+    public void addPackageRules(final PackageDescr packageDescr) {
+        PackageRegistry pkgRegistry = this.pkgRegistryMap.get(packageDescr.getNamespace());
+        if (pkgRegistry == null) {
+            addPackage(packageDescr);
+            return;
+        }
+        compileAllRules(packageDescr, pkgRegistry);
+    }
+
     void compileAllRules(PackageDescr packageDescr, PackageRegistry pkgRegistry) {
         pkgRegistry.setDialect(getPackageDialect(packageDescr));
 
@@ -917,7 +932,7 @@ public class KnowledgeBuilderImpl implements KnowledgeBuilder {
         }
     }
 
-    void addBuilderResult(KnowledgeBuilderResult result) {
+    public void addBuilderResult(KnowledgeBuilderResult result) {
         this.results.add(result);
     }
 
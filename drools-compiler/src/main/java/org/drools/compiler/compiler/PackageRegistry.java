@@ -25,7 +25,9 @@ public class PackageRegistry {
             "org.drools.core.factmodel.traits.Trait",
             "org.drools.core.factmodel.traits.Traitable",
             "org.drools.core.beliefsystem.abductive.Abductive",
-            "org.drools.core.beliefsystem.abductive.Abducible" };
+            "org.drools.core.beliefsystem.abductive.Abducible",
+            "org.drools.core.rule.Tabled",
+            "org.drools.core.rule.Async" };
 
     private final InternalKnowledgePackage   pkg;
     private String                           dialect;
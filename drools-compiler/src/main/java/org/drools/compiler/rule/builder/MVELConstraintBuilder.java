@@ -114,6 +114,9 @@ public class MVELConstraintBuilder implements ConstraintBuilder {
         }
         expression = normalizeMVELVariableExpression(expression, leftValue, rightValue, relDescr);
         IndexUtil.ConstraintType constraintType = IndexUtil.ConstraintType.decode(operatorDescr.getOperator());
+        if (constraintType == IndexUtil.ConstraintType.UNKNOWN) {
+            constraintType = IndexUtil.ConstraintType.decodeCollectionMatch(operatorDescr.getOperator(), relDescr.isNegated());
+        }
         MVELCompilationUnit compilationUnit = isUnification ? null : buildCompilationUnit(context, pattern, expression, null);
         return new MvelConstraint(Arrays.asList(context.getPkg().getName()), expression, declarations, compilationUnit, constraintType, requiredDeclaration, extractor, isUnification);
     }
@@ -159,6 +162,9 @@ public class MVELConstraintBuilder implements ConstraintBuilder {
 
         String mvelExpr = normalizeMVELLiteralExpression(vtype, field, expression, leftValue, operator, rightValue, restrictionDescr);
         IndexUtil.ConstraintType constraintType = IndexUtil.ConstraintType.decode(operator);
+        if (constraintType == IndexUtil.ConstraintType.UNKNOWN && vtype == ValueType.STRING_TYPE) {
+            constraintType = IndexUtil.ConstraintType.decodeStringMatch(operator, restrictionDescr.getParameterText(), restrictionDescr.isNegated());
+        }
         MVELCompilationUnit compilationUnit = buildCompilationUnit(context, pattern, mvelExpr, null);
         return new MvelConstraint(context.getPkg().getName(), mvelExpr, compilationUnit, constraintType, field, extractor);
     }
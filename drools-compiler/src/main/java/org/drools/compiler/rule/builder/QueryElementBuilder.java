@@ -229,7 +229,8 @@ public class QueryElementBuilder
                                  declrIndexArray,
                                  varIndexesArray,
                                  !patternDescr.isQuery(),
-                                 query.isAbductive() );
+                                 query.isAbductive(),
+                                 query.isTabled() );
     }
 
     @SuppressWarnings("unchecked")
@@ -28,6 +28,7 @@ import org.drools.core.rule.AbductiveQuery;
 import org.drools.core.rule.Pattern;
 import org.drools.core.rule.QueryImpl;
 import org.drools.core.rule.RuleConditionElement;
+import org.drools.core.rule.Tabled;
 import org.drools.core.spi.DeclarationScopeResolver;
 
 import java.util.Stack;
@@ -81,6 +82,7 @@ public class RuleBuildContext extends PackageBuildContext {
             } else {
                 this.rule = new AbductiveQuery( ruleDescr.getName(), abductive.mode() );
             }
+            ((QueryImpl) this.rule).setTabled( ruleDescr.hasAnnotation( Tabled.class ) );
         } else {
             this.rule = new RuleImpl(ruleDescr.getName());
         }
@@ -31,6 +31,7 @@ import org.drools.core.base.SalienceInteger;
 import org.drools.core.base.mvel.MVELObjectExpression;
 import org.drools.core.definitions.rule.impl.RuleImpl;
 import org.drools.core.factmodel.AnnotationDefinition;
+import org.drools.core.rule.Async;
 import org.drools.core.rule.GroupElement;
 import org.drools.core.rule.Pattern;
 import org.drools.core.spi.AgendaGroup;
@@ -121,6 +122,22 @@ public class RuleBuilder {
             for ( String name : ruleDescr.getNamedConsequences().keySet() ) {
                 consequenceBuilder.build( context, name );
             }
+
+            checkAsyncConsequence( context );
+        }
+    }
+
+    private void checkAsyncConsequence(final RuleBuildContext context) {
+        RuleImpl rule = context.getRule();
+        if ( !rule.isAsync() ) {
+            return;
+        }
+        if ( !"java".equals( context.getDialect().getId() ) ) {
+            context.addError( new RuleBuildError( rule, context.getParentDescr(), null,
+                                                  "Asynchronous consequences are only supported by the java dialect" ) );
+        } else if ( rule.getConsequenceMetaData().hasWorkingMemoryAccess() ) {
+            context.addError( new RuleBuildError( rule, context.getParentDescr(), null,
+                                                  "The consequence of an asynchronous rule cannot use drools, kcontext or any working memory action" ) );
         }
     }
 
@@ -277,6 +294,17 @@ public class RuleBuilder {
 
             rule.setDataDriven(ruleDescr.hasAnnotation(DataDriven.class));
             rule.setAllMatches(ruleDescr.hasAnnotation(All.class));
+
+            Async async = ruleDescr.getTypedAnnotation(Async.class);
+            if (async != null) {
+                rule.setAsync(true);
+                if (async.key().length() > 0) {
+                    if (rule.getDeclaration(async.key()) == null) {
+                        throw new RuntimeException("Unknown declaration " + async.key() + " used as key of @Async");
+                    }
+                    rule.setAsyncKey(async.key());
+                }
+            }
         } catch (Exception e) {
             DroolsError err = new RuleBuildError( rule, context.getParentDescr(), null,
                                                   e.getMessage() );
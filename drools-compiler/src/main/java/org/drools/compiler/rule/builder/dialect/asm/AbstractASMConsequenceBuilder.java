@@ -5,6 +5,7 @@ import org.drools.compiler.rule.builder.dialect.DialectUtil;
 import org.drools.compiler.rule.builder.dialect.java.JavaAnalysisResult;
 import org.drools.compiler.rule.builder.dialect.java.JavaRuleBuilderHelper;
 import org.drools.compiler.rule.builder.dialect.java.KnowledgeHelperFixer;
+import org.drools.core.definitions.rule.impl.RuleImpl;
 import org.drools.core.rule.Declaration;
 import org.drools.compiler.rule.builder.RuleBuildContext;
 
@@ -49,8 +50,19 @@ public abstract class AbstractASMConsequenceBuilder implements ConsequenceBuilde
         }
         fixedConsequence = KnowledgeHelperFixer.fix(fixedConsequence);
 
+        if ( RuleImpl.DEFAULT_CONSEQUENCE_NAME.equals(consequenceName) && usesKnowledgeHelper(analysis, fixedConsequence) ) {
+            context.getRule().getConsequenceMetaData().setWorkingMemoryAccess(true);
+        }
+
         return JavaRuleBuilderHelper.createConsequenceContext(context, consequenceName, className, fixedConsequence, decls, analysis.getBoundIdentifiers());
     }
 
+    private static boolean usesKnowledgeHelper(JavaAnalysisResult analysis, String fixedConsequence) {
+        // the working memory actions and the blocks using them are all rewritten as calls on the knowledge helper
+        return analysis.getIdentifiers().contains("drools") ||
+               analysis.getIdentifiers().contains("kcontext") ||
+               !fixedConsequence.equals(analysis.getAnalyzedExpr());
+    }
+
     protected abstract byte[] createConsequenceBytecode(RuleBuildContext ruleContext, final Map<String, Object> consequenceContext);
 }
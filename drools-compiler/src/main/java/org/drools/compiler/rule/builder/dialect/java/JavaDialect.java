@@ -83,9 +83,11 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -144,6 +146,8 @@ public class JavaDialect
 
     private final PackageRegistry packageRegistry;
 
+    private PersistentClassFileCache classFileCache;
+
     public JavaDialect(ClassLoader rootClassLoader,
                        KnowledgeBuilderConfigurationImpl pkgConf,
                        PackageRegistry pkgRegistry,
@@ -390,6 +394,16 @@ public class JavaDialect
             this.errorHandlers.clear();
             return;
         }
+        PersistentClassFileCache persistentCache = getPersistentClassFileCache();
+        Map<String, String> persistentCacheKeys = null;
+        if ( persistentCache != null ) {
+            persistentCacheKeys = loadFromPersistentCache( persistentCache );
+            if ( this.generatedClassList.isEmpty() ) {
+                this.errorHandlers.clear();
+                return;
+            }
+        }
+
         final String[] classes = new String[this.generatedClassList.size()];
         this.generatedClassList.toArray( classes );
 
@@ -421,11 +435,118 @@ public class JavaDialect
             }
         }
 
+        if ( persistentCache != null ) {
+            storeInPersistentCache( persistentCache, persistentCacheKeys, result );
+        }
+
         // We've compiled everthing, so clear it for the next set of additions
         this.generatedClassList.clear();
         this.errorHandlers.clear();
     }
 
+    private PersistentClassFileCache getPersistentClassFileCache() {
+        if ( classFileCache == null ) {
+            File cacheDir = this.configuration.getPackageBuilderConfiguration().getClassFileCacheDir();
+            if ( cacheDir != null ) {
+                classFileCache = new PersistentClassFileCache( cacheDir, this.configuration );
+            }
+        }
+        return classFileCache;
+    }
+
+    /**
+     * Recovers from the persistent cache the bytecode of the generated classes whose source and
+     * dependencies didn't change and removes them from the list of classes to be compiled.
+     * Since a class may depend on another generated class of the same batch, the lookup is repeated
+     * until no more classes can be resolved.
+     *
+     * @return the cache keys of the classes that still need to be compiled
+     */
+    private Map<String, String> loadFromPersistentCache(PersistentClassFileCache persistentCache) {
+        Map<String, String> keys = new HashMap<String, String>();
+        for ( String className : this.generatedClassList ) {
+            keys.put( className, persistentCache.getKey( className, this.src.getBytes( className ) ) );
+        }
+
+        PersistentClassFileCache.BytecodeResolver resolver = getBytecodeResolver();
+        boolean resolved = true;
+        while ( resolved && !this.generatedClassList.isEmpty() ) {
+            resolved = false;
+            for ( Iterator<String> i = this.generatedClassList.iterator(); i.hasNext(); ) {
+                String className = i.next();
+                Map<String, byte[]> bytecodes = persistentCache.lookup( keys.get( className ), resolver );
+                if ( bytecodes != null ) {
+                    for ( Map.Entry<String, byte[]> entry : bytecodes.entrySet() ) {
+                        this.packageStoreWrapper.write( entry.getKey(), entry.getValue() );
+                    }
+                    keys.remove( className );
+                    i.remove();
+                    resolved = true;
+                }
+            }
+        }
+        return keys;
+    }
+
+    private void storeInPersistentCache(PersistentClassFileCache persistentCache,
+                                        Map<String, String> keys,
+                                        CompilationResult result) {
+        for ( CompilationProblem error : result.getErrors() ) {
+            keys.remove( error.getFileName() );
+        }
+        if ( keys.isEmpty() ) {
+            return;
+        }
+
+        // groups the compiled classes, including the inner ones, by the source they have been generated from
+        Map<String, Map<String, byte[]>> bytecodesBySource = new HashMap<String, Map<String, byte[]>>();
+        JavaDialectRuntimeData data = (JavaDialectRuntimeData) pkg.getDialectRuntimeRegistry().getDialectData( ID );
+        for ( Map.Entry<String, byte[]> entry : data.getStore().entrySet() ) {
+            String resourceName = entry.getKey();
+            int innerPos = resourceName.indexOf( '$' );
+            String sourceName = ( innerPos > 0 ? resourceName.substring( 0, innerPos ) : resourceName.substring( 0, resourceName.length() - ".class".length() ) ) + ".java";
+            if ( keys.containsKey( sourceName ) ) {
+                Map<String, byte[]> bytecodes = bytecodesBySource.get( sourceName );
+                if ( bytecodes == null ) {
+                    bytecodes = new HashMap<String, byte[]>();
+                    bytecodesBySource.put( sourceName, bytecodes );
+                }
+                bytecodes.put( resourceName, entry.getValue() );
+            }
+        }
+
+        PersistentClassFileCache.BytecodeResolver resolver = getBytecodeResolver();
+        for ( Map.Entry<String, Map<String, byte[]>> entry : bytecodesBySource.entrySet() ) {
+            persistentCache.store( keys.get( entry.getKey() ), entry.getValue(), resolver );
+        }
+    }
+
+    private PersistentClassFileCache.BytecodeResolver getBytecodeResolver() {
+        return new PersistentClassFileCache.BytecodeResolver() {
+            public byte[] getBytecode(String resourceName) {
+                byte[] bytecode = packageStoreWrapper.read( resourceName );
+                if ( bytecode != null ) {
+                    return bytecode;
+                }
+                InputStream is = rootClassLoader.getResourceAsStream( resourceName );
+                if ( is == null ) {
+                    return null;
+                }
+                try {
+                    return IoUtils.readBytesFromInputStream( is );
+                } catch ( IOException e ) {
+                    return null;
+                } finally {
+                    try {
+                        is.close();
+                    } catch ( IOException e ) {
+                        // ignore
+                    }
+                }
+            }
+        };
+    }
+
     /**
      * @param classes
      * @param dumpDir
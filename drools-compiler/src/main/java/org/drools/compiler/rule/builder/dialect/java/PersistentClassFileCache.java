@@ -0,0 +1,357 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.compiler.rule.builder.dialect.java;
+
+import org.drools.core.util.Drools;
+import org.drools.core.util.IoUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An on-disk, content addressed cache of the bytecode generated by the java dialect.
+ *
+ * Every generated source unit (rule, function, accumulate invoker ...) is keyed by a hash of its
+ * source text, of the compiler settings and of the drools version. Each entry also records the
+ * hash of the bytecode of every non-platform class reachable from it at compile time: the classes
+ * it references and, transitively, the ones referenced by them (super types, field and method
+ * signatures ...). So it is reused only when none of its dependencies (declared types, model classes,
+ * the libraries they use ...) have changed, even if the change doesn't affect the classes it directly
+ * references.
+ * This allows unchanged rules to skip the java compilation across different builds, while a
+ * modification only invalidates the classes actually depending on it.
+ *
+ * It is a class file cache only: the resources are still parsed, their descriptors built and the java
+ * sources generated on every build, it is the java compilation of those sources that is skipped.
+ *
+ * The cache is enabled by setting the {@link #PROPERTY_NAME} builder property (or system property)
+ * to a writable directory, it is disabled by default.
+ */
+public class PersistentClassFileCache {
+
+    private static final Logger log = LoggerFactory.getLogger( PersistentClassFileCache.class );
+
+    public static final String PROPERTY_NAME = "drools.compilation.classFileCacheDir";
+
+    private static final int CACHE_FORMAT_VERSION = 2;
+
+    private static final String[] PLATFORM_PREFIXES = new String[] {
+            "java/", "javax/", "sun/", "org/drools/core/", "org/drools/compiler/", "org/kie/", "org/mvel2/"
+    };
+
+    /**
+     * Provides the bytecode of the classes visible to the generated sources
+     */
+    public interface BytecodeResolver {
+        byte[] getBytecode(String resourceName);
+    }
+
+    private final File cacheDir;
+
+    private final String settingsKey;
+
+    public PersistentClassFileCache(File cacheDir, JavaDialectConfiguration configuration) {
+        this.cacheDir = cacheDir;
+        this.settingsKey = Drools.getFullVersion() + ":" +
+                           CACHE_FORMAT_VERSION + ":" +
+                           configuration.getCompiler() + ":" +
+                           configuration.getJavaLanguageLevel();
+    }
+
+    public File getCacheDir() {
+        return cacheDir;
+    }
+
+    /**
+     * Returns the hash identifying the given generated source
+     */
+    public String getKey(String sourceName, byte[] source) {
+        MessageDigest digest = newDigest();
+        digest.update( settingsKey.getBytes( IoUtils.UTF8_CHARSET ) );
+        digest.update( sourceName.getBytes( IoUtils.UTF8_CHARSET ) );
+        digest.update( source );
+        return toHex( digest.digest() );
+    }
+
+    /**
+     * Looks up the classes compiled from the source with the given key.
+     * Returns null if there is no entry for that key or if any of the classes it depended on
+     * has changed since the entry has been stored.
+     */
+    public Map<String, byte[]> lookup(String key, BytecodeResolver resolver) {
+        File file = getEntryFile( key );
+        if ( !file.exists() ) {
+            return null;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream( new BufferedInputStream( new FileInputStream( file ) ) );
+            int dependenciesNr = in.readInt();
+            for ( int i = 0; i < dependenciesNr; i++ ) {
+                String dependency = in.readUTF();
+                String hash = in.readUTF();
+                if ( !hash.equals( hashDependency( dependency, resolver ) ) ) {
+                    return null;
+                }
+            }
+            int classesNr = in.readInt();
+            Map<String, byte[]> classes = new LinkedHashMap<String, byte[]>();
+            for ( int i = 0; i < classesNr; i++ ) {
+                String className = in.readUTF();
+                byte[] bytecode = new byte[in.readInt()];
+                in.readFully( bytecode );
+                classes.put( className, bytecode );
+            }
+            return classes;
+        } catch ( IOException e ) {
+            log.warn( "Unable to read compilation cache entry " + file + ", it will be recompiled", e );
+            return null;
+        } finally {
+            close( in );
+        }
+    }
+
+    /**
+     * Stores the classes compiled from the source with the given key, together with the hashes
+     * of the classes reachable from them as provided by the given resolver.
+     */
+    public void store(String key, Map<String, byte[]> classes, BytecodeResolver resolver) {
+        Set<String> compiled = new HashSet<String>();
+        Set<String> referenced = new HashSet<String>();
+        for ( Map.Entry<String, byte[]> entry : classes.entrySet() ) {
+            compiled.add( toInternalName( entry.getKey() ) );
+            collectReferencedClasses( entry.getValue(), referenced );
+        }
+        Map<String, String> dependencies = hashReachableClasses( referenced, compiled, resolver );
+
+        File file = getEntryFile( key );
+        File tmp = new File( file.getParentFile(), file.getName() + ".tmp" );
+        DataOutputStream out = null;
+        try {
+            file.getParentFile().mkdirs();
+            out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( tmp ) ) );
+            out.writeInt( dependencies.size() );
+            for ( Map.Entry<String, String> dependency : dependencies.entrySet() ) {
+                out.writeUTF( dependency.getKey() );
+                out.writeUTF( dependency.getValue() );
+            }
+            out.writeInt( classes.size() );
+            for ( Map.Entry<String, byte[]> entry : classes.entrySet() ) {
+                out.writeUTF( entry.getKey() );
+                out.writeInt( entry.getValue().length );
+                out.write( entry.getValue() );
+            }
+            out.close();
+            out = null;
+            if ( !tmp.renameTo( file ) ) {
+                // another build may have written the same entry concurrently
+                file.delete();
+                tmp.renameTo( file );
+            }
+        } catch ( IOException e ) {
+            log.warn( "Unable to write compilation cache entry " + file, e );
+            tmp.delete();
+        } finally {
+            close( out );
+        }
+    }
+
+    private File getEntryFile(String key) {
+        return new File( new File( cacheDir, key.substring( 0, 2 ) ), key.substring( 2 ) + ".class.cache" );
+    }
+
+    /**
+     * Hashes the non-platform classes reachable from the given ones, following the classes referenced
+     * by their bytecode. A class that can't be resolved is recorded with an empty hash, so the entry
+     * is invalidated if it appears later.
+     */
+    private static Map<String, String> hashReachableClasses(Collection<String> classNames,
+                                                           Set<String> excluded,
+                                                           BytecodeResolver resolver) {
+        Map<String, String> hashes = new LinkedHashMap<String, String>();
+        List<String> toVisit = new ArrayList<String>( classNames );
+        while ( !toVisit.isEmpty() ) {
+            String className = toVisit.remove( toVisit.size() - 1 );
+            if ( excluded.contains( className ) || hashes.containsKey( className ) || isPlatformClass( className ) ) {
+                continue;
+            }
+            byte[] bytecode = resolver.getBytecode( className + ".class" );
+            hashes.put( className, hashBytecode( bytecode ) );
+            if ( bytecode != null ) {
+                Set<String> referenced = new HashSet<String>();
+                collectReferencedClasses( bytecode, referenced );
+                toVisit.addAll( referenced );
+            }
+        }
+        return hashes;
+    }
+
+    private static boolean isPlatformClass(String internalName) {
+        for ( String prefix : PLATFORM_PREFIXES ) {
+            if ( internalName.startsWith( prefix ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String hashDependency(String internalName, BytecodeResolver resolver) {
+        return hashBytecode( resolver.getBytecode( internalName + ".class" ) );
+    }
+
+    private static String hashBytecode(byte[] bytecode) {
+        return bytecode == null ? "-" : toHex( newDigest().digest( bytecode ) );
+    }
+
+    private static String toInternalName(String resourceName) {
+        return resourceName.endsWith( ".class" ) ? resourceName.substring( 0, resourceName.length() - ".class".length() ) : resourceName;
+    }
+
+    /**
+     * Collects the internal names of the classes referenced by the constant pool of the given class,
+     * both directly (CONSTANT_Class) and through field and method descriptors (CONSTANT_NameAndType).
+     */
+    static void collectReferencedClasses(byte[] bytecode, Set<String> classNames) {
+        try {
+            DataInputStream in = new DataInputStream( new ByteArrayInputStream( bytecode ) );
+            in.skipBytes( 8 ); // magic, minor and major version
+            int poolSize = in.readUnsignedShort();
+            String[] utf8 = new String[poolSize];
+            int[] classRefs = new int[poolSize];
+            int[] descriptorRefs = new int[poolSize];
+            int classNr = 0;
+            int descriptorNr = 0;
+            for ( int i = 1; i < poolSize; i++ ) {
+                int tag = in.readUnsignedByte();
+                switch ( tag ) {
+                    case 1: // Utf8
+                        utf8[i] = in.readUTF();
+                        break;
+                    case 7: // Class
+                        classRefs[classNr++] = in.readUnsignedShort();
+                        break;
+                    case 12: // NameAndType
+                        in.skipBytes( 2 );
+                        descriptorRefs[descriptorNr++] = in.readUnsignedShort();
+                        break;
+                    case 8: // String
+                    case 16: // MethodType
+                        in.skipBytes( 2 );
+                        break;
+                    case 15: // MethodHandle
+                        in.skipBytes( 3 );
+                        break;
+                    case 3: // Integer
+                    case 4: // Float
+                    case 9: // Fieldref
+                    case 10: // Methodref
+                    case 11: // InterfaceMethodref
+                    case 18: // InvokeDynamic
+                        in.skipBytes( 4 );
+                        break;
+                    case 5: // Long
+                    case 6: // Double
+                        in.skipBytes( 8 );
+                        i++;
+                        break;
+                    default:
+                        return;
+                }
+            }
+            for ( int i = 0; i < classNr; i++ ) {
+                addClassName( utf8[classRefs[i]], classNames );
+            }
+            for ( int i = 0; i < descriptorNr; i++ ) {
+                addDescriptorClasses( utf8[descriptorRefs[i]], classNames );
+            }
+        } catch ( IOException e ) {
+            // a malformed class won't have dependencies, it will be simply recompiled when its source changes
+        }
+    }
+
+    private static void addClassName(String name, Set<String> classNames) {
+        if ( name == null ) {
+            return;
+        }
+        if ( name.startsWith( "[" ) ) {
+            addDescriptorClasses( name, classNames );
+        } else {
+            classNames.add( name );
+        }
+    }
+
+    private static void addDescriptorClasses(String descriptor, Set<String> classNames) {
+        if ( descriptor == null ) {
+            return;
+        }
+        int start = descriptor.indexOf( 'L' );
+        while ( start >= 0 ) {
+            int end = descriptor.indexOf( ';', start );
+            if ( end < 0 ) {
+                return;
+            }
+            classNames.add( descriptor.substring( start + 1, end ) );
+            start = descriptor.indexOf( 'L', end );
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance( "SHA-1" );
+        } catch ( NoSuchAlgorithmException e ) {
+            throw new RuntimeException( e );
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder( bytes.length * 2 );
+        for ( byte b : bytes ) {
+            sb.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) );
+            sb.append( Character.forDigit( b & 0xF, 16 ) );
+        }
+        return sb.toString();
+    }
+
+    private static void close(Closeable closeable) {
+        if ( closeable != null ) {
+            try {
+                closeable.close();
+            } catch ( IOException e ) {
+                // ignore
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.compiler.command;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.drools.compiler.Cheese;
+import org.drools.compiler.CommonTestMethodBase;
+import org.drools.core.command.codec.CommandCodec;
+import org.drools.core.command.runtime.BatchExecutionCommandImpl;
+import org.drools.core.command.runtime.rule.InsertElementsCommand;
+import org.drools.core.impl.InternalKnowledgeBase;
+import org.junit.Test;
+import org.kie.api.command.BatchExecutionCommand;
+import org.kie.api.command.Command;
+import org.kie.api.runtime.ExecutionResults;
+import org.kie.api.runtime.rule.QueryResults;
+import org.kie.internal.KnowledgeBase;
+import org.kie.internal.command.CommandFactory;
+import org.kie.internal.runtime.StatefulKnowledgeSession;
+
+public class CommandCodecTest extends CommonTestMethodBase {
+
+    private static final String DRL =
+            "package org.drools.compiler.command\n" +
+            "import " + Cheese.class.getCanonicalName() + "\n" +
+            "global java.util.List list\n" +
+            "query cheapCheeses( int max )\n" +
+            "    $c : Cheese( price < max )\n" +
+            "end\n" +
+            "rule R when\n" +
+            "    $c : Cheese( price > 995 )\n" +
+            "then\n" +
+            "    list.add( $c.getType() );\n" +
+            "end\n";
+
+    @Test
+    public void testProtobufRoundTrip() throws Exception {
+        KnowledgeBase kbase = loadKnowledgeBaseFromString( DRL );
+        checkRoundTrip( kbase, CommandCodec.newProtobufCodec( ( (InternalKnowledgeBase) kbase ).getRootClassLoader() ) );
+    }
+
+    @Test
+    public void testJsonRoundTrip() throws Exception {
+        KnowledgeBase kbase = loadKnowledgeBaseFromString( DRL );
+        checkRoundTrip( kbase, CommandCodec.newJsonCodec( ( (InternalKnowledgeBase) kbase ).getRootClassLoader() ) );
+    }
+
+    @Test
+    public void testProtobufStreamingExecution() throws Exception {
+        KnowledgeBase kbase = loadKnowledgeBaseFromString( DRL );
+        checkStreamingExecution( kbase, CommandCodec.newProtobufCodec( ( (InternalKnowledgeBase) kbase ).getRootClassLoader() ) );
+    }
+
+    @Test
+    public void testJsonStreamingExecution() throws Exception {
+        KnowledgeBase kbase = loadKnowledgeBaseFromString( DRL );
+        checkStreamingExecution( kbase, CommandCodec.newJsonCodec( ( (InternalKnowledgeBase) kbase ).getRootClassLoader() ) );
+    }
+
+    private void checkRoundTrip(KnowledgeBase kbase,
+                                CommandCodec codec) throws Exception {
+        List<Cheese> cheeses = createCheeses();
+        byte[] bytes = encode( codec, cheeses );
+
+        BatchExecutionCommandImpl batch = codec.decode( new ByteArrayInputStream( bytes ) );
+        assertEquals( "ksession1", batch.getLookup() );
+        assertEquals( 5, batch.getCommands().size() );
+
+        Collection<Object> decoded = ( (InsertElementsCommand) batch.getCommands().get( 1 ) ).getObjects();
+        assertEquals( cheeses, new ArrayList<Object>( decoded ) );
+        Cheese first = (Cheese) decoded.iterator().next();
+        assertEquals( cheeses.get( 0 ).getUsedBy(), first.getUsedBy() );
+        assertEquals( 0.5, first.getDoublePrice(), 0 );
+
+        StatefulKnowledgeSession ksession = createKnowledgeSession( kbase );
+        try {
+            checkResults( ksession.execute( batch ) );
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    private void checkStreamingExecution(KnowledgeBase kbase,
+                                         CommandCodec codec) throws Exception {
+        byte[] bytes = encode( codec, createCheeses() );
+
+        StatefulKnowledgeSession ksession = createKnowledgeSession( kbase );
+        try {
+            BatchExecutionCommandImpl batch = codec.newStreamingBatch( new ByteArrayInputStream( bytes ) );
+            assertEquals( "ksession1", batch.getLookup() );
+            checkResults( ksession.execute( batch ) );
+            assertEquals( 1000, ksession.getFactCount() );
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    private List<Cheese> createCheeses() {
+        List<Cheese> cheeses = new ArrayList<Cheese>();
+        for ( int i = 0; i < 1000; i++ ) {
+            Cheese cheese = new Cheese( "cheese" + i, i );
+            cheese.setUsedBy( new Date( 1000000L * i ) );
+            cheese.setDoublePrice( i + 0.5 );
+            cheeses.add( cheese );
+        }
+        return cheeses;
+    }
+
+    private byte[] encode(CommandCodec codec,
+                          List<Cheese> cheeses) throws Exception {
+        List<Command<?>> commands = new ArrayList<Command<?>>();
+        commands.add( CommandFactory.newSetGlobal( "list", new ArrayList<Object>() ) );
+        commands.add( CommandFactory.newInsertElements( new ArrayList<Object>( cheeses ), "cheeses", true, null ) );
+        commands.add( CommandFactory.newFireAllRules( "fired" ) );
+        commands.add( CommandFactory.newQuery( "cheap", "cheapCheeses", new Object[] { 10 } ) );
+        commands.add( CommandFactory.newGetGlobal( "list", "list" ) );
+        BatchExecutionCommand batch = CommandFactory.newBatchExecution( commands, "ksession1" );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.encode( batch, out );
+        return out.toByteArray();
+    }
+
+    private void checkResults(ExecutionResults results) {
+        assertEquals( 1000, ( (Collection<?>) results.getValue( "cheeses" ) ).size() );
+        assertEquals( 1000, ( (Collection<?>) results.getFactHandle( "cheeses" ) ).size() );
+        assertEquals( 4, results.getValue( "fired" ) );
+        assertEquals( 10, ( (QueryResults) results.getValue( "cheap" ) ).size() );
+        assertEquals( 4, ( (List<?>) results.getValue( "list" ) ).size() );
+    }
+}
@@ -33,6 +33,7 @@ import org.drools.core.factmodel.traits.TraitRegistry;
 import org.drools.core.factmodel.traits.TraitTypeMap;
 import org.drools.core.factmodel.traits.Traitable;
 import org.drools.core.factmodel.traits.TraitableBean;
+import org.drools.core.factmodel.traits.TraitSlotMap;
 import org.drools.core.factmodel.traits.TripleBasedBean;
 import org.drools.core.factmodel.traits.TripleBasedStruct;
 import org.drools.core.factmodel.traits.VirtualPropertyMode;
@@ -102,7 +103,8 @@ public class TraitTest extends CommonTestMethodBase {
         return Arrays.asList( new VirtualPropertyMode[][]
                                       {
                                               { VirtualPropertyMode.MAP },
-                                              { VirtualPropertyMode.TRIPLES }
+                                              { VirtualPropertyMode.TRIPLES },
+                                              { VirtualPropertyMode.SLOTS }
                                       } );
     }
 
@@ -815,6 +817,10 @@ public class TraitTest extends CommonTestMethodBase {
                 assertTrue( proxyFields instanceof MapWrapper );
                 assertTrue( coreTraits instanceof TraitTypeMap );
                 assertTrue( coreProperties instanceof HashMap );
+            } else if ( mode == VirtualPropertyMode.SLOTS ) {
+                assertTrue( proxyFields instanceof MapWrapper );
+                assertTrue( coreTraits instanceof TraitTypeMap );
+                assertTrue( coreProperties instanceof TraitSlotMap );
             } else {
                 assertEquals( "org.drools.compiler.trait.test.Student.org.drools.compiler.trait.test.Imp_ProxyWrapper", proxyFields.getClass().getName() );
 
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.compiler.integrationtests;
+
+import org.drools.compiler.CommonTestMethodBase;
+import org.drools.compiler.Person;
+import org.drools.core.SessionConfiguration;
+import org.drools.core.impl.StatefulKnowledgeSessionImpl;
+import org.junit.Test;
+import org.kie.api.builder.Message;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.io.ResourceType;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.ConsequenceException;
+import org.kie.internal.utils.KieHelper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+public class AsyncConsequenceTest extends CommonTestMethodBase {
+
+    @Test(timeout = 10000)
+    public void testAsyncConsequenceOrderedPerRule() {
+        String drl =
+                "global java.util.List list\n" +
+                "global java.util.List threads\n" +
+                "rule R @Async when\n" +
+                "  $i : Integer()\n" +
+                "then\n" +
+                "  list.add( $i );\n" +
+                "  threads.add( Thread.currentThread() );\n" +
+                "end\n";
+
+        KieSession ksession = new KieHelper().addContent( drl, ResourceType.DRL )
+                                             .build()
+                                             .newKieSession();
+
+        List<Integer> list = Collections.synchronizedList( new ArrayList<Integer>() );
+        List<Thread> threads = Collections.synchronizedList( new ArrayList<Thread>() );
+        ksession.setGlobal( "list", list );
+        ksession.setGlobal( "threads", threads );
+
+        final List<Integer> fired = new ArrayList<Integer>();
+        ksession.addEventListener( new DefaultAgendaEventListener() {
+            public void afterMatchFired( AfterMatchFiredEvent event ) {
+                fired.add( (Integer) event.getMatch().getDeclarationValue( "$i" ) );
+            }
+        } );
+
+        for ( int i = 0; i < 100; i++ ) {
+            ksession.insert( i );
+        }
+        assertEquals( 100, ksession.fireAllRules() );
+        ( (StatefulKnowledgeSessionImpl) ksession ).waitForAsyncConsequences();
+
+        assertEquals( fired, list );
+        assertFalse( threads.contains( Thread.currentThread() ) );
+
+        ksession.dispose();
+    }
+
+    @Test(timeout = 10000)
+    public void testAsyncConsequenceOrderedPerKey() {
+        String drl =
+                "import " + Person.class.getCanonicalName() + ";\n" +
+                "global java.util.List list\n" +
+                "rule R @Async( key = \"$name\" ) when\n" +
+                "  $p : Person( $name : name, $age : age )\n" +
+                "then\n" +
+                "  list.add( $name + $age );\n" +
+                "end\n";
+
+        KieSession ksession = new KieHelper().addContent( drl, ResourceType.DRL )
+                                             .build()
+                                             .newKieSession();
+
+        List<String> list = Collections.synchronizedList( new ArrayList<String>() );
+        ksession.setGlobal( "list", list );
+
+        final List<String> fired = new ArrayList<String>();
+        ksession.addEventListener( new DefaultAgendaEventListener() {
+            public void afterMatchFired( AfterMatchFiredEvent event ) {
+                fired.add( "" + event.getMatch().getDeclarationValue( "$name" ) + event.getMatch().getDeclarationValue( "$age" ) );
+            }
+        } );
+
+        for ( int i = 0; i < 50; i++ ) {
+            ksession.insert( new Person( "mario", i ) );
+            ksession.insert( new Person( "mark", i ) );
+        }
+        ksession.fireAllRules();
+        ( (StatefulKnowledgeSessionImpl) ksession ).waitForAsyncConsequences();
+
+        assertEquals( fired.size(), list.size() );
+        for ( String name : new String[] { "mario", "mark" } ) {
+            assertEquals( filter( fired, name ), filter( list, name ) );
+        }
+
+        ksession.dispose();
+    }
+
+    @Test(timeout = 10000)
+    public void testAsyncConsequenceFailureHandledOnFiringThread() {
+        String drl =
+                "rule R @Async when\n" +
+                "  $s : String()\n" +
+                "then\n" +
+                "  throw new IllegalStateException( $s );\n" +
+                "end\n";
+
+        KieSession ksession = new KieHelper().addContent( drl, ResourceType.DRL )
+                                             .build()
+                                             .newKieSession();
+
+        ksession.insert( "boom" );
+        ksession.fireAllRules();
+        try {
+            ( (StatefulKnowledgeSessionImpl) ksession ).waitForAsyncConsequences();
+            fail( "The failure of the asynchronous consequence should be handed to the consequence exception handler" );
+        } catch ( ConsequenceException e ) {
+            assertEquals( "R", e.getMatch().getRule().getName() );
+            assertEquals( "boom", e.getCause().getMessage() );
+        }
+
+        ksession.dispose();
+    }
+
+    @Test(timeout = 10000)
+    public void testAsyncConsequencesBoundedWithoutBlockingAndDrainedOnDispose() {
+        String drl =
+                "global java.util.List list\n" +
+                "global java.util.List threads\n" +
+                "rule R @Async( key = \"$i\" ) when\n" +
+                "  $i : Integer()\n" +
+                "then\n" +
+                "  list.add( $i );\n" +
+                "  threads.add( Thread.currentThread() );\n" +
+                "end\n";
+
+        // the executor doesn't run anything until the latch is released
+        final CountDownLatch latch = new CountDownLatch( 1 );
+        SessionConfiguration conf = new SessionConfiguration();
+        conf.setAsyncConsequenceMaxInFlight( 1 );
+        conf.setAsyncConsequenceExecutor( new Executor() {
+            public void execute( final Runnable command ) {
+                new Thread( new Runnable() {
+                    public void run() {
+                        try {
+                            latch.await();
+                        } catch ( InterruptedException e ) {
+                            throw new RuntimeException( e );
+                        }
+                        command.run();
+                    }
+                } ).start();
+            }
+        } );
+
+        KieSession ksession = new KieHelper().addContent( drl, ResourceType.DRL )
+                                             .build()
+                                             .newKieSession( conf, null );
+
+        List<Integer> list = Collections.synchronizedList( new ArrayList<Integer>() );
+        List<Thread> threads = Collections.synchronizedList( new ArrayList<Thread>() );
+        ksession.setGlobal( "list", list );
+        ksession.setGlobal( "threads", threads );
+
+        for ( int i = 0; i < 10; i++ ) {
+            ksession.insert( i );
+        }
+
+        // the first consequence is held by the executor, so the other ones are executed by the firing thread
+        assertEquals( 10, ksession.fireAllRules() );
+        assertEquals( 9, list.size() );
+        assertEquals( 9, Collections.frequency( threads, Thread.currentThread() ) );
+
+        latch.countDown();
+        ksession.dispose();
+        assertEquals( 10, list.size() );
+    }
+
+    @Test(timeout = 10000)
+    public void testAsyncConsequencesBoundedPerTaskForTheSameKey() {
+        String drl =
+                "global java.util.List list\n" +
+                "rule R @Async when\n" +
+                "  $i : Integer()\n" +
+                "then\n" +
+                "  try { Thread.sleep( 1 ); } catch ( InterruptedException e ) { }\n" +
+                "  list.add( $i );\n" +
+                "end\n";
+
+        SessionConfiguration conf = new SessionConfiguration();
+        conf.setAsyncConsequenceMaxInFlight( 2 );
+
+        KieSession ksession = new KieHelper().addContent( drl, ResourceType.DRL )
+                                             .build()
+                                             .newKieSession( conf, null );
+
+        final List<Integer> list = Collections.synchronizedList( new ArrayList<Integer>() );
+        ksession.setGlobal( "list", list );
+
+        // every consequence shares the same key, still no more than 2 of them are ever pending
+        final int[] fired = new int[1];
+        final List<Integer> exceeded = new ArrayList<Integer>();
+        ksession.addEventListener( new DefaultAgendaEventListener() {
+            public void afterMatchFired( AfterMatchFiredEvent event ) {
+                fired[0]++;
+                if ( fired[0] - list.size() > 2 ) {
+                    exceeded.add( fired[0] );
+                }
+            }
+        } );
+
+        for ( int i = 0; i < 50; i++ ) {
+            ksession.insert( i );
+        }
+        assertEquals( 50, ksession.fireAllRules() );
+        assertTrue( exceeded.isEmpty() );
+
+        ksession.dispose();
+        assertEquals( 50, list.size() );
+    }
+
+    @Test
+    public void testAsyncConsequenceWithWorkingMemoryActionsIsRejected() {
+        String[] consequences = new String[] {
+                "insert( $s.length() );",
+                "delete( $s );",
+                "drools.halt();",
+                "kcontext.getKieRuntime().getFactCount();"
+        };
+
+        for ( String consequence : consequences ) {
+            String drl =
+                    "rule R @Async when\n" +
+                    "  $s : String()\n" +
+                    "then\n" +
+                    "  " + consequence + "\n" +
+                    "end\n";
+
+            KieHelper helper = new KieHelper().addContent( drl, ResourceType.DRL );
+            assertEquals( consequence, 1, helper.verify().getMessages( Message.Level.ERROR ).size() );
+        }
+    }
+
+    @Test
+    public void testAsyncKeyMustBeADeclaration() {
+        String drl =
+                "rule R @Async( key = \"$x\" ) when\n" +
+                "  $s : String()\n" +
+                "then\n" +
+                "end\n";
+
+        KieHelper helper = new KieHelper().addContent( drl, ResourceType.DRL );
+        assertEquals( 1, helper.verify().getMessages( Message.Level.ERROR ).size() );
+    }
+
+    private static List<String> filter( List<String> values, String prefix ) {
+        List<String> filtered = new ArrayList<String>();
+        synchronized ( values ) {
+            for ( String value : values ) {
+                if ( value.startsWith( prefix ) && Character.isDigit( value.charAt( prefix.length() ) ) ) {
+                    filtered.add( value );
+                }
+            }
+        }
+        return filtered;
+    }
+}
@@ -16,6 +16,7 @@ import java.util.Set;
 
 import org.drools.compiler.Address;
 import org.drools.compiler.CommonTestMethodBase;
+import org.drools.core.ClassObjectFilter;
 import org.drools.core.InitialFact;
 import org.drools.compiler.Person;
 import org.drools.core.base.ClassObjectType;
@@ -31,9 +32,13 @@ import org.drools.core.reteoo.FromNode;
 import org.drools.core.reteoo.FromNode.FromMemory;
 import org.drools.core.reteoo.NotNode;
 import org.drools.core.reteoo.ObjectTypeNode;
+import org.drools.core.reteoo.LeftTupleSource;
 import org.drools.core.reteoo.QueryElementNode;
+import org.drools.core.reteoo.QueryElementNode.QueryElementNodeMemory;
+import org.drools.core.reteoo.QueryElementNode.TabledViewChangedEventListener;
 import org.drools.core.reteoo.ReteooWorkingMemoryInterface;
 import org.drools.core.reteoo.RightInputAdapterNode;
+import org.drools.core.reteoo.RuleTerminalNode;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.kie.internal.KnowledgeBase;
@@ -44,6 +49,7 @@ import org.kie.internal.builder.conf.RuleEngineOption;
 import org.kie.internal.definition.KnowledgePackage;
 import org.kie.internal.io.ResourceFactory;
 import org.kie.internal.runtime.StatefulKnowledgeSession;
+import org.kie.api.definition.type.FactType;
 import org.kie.api.io.ResourceType;
 import org.kie.api.runtime.rule.FactHandle;
 import org.kie.api.runtime.rule.LiveQuery;
@@ -3245,4 +3251,276 @@ public class BackwardChainingTest extends CommonTestMethodBase {
     }
 
 
+    @Test(timeout = 10000)
+    public void testTabledQuerySharedByCallers() {
+        String drl = "declare Location\n" +
+                     "    thing : String\n" +
+                     "    location : String\n" +
+                     "end\n" +
+                     "\n" +
+                     "declare Here\n" +
+                     "    id : int\n" +
+                     "    place : String\n" +
+                     "end\n" +
+                     "\n" +
+                     "query isContainedIn( String x, String y )\n" +
+                     "    @Tabled\n" +
+                     "    Location( x, y; )\n" +
+                     "    or\n" +
+                     "    ( Location( z, y; ) and isContainedIn( x, z; ) )\n" +
+                     "end\n" +
+                     "\n" +
+                     "rule look when\n" +
+                     "    Here( $id : id, $place : place )\n" +
+                     "    isContainedIn( $thing, $place; )\n" +
+                     "then\n" +
+                     "    insertLogical( $id + \":\" + $thing );\n" +
+                     "end\n";
+
+        KnowledgeBase kbase = loadKnowledgeBaseFromString( drl );
+        StatefulKnowledgeSession ksession = createKnowledgeSession( kbase );
+
+        FactType locationType = kbase.getFactType( "defaultpkg", "Location" );
+        FactType hereType = kbase.getFactType( "defaultpkg", "Here" );
+
+        ksession.insert( newLocation( locationType, "key", "office" ) );
+        ksession.insert( newLocation( locationType, "desk", "office" ) );
+        FactHandle drawer = ksession.insert( newLocation( locationType, "drawer", "desk" ) );
+        ksession.insert( newLocation( locationType, "pen", "drawer" ) );
+        for ( int i = 0; i < 50; i++ ) {
+            Object here = newInstance( hereType );
+            hereType.set( here, "id", i );
+            hereType.set( here, "place", "office" );
+            ksession.insert( here );
+        }
+        ksession.fireAllRules();
+
+        Collection<?> found = ksession.getObjects( new ClassObjectFilter( String.class ) );
+        assertEquals( 50 * 4, found.size() );
+        for ( int i = 0; i < 50; i++ ) {
+            assertTrue( found.containsAll( Arrays.asList( i + ":key", i + ":desk", i + ":drawer", i + ":pen" ) ) );
+        }
+
+        // the answers are maintained incrementally, and reach all the callers
+        ksession.insert( newLocation( locationType, "pencil", "drawer" ) );
+        ksession.fireAllRules();
+        found = ksession.getObjects( new ClassObjectFilter( String.class ) );
+        assertEquals( 50 * 5, found.size() );
+        assertTrue( found.contains( "49:pencil" ) );
+
+        ksession.delete( drawer );
+        ksession.fireAllRules();
+        found = ksession.getObjects( new ClassObjectFilter( String.class ) );
+        assertEquals( 50 * 2, found.size() );
+        assertFalse( found.contains( "0:pen" ) );
+        assertTrue( found.contains( "0:desk" ) );
+
+        ksession.dispose();
+    }
+
+    @Test(timeout = 10000)
+    public void testTabledAnswerTableSharedByCallersOfSameCall() {
+        String drl = "declare Location\n" +
+                     "    thing : String\n" +
+                     "    location : String\n" +
+                     "end\n" +
+                     "\n" +
+                     "declare Here\n" +
+                     "    id : int\n" +
+                     "    place : String\n" +
+                     "end\n" +
+                     "\n" +
+                     "query isContainedIn( String x, String y )\n" +
+                     "    @Tabled\n" +
+                     "    Location( x, y; )\n" +
+                     "    or\n" +
+                     "    ( Location( z, y; ) and isContainedIn( x, z; ) )\n" +
+                     "end\n" +
+                     "\n" +
+                     "rule look when\n" +
+                     "    Here( $id : id, $place : place )\n" +
+                     "    isContainedIn( $thing, $place; )\n" +
+                     "then\n" +
+                     "    insertLogical( $id + \":\" + $thing );\n" +
+                     "end\n";
+
+        KnowledgeBase kbase = loadKnowledgeBaseFromString( drl );
+        StatefulKnowledgeSession ksession = createKnowledgeSession( kbase );
+
+        FactType locationType = kbase.getFactType( "defaultpkg", "Location" );
+        FactType hereType = kbase.getFactType( "defaultpkg", "Here" );
+
+        ksession.insert( newLocation( locationType, "key", "office" ) );
+        ksession.insert( newLocation( locationType, "desk", "office" ) );
+        ksession.insert( newLocation( locationType, "pen", "desk" ) );
+        List<Object> heres = new ArrayList<Object>();
+        List<FactHandle> hereHandles = new ArrayList<FactHandle>();
+        for ( int i = 0; i < 10; i++ ) {
+            Object here = newInstance( hereType );
+            hereType.set( here, "id", i );
+            hereType.set( here, "place", "office" );
+            heres.add( here );
+            hereHandles.add( ksession.insert( here ) );
+        }
+        ksession.fireAllRules();
+        assertEquals( 10 * 3, ksession.getObjects( new ClassObjectFilter( String.class ) ).size() );
+
+        QueryElementNode queryNode = null;
+        LeftTupleSource source = ((RuleTerminalNode) ((KnowledgeBaseImpl) kbase).getReteooBuilder().getTerminalNodes( "look" )[0]).getLeftTupleSource();
+        for ( ; queryNode == null; source = source.getLeftTupleSource() ) {
+            if ( source instanceof QueryElementNode ) {
+                queryNode = (QueryElementNode) source;
+            }
+        }
+        QueryElementNodeMemory qmem = (QueryElementNodeMemory) ((StatefulKnowledgeSessionImpl) ksession).getNodeMemory( queryNode );
+
+        // all the callers with the same arguments subscribe to a single evaluation
+        assertEquals( 1, qmem.getAnswerTables().size() );
+        TabledViewChangedEventListener officeTable = qmem.getAnswerTables().iterator().next();
+        assertEquals( Arrays.<Object>asList( Variable.v, "office" ), officeTable.getArguments() );
+        assertEquals( 10, officeTable.getCallersCount() );
+
+        // a caller with new arguments moves to another table
+        hereType.set( heres.get( 0 ), "place", "desk" );
+        ksession.update( hereHandles.get( 0 ), heres.get( 0 ) );
+        ksession.fireAllRules();
+        assertEquals( 9 * 3 + 1, ksession.getObjects( new ClassObjectFilter( String.class ) ).size() );
+        assertEquals( 2, qmem.getAnswerTables().size() );
+        assertEquals( 9, officeTable.getCallersCount() );
+
+        // the table is retracted with its last caller
+        ksession.delete( hereHandles.get( 0 ) );
+        ksession.fireAllRules();
+        assertEquals( 1, qmem.getAnswerTables().size() );
+        assertSame( officeTable, qmem.getAnswerTables().iterator().next() );
+
+        for ( int i = 1; i < 10; i++ ) {
+            ksession.delete( hereHandles.get( i ) );
+        }
+        ksession.fireAllRules();
+        assertEquals( 0, qmem.getAnswerTables().size() );
+        assertEquals( 0, ksession.getObjects( new ClassObjectFilter( String.class ) ).size() );
+
+        ksession.dispose();
+    }
+
+    @Test(timeout = 10000)
+    public void testTabledLeftRecursiveQuery() {
+        String drl = "declare Edge\n" +
+                     "    from : String\n" +
+                     "    to : String\n" +
+                     "end\n" +
+                     "\n" +
+                     "query reachable( String x, String y )\n" +
+                     "    @Tabled\n" +
+                     "    ( reachable( x, z; ) and Edge( z, y; ) )\n" +
+                     "    or\n" +
+                     "    Edge( x, y; )\n" +
+                     "end\n" +
+                     "\n" +
+                     "rule paths when\n" +
+                     "    $x : String( this == \"a\" )\n" +
+                     "    reachable( $x, $y; )\n" +
+                     "then\n" +
+                     "    insertLogical( new Integer( $y.charAt( 0 ) ) );\n" +
+                     "end\n";
+
+        KnowledgeBase kbase = loadKnowledgeBaseFromString( drl );
+        StatefulKnowledgeSession ksession = createKnowledgeSession( kbase );
+
+        FactType edgeType = kbase.getFactType( "defaultpkg", "Edge" );
+        String[][] edges = { { "a", "b" }, { "b", "c" }, { "c", "d" }, { "x", "y" } };
+        for ( String[] e : edges ) {
+            Object edge = newInstance( edgeType );
+            edgeType.set( edge, "from", e[0] );
+            edgeType.set( edge, "to", e[1] );
+            ksession.insert( edge );
+        }
+        ksession.insert( "a" );
+        ksession.fireAllRules();
+
+        Set<Object> reached = new HashSet<Object>( ksession.getObjects( new ClassObjectFilter( Integer.class ) ) );
+        assertEquals( new HashSet<Object>( Arrays.asList( (int) 'b', (int) 'c', (int) 'd' ) ), reached );
+
+        ksession.dispose();
+    }
+
+    @Test(timeout = 10000)
+    public void testTabledLeftRecursiveQueryOnCyclicGraph() {
+        String drl = "global java.util.List list\n" +
+                     "\n" +
+                     "declare Edge\n" +
+                     "    from : String\n" +
+                     "    to : String\n" +
+                     "end\n" +
+                     "\n" +
+                     "query reachable( String x, String y )\n" +
+                     "    @Tabled\n" +
+                     "    ( reachable( x, z; ) and Edge( z, y; ) )\n" +
+                     "    or\n" +
+                     "    Edge( x, y; )\n" +
+                     "end\n" +
+                     "\n" +
+                     "rule paths when\n" +
+                     "    $x : String( this == \"a\" )\n" +
+                     "    reachable( $x, $y; )\n" +
+                     "then\n" +
+                     "    list.add( $y );\n" +
+                     "end\n";
+
+        KnowledgeBase kbase = loadKnowledgeBaseFromString( drl );
+        StatefulKnowledgeSession ksession = createKnowledgeSession( kbase );
+        List<String> list = new ArrayList<String>();
+        ksession.setGlobal( "list", list );
+
+        FactType edgeType = kbase.getFactType( "defaultpkg", "Edge" );
+        String[][] edges = { { "a", "b" }, { "b", "a" }, { "b", "c" }, { "c", "a" } };
+        FactHandle[] handles = new FactHandle[edges.length];
+        for ( int i = 0; i < edges.length; i++ ) {
+            Object edge = newInstance( edgeType );
+            edgeType.set( edge, "from", edges[i][0] );
+            edgeType.set( edge, "to", edges[i][1] );
+            handles[i] = ksession.insert( edge );
+        }
+        ksession.insert( "a" );
+        ksession.fireAllRules();
+
+        // every answer is found through more than one path, but it is propagated only once
+        assertEquals( 3, list.size() );
+        assertEquals( new HashSet<String>( Arrays.asList( "a", "b", "c" ) ), new HashSet<String>( list ) );
+
+        // "a" is still derived through b -> a, so removing c -> a doesn't retract it
+        list.clear();
+        ksession.delete( handles[3] );
+        ksession.fireAllRules();
+        assertEquals( 0, list.size() );
+
+        // without b -> a nothing leads back to "a" anymore, and it is found again only once the edge is back
+        ksession.delete( handles[1] );
+        ksession.fireAllRules();
+        Object edge = newInstance( edgeType );
+        edgeType.set( edge, "from", "c" );
+        edgeType.set( edge, "to", "a" );
+        ksession.insert( edge );
+        ksession.fireAllRules();
+        assertEquals( Arrays.asList( "a" ), list );
+
+        ksession.dispose();
+    }
+
+    private Object newLocation(FactType locationType, String thing, String location) {
+        Object fact = newInstance( locationType );
+        locationType.set( fact, "thing", thing );
+        locationType.set( fact, "location", location );
+        return fact;
+    }
+
+    private Object newInstance(FactType factType) {
+        try {
+            return factType.newInstance();
+        } catch ( Exception e ) {
+            throw new RuntimeException( e );
+        }
+    }
+
 }
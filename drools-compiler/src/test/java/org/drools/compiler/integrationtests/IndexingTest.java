@@ -2,13 +2,22 @@ package org.drools.compiler.integrationtests;
 
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 
 import org.drools.compiler.Cheese;
+import org.drools.compiler.Cheesery;
 import org.drools.compiler.CommonTestMethodBase;
 import org.drools.compiler.Person;
+import org.drools.compiler.Primitives;
+import org.drools.compiler.StockTick;
 import org.kie.api.runtime.rule.FactHandle;
 import org.drools.core.base.ClassObjectType;
 import org.drools.core.base.DroolsQuery;
@@ -18,6 +27,8 @@ import org.drools.core.util.FastIterator;
 import org.drools.core.util.index.LeftTupleIndexHashTable;
 import org.drools.core.util.index.LeftTupleList;
 import org.drools.core.util.index.RightTupleIndexHashTable;
+import org.drools.core.util.index.RightTupleIndexTemporalTree;
+import org.drools.core.util.index.RightTupleInvertedIndex;
 import org.drools.core.util.index.RightTupleList;
 import org.drools.core.impl.KnowledgeBaseImpl;
 import org.drools.core.impl.StatefulKnowledgeSessionImpl;
@@ -623,4 +634,427 @@ public class IndexingTest extends CommonTestMethodBase {
 
         ksession.fireAllRules();
     }
+
+    @Test(timeout=10000)
+    public void testRangeIndexedAlphaNodes() {
+        StringBuilder drl = new StringBuilder( "import org.drools.compiler.*;\n" );
+        for ( int i = 0; i < 20; i++ ) {
+            drl.append( "rule G" ).append( i ).append( " when Cheese( price > " ).append( i * 5 ).append( " ) then end\n" );
+            drl.append( "rule L" ).append( i ).append( " when Cheese( price <= " ).append( i * 5 ).append( " ) then end\n" );
+        }
+
+        KnowledgeBase kbase = loadKnowledgeBaseFromString( drl.toString() );
+
+        ObjectTypeNode otn = getObjectTypeNode( kbase, Cheese.class );
+        CompositeObjectSinkAdapter sinkAdapter = (CompositeObjectSinkAdapter) otn.getSinkPropagator();
+        assertNotNull( sinkAdapter.getRangeIndexes() );
+        assertTrue( sinkAdapter.getRangeIndexes().getFirst().isIndexed() );
+        assertNull( sinkAdapter.getOthers() );
+        assertEquals( 40, sinkAdapter.getSinks().length );
+
+        StatefulKnowledgeSession ksession = kbase.newStatefulKnowledgeSession();
+
+        // price > 0 .. 45 and price <= 50 .. 95
+        Cheese cheese = new Cheese( "stilton", 50 );
+        FactHandle fh = ksession.insert( cheese );
+        assertEquals( 20, ksession.fireAllRules() );
+
+        // price > 0 .. 50 and price <= 55 .. 95
+        cheese.setPrice( 52 );
+        ksession.update( fh, cheese );
+        assertEquals( 20, ksession.fireAllRules() );
+
+        // price > 0 .. 95
+        cheese.setPrice( 1000 );
+        ksession.update( fh, cheese );
+        assertEquals( 20, ksession.fireAllRules() );
+
+        ksession.dispose();
+    }
+
+    @Test(timeout=10000)
+    public void testRangeIndexedIntervalAlphaNodes() {
+        StringBuilder drl = new StringBuilder( "import org.drools.compiler.*;\nglobal java.util.List list;\n" );
+        for ( int i = 0; i < 20; i++ ) {
+            // [i*10, i*10 + 10) and (i*10 + 5, i*10 + 15]
+            drl.append( "rule R" ).append( i ).append( " when Cheese( price >= " ).append( i * 10 )
+               .append( ", price < " ).append( i * 10 + 10 ).append( " ) then list.add( \"R" ).append( i ).append( "\" ); end\n" );
+            drl.append( "rule D" ).append( i ).append( " when Cheese( price <= " ).append( i * 10 + 15 )
+               .append( ", price > " ).append( i * 10 + 5 ).append( " ) then list.add( \"D" ).append( i ).append( "\" ); end\n" );
+        }
+
+        KnowledgeBase kbase = loadKnowledgeBaseFromString( drl.toString() );
+
+        ObjectTypeNode otn = getObjectTypeNode( kbase, Cheese.class );
+        CompositeObjectSinkAdapter sinkAdapter = (CompositeObjectSinkAdapter) otn.getSinkPropagator();
+        AlphaRangeIndex rangeIndex = sinkAdapter.getRangeIndexes().getFirst();
+        assertTrue( rangeIndex.isIndexed() );
+        assertEquals( 40, sinkAdapter.getSinks().length );
+
+        // both bounds of every row are indexed
+        assertEquals( 20, rangeIndex.getAscending().getSinks().length );
+        assertEquals( 20, rangeIndex.getDescending().getSinks().length );
+        for ( AlphaNode boundSink : rangeIndex.getAscending().getBoundSinks() ) {
+            assertNotNull( boundSink );
+        }
+        for ( AlphaNode boundSink : rangeIndex.getDescending().getBoundSinks() ) {
+            assertNotNull( boundSink );
+        }
+
+        StatefulKnowledgeSession ksession = kbase.newStatefulKnowledgeSession();
+        List<String> list = new ArrayList<String>();
+        ksession.setGlobal( "list", list );
+
+        // low bound of R5 while the high one of R4 is excluded
+        Cheese cheese = new Cheese( "stilton", 50 );
+        FactHandle fh = ksession.insert( cheese );
+        ksession.fireAllRules();
+        assertEquals( Arrays.asList( "D4", "R5" ), sorted( list ) );
+
+        // high bound of D3 while the low one of D4 is excluded
+        list.clear();
+        cheese.setPrice( 45 );
+        ksession.update( fh, cheese );
+        ksession.fireAllRules();
+        assertEquals( Arrays.asList( "D3", "R4" ), sorted( list ) );
+
+        // high bound of D4 while the low one of D5 is excluded
+        list.clear();
+        cheese.setPrice( 55 );
+        ksession.update( fh, cheese );
+        ksession.fireAllRules();
+        assertEquals( Arrays.asList( "D4", "R5" ), sorted( list ) );
+
+        // inside both rows
+        list.clear();
+        cheese.setPrice( 62 );
+        ksession.update( fh, cheese );
+        ksession.fireAllRules();
+        assertEquals( Arrays.asList( "D5", "R6" ), sorted( list ) );
+
+        // high bound of D19 only
+        list.clear();
+        cheese.setPrice( 205 );
+        ksession.update( fh, cheese );
+        ksession.fireAllRules();
+        assertEquals( Arrays.asList( "D19" ), list );
+
+        // outside of every row
+        list.clear();
+        cheese.setPrice( 206 );
+        ksession.update( fh, cheese );
+        ksession.fireAllRules();
+        assertTrue( list.isEmpty() );
+
+        cheese.setPrice( -1 );
+        ksession.update( fh, cheese );
+        ksession.fireAllRules();
+        assertTrue( list.isEmpty() );
+
+        // low bound of R0 only
+        cheese.setPrice( 0 );
+        ksession.update( fh, cheese );
+        ksession.fireAllRules();
+        assertEquals( Arrays.asList( "R0" ), list );
+
+        ksession.dispose();
+    }
+
+    private static List<String> sorted(final List<String> list) {
+        List<String> sorted = new ArrayList<String>( list );
+        Collections.sort( sorted );
+        return sorted;
+    }
+
+    @Test(timeout=10000)
+    public void testStringIndexedAlphaNodes() {
+        String drl =
+                "import org.drools.compiler.*;\n" +
+                "rule S1 when Cheese( type str[startsWith] \"st\" ) then end\n" +
+                "rule S2 when Cheese( type str[startsWith] \"stil\" ) then end\n" +
+                "rule S3 when Cheese( type str[startsWith] \"bri\" ) then end\n" +
+                "rule E1 when Cheese( type str[endsWith] \"ton\" ) then end\n" +
+                "rule E2 when Cheese( type str[endsWith] \"ie\" ) then end\n" +
+                "rule M1 when Cheese( type matches \"stil+ton\" ) then end\n" +
+                "rule M2 when Cheese( type matches \"b.*\" ) then end\n" +
+                "rule M3 when Cheese( type matches \".*e\" ) then end\n" +
+                "rule N1 when Cheese( type not matches \"st.*\" ) then end\n";
+
+        KnowledgeBase kbase = loadKnowledgeBaseFromString( drl );
+
+        ObjectTypeNode otn = getObjectTypeNode( kbase, Cheese.class );
+        CompositeObjectSinkAdapter sinkAdapter = (CompositeObjectSinkAdapter) otn.getSinkPropagator();
+        assertNotNull( sinkAdapter.getStringIndexes() );
+        assertTrue( sinkAdapter.getStringIndexes().getFirst().isIndexed() );
+        assertEquals( 8, sinkAdapter.getStringIndexes().getFirst().size() );
+        assertEquals( 9, sinkAdapter.getSinks().length );
+
+        StatefulKnowledgeSession ksession = kbase.newStatefulKnowledgeSession();
+
+        // S1, S2, E1, M1
+        Cheese cheese = new Cheese( "stilton", 10 );
+        FactHandle fh = ksession.insert( cheese );
+        assertEquals( 4, ksession.fireAllRules() );
+
+        // S3, E2, M2, M3, N1
+        cheese.setType( "brie" );
+        ksession.update( fh, cheese );
+        assertEquals( 5, ksession.fireAllRules() );
+
+        // S1, N1 does not match
+        cheese.setType( "st" );
+        ksession.update( fh, cheese );
+        assertEquals( 1, ksession.fireAllRules() );
+
+        ksession.dispose();
+    }
+
+    @Test(timeout=10000)
+    public void testTemporalIndex() {
+        String str = "import org.drools.compiler.StockTick;\n" +
+                "global java.util.Set set\n" +
+                "declare StockTick @role(event) @timestamp(time) @duration(duration) end\n" +
+                "rule After when\n" +
+                "   $a : StockTick( company == \"A\" )\n" +
+                "   $b : StockTick( company == \"B\", this after[5ms, 20ms] $a )\n" +
+                "then\n" +
+                "   set.add( \"after \" + $a.getSeq() + \":\" + $b.getSeq() );\n" +
+                "end\n" +
+                "rule Before when\n" +
+                "   $a : StockTick( company == \"A\" )\n" +
+                "   $b : StockTick( company == \"B\", this before[5ms, 20ms] $a )\n" +
+                "then\n" +
+                "   set.add( \"before \" + $a.getSeq() + \":\" + $b.getSeq() );\n" +
+                "end\n" +
+                "rule Overlaps when\n" +
+                "   $a : StockTick( company == \"A\" )\n" +
+                "   $b : StockTick( company == \"B\", this overlaps $a )\n" +
+                "then\n" +
+                "   set.add( \"overlaps \" + $a.getSeq() + \":\" + $b.getSeq() );\n" +
+                "end\n" +
+                "rule NotDuring when\n" +
+                "   $a : StockTick( company == \"A\" )\n" +
+                "   not StockTick( company == \"B\", this during $a )\n" +
+                "then\n" +
+                "   set.add( \"not during \" + $a.getSeq() );\n" +
+                "end\n";
+
+        KnowledgeBase kbase = loadKnowledgeBaseFromString(str);
+        StatefulKnowledgeSession ksession = kbase.newStatefulKnowledgeSession();
+
+        RuleTerminalNode rtn = (RuleTerminalNode) ( (KnowledgeBaseImpl) kbase ).getReteooBuilder().getTerminalNodes( "After" )[0];
+        BetaMemory bm = (BetaMemory) ( (InternalWorkingMemory) ksession ).getNodeMemory( (JoinNode) rtn.getLeftTupleSource() );
+        assertTrue( bm.getRightTupleMemory() instanceof RightTupleIndexTemporalTree );
+
+        // nots and exists need a full iteration to find a new blocker, so they aren't indexed
+        RuleTerminalNode notRtn = (RuleTerminalNode) ( (KnowledgeBaseImpl) kbase ).getReteooBuilder().getTerminalNodes( "NotDuring" )[0];
+        BetaMemory notBm = (BetaMemory) ( (InternalWorkingMemory) ksession ).getNodeMemory( (NotNode) notRtn.getLeftTupleSource() );
+        assertFalse( notBm.getRightTupleMemory() instanceof RightTupleIndexTemporalTree );
+
+        Set<String> set = new HashSet<String>();
+        ksession.setGlobal( "set", set );
+
+        Random random = new Random( 0 );
+        List<StockTick> as = new ArrayList<StockTick>();
+        List<FactHandle> aHandles = new ArrayList<FactHandle>();
+        List<StockTick> bs = new ArrayList<StockTick>();
+        List<FactHandle> bHandles = new ArrayList<FactHandle>();
+        for ( int i = 0; i < 50; i++ ) {
+            StockTick a = new StockTick( i, "A", 0, random.nextInt( 500 ), random.nextInt( 40 ) );
+            as.add( a );
+            aHandles.add( ksession.insert( a ) );
+            StockTick b = new StockTick( 100 + i, "B", 0, random.nextInt( 500 ), random.nextInt( 40 ) );
+            bs.add( b );
+            bHandles.add( ksession.insert( b ) );
+        }
+        ksession.fireAllRules();
+        assertEquals( getTemporalMatches( as, bs ), set );
+
+        // updating the left events has to find the same matches again
+        Set<LeftTuple> children = getChildren( bm.getLeftTupleMemory() );
+        assertFalse( children.isEmpty() );
+        set.clear();
+        for ( int i = 0; i < as.size(); i++ ) {
+            ksession.update( aHandles.get( i ), as.get( i ) );
+        }
+        ksession.fireAllRules();
+        assertEquals( getTemporalMatches( as, bs ), set );
+        // the matches still in range are updated, instead of being deleted and created again
+        assertEquals( children, getChildren( bm.getLeftTupleMemory() ) );
+
+        // as well as after removing the oldest right events
+        for ( int i = bs.size() - 1; i >= 0; i-- ) {
+            if ( bs.get( i ).getTime() < 250 ) {
+                ksession.delete( bHandles.get( i ) );
+                bs.remove( i );
+            }
+        }
+        set.clear();
+        for ( int i = 0; i < as.size(); i++ ) {
+            ksession.update( aHandles.get( i ), as.get( i ) );
+        }
+        ksession.fireAllRules();
+        assertEquals( getTemporalMatches( as, bs ), set );
+
+        ksession.dispose();
+    }
+
+    private static Set<LeftTuple> getChildren( LeftTupleMemory ltm ) {
+        Set<LeftTuple> children = Collections.newSetFromMap( new IdentityHashMap<LeftTuple, Boolean>() );
+        org.drools.core.util.Iterator it = ltm.iterator();
+        for ( LeftTuple leftTuple = (LeftTuple) it.next(); leftTuple != null; leftTuple = (LeftTuple) it.next() ) {
+            for ( LeftTuple child = leftTuple.getFirstChild(); child != null; child = child.getLeftParentNext() ) {
+                children.add( child );
+            }
+        }
+        return children;
+    }
+
+    private static Set<String> getTemporalMatches( List<StockTick> as, List<StockTick> bs ) {
+        Set<String> matches = new HashSet<String>();
+        for ( StockTick a : as ) {
+            long aStart = a.getTime();
+            long aEnd = a.getTime() + a.getDuration();
+            boolean during = false;
+            for ( StockTick b : bs ) {
+                long bStart = b.getTime();
+                long bEnd = b.getTime() + b.getDuration();
+                if ( bStart - aEnd >= 5 && bStart - aEnd <= 20 ) {
+                    matches.add( "after " + a.getSeq() + ":" + b.getSeq() );
+                }
+                if ( aStart - bEnd >= 5 && aStart - bEnd <= 20 ) {
+                    matches.add( "before " + a.getSeq() + ":" + b.getSeq() );
+                }
+                if ( bStart < aStart && bEnd < aEnd && bEnd - aStart >= 1 ) {
+                    matches.add( "overlaps " + a.getSeq() + ":" + b.getSeq() );
+                }
+                during |= bStart - aStart >= 1 && aEnd - bEnd >= 1;
+            }
+            if ( !during ) {
+                matches.add( "not during " + a.getSeq() );
+            }
+        }
+        return matches;
+    }
+
+    @Test(timeout=10000)
+    public void testInvertedIndex() {
+        String str = "import org.drools.compiler.*;\n" +
+                "rule Contains when\n" +
+                "   $c : Cheese( )\n" +
+                "   $s : Cheesery( cheeses contains $c )\n" +
+                "then end\n" +
+                "rule MemberOf when\n" +
+                "   $s : Cheesery( )\n" +
+                "   $c : Cheese( this memberOf $s.cheeses )\n" +
+                "then end\n";
+
+        KnowledgeBase kbase = loadKnowledgeBaseFromString(str);
+        StatefulKnowledgeSession ksession = kbase.newStatefulKnowledgeSession();
+
+        // the cheeses are mutable, so they can't be hashed as elements of the contains collections
+        assertFalse( getRightTupleMemory( kbase, ksession, "Contains" ) instanceof RightTupleInvertedIndex );
+        assertTrue( getRightTupleMemory( kbase, ksession, "MemberOf" ) instanceof RightTupleInvertedIndex );
+
+        Cheese stilton = new Cheese( "stilton", 10 );
+        Cheese brie = new Cheese( "brie", 10 );
+        Cheese cheddar = new Cheese( "cheddar", 10 );
+        Cheesery cheesery1 = new Cheesery();
+        cheesery1.addCheese( stilton );
+        cheesery1.addCheese( brie );
+        Cheesery cheesery2 = new Cheesery();
+        cheesery2.addCheese( brie );
+
+        ksession.insert( stilton );
+        FactHandle brieHandle = ksession.insert( brie );
+        ksession.insert( cheddar );
+        FactHandle cheesery1Handle = ksession.insert( cheesery1 );
+        FactHandle cheesery2Handle = ksession.insert( cheesery2 );
+        ksession.insert( new Cheesery() );
+
+        // stilton:1, brie:1 and brie:2 for both rules
+        assertEquals( 6, ksession.fireAllRules() );
+
+        // the index has to drop brie:2 even though the collection has been changed in place
+        cheesery2.removeCheese( brie );
+        cheesery2.addCheese( cheddar );
+        ksession.update( cheesery2Handle, cheesery2 );
+        assertEquals( 2, ksession.fireAllRules() );
+
+        ksession.update( brieHandle, brie );
+        assertEquals( 2, ksession.fireAllRules() );
+
+        ksession.delete( cheesery1Handle );
+        ksession.update( brieHandle, brie );
+        assertEquals( 0, ksession.fireAllRules() );
+
+        ksession.dispose();
+    }
+
+    @Test
+    public void testInvertedIndexWithModifiedKeys() {
+        String str = "import org.drools.compiler.*;\n" +
+                "rule Contains when\n" +
+                "   $c : Cheese( $type : type )\n" +
+                "   $p : Primitives( stringArray contains $type )\n" +
+                "then end\n" +
+                "rule MemberOf when\n" +
+                "   $s : Cheesery( )\n" +
+                "   $c : Cheese( this memberOf $s.cheeses )\n" +
+                "then end\n";
+
+        KnowledgeBase kbase = loadKnowledgeBaseFromString(str);
+        StatefulKnowledgeSession ksession = kbase.newStatefulKnowledgeSession();
+
+        assertTrue( getRightTupleMemory( kbase, ksession, "Contains" ) instanceof RightTupleInvertedIndex );
+        assertTrue( getRightTupleMemory( kbase, ksession, "MemberOf" ) instanceof RightTupleInvertedIndex );
+
+        Cheese stilton = new Cheese( "stilton", 10 );
+        Cheese brie = new Cheese( "brie", 10 );
+        Cheesery cheesery = new Cheesery();
+        cheesery.addCheese( stilton );
+        cheesery.addCheese( brie );
+        Primitives primitives = new Primitives();
+        primitives.setStringArray( new String[] { "stilton" } );
+
+        ksession.insert( stilton );
+        FactHandle brieHandle = ksession.insert( brie );
+        FactHandle cheeseryHandle = ksession.insert( cheesery );
+        FactHandle primitivesHandle = ksession.insert( primitives );
+
+        // stilton for Contains, stilton and brie for MemberOf
+        assertEquals( 3, ksession.fireAllRules() );
+
+        // the price is part of the hash code of the brie, which is the key of its memberOf right tuple
+        brie.setPrice( 20 );
+        ksession.update( brieHandle, brie );
+        assertEquals( 1, ksession.fireAllRules() );
+
+        // the retracted brie must not be found anymore under its new hash code
+        ksession.delete( brieHandle );
+        ksession.update( cheeseryHandle, cheesery );
+        assertEquals( 1, ksession.fireAllRules() );
+
+        brieHandle = ksession.insert( brie );
+        assertEquals( 1, ksession.fireAllRules() );
+
+        ksession.update( cheeseryHandle, cheesery );
+        assertEquals( 2, ksession.fireAllRules() );
+
+        primitives.setStringArray( new String[] { "stilton", "brie" } );
+        ksession.update( primitivesHandle, primitives );
+        assertEquals( 2, ksession.fireAllRules() );
+
+        ksession.delete( brieHandle );
+        ksession.update( primitivesHandle, primitives );
+        assertEquals( 1, ksession.fireAllRules() );
+
+        ksession.dispose();
+    }
+
+    private RightTupleMemory getRightTupleMemory(KnowledgeBase kbase, StatefulKnowledgeSession ksession, String ruleName) {
+        RuleTerminalNode rtn = (RuleTerminalNode) ( (KnowledgeBaseImpl) kbase ).getReteooBuilder().getTerminalNodes( ruleName )[0];
+        BetaMemory bm = (BetaMemory) ( (InternalWorkingMemory) ksession ).getNodeMemory( (JoinNode) rtn.getLeftTupleSource() );
+        return bm.getRightTupleMemory();
+    }
 }
@@ -6,6 +6,8 @@ import org.drools.compiler.compiler.io.File;
 import org.drools.compiler.compiler.io.memory.MemoryFileSystem;
 import org.drools.compiler.kie.builder.impl.InternalKieModule;
 import org.drools.compiler.kie.builder.impl.KieBuilderImpl;
+import org.drools.compiler.rule.builder.dialect.java.PersistentClassFileCache;
+import org.drools.core.util.FileManager;
 import org.junit.Test;
 import org.kie.api.KieBase;
 import org.kie.api.KieServices;
@@ -20,6 +22,10 @@ import org.kie.api.definition.type.FactType;
 import org.kie.api.io.Resource;
 import org.kie.api.runtime.KieContainer;
 import org.kie.api.runtime.KieSession;
+import org.kie.internal.builder.conf.DumpDirOption;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This is a sample class to launch a rule.
@@ -176,6 +182,113 @@ public class KieCompilationCacheTest extends CommonTestMethodBase {
         assertEquals( 1, ksession.fireAllRules() );
     }
 
+    @Test
+    public void testPersistentClassFileCache() throws Exception {
+        String drl1 = "package org.drools.compiler.integrationtests\n" +
+                "import " + Message.class.getCanonicalName() + "\n" +
+                "rule R1 when\n" +
+                "   $m : Message( message == \"Hello World\" )\n" +
+                "then\n" +
+                "    $m.setMessage( \"Goodbye\" );\n" +
+                "end\n";
+
+        String drl2 = "package org.drools.compiler.integrationtests\n" +
+                "import " + Message.class.getCanonicalName() + "\n" +
+                "rule R2 when\n" +
+                "   $m : Message( message == \"Hi Universe\" )\n" +
+                "then\n" +
+                "    $m.setMessage( \"Bye\" );\n" +
+                "end\n";
+
+        FileManager fileManager = new FileManager().setUp();
+        try {
+            java.io.File cacheDir = fileManager.newFile( "compilation-cache" );
+            KieServices ks = KieServices.Factory.get();
+
+            // the dump directory receives the sources actually passed to the java compiler
+            java.io.File dumpDir1 = fileManager.newFile( "dump1" );
+            KieFileSystem kfs = ks.newKieFileSystem()
+                    .write( "src/main/resources/r1.drl", drl1 )
+                    .write( "src/main/resources/r2.drl", drl2 )
+                    .writeKModuleXML( createCachedKieModule( ks, cacheDir, dumpDir1 ).toXML() );
+            assertEquals( 0, ks.newKieBuilder( kfs ).buildAll().getResults().getMessages().size() );
+
+            int entries = countCacheEntries( cacheDir );
+            assertTrue( entries > 0 );
+            assertFalse( listDumpedSources( dumpDir1 ).isEmpty() );
+
+            // an unchanged build is fully served by the cache, without compiling anything
+            java.io.File dumpDir2 = fileManager.newFile( "dump2" );
+            kfs.writeKModuleXML( createCachedKieModule( ks, cacheDir, dumpDir2 ).toXML() );
+            assertEquals( 0, ks.newKieBuilder( kfs ).buildAll().getResults().getMessages().size() );
+            assertTrue( listDumpedSources( dumpDir2 ).isEmpty() );
+            assertEquals( entries, countCacheEntries( cacheDir ) );
+
+            KieSession ksession = ks.newKieContainer( ks.getRepository().getDefaultReleaseId() ).newKieSession();
+            Message message = new Message( "Hello World" );
+            ksession.insert( message );
+            assertEquals( 1, ksession.fireAllRules() );
+            assertEquals( "Goodbye", message.getMessage() );
+            ksession.dispose();
+
+            // changing a rule only recompiles the classes generated for it
+            java.io.File dumpDir3 = fileManager.newFile( "dump3" );
+            kfs.write( "src/main/resources/r1.drl", drl1.replace( "Goodbye", "Farewell" ) )
+               .writeKModuleXML( createCachedKieModule( ks, cacheDir, dumpDir3 ).toXML() );
+            assertEquals( 0, ks.newKieBuilder( kfs ).buildAll().getResults().getMessages().size() );
+            List<String> recompiled = listDumpedSources( dumpDir3 );
+            assertFalse( recompiled.isEmpty() );
+            for ( String source : recompiled ) {
+                assertTrue( source, source.contains( "R1" ) );
+            }
+            assertTrue( countCacheEntries( cacheDir ) > entries );
+
+            ksession = ks.newKieContainer( ks.getRepository().getDefaultReleaseId() ).newKieSession();
+            message = new Message( "Hello World" );
+            ksession.insert( message );
+            assertEquals( 1, ksession.fireAllRules() );
+            assertEquals( "Farewell", message.getMessage() );
+            ksession.dispose();
+        } finally {
+            fileManager.tearDown();
+        }
+    }
+
+    private KieModuleModel createCachedKieModule(KieServices ks, java.io.File cacheDir, java.io.File dumpDir) {
+        dumpDir.mkdirs();
+        KieModuleModel kproj = ks.newKieModuleModel();
+        kproj.setConfigurationProperty( PersistentClassFileCache.PROPERTY_NAME, cacheDir.getAbsolutePath() );
+        kproj.setConfigurationProperty( DumpDirOption.PROPERTY_NAME, dumpDir.getAbsolutePath() );
+        return kproj;
+    }
+
+    private List<String> listDumpedSources(java.io.File dir) {
+        List<String> sources = new ArrayList<String>();
+        java.io.File[] files = dir.listFiles();
+        if ( files != null ) {
+            for ( java.io.File file : files ) {
+                if ( file.isDirectory() ) {
+                    sources.addAll( listDumpedSources( file ) );
+                } else if ( file.getName().endsWith( ".java" ) ) {
+                    sources.add( file.getName() );
+                }
+            }
+        }
+        return sources;
+    }
+
+    private int countCacheEntries(java.io.File dir) {
+        int count = 0;
+        for ( java.io.File file : dir.listFiles() ) {
+            if ( file.isDirectory() ) {
+                count += countCacheEntries( file );
+            } else if ( file.getName().endsWith( ".class.cache" ) ) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     private KieModuleModel createKieProjectWithPackagesAnd2KieBases(KieServices ks) {
         KieModuleModel kproj = ks.newKieModuleModel();
 
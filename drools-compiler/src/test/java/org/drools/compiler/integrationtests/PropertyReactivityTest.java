@@ -3,6 +3,7 @@ package org.drools.compiler.integrationtests;
 import org.drools.compiler.Address;
 import org.drools.compiler.CommonTestMethodBase;
 import org.drools.compiler.Person;
+import org.drools.core.SessionConfiguration;
 import org.drools.core.factmodel.traits.Traitable;
 import org.drools.core.io.impl.ByteArrayResource;
 import org.junit.Test;
@@ -10,7 +11,10 @@ import org.kie.api.definition.type.Modifies;
 import org.kie.api.definition.type.PropertyReactive;
 import org.kie.api.io.ResourceType;
 import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionConfiguration;
+import org.kie.api.runtime.rule.FactHandle;
 import org.kie.internal.KnowledgeBase;
+import org.kie.internal.KnowledgeBaseFactory;
 import org.kie.internal.builder.KnowledgeBuilder;
 import org.kie.internal.builder.KnowledgeBuilderFactory;
 import org.kie.internal.runtime.StatefulKnowledgeSession;
@@ -1333,4 +1337,47 @@ public class PropertyReactivityTest extends CommonTestMethodBase {
         ksession.fireAllRules();
         assertEquals(1, list.size());
     }
+
+    @Test(timeout = 10000L)
+    public void testUpdateWithChangeDetection() {
+        String str =
+                "package org.drools.test;\n" +
+                "import " + Klass2.class.getCanonicalName() + ";\n" +
+                "global java.util.List list;\n" +
+                "rule R when\n" +
+                "  $k2 : Klass2( b == 0 )\n" +
+                "then\n" +
+                "  list.add( $k2.getId() );\n" +
+                "end\n";
+
+        KnowledgeBase kbase = loadKnowledgeBaseFromString(str);
+        KieSessionConfiguration conf = KnowledgeBaseFactory.newKnowledgeSessionConfiguration();
+        conf.setProperty(SessionConfiguration.UPDATE_CHANGE_DETECTION_PROPERTY, "true");
+        StatefulKnowledgeSession ksession = kbase.newStatefulKnowledgeSession(conf, null);
+
+        List<String> list = new ArrayList<String>();
+        ksession.setGlobal("list", list);
+
+        Klass2 k2 = new Klass2(0, 0, 0, 0);
+        FactHandle fh = ksession.insert(k2);
+        assertEquals(1, ksession.fireAllRules());
+
+        // only c changed, the update doesn't reach the pattern watching b
+        k2.setC(1);
+        ksession.update(fh, k2);
+        assertEquals(0, ksession.fireAllRules());
+
+        // nothing changed
+        ksession.update(fh, k2);
+        assertEquals(0, ksession.fireAllRules());
+
+        k2.setB(1);
+        ksession.update(fh, k2);
+        assertEquals(0, ksession.fireAllRules());
+
+        k2.setB(0);
+        ksession.update(fh, k2);
+        assertEquals(1, ksession.fireAllRules());
+        assertEquals(2, list.size());
+    }
 }
@@ -2,12 +2,15 @@ package org.drools.compiler.integrationtests;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.List;
 
 import org.drools.core.base.ClassObjectType;
+import org.drools.core.common.NodeMemoriesStats;
 import org.drools.core.impl.KnowledgeBaseImpl;
 import org.drools.core.impl.StatefulKnowledgeSessionImpl;
 import org.drools.core.reteoo.*;
@@ -186,6 +189,82 @@ public class SegmentCreationTest {
         assertEquals( rtn3, cSmem.getTipNode() ); // note rtn3 is in the same segment as C
     }       
   
+    @Test
+    public void testWarmUpMultiSharedPattern() throws Exception {
+        KnowledgeBase kbase = buildKnowledgeBase( "   A() \n",
+                                                  "   A() B() \n",
+                                                  "   A() B() C() \n");
+
+        StatefulKnowledgeSessionImpl wm = ((StatefulKnowledgeSessionImpl)kbase.newStatefulKnowledgeSession());
+
+        ObjectTypeNode aotn = getObjectTypeNode(kbase, LinkingTest.A.class );
+
+        LeftInputAdapterNode liaNode = (LeftInputAdapterNode) aotn.getSinkPropagator().getSinks()[0];
+        RuleTerminalNode rtn1 = ( RuleTerminalNode) liaNode.getSinkPropagator().getSinks()[0];
+        JoinNode bNode = ( JoinNode ) liaNode.getSinkPropagator().getSinks()[1];
+        RuleTerminalNode rtn2 = ( RuleTerminalNode) bNode.getSinkPropagator().getSinks()[0];
+        JoinNode cNode = ( JoinNode ) bNode.getSinkPropagator().getSinks()[1];
+        RuleTerminalNode rtn3 = ( RuleTerminalNode) cNode.getSinkPropagator().getSinks()[0];
+
+        // all the segments are created without inserting any fact
+        wm.warmUp();
+
+        LiaNodeMemory liaMem = ( LiaNodeMemory ) wm.getNodeMemory( liaNode );
+        SegmentMemory smem = liaMem.getSegmentMemory();
+        assertEquals( liaNode, smem.getRootNode() );
+        assertEquals( liaNode, smem.getTipNode() );
+
+        SegmentMemory rtnSmem1 = smem.getFirst();
+        assertEquals( rtn1, rtnSmem1.getRootNode() );
+
+        SegmentMemory bSmem = rtnSmem1.getNext();
+        assertEquals( bNode, bSmem.getRootNode() );
+
+        // the child segments are initialised as well
+        SegmentMemory rtnSmem2 = bSmem.getFirst();
+        assertEquals( rtn2, rtnSmem2.getRootNode() );
+
+        SegmentMemory cSmem = rtnSmem2.getNext();
+        assertEquals( cNode, cSmem.getRootNode() );
+        assertEquals( rtn3, cSmem.getTipNode() );
+
+        PathMemory pmem3 = ( PathMemory ) wm.getNodeMemory( rtn3 );
+        for ( SegmentMemory pathSmem : pmem3.getSegmentMemories() ) {
+            assertNotNull( pathSmem );
+        }
+
+        NodeMemoriesStats stats = wm.getNodeMemoriesStats();
+        assertEquals( 5, stats.getSegmentMemories() );
+        assertEquals( 3, stats.getPathMemories() );
+        assertTrue( stats.getEstimatedBytes() > 0 );
+
+        // the facts are propagated through the segments already created
+        wm.insert( new LinkingTest.A() );
+        wm.insert( new LinkingTest.B() );
+        wm.insert( new LinkingTest.C() );
+        wm.fireAllRules();
+
+        assertSame( smem, liaMem.getSegmentMemory() );
+        assertSame( cSmem, wm.getNodeMemory( cNode ).getSegmentMemory() );
+        assertEquals( 5, wm.getNodeMemoriesStats().getSegmentMemories() );
+    }
+
+    @Test
+    public void testWarmUpAgendaGroup() throws Exception {
+        KnowledgeBase kbase = buildKnowledgeBase( "   A() B() \n" );
+
+        StatefulKnowledgeSessionImpl wm = ((StatefulKnowledgeSessionImpl)kbase.newStatefulKnowledgeSession());
+
+        ObjectTypeNode aotn = getObjectTypeNode(kbase, LinkingTest.A.class );
+        LeftInputAdapterNode liaNode = (LeftInputAdapterNode) aotn.getSinkPropagator().getSinks()[0];
+
+        wm.warmUpAgendaGroup( "other" );
+        assertNull( wm.getNodeMemory( liaNode ).getSegmentMemory() );
+
+        wm.warmUpAgendaGroup( "MAIN" );
+        assertNotNull( wm.getNodeMemory( liaNode ).getSegmentMemory() );
+    }
+
     @Test
     public void testSubnetworkNoSharing() throws Exception {
         KnowledgeBase kbase = buildKnowledgeBase( " A()  not ( B() and C() ) \n" );
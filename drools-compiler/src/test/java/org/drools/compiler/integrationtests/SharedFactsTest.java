@@ -0,0 +1,135 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.compiler.integrationtests;
+
+import org.drools.compiler.Cheese;
+import org.drools.compiler.CommonTestMethodBase;
+import org.drools.compiler.Person;
+import org.drools.core.common.SharedFacts;
+import org.drools.core.impl.InternalKnowledgeBase;
+import org.junit.Test;
+import org.kie.internal.KnowledgeBase;
+import org.kie.internal.runtime.StatefulKnowledgeSession;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SharedFactsTest extends CommonTestMethodBase {
+
+    private static final String DRL =
+            "import org.drools.compiler.*;\n" +
+            "global org.drools.core.common.SharedFacts catalog\n" +
+            "global java.util.List list\n" +
+            "rule R when\n" +
+            "   $p : Person( $likes : likes )\n" +
+            "   $c : Cheese( price > 5 ) from catalog.lookup( \"type\", $likes )\n" +
+            "then\n" +
+            "   list.add( $p.getName() + \":\" + $c.getPrice() );\n" +
+            "end\n";
+
+    @Test
+    public void testSharedFactsAcrossSessions() {
+        KnowledgeBase kbase = loadKnowledgeBaseFromString( DRL );
+
+        // a session created before the shared facts are registered gets them bound as well
+        StatefulKnowledgeSession ksession1 = kbase.newStatefulKnowledgeSession();
+        SharedFacts catalog = ( (InternalKnowledgeBase) kbase ).setSharedFacts( "catalog", Arrays.asList( new Cheese( "stilton", 10 ),
+                                                                                                          new Cheese( "brie", 3 ),
+                                                                                                          new Cheese( "stilton", 4 ),
+                                                                                                          new Cheese( "cheddar", 8 ) ) );
+        StatefulKnowledgeSession ksession2 = kbase.newStatefulKnowledgeSession();
+
+        assertSame( catalog, ksession1.getGlobal( "catalog" ) );
+        assertSame( catalog, ksession2.getGlobal( "catalog" ) );
+
+        List<String> list1 = new ArrayList<String>();
+        ksession1.setGlobal( "list", list1 );
+        List<String> list2 = new ArrayList<String>();
+        ksession2.setGlobal( "list", list2 );
+
+        ksession1.insert( new Person( "mark", "stilton" ) );
+        ksession1.fireAllRules();
+        assertEquals( Arrays.asList( "mark:10" ), list1 );
+
+        ksession2.insert( new Person( "edson", "cheddar" ) );
+        ksession2.fireAllRules();
+        assertEquals( Arrays.asList( "edson:8" ), list2 );
+
+        // the shared facts are not inserted in the sessions
+        assertEquals( 1, ksession1.getFactCount() );
+        assertEquals( 1, ksession2.getFactCount() );
+
+        // replacing the facts keeps the same instance, and the new left tuples see the new snapshot
+        assertSame( catalog, ( (InternalKnowledgeBase) kbase ).setSharedFacts( "catalog", Arrays.asList( new Cheese( "stilton", 20 ) ) ) );
+        assertEquals( 1, catalog.size() );
+
+        list1.clear();
+        ksession1.insert( new Person( "bob", "stilton" ) );
+        ksession1.fireAllRules();
+        assertEquals( Arrays.asList( "bob:20" ), list1 );
+
+        list2.clear();
+        ksession2.insert( new Person( "mario", "cheddar" ) );
+        ksession2.fireAllRules();
+        assertTrue( list2.isEmpty() );
+
+        ksession1.dispose();
+        ksession2.dispose();
+    }
+
+    @Test
+    public void testLookupCoercesToPropertyType() {
+        KnowledgeBase kbase = loadKnowledgeBaseFromString( DRL );
+        Cheese stilton = new Cheese( "stilton", 10 );
+        SharedFacts catalog = ( (InternalKnowledgeBase) kbase ).setSharedFacts( "catalog", Arrays.asList( stilton,
+                                                                                                          new Cheese( "brie", 3 ) ) );
+
+        // price is an int property
+        assertEquals( Arrays.asList( stilton ), catalog.lookup( "price", 10 ) );
+        assertEquals( Arrays.asList( stilton ), catalog.lookup( "price", 10L ) );
+        assertEquals( Arrays.asList( stilton ), catalog.lookup( "price", 10.0 ) );
+        assertTrue( catalog.lookup( "price", 10.5 ).isEmpty() );
+        assertTrue( catalog.lookup( "price", 10L + Integer.MAX_VALUE * 2L + 2 ).isEmpty() );
+
+        // facts without the property are not indexed
+        assertTrue( catalog.lookup( "likes", "stilton" ).isEmpty() );
+    }
+
+    @Test
+    public void testRemovedSharedFactsAreReplacedInLiveSessions() {
+        KnowledgeBase kbase = loadKnowledgeBaseFromString( DRL );
+        InternalKnowledgeBase internalKbase = (InternalKnowledgeBase) kbase;
+        SharedFacts catalog = internalKbase.setSharedFacts( "catalog", Arrays.asList( new Cheese( "stilton", 10 ) ) );
+        StatefulKnowledgeSession ksession = kbase.newStatefulKnowledgeSession();
+        assertSame( catalog, ksession.getGlobal( "catalog" ) );
+
+        // the live session keeps the removed instance, a global can't be unset
+        assertSame( catalog, internalKbase.removeSharedFacts( "catalog" ) );
+        assertSame( catalog, ksession.getGlobal( "catalog" ) );
+        StatefulKnowledgeSession newSession = kbase.newStatefulKnowledgeSession();
+        assertNull( newSession.getGlobal( "catalog" ) );
+        newSession.dispose();
+
+        // until shared facts with the same name are registered again
+        SharedFacts newCatalog = internalKbase.setSharedFacts( "catalog", Arrays.asList( new Cheese( "stilton", 20 ) ) );
+        assertNotSame( catalog, newCatalog );
+        assertSame( newCatalog, ksession.getGlobal( "catalog" ) );
+
+        ksession.dispose();
+    }
+}
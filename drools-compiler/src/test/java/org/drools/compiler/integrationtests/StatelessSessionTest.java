@@ -10,14 +10,20 @@ import java.util.Set;
 import org.drools.compiler.Cheese;
 import org.drools.compiler.Cheesery;
 import org.drools.compiler.CommonTestMethodBase;
+import org.drools.compiler.Person;
+import org.drools.core.SessionConfiguration;
 import org.drools.core.command.impl.GenericCommand;
 import org.drools.core.command.runtime.BatchExecutionCommandImpl;
+import org.drools.core.impl.StatefulKnowledgeSessionImpl;
+import org.drools.core.impl.StatelessKnowledgeSessionImpl;
 import org.junit.Test;
 import org.kie.internal.KnowledgeBase;
 import org.kie.internal.KnowledgeBaseFactory;
 import org.kie.internal.builder.KnowledgeBuilder;
 import org.kie.internal.builder.KnowledgeBuilderFactory;
 import org.kie.api.command.Command;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
 import org.kie.internal.command.CommandFactory;
 import org.kie.internal.definition.KnowledgePackage;
 import org.kie.internal.io.ResourceFactory;
@@ -26,6 +32,7 @@ import org.kie.api.io.Resource;
 import org.kie.api.io.ResourceType;
 import org.kie.api.runtime.Channel;
 import org.kie.api.runtime.ExecutionResults;
+import org.kie.api.runtime.KieSessionConfiguration;
 import org.kie.api.runtime.StatelessKieSession;
 import org.mockito.Mockito;
 
@@ -256,6 +263,142 @@ public class StatelessSessionTest extends CommonTestMethodBase {
         assertNull( ksession.getChannels().get( "x" ) );
     }
 
+    @Test
+    public void testReusedSessionIsReset() throws Exception {
+        String str =
+                "package org.drools.compiler\n" +
+                "global java.util.List list\n" +
+                "rule R when\n" +
+                "    Cheese( $t : type )\n" +
+                "    Person( likes == $t, $n : name )\n" +
+                "then\n" +
+                "    list.add( $n + \":\" + $t );\n" +
+                "end\n" +
+                "rule N when\n" +
+                "    not Person()\n" +
+                "then\n" +
+                "    list.add( \"nobody\" );\n" +
+                "end\n";
+
+        StatelessKnowledgeSession ksession = getReusingSession( str );
+        List<String> results = new ArrayList<String>();
+        ksession.setGlobal( "list", results );
+
+        ksession.execute( Arrays.asList( new Cheese( "stilton", 5 ), new Person( "mark", "stilton" ) ) );
+        assertEquals( Arrays.asList( "mark:stilton" ), results );
+
+        results.clear();
+        ksession.execute( new Cheese( "brie", 7 ) );
+        assertEquals( Arrays.asList( "nobody" ), results );
+
+        // nothing is left from the previous executions
+        results.clear();
+        ksession.execute( new Person( "mario", "brie" ) );
+        assertTrue( results.isEmpty() );
+
+        results.clear();
+        ksession.execute( Arrays.asList( new Cheese( "stilton", 5 ), new Person( "mark", "stilton" ) ) );
+        assertEquals( Arrays.asList( "mark:stilton" ), results );
+    }
+
+    @Test
+    public void testExecuteAllWithReusedSessions() throws Exception {
+        String str =
+                "package org.drools.compiler\n" +
+                "rule R when\n" +
+                "    Cheese( $t : type )\n" +
+                "    Person( likes == $t )\n" +
+                "then\n" +
+                "end\n";
+
+        StatelessKnowledgeSessionImpl ksession = (StatelessKnowledgeSessionImpl) getReusingSession( str );
+
+        List<Command<ExecutionResults>> commands = new ArrayList<Command<ExecutionResults>>();
+        for ( int i = 0; i < 200; i++ ) {
+            List<Command> batch = new ArrayList<Command>();
+            batch.add( CommandFactory.newInsert( new Cheese( "stilton", i ) ) );
+            for ( int j = 0; j < i % 5; j++ ) {
+                batch.add( CommandFactory.newInsert( new Person( "p" + j, "stilton" ) ) );
+            }
+            batch.add( CommandFactory.newFireAllRules( "fired" ) );
+            commands.add( (Command<ExecutionResults>) CommandFactory.newBatchExecution( batch ) );
+        }
+
+        List<ExecutionResults> results = ksession.executeAll( commands );
+        assertEquals( 200, results.size() );
+        for ( int i = 0; i < 200; i++ ) {
+            assertEquals( i % 5, results.get( i ).getValue( "fired" ) );
+        }
+    }
+
+    @Test
+    public void testReusedSessionListenersAndDispose() throws Exception {
+        String str =
+                "package org.drools.compiler\n" +
+                "import " + StatefulKnowledgeSessionImpl.class.getCanonicalName() + "\n" +
+                "global java.util.List counts\n" +
+                "global java.util.List sessions\n" +
+                "rule R when\n" +
+                "    String()\n" +
+                "then\n" +
+                "    StatefulKnowledgeSessionImpl session = (StatefulKnowledgeSessionImpl) drools.getWorkingMemory();\n" +
+                "    counts.add( session.getAgendaEventSupport().getEventListeners().size() + \":\" +\n" +
+                "                session.getRuleRuntimeEventSupport().getEventListeners().size() );\n" +
+                "    sessions.add( session );\n" +
+                "end\n";
+
+        StatelessKnowledgeSessionImpl ksession = (StatelessKnowledgeSessionImpl) getReusingSession( str );
+        List<String> counts = new ArrayList<String>();
+        List<StatefulKnowledgeSessionImpl> sessions = new ArrayList<StatefulKnowledgeSessionImpl>();
+        ksession.setGlobal( "counts", counts );
+        ksession.setGlobal( "sessions", sessions );
+
+        final int[] fired = new int[1];
+        ksession.addEventListener( new DefaultAgendaEventListener() {
+            public void afterMatchFired(AfterMatchFiredEvent event) {
+                fired[0]++;
+            }
+        } );
+
+        for ( int i = 0; i < 10; i++ ) {
+            ksession.execute( "x" );
+        }
+
+        // the same session is reused, and the listeners are not registered again by each execution
+        assertEquals( 10, fired[0] );
+        assertEquals( 10, counts.size() );
+        for ( int i = 0; i < 10; i++ ) {
+            assertEquals( counts.get( 0 ), counts.get( i ) );
+            assertSame( sessions.get( 0 ), sessions.get( i ) );
+        }
+        assertTrue( sessions.get( 0 ).isAlive() );
+
+        ksession.dispose();
+        assertFalse( sessions.get( 0 ).isAlive() );
+
+        // a new session is created by the following executions
+        ksession.execute( "x" );
+        assertEquals( 11, fired[0] );
+        assertEquals( counts.get( 0 ), counts.get( 10 ) );
+        assertNotSame( sessions.get( 0 ), sessions.get( 10 ) );
+        assertTrue( sessions.get( 10 ).isAlive() );
+
+        ksession.dispose();
+    }
+
+    private StatelessKnowledgeSession getReusingSession(String drl) {
+        KnowledgeBuilder kbuilder = KnowledgeBuilderFactory.newKnowledgeBuilder();
+        kbuilder.add( ResourceFactory.newByteArrayResource( drl.getBytes() ), ResourceType.DRL );
+        assertFalse( kbuilder.getErrors().toString(), kbuilder.hasErrors() );
+
+        KnowledgeBase kbase = KnowledgeBaseFactory.newKnowledgeBase();
+        kbase.addKnowledgePackages( kbuilder.getKnowledgePackages() );
+
+        KieSessionConfiguration conf = KnowledgeBaseFactory.newKnowledgeSessionConfiguration();
+        conf.setProperty( SessionConfiguration.STATELESS_SESSION_REUSE_PROPERTY, "true" );
+        return kbase.newStatelessKnowledgeSession( conf );
+    }
+
     private StatelessKnowledgeSession getSession2(String fileName) throws Exception {
         return getSession2( ResourceFactory.newClassPathResource( fileName, getClass() ) );
     }
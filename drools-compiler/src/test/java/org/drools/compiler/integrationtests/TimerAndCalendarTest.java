@@ -20,6 +20,7 @@ import org.kie.api.runtime.KieSession;
 import org.kie.api.runtime.KieSessionConfiguration;
 import org.kie.api.runtime.conf.ClockTypeOption;
 import org.kie.api.runtime.conf.TimedRuleExectionOption;
+import org.kie.api.runtime.conf.TimerJobFactoryOption;
 import org.kie.api.runtime.rule.EntryPoint;
 import org.kie.api.runtime.rule.FactHandle;
 import org.kie.api.time.Calendar;
@@ -271,6 +272,70 @@ public class TimerAndCalendarTest extends CommonTestMethodBase {
         assertEquals(3, list.size());
     }
 
+    @Test(timeout=10000)
+    public void testCoalescedIntervalTimer() throws Exception {
+        String str = "";
+        str += "package org.simple \n";
+        str += "global java.util.List list \n";
+        str += "rule xxx \n";
+        str += "  timer (int:10s 10s) ";
+        str += "when \n";
+        str += "  $i : Integer() \n";
+        str += "then \n";
+        str += "  list.add($i); \n";
+        str += "end  \n";
+
+        KieSessionConfiguration conf = KnowledgeBaseFactory.newKnowledgeSessionConfiguration();
+        conf.setOption( ClockTypeOption.get( "pseudo" ) );
+        conf.setOption( TimerJobFactoryOption.get( "trackable" ) );
+
+        KnowledgeBase kbase = loadKnowledgeBaseFromString(str );
+        KieSession ksession = createKnowledgeSession(kbase, conf);
+
+        List list = new ArrayList();
+        ksession.setGlobal("list", list);
+
+        PseudoClockScheduler timeService = ( PseudoClockScheduler ) ksession.<SessionClock>getSessionClock();
+
+        List<FactHandle> handles = new ArrayList<FactHandle>();
+        for ( int i = 0; i < 100; i++ ) {
+            handles.add( ksession.insert( i ) );
+        }
+        ksession.fireAllRules();
+        assertEquals(0, list.size());
+        // all the tuples have the same fire times, so they share a single job
+        assertEquals(1, timeService.getTimerJobInstances( ksession.getIdentifier() ).size());
+
+        timeService.advanceTime(10, TimeUnit.SECONDS);
+        ksession.fireAllRules();
+        assertEquals(100, list.size());
+
+        // a tuple scheduled later is aligned to a different fire time
+        timeService.advanceTime(5, TimeUnit.SECONDS);
+        ksession.insert( 100 );
+        ksession.fireAllRules();
+        assertEquals(2, timeService.getTimerJobInstances( ksession.getIdentifier() ).size());
+
+        ksession.delete( handles.get( 0 ) );
+        ksession.update( handles.get( 1 ), 1 );
+        ksession.fireAllRules();
+
+        timeService.advanceTime(5, TimeUnit.SECONDS);
+        ksession.fireAllRules();
+        assertEquals(199, list.size());
+
+        timeService.advanceTime(5, TimeUnit.SECONDS);
+        ksession.fireAllRules();
+        assertEquals(200, list.size());
+
+        for ( FactHandle fh : handles.subList( 1, handles.size() ) ) {
+            ksession.delete( fh );
+        }
+        ksession.fireAllRules();
+        // the shared job is cancelled together with the last one of its tuples
+        assertEquals(1, timeService.getTimerJobInstances( ksession.getIdentifier() ).size());
+    }
+
     @Test(timeout=10000)
     public void testIntervalTimerWithoutFire() throws Exception {
         String str =
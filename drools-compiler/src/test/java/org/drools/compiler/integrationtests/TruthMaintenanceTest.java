@@ -9,6 +9,7 @@ import org.drools.compiler.Sensor;
 import org.drools.compiler.YoungestFather;
 import org.drools.core.ClassObjectFilter;
 import org.drools.core.RuleBaseConfiguration;
+import org.drools.core.SessionConfiguration;
 import org.drools.core.common.EqualityKey;
 import org.drools.core.common.InternalAgenda;
 import org.drools.core.common.InternalFactHandle;
@@ -26,6 +27,7 @@ import org.kie.api.conf.EqualityBehaviorOption;
 import org.kie.api.event.rule.RuleRuntimeEventListener;
 import org.kie.api.io.ResourceType;
 import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionConfiguration;
 import org.kie.api.runtime.rule.ConsequenceException;
 import org.kie.api.runtime.rule.FactHandle;
 import org.kie.internal.KnowledgeBase;
@@ -1926,5 +1928,50 @@ public class TruthMaintenanceTest extends CommonTestMethodBase {
 
     }
 
-}
+    @Test(timeout=10000)
+    public void testBatchedJustificationRemoval() {
+        String droolsSource =
+                "package org.drools.tms.test; \n" +
+                "import " + Person.class.getCanonicalName() + ";\n" +
+                "rule \"Justify\"\n" +
+                "when\n" +
+                "    Person( $age : age )\n" +
+                "then\n" +
+                "    for ( int i = 0; i < $age; i++ ) {\n" +
+                "        insertLogical( new Integer( i ) );\n" +
+                "    }\n" +
+                "end\n";
+
+        KnowledgeBase kbase = loadKnowledgeBaseFromString( droolsSource );
+        KieSessionConfiguration conf = KnowledgeBaseFactory.newKnowledgeSessionConfiguration();
+        conf.setProperty( SessionConfiguration.TMS_BATCHING_PROPERTY, "true" );
+        StatefulKnowledgeSession session = kbase.newStatefulKnowledgeSession( conf, null );
 
+        Person mark = new Person( "mark", 1000 );
+        Person bob = new Person( "bob", 10 );
+        FactHandle markHandle = session.insert( mark );
+        FactHandle bobHandle = session.insert( bob );
+        session.fireAllRules();
+        assertEquals( 1000, session.getObjects( new ClassObjectFilter( Integer.class ) ).size() );
+
+        // the justifications cancelled after the rule fired again are resolved in a single batch
+        mark.setAge( 500 );
+        session.update( markHandle, mark );
+        session.fireAllRules();
+        assertEquals( 500, session.getObjects( new ClassObjectFilter( Integer.class ) ).size() );
+
+        // the first 10 integers are still justified by bob
+        session.delete( markHandle );
+        session.fireAllRules();
+        assertEquals( 10, session.getObjects( new ClassObjectFilter( Integer.class ) ).size() );
+
+        session.delete( bobHandle );
+        session.fireAllRules();
+        assertEquals( 0, session.getObjects( new ClassObjectFilter( Integer.class ) ).size() );
+
+        TruthMaintenanceSystem tms =  ((NamedEntryPoint)session.getEntryPoint(EntryPointId.DEFAULT.getEntryPointId()) ).getTruthMaintenanceSystem();
+        assertTrue(tms.getEqualityKeyMap().isEmpty());
+        assertEquals( 0, ((InternalAgenda) ((StatefulKnowledgeSessionImpl) session).getAgenda()).getTruthMaintenanceBatch().size() );
+    }
+
+}
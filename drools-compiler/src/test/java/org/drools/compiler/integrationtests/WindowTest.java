@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -23,6 +24,7 @@ import org.kie.api.runtime.KieSession;
 import org.kie.api.runtime.KieSessionConfiguration;
 import org.kie.api.runtime.conf.ClockTypeOption;
 import org.kie.api.runtime.rule.EntryPoint;
+import org.kie.api.runtime.rule.QueryResultsRow;
 import org.kie.internal.KnowledgeBaseFactory;
 
 public class WindowTest {
@@ -66,6 +68,13 @@ public class WindowTest {
             "        )\n" +
             "end\n" +
             "\n" +
+            "query \"TestLengthWindowMinMax\"\n" +
+            "    accumulate (\n" +
+            "        TestEvent ( name == \"minmax\", $id : id ) over window:length( 100 ) from entry-point EventStream;\n" +
+            "        $min : min( $id ), $max : max( $id )\n" +
+            "    )\n" +
+            "end\n" +
+            "\n" +
             "query \"TestDeclaredTimeWindow\"\n" +
             "    Number( $eventCount : longValue ) from\n" +
             "        accumulate ( \n" +
@@ -172,6 +181,24 @@ public class WindowTest {
         }
     }
 
+    @Test
+    public void testMinMaxOverLengthWindow() {
+        // min and max don't support reverse, so the expired events are removed from their panes
+        EntryPoint entryPoint = ksession.getEntryPoint("EventStream");
+        List<Integer> ids = new ArrayList<Integer>();
+
+        for (int i = 0; i < 1000; i++) {
+            int id = (i * 37) % 1000;
+            ids.add(id);
+            entryPoint.insert(new TestEvent(id, "minmax", null));
+
+            List<Integer> window = ids.subList(Math.max(0, ids.size() - 100), ids.size());
+            QueryResultsRow row = ksession.getQueryResults("TestLengthWindowMinMax").iterator().next();
+            assertEquals(Collections.min(window).doubleValue(), ((Number) row.get("$min")).doubleValue(), 0.0);
+            assertEquals(Collections.max(window).doubleValue(), ((Number) row.get("$max")).doubleValue(), 0.0);
+        }
+    }
+
     @Test
     public void testDeclaredTimeWindowInQuery() throws InterruptedException {
         final long results[] = new long[] { 1, 2, 3, 4, 5, 5, 5, 5, 5, 5 };
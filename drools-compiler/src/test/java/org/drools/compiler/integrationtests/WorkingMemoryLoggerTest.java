@@ -1,11 +1,19 @@
 package org.drools.compiler.integrationtests;
 
+import org.drools.compiler.Cheese;
 import org.drools.compiler.CommonTestMethodBase;
+import org.drools.core.audit.BinaryLogEventReader;
+import org.drools.core.audit.WorkingMemoryBinaryLogger;
 import org.drools.core.audit.WorkingMemoryFileLogger;
+import org.drools.core.audit.event.ActivationLogEvent;
+import org.drools.core.audit.event.LogEvent;
+import org.drools.core.audit.event.ObjectLogEvent;
 import org.junit.Test;
 import org.kie.internal.KnowledgeBase;
 import org.kie.internal.runtime.StatefulKnowledgeSession;
 
+import java.io.File;
+
 public class WorkingMemoryLoggerTest extends CommonTestMethodBase {
     private static final String LOG = "session";
 
@@ -21,4 +29,102 @@ public class WorkingMemoryLoggerTest extends CommonTestMethodBase {
         }
     }
 
+    @Test
+    public void testBinaryLogRoundTrip() throws Exception {
+        String drl = "import " + Cheese.class.getCanonicalName() + "\n" +
+                     "rule R1 when\n" +
+                     "    $c : Cheese( price > 10 )\n" +
+                     "then\n" +
+                     "end\n";
+        KnowledgeBase kbase = loadKnowledgeBaseFromString( drl );
+        StatefulKnowledgeSession session = createKnowledgeSession( kbase );
+
+        File dir = File.createTempFile( "drools-audit", "" );
+        dir.delete();
+        dir.mkdir();
+        String fileName = new File( dir, LOG ).getPath();
+
+        WorkingMemoryBinaryLogger logger = new WorkingMemoryBinaryLogger( session );
+        logger.setFileName( fileName );
+        // small files to force the log to roll
+        logger.setMaxFileSize( 4096 );
+        logger.setBufferSize( 16 );
+
+        for ( int i = 0; i < 100; i++ ) {
+            session.insert( new Cheese( "stilton", i ) );
+        }
+        session.fireAllRules();
+        session.dispose();
+        logger.stop();
+
+        assertTrue( new File( fileName + "1.bin" ).exists() );
+
+        int inserted = 0;
+        int fired = 0;
+        BinaryLogEventReader reader = new BinaryLogEventReader( fileName );
+        try {
+            for ( LogEvent event = reader.next(); event != null; event = reader.next() ) {
+                if ( event.getType() == LogEvent.INSERTED ) {
+                    ObjectLogEvent objectEvent = (ObjectLogEvent) event;
+                    assertTrue( objectEvent.getObjectToString().contains( "stilton" ) );
+                    inserted++;
+                } else if ( event.getType() == LogEvent.AFTER_ACTIVATION_FIRE ) {
+                    assertEquals( "R1", ( (ActivationLogEvent) event ).getRule() );
+                    fired++;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        assertEquals( 100, inserted );
+        assertEquals( 89, fired );
+
+        for ( File file : dir.listFiles() ) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    @Test(timeout = 10000)
+    public void testBinaryLoggerIgnoresEventsAfterStop() throws Exception {
+        KnowledgeBase kbase = loadKnowledgeBase( "empty.drl" );
+        StatefulKnowledgeSession session = createKnowledgeSession( kbase );
+
+        File dir = File.createTempFile( "drools-audit", "" );
+        dir.delete();
+        dir.mkdir();
+        String fileName = new File( dir, LOG ).getPath();
+
+        WorkingMemoryBinaryLogger logger = new WorkingMemoryBinaryLogger( session );
+        logger.setFileName( fileName );
+        logger.setBufferSize( 2 );
+
+        session.insert( new Cheese( "stilton", 1 ) );
+        logger.stop();
+        assertFalse( session.getRuleRuntimeEventListeners().contains( logger ) );
+        assertFalse( session.getAgendaEventListeners().contains( logger ) );
+
+        // the buffer is never drained again, these must not wait for it
+        for ( int i = 0; i < 100; i++ ) {
+            session.insert( new Cheese( "brie", i ) );
+        }
+        logger.logEventCreated( new ObjectLogEvent( LogEvent.INSERTED, 0, "brie" ) );
+        session.dispose();
+
+        int inserted = 0;
+        BinaryLogEventReader reader = new BinaryLogEventReader( fileName );
+        try {
+            for ( LogEvent event = reader.next(); event != null; event = reader.next() ) {
+                inserted++;
+            }
+        } finally {
+            reader.close();
+        }
+        assertEquals( 1, inserted );
+
+        for ( File file : dir.listFiles() ) {
+            file.delete();
+        }
+        dir.delete();
+    }
 }
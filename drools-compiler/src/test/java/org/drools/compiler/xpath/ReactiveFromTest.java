@@ -0,0 +1,151 @@
+package org.drools.compiler.xpath;
+
+import org.drools.core.ClassObjectFilter;
+import org.drools.core.phreak.ReactiveList;
+import org.drools.core.phreak.ReactiveMap;
+import org.junit.Test;
+import org.kie.api.io.ResourceType;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.utils.KieHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReactiveFromTest {
+
+    private static final String DRL =
+            "import org.drools.compiler.xpath.*;\n" +
+            "global java.util.List list\n" +
+            "\n" +
+            "rule R when\n" +
+            "  $container : %s()\n" +
+            "  $child : Child( age >= 13 ) from $container\n" +
+            "then\n" +
+            "  list.add( $child.getName() );\n" +
+            "  insertLogical( $child.getName() );\n" +
+            "end\n";
+
+    @Test
+    public void testReactiveList() {
+        KieSession ksession = new KieHelper().addContent(String.format(DRL, ReactiveList.class.getName()), ResourceType.DRL)
+                                             .build()
+                                             .newKieSession();
+
+        List<String> list = new ArrayList<String>();
+        ksession.setGlobal("list", list);
+
+        Child charlie = new Child("Charles", 15);
+        Child debbie = new Child("Debbie", 12);
+        ReactiveList<Child> children = new ReactiveList<Child>(Arrays.asList(charlie, debbie));
+
+        ksession.insert(children);
+        ksession.fireAllRules();
+        assertEquals(Arrays.asList("Charles"), list);
+
+        // only the added child is evaluated
+        list.clear();
+        children.add(new Child("Eve", 14));
+        ksession.fireAllRules();
+        assertEquals(Arrays.asList("Eve"), list);
+
+        // and only the modified one
+        list.clear();
+        debbie.setAge(13);
+        ksession.fireAllRules();
+        assertEquals(Arrays.asList("Debbie"), list);
+
+        list.clear();
+        children.remove(charlie);
+        ksession.fireAllRules();
+        assertTrue(list.isEmpty());
+        assertEquals(new HashSet<String>(Arrays.asList("Debbie", "Eve")), getLogicalNames(ksession));
+
+        // a removed child is not observed anymore
+        charlie.setAge(20);
+        ksession.fireAllRules();
+        assertTrue(list.isEmpty());
+
+        debbie.setAge(12);
+        ksession.fireAllRules();
+        assertEquals(new HashSet<String>(Arrays.asList("Eve")), getLogicalNames(ksession));
+
+        ksession.dispose();
+    }
+
+    @Test
+    public void testReactiveListAddedAndRemovedBeforeFiring() {
+        KieSession ksession = new KieHelper().addContent(String.format(DRL, ReactiveList.class.getName()), ResourceType.DRL)
+                                             .build()
+                                             .newKieSession();
+
+        List<String> list = new ArrayList<String>();
+        ksession.setGlobal("list", list);
+
+        Child charlie = new Child("Charles", 15);
+        ReactiveList<Child> children = new ReactiveList<Child>();
+        children.add(charlie);
+
+        ksession.insert(children);
+        ksession.fireAllRules();
+        assertEquals(Arrays.asList("Charles"), list);
+
+        list.clear();
+        Child eve = new Child("Eve", 14);
+        children.add(eve);
+        children.add(eve);
+        children.remove(eve);
+        children.remove(charlie);
+        children.add(charlie);
+        ksession.fireAllRules();
+        assertEquals(Arrays.asList("Eve"), list);
+
+        list.clear();
+        children.clear();
+        ksession.fireAllRules();
+        assertTrue(list.isEmpty());
+        assertTrue(getLogicalNames(ksession).isEmpty());
+
+        ksession.dispose();
+    }
+
+    @Test
+    public void testReactiveMap() {
+        KieSession ksession = new KieHelper().addContent(String.format(DRL, ReactiveMap.class.getName()), ResourceType.DRL)
+                                             .build()
+                                             .newKieSession();
+
+        List<String> list = new ArrayList<String>();
+        ksession.setGlobal("list", list);
+
+        ReactiveMap<String, Child> children = new ReactiveMap<String, Child>();
+        children.put("c", new Child("Charles", 15));
+        children.put("d", new Child("Debbie", 12));
+
+        ksession.insert(children);
+        ksession.fireAllRules();
+        assertEquals(Arrays.asList("Charles"), list);
+
+        list.clear();
+        children.put("d", new Child("Daisy", 16));
+        children.remove("c");
+        ksession.fireAllRules();
+        assertEquals(Arrays.asList("Daisy"), list);
+        assertEquals(new HashSet<String>(Arrays.asList("Daisy")), getLogicalNames(ksession));
+
+        ksession.dispose();
+    }
+
+    private static Collection<String> getLogicalNames(KieSession ksession) {
+        Collection<String> names = new HashSet<String>();
+        for (Object name : ksession.getObjects(new ClassObjectFilter(String.class))) {
+            names.add((String) name);
+        }
+        return names;
+    }
+}
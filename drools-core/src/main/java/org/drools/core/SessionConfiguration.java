@@ -50,6 +50,7 @@ import java.io.ObjectOutput;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Executor;
 
 /**
  * SessionConfiguration
@@ -68,6 +69,10 @@ import java.util.Properties;
  * 
  * drools.keepReference = <true|false>
  * drools.clockType = <pseudo|realtime|heartbeat|implicit>
+ * drools.tmsBatching = <true|false>
+ * drools.updateChangeDetection = <true|false>
+ * drools.asyncConsequenceMaxInFlight = <1..n>
+ * drools.statelessSessionReuse = <true|false>
  */
 public class SessionConfiguration
     implements
@@ -75,6 +80,14 @@ public class SessionConfiguration
     Externalizable {
     private static final long              serialVersionUID = 510l;
 
+    public static final String             TMS_BATCHING_PROPERTY = "drools.tmsBatching";
+
+    public static final String             UPDATE_CHANGE_DETECTION_PROPERTY = "drools.updateChangeDetection";
+
+    public static final String             ASYNC_CONSEQUENCE_MAX_IN_FLIGHT_PROPERTY = "drools.asyncConsequenceMaxInFlight";
+
+    public static final String             STATELESS_SESSION_REUSE_PROPERTY = "drools.statelessSessionReuse";
+
     private ChainedProperties              chainedProperties;
 
     private volatile boolean               immutable;
@@ -88,6 +101,14 @@ public class SessionConfiguration
     
     private BeliefSystemType               beliefSystemType;
 
+    private boolean                        tmsBatching;
+
+    private boolean                        updateChangeDetection;
+
+    private int                            asyncConsequenceMaxInFlight;
+
+    private boolean                        statelessSessionReuse;
+
     private QueryListenerOption            queryListener;
 
     private Map<String, WorkItemHandler>   workItemHandlers;
@@ -95,6 +116,8 @@ public class SessionConfiguration
     private CommandService                 commandService;
 
     private transient ClassLoader          classLoader;
+
+    private transient Executor             asyncConsequenceExecutor;
     
     private transient TimerJobFactoryManager timerJobFactoryManager;
     private TimerJobFactoryType              timerJobFactoryType;
@@ -178,6 +201,18 @@ public class SessionConfiguration
         setBeliefSystemType( BeliefSystemType.resolveBeliefSystemType( this.chainedProperties.getProperty( BeliefSystemTypeOption.PROPERTY_NAME,
                                                                                                            BeliefSystemType.SIMPLE.getId())) );
 
+        setTmsBatching( Boolean.valueOf( this.chainedProperties.getProperty( TMS_BATCHING_PROPERTY,
+                                                                             "false" ) ).booleanValue() );
+
+        setUpdateChangeDetection( Boolean.valueOf( this.chainedProperties.getProperty( UPDATE_CHANGE_DETECTION_PROPERTY,
+                                                                                       "false" ) ).booleanValue() );
+
+        setAsyncConsequenceMaxInFlight( Integer.parseInt( this.chainedProperties.getProperty( ASYNC_CONSEQUENCE_MAX_IN_FLIGHT_PROPERTY,
+                                                                                              "1024" ) ) );
+
+        setStatelessSessionReuse( Boolean.valueOf( this.chainedProperties.getProperty( STATELESS_SESSION_REUSE_PROPERTY,
+                                                                                       "false" ) ).booleanValue() );
+
         setClockType( ClockType.resolveClockType( this.chainedProperties.getProperty( ClockTypeOption.PROPERTY_NAME,
                                                                                       ClockType.REALTIME_CLOCK.getId() ) ) );
 
@@ -220,6 +255,14 @@ public class SessionConfiguration
             setQueryListenerClass( StringUtils.isEmpty( value ) ? QueryListenerOption.STANDARD.getAsString() : value );
         } else if ( name.equals( BeliefSystemTypeOption.PROPERTY_NAME ) ) {
             setBeliefSystemType( StringUtils.isEmpty( value ) ? BeliefSystemType.SIMPLE : BeliefSystemType.resolveBeliefSystemType( value ) );
+        } else if ( name.equals( TMS_BATCHING_PROPERTY ) ) {
+            setTmsBatching( !StringUtils.isEmpty( value ) && Boolean.parseBoolean( value ) );
+        } else if ( name.equals( UPDATE_CHANGE_DETECTION_PROPERTY ) ) {
+            setUpdateChangeDetection( !StringUtils.isEmpty( value ) && Boolean.parseBoolean( value ) );
+        } else if ( name.equals( ASYNC_CONSEQUENCE_MAX_IN_FLIGHT_PROPERTY ) ) {
+            setAsyncConsequenceMaxInFlight( StringUtils.isEmpty( value ) ? 1024 : Integer.parseInt( value ) );
+        } else if ( name.equals( STATELESS_SESSION_REUSE_PROPERTY ) ) {
+            setStatelessSessionReuse( !StringUtils.isEmpty( value ) && Boolean.parseBoolean( value ) );
         }
     }
 
@@ -239,6 +282,14 @@ public class SessionConfiguration
             return this.queryListener.getAsString();
         } else if ( name.equals( BeliefSystemTypeOption.PROPERTY_NAME ) ) {
             return this.getBeliefSystemType().getId();
+        } else if ( name.equals( TMS_BATCHING_PROPERTY ) ) {
+            return Boolean.toString( this.tmsBatching );
+        } else if ( name.equals( UPDATE_CHANGE_DETECTION_PROPERTY ) ) {
+            return Boolean.toString( this.updateChangeDetection );
+        } else if ( name.equals( ASYNC_CONSEQUENCE_MAX_IN_FLIGHT_PROPERTY ) ) {
+            return Integer.toString( this.asyncConsequenceMaxInFlight );
+        } else if ( name.equals( STATELESS_SESSION_REUSE_PROPERTY ) ) {
+            return Boolean.toString( this.statelessSessionReuse );
         }
         return null;
     }
@@ -302,6 +353,77 @@ public class SessionConfiguration
         this.beliefSystemType = beliefSystemType;
     }
 
+    /**
+     * Returns true if the justifications removed during a network evaluation, or after the
+     * firing of a rule, are staged and resolved once per belief set when that cycle ends
+     */
+    public boolean isTmsBatching() {
+        return this.tmsBatching;
+    }
+
+    public void setTmsBatching(boolean tmsBatching) {
+        checkCanChange(); // throws an exception if a change isn't possible;
+        this.tmsBatching = tmsBatching;
+    }
+
+    /**
+     * Returns true if the property values of the property reactive facts are tracked, so that an update
+     * without an explicit modification mask only propagates the properties that actually changed
+     */
+    public boolean isUpdateChangeDetection() {
+        return this.updateChangeDetection;
+    }
+
+    public void setUpdateChangeDetection(boolean updateChangeDetection) {
+        checkCanChange(); // throws an exception if a change isn't possible;
+        this.updateChangeDetection = updateChangeDetection;
+    }
+
+    /**
+     * Returns the maximum number of asynchronous consequences submitted and not yet completed:
+     * once it is reached, a consequence whose ordering key has nothing pending is executed by the
+     * thread firing the rules, otherwise that thread waits, out of the agenda lock, for one of the
+     * pending consequences to complete
+     */
+    public int getAsyncConsequenceMaxInFlight() {
+        return this.asyncConsequenceMaxInFlight;
+    }
+
+    public void setAsyncConsequenceMaxInFlight(int asyncConsequenceMaxInFlight) {
+        checkCanChange(); // throws an exception if a change isn't possible;
+        if ( asyncConsequenceMaxInFlight < 1 ) {
+            throw new IllegalArgumentException( "The maximum number of asynchronous consequences in flight must be positive: " + asyncConsequenceMaxInFlight );
+        }
+        this.asyncConsequenceMaxInFlight = asyncConsequenceMaxInFlight;
+    }
+
+    /**
+     * Returns true if a stateless session keeps one session per thread and resets it after each execution,
+     * instead of creating and disposing a session for each of them. The sessions are kept for the whole life
+     * of the stateless session, that is then meant to be long lived and shared.
+     */
+    public boolean isStatelessSessionReuse() {
+        return this.statelessSessionReuse;
+    }
+
+    public void setStatelessSessionReuse(boolean statelessSessionReuse) {
+        checkCanChange(); // throws an exception if a change isn't possible;
+        this.statelessSessionReuse = statelessSessionReuse;
+    }
+
+    /**
+     * Returns the executor running the consequences of the asynchronous rules, or null when the shared
+     * drools executor is used
+     */
+    public Executor getAsyncConsequenceExecutor() {
+        return this.asyncConsequenceExecutor;
+    }
+
+    public void setAsyncConsequenceExecutor(Executor asyncConsequenceExecutor) {
+        checkCanChange(); // throws an exception if a change isn't possible;
+        this.asyncConsequenceExecutor = asyncConsequenceExecutor;
+    }
+
     public ClockType getClockType() {
         return clockType;
     }
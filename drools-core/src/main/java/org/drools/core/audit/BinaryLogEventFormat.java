@@ -0,0 +1,348 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.audit;
+
+import org.drools.core.audit.event.ActivationLogEvent;
+import org.drools.core.audit.event.LogEvent;
+import org.drools.core.audit.event.ObjectLogEvent;
+import org.drools.core.audit.event.RuleBaseLogEvent;
+import org.drools.core.audit.event.RuleFlowGroupLogEvent;
+import org.drools.core.audit.event.RuleFlowLogEvent;
+import org.drools.core.audit.event.RuleFlowNodeLogEvent;
+import org.drools.core.audit.event.RuleFlowVariableLogEvent;
+import org.drools.core.util.IoUtils;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The binary format of the audit log written by the {@link WorkingMemoryBinaryLogger}.
+ *
+ * Each file starts with a magic number and a version, followed by records made of a kind byte,
+ * the varint length of the payload and the payload. A zero kind marks the end of the file, so the
+ * unused tail of a memory mapped file doesn't need to be truncated.
+ *
+ * The names of rules, packages, groups, processes and nodes are interned: the first time one of them
+ * is written to a file it is defined by a string record, and then referred by its index. The other
+ * strings, like the toString of the facts, are written inline.
+ */
+final class BinaryLogEventFormat {
+
+    static final int  MAGIC                   = 0x44524c47; // DRLG
+    static final byte VERSION                 = 1;
+    static final int  HEADER_SIZE             = 5;
+
+    static final byte END                     = 0;
+    static final byte STRING                  = 1;
+    static final byte LOG_EVENT               = 2;
+    static final byte OBJECT_EVENT            = 3;
+    static final byte ACTIVATION_EVENT        = 4;
+    static final byte RULEBASE_EVENT          = 5;
+    static final byte RULEFLOW_EVENT          = 6;
+    static final byte RULEFLOW_GROUP_EVENT    = 7;
+    static final byte RULEFLOW_NODE_EVENT     = 8;
+    static final byte RULEFLOW_VARIABLE_EVENT = 9;
+
+    private BinaryLogEventFormat() {
+    }
+
+    /**
+     * Encodes the events of a single file, keeping the strings interned in it
+     */
+    static class Encoder {
+
+        private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+        private ByteBuffer                 records = ByteBuffer.allocate( 1024 );
+        private ByteBuffer                 payload = ByteBuffer.allocate( 1024 );
+
+        /**
+         * Starts a new file, forgetting the interned strings
+         */
+        void reset() {
+            strings.clear();
+        }
+
+        /**
+         * Encodes the event, together with the definitions of the strings it interns for the first time,
+         * and returns the buffer holding them ready to be written
+         */
+        ByteBuffer encode(LogEvent event) {
+            records.clear();
+            payload.clear();
+
+            byte kind = getKind( event );
+            putVarLong( event.getType() );
+            switch ( kind ) {
+                case OBJECT_EVENT :
+                    ObjectLogEvent objectEvent = (ObjectLogEvent) event;
+                    putVarLong( objectEvent.getFactId() );
+                    putInline( objectEvent.getObjectToString() );
+                    break;
+                case ACTIVATION_EVENT :
+                    ActivationLogEvent activationEvent = (ActivationLogEvent) event;
+                    putInline( activationEvent.getActivationId() );
+                    putInterned( activationEvent.getRule() );
+                    putInline( activationEvent.getDeclarations() );
+                    putInterned( activationEvent.getRuleFlowGroup() );
+                    putInline( activationEvent.getFactHandleIds() );
+                    break;
+                case RULEBASE_EVENT :
+                    RuleBaseLogEvent ruleBaseEvent = (RuleBaseLogEvent) event;
+                    putInterned( ruleBaseEvent.getPackageName() );
+                    putInterned( ruleBaseEvent.getRuleName() );
+                    break;
+                case RULEFLOW_GROUP_EVENT :
+                    RuleFlowGroupLogEvent groupEvent = (RuleFlowGroupLogEvent) event;
+                    putInterned( groupEvent.getGroupName() );
+                    putVarLong( groupEvent.getSize() );
+                    break;
+                case RULEFLOW_EVENT :
+                case RULEFLOW_NODE_EVENT :
+                case RULEFLOW_VARIABLE_EVENT :
+                    RuleFlowLogEvent processEvent = (RuleFlowLogEvent) event;
+                    putInterned( processEvent.getProcessId() );
+                    putInterned( processEvent.getProcessName() );
+                    putVarLong( processEvent.getProcessInstanceId() );
+                    if ( kind == RULEFLOW_NODE_EVENT ) {
+                        RuleFlowNodeLogEvent nodeEvent = (RuleFlowNodeLogEvent) event;
+                        putInterned( nodeEvent.getNodeId() );
+                        putInterned( nodeEvent.getNodeName() );
+                        putInline( nodeEvent.getNodeInstanceId() );
+                    } else if ( kind == RULEFLOW_VARIABLE_EVENT ) {
+                        RuleFlowVariableLogEvent variableEvent = (RuleFlowVariableLogEvent) event;
+                        putInterned( variableEvent.getVariableId() );
+                        putInline( variableEvent.getVariableInstanceId() );
+                        putInline( variableEvent.getObjectToString() );
+                    }
+                    break;
+            }
+
+            payload.flip();
+            putRecord( kind, payload );
+            records.flip();
+            return records;
+        }
+
+        private static byte getKind(LogEvent event) {
+            if ( event instanceof ObjectLogEvent ) {
+                return OBJECT_EVENT;
+            } else if ( event instanceof ActivationLogEvent ) {
+                return ACTIVATION_EVENT;
+            } else if ( event instanceof RuleBaseLogEvent ) {
+                return RULEBASE_EVENT;
+            } else if ( event instanceof RuleFlowGroupLogEvent ) {
+                return RULEFLOW_GROUP_EVENT;
+            } else if ( event instanceof RuleFlowNodeLogEvent ) {
+                return RULEFLOW_NODE_EVENT;
+            } else if ( event instanceof RuleFlowVariableLogEvent ) {
+                return RULEFLOW_VARIABLE_EVENT;
+            } else if ( event instanceof RuleFlowLogEvent ) {
+                return RULEFLOW_EVENT;
+            }
+            // unknown events only keep their type
+            return LOG_EVENT;
+        }
+
+        private void putInterned(String value) {
+            if ( value == null ) {
+                putVarLong( 0 );
+                return;
+            }
+            Integer index = strings.get( value );
+            if ( index == null ) {
+                index = strings.size();
+                strings.put( value, index );
+                byte[] bytes = value.getBytes( IoUtils.UTF8_CHARSET );
+                records = putRecord( records, STRING, ByteBuffer.wrap( bytes ) );
+            }
+            putVarLong( index + 1 );
+        }
+
+        private void putInline(String value) {
+            if ( value == null ) {
+                putVarLong( 0 );
+                return;
+            }
+            byte[] bytes = value.getBytes( IoUtils.UTF8_CHARSET );
+            putVarLong( bytes.length + 1 );
+            payload = ensureCapacity( payload, bytes.length );
+            payload.put( bytes );
+        }
+
+        private void putVarLong(long value) {
+            payload = ensureCapacity( payload, 10 );
+            BinaryLogEventFormat.putVarLong( payload, value );
+        }
+
+        private void putRecord(byte kind,
+                               ByteBuffer recordPayload) {
+            records = putRecord( records, kind, recordPayload );
+        }
+
+        private static ByteBuffer putRecord(ByteBuffer target,
+                                            byte kind,
+                                            ByteBuffer recordPayload) {
+            target = ensureCapacity( target, recordPayload.remaining() + 11 );
+            target.put( kind );
+            BinaryLogEventFormat.putVarLong( target, recordPayload.remaining() );
+            target.put( recordPayload );
+            return target;
+        }
+
+        private static ByteBuffer ensureCapacity(ByteBuffer buffer,
+                                                 int length) {
+            if ( buffer.remaining() >= length ) {
+                return buffer;
+            }
+            ByteBuffer larger = ByteBuffer.allocate( Math.max( buffer.capacity() * 2, buffer.position() + length ) );
+            buffer.flip();
+            larger.put( buffer );
+            return larger;
+        }
+    }
+
+    /**
+     * Decodes the records of a single file, keeping the strings defined in it
+     */
+    static class Decoder {
+
+        private final List<String> strings = new ArrayList<String>();
+
+        void reset() {
+            strings.clear();
+        }
+
+        /**
+         * Decodes the payload of a record, returning its event or null if the record isn't an event
+         */
+        LogEvent decode(byte kind,
+                        ByteBuffer payload) throws IOException {
+            try {
+                if ( kind == STRING ) {
+                    strings.add( getString( payload, payload.remaining() ) );
+                    return null;
+                }
+                if ( kind < LOG_EVENT || kind > RULEFLOW_VARIABLE_EVENT ) {
+                    // written by a newer version, skip it
+                    return null;
+                }
+
+                int type = (int) getVarLong( payload );
+                switch ( kind ) {
+                    case OBJECT_EVENT :
+                        return new ObjectLogEvent( type,
+                                                   getVarLong( payload ),
+                                                   getInline( payload ) );
+                    case ACTIVATION_EVENT :
+                        return new ActivationLogEvent( type,
+                                                       getInline( payload ),
+                                                       getInterned( payload ),
+                                                       getInline( payload ),
+                                                       getInterned( payload ),
+                                                       getInline( payload ) );
+                    case RULEBASE_EVENT :
+                        return new RuleBaseLogEvent( type,
+                                                     getInterned( payload ),
+                                                     getInterned( payload ) );
+                    case RULEFLOW_GROUP_EVENT :
+                        return new RuleFlowGroupLogEvent( type,
+                                                          getInterned( payload ),
+                                                          (int) getVarLong( payload ) );
+                    case RULEFLOW_EVENT :
+                    case RULEFLOW_NODE_EVENT :
+                    case RULEFLOW_VARIABLE_EVENT :
+                        String processId = getInterned( payload );
+                        String processName = getInterned( payload );
+                        long processInstanceId = getVarLong( payload );
+                        if ( kind == RULEFLOW_NODE_EVENT ) {
+                            return new RuleFlowNodeLogEvent( type,
+                                                             getInterned( payload ),
+                                                             getInterned( payload ),
+                                                             getInline( payload ),
+                                                             processId,
+                                                             processName,
+                                                             processInstanceId );
+                        } else if ( kind == RULEFLOW_VARIABLE_EVENT ) {
+                            String variableId = getInterned( payload );
+                            String variableInstanceId = getInline( payload );
+                            return new RuleFlowVariableLogEvent( type,
+                                                                 variableId,
+                                                                 variableInstanceId,
+                                                                 processId,
+                                                                 processName,
+                                                                 processInstanceId,
+                                                                 getInline( payload ) );
+                        }
+                        return new RuleFlowLogEvent( type,
+                                                     processId,
+                                                     processName,
+                                                     processInstanceId );
+                    default :
+                        return new LogEvent( type );
+                }
+            } catch ( BufferUnderflowException e ) {
+                throw new IOException( "Corrupted log record of kind " + kind );
+            } catch ( IndexOutOfBoundsException e ) {
+                throw new IOException( "Corrupted log record of kind " + kind );
+            }
+        }
+
+        private String getInterned(ByteBuffer payload) {
+            int index = (int) getVarLong( payload );
+            return index == 0 ? null : strings.get( index - 1 );
+        }
+
+        private static String getInline(ByteBuffer payload) {
+            int length = (int) getVarLong( payload );
+            return length == 0 ? null : getString( payload, length - 1 );
+        }
+
+        private static String getString(ByteBuffer payload,
+                                        int length) {
+            byte[] bytes = new byte[length];
+            payload.get( bytes );
+            return new String( bytes, IoUtils.UTF8_CHARSET );
+        }
+    }
+
+    static void putVarLong(ByteBuffer buffer,
+                           long value) {
+        while ( ( value & ~0x7FL ) != 0 ) {
+            buffer.put( (byte) ( ( value & 0x7F ) | 0x80 ) );
+            value >>>= 7;
+        }
+        buffer.put( (byte) value );
+    }
+
+    static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for ( int shift = 0; shift < 64; shift += 7 ) {
+            byte b = buffer.get();
+            value |= (long) ( b & 0x7F ) << shift;
+            if ( ( b & 0x80 ) == 0 ) {
+                return value;
+            }
+        }
+        throw new BufferUnderflowException();
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.audit;
+
+import org.drools.core.audit.event.LogEvent;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads back, one at a time, the events written by a {@link WorkingMemoryBinaryLogger}, going through all
+ * the files of the log in order. The events can be replayed in any other logger, for instance in a
+ * {@link WorkingMemoryFileLogger} to convert the log in the xml format read by the audit view.
+ */
+public class BinaryLogEventReader
+    implements
+    Closeable {
+
+    private final String                        fileName;
+    private final BinaryLogEventFormat.Decoder decoder = new BinaryLogEventFormat.Decoder();
+
+    private DataInputStream                     in;
+    private int                                 fileNumber;
+    private boolean                             finished;
+    private byte[]                              payload = new byte[256];
+
+    /**
+     * @param fileName the name of the log, as set in the logger, without the .bin extension
+     */
+    public BinaryLogEventReader(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Returns the next event of the log, or null if there are no more events
+     */
+    public LogEvent next() throws IOException {
+        while ( !finished ) {
+            if ( in == null && !openNextFile() ) {
+                finished = true;
+                return null;
+            }
+            LogEvent event = readRecord();
+            if ( event != null ) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Passes all the remaining events of the log to the given logger
+     */
+    public int replay(WorkingMemoryLogger logger) throws IOException {
+        int count = 0;
+        for ( LogEvent event = next(); event != null; event = next() ) {
+            logger.logEventCreated( event );
+            count++;
+        }
+        return count;
+    }
+
+    public void close() throws IOException {
+        finished = true;
+        closeFile();
+    }
+
+    private LogEvent readRecord() throws IOException {
+        try {
+            byte kind = in.readByte();
+            if ( kind == BinaryLogEventFormat.END ) {
+                closeFile();
+                return null;
+            }
+            int length = (int) readVarLong();
+            if ( length > payload.length ) {
+                payload = new byte[Math.max( length, payload.length * 2 )];
+            }
+            in.readFully( payload, 0, length );
+            return decoder.decode( kind, ByteBuffer.wrap( payload, 0, length ) );
+        } catch ( EOFException e ) {
+            // a file not closed properly, its last record is truncated
+            closeFile();
+            return null;
+        }
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        int shift = 0;
+        while ( true ) {
+            int b = in.readUnsignedByte();
+            value |= (long) ( b & 0x7F ) << shift;
+            if ( ( b & 0x80 ) == 0 ) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    private boolean openNextFile() throws IOException {
+        File file = new File( WorkingMemoryBinaryLogger.getFileName( fileName, fileNumber ) );
+        if ( !file.exists() ) {
+            return false;
+        }
+        fileNumber++;
+        in = new DataInputStream( new BufferedInputStream( new FileInputStream( file ) ) );
+        decoder.reset();
+        if ( in.readInt() != BinaryLogEventFormat.MAGIC ) {
+            closeFile();
+            throw new IOException( file + " is not a binary audit log" );
+        }
+        byte version = in.readByte();
+        if ( version > BinaryLogEventFormat.VERSION ) {
+            closeFile();
+            throw new IOException( "Unsupported version " + version + " of the binary audit log " + file );
+        }
+        return true;
+    }
+
+    private void closeFile() throws IOException {
+        if ( in != null ) {
+            in.close();
+            in = null;
+        }
+    }
+}
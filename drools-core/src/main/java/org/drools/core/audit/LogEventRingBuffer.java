@@ -0,0 +1,94 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.audit;
+
+import org.drools.core.audit.event.LogEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded lock free queue of log events, with many producers and a single consumer.
+ *
+ * The producers claim a sequence with an atomic increment and publish the event in its slot,
+ * the consumer takes the events in sequence order, clearing their slots. A producer only waits
+ * when the buffer is full, until the consumer frees the slot of its sequence.
+ */
+class LogEventRingBuffer {
+
+    private final AtomicReferenceArray<LogEvent> slots;
+    private final int                            mask;
+
+    private final AtomicLong                     head = new AtomicLong();
+    private volatile long                        tail;
+    private volatile boolean                     closed;
+
+    LogEventRingBuffer(int capacity) {
+        int size = Integer.highestOneBit( Math.max( capacity, 2 ) - 1 ) << 1;
+        this.slots = new AtomicReferenceArray<LogEvent>( size );
+        this.mask = size - 1;
+    }
+
+    /**
+     * Publishes an event, waiting while the buffer is full. Returns false, dropping the event,
+     * if the consumer closed the buffer meanwhile.
+     */
+    boolean put(LogEvent event) {
+        long sequence = head.getAndIncrement();
+        while ( sequence - tail > mask ) {
+            if ( closed ) {
+                return false;
+            }
+            // full, wait for the consumer
+            LockSupport.parkNanos( 1000 );
+        }
+        slots.lazySet( (int) ( sequence & mask ), event );
+        return true;
+    }
+
+    /**
+     * Called by the consumer when it stops taking events, so that no producer waits for it anymore
+     */
+    void close() {
+        closed = true;
+    }
+
+    /**
+     * Takes the next event, or returns null if it hasn't been published yet.
+     * Must be called only by the consumer thread.
+     */
+    LogEvent poll() {
+        long sequence = tail;
+        int index = (int) ( sequence & mask );
+        LogEvent event = slots.get( index );
+        if ( event == null ) {
+            return null;
+        }
+        slots.lazySet( index, null );
+        tail = sequence + 1;
+        return event;
+    }
+
+    boolean isEmpty() {
+        return head.get() == tail;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
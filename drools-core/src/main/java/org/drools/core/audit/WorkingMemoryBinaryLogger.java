@@ -0,0 +1,228 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.audit;
+
+import org.drools.core.WorkingMemory;
+import org.drools.core.audit.event.LogEvent;
+import org.kie.internal.event.KnowledgeRuntimeEventManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A logger of events generated by a working memory, that writes them in the compact binary format
+ * of {@link BinaryLogEventFormat}, to be read back with a {@link BinaryLogEventReader}.
+ *
+ * The events are handed to a background writer through a lock free ring buffer, so the session only
+ * waits when the buffer is full. The writer appends them to memory mapped files of a fixed size,
+ * rolling to a new file when the current one is full: event.bin, event1.bin, event2.bin, ...
+ * The writer is started by the first event, and stop() writes the pending events and closes the file;
+ * the events generated after stop() are discarded.
+ */
+public class WorkingMemoryBinaryLogger extends WorkingMemoryLogger {
+
+    protected static final transient Logger logger = LoggerFactory.getLogger( WorkingMemoryBinaryLogger.class );
+
+    public static final String FILE_EXTENSION = ".bin";
+
+    private String                          fileName    = "event";
+    private int                             maxFileSize = 64 * 1024 * 1024;
+    private int                             bufferSize  = 8 * 1024;
+
+    private volatile LogEventRingBuffer     buffer;
+    private Thread                          writerThread;
+    private volatile boolean                terminate;
+
+    public WorkingMemoryBinaryLogger() {
+    }
+
+    public WorkingMemoryBinaryLogger(final WorkingMemory workingMemory) {
+        super( workingMemory );
+    }
+
+    public WorkingMemoryBinaryLogger(final KnowledgeRuntimeEventManager session) {
+        super( session );
+    }
+
+    /**
+     * Sets the name of the files the events are logged in, without extension since .bin is
+     * automatically appended to it. The default is event.bin in the current working directory.
+     */
+    public void setFileName(final String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Sets the size of each log file, once it is full a new one is created. The default is 64MB.
+     */
+    public void setMaxFileSize(final int maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    /**
+     * Sets the maximum number of events waiting to be written, rounded up to a power of two.
+     * The default is 8192.
+     */
+    public void setBufferSize(final int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public void logEventCreated(final LogEvent logEvent) {
+        if ( terminate ) {
+            // stopped, nobody would write the event anymore
+            return;
+        }
+        LogEventRingBuffer eventBuffer = this.buffer;
+        if ( eventBuffer == null ) {
+            eventBuffer = start();
+        }
+        eventBuffer.put( logEvent );
+    }
+
+    private synchronized LogEventRingBuffer start() {
+        if ( this.buffer == null ) {
+            if ( terminate ) {
+                throw new IllegalStateException( "The logger has been stopped" );
+            }
+            LogEventRingBuffer eventBuffer = new LogEventRingBuffer( bufferSize );
+            writerThread = new Thread( new Writer( eventBuffer ), "drools-audit-writer" );
+            writerThread.setDaemon( true );
+            writerThread.start();
+            this.buffer = eventBuffer;
+        }
+        return this.buffer;
+    }
+
+    /**
+     * Detaches the logger from the session, writes all the pending events and closes the log.
+     * The events generated after stop() are discarded.
+     */
+    public synchronized void stop() {
+        if ( terminate ) {
+            return;
+        }
+        terminate = true;
+        detach();
+        if ( writerThread != null ) {
+            try {
+                writerThread.join();
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    static String getFileName(String fileName,
+                              int fileNumber) {
+        return fileName + ( fileNumber == 0 ? "" : String.valueOf( fileNumber ) ) + FILE_EXTENSION;
+    }
+
+    private class Writer
+        implements
+        Runnable {
+
+        private final LogEventRingBuffer          eventBuffer;
+        private final BinaryLogEventFormat.Encoder encoder = new BinaryLogEventFormat.Encoder();
+
+        private RandomAccessFile                  file;
+        private MappedByteBuffer                  mapped;
+        private int                               fileNumber;
+        private boolean                           failed;
+
+        private Writer(LogEventRingBuffer eventBuffer) {
+            this.eventBuffer = eventBuffer;
+        }
+
+        public void run() {
+            try {
+                long idleNanos = 1000;
+                while ( true ) {
+                    LogEvent event = eventBuffer.poll();
+                    if ( event != null ) {
+                        write( event );
+                        idleNanos = 1000;
+                    } else if ( terminate && eventBuffer.isEmpty() ) {
+                        break;
+                    } else {
+                        LockSupport.parkNanos( idleNanos );
+                        idleNanos = Math.min( idleNanos * 2, 1000000 );
+                    }
+                }
+            } finally {
+                eventBuffer.close();
+                close();
+            }
+        }
+
+        private void write(LogEvent event) {
+            if ( failed ) {
+                // keep draining the buffer, so the session is never blocked by a broken log
+                return;
+            }
+            try {
+                if ( mapped == null ) {
+                    open();
+                }
+                ByteBuffer records = encoder.encode( event );
+                if ( records.remaining() > mapped.remaining() ) {
+                    if ( mapped.position() == BinaryLogEventFormat.HEADER_SIZE ) {
+                        logger.error( "Audit log event too large for a log file of " + maxFileSize + " bytes, event skipped" );
+                        return;
+                    }
+                    close();
+                    fileNumber++;
+                    open();
+                    records = encoder.encode( event );
+                }
+                mapped.put( records );
+            } catch ( IOException e ) {
+                failed = true;
+                logger.error( "Unable to write the audit log " + getFileName( fileName, fileNumber ), e );
+            }
+        }
+
+        private void open() throws IOException {
+            file = new RandomAccessFile( getFileName( fileName, fileNumber ), "rw" );
+            file.setLength( 0 );
+            mapped = file.getChannel().map( FileChannel.MapMode.READ_WRITE, 0, maxFileSize );
+            mapped.putInt( BinaryLogEventFormat.MAGIC );
+            mapped.put( BinaryLogEventFormat.VERSION );
+            encoder.reset();
+        }
+
+        private void close() {
+            if ( mapped == null ) {
+                return;
+            }
+            try {
+                // the rest of the file is left zeroed, that is an END record
+                mapped.force();
+                file.close();
+            } catch ( IOException e ) {
+                logger.error( "Unable to close the audit log " + getFileName( fileName, fileNumber ), e );
+            }
+            mapped = null;
+            file = null;
+        }
+    }
+}
@@ -112,6 +112,11 @@ public abstract class WorkingMemoryLogger
 
     protected boolean isPhreak;
 
+    // the sources this logger listens to, so that it can be detached from them
+    private transient WorkingMemoryEventManager    eventManager;
+    private transient InternalProcessRuntime       processRuntime;
+    private transient StatelessKnowledgeSessionImpl statelessSession;
+
     public WorkingMemoryLogger() {
     }
 
@@ -128,6 +133,8 @@ public abstract class WorkingMemoryLogger
             processRuntime.addEventListener( this );
         }
         workingMemory.addEventListener( (KieBaseEventListener) this );
+        this.eventManager = workingMemory;
+        this.processRuntime = processRuntime;
     }
     
     public WorkingMemoryLogger(final KnowledgeRuntimeEventManager session) {
@@ -142,12 +149,15 @@ public abstract class WorkingMemoryLogger
             if (processRuntime != null) {
                 processRuntime.addEventListener( this );
             }
+            this.eventManager = eventManager;
+            this.processRuntime = processRuntime;
         } else if (session instanceof StatelessKnowledgeSessionImpl) {
             StatelessKnowledgeSessionImpl statelessSession = ((StatelessKnowledgeSessionImpl) session);
             isPhreak = statelessSession.getKnowledgeBase().getConfiguration().isPhreakEnabled();
             statelessSession.addEventListener((RuleRuntimeEventListener) this);
             statelessSession.addEventListener( (AgendaEventListener) this );
             statelessSession.getKnowledgeBase().addEventListener( (KieBaseEventListener) this );
+            this.statelessSession = statelessSession;
         } else if (session instanceof CommandBasedStatefulKnowledgeSession) {
             StatefulKnowledgeSessionImpl statefulSession =
                     ((StatefulKnowledgeSessionImpl)((KnowledgeCommandContext)((CommandBasedStatefulKnowledgeSession) session).getCommandService().getContext()).getKieSession());
@@ -160,11 +170,36 @@ public abstract class WorkingMemoryLogger
             if (processRuntime != null) {
                 processRuntime.addEventListener( this );
             }
+            this.eventManager = eventManager;
+            this.processRuntime = processRuntime;
         } else {
             throw new IllegalArgumentException("Not supported session in logger: " + session.getClass());
         }
     }
 
+    /**
+     * Removes this logger from the listeners of the session it was created for,
+     * so that it doesn't receive any further event.
+     */
+    protected void detach() {
+        if ( eventManager != null ) {
+            eventManager.removeEventListener( (RuleRuntimeEventListener) this );
+            eventManager.removeEventListener( (AgendaEventListener) this );
+            eventManager.removeEventListener( (KieBaseEventListener) this );
+            eventManager = null;
+        }
+        if ( processRuntime != null ) {
+            processRuntime.removeEventListener( this );
+            processRuntime = null;
+        }
+        if ( statelessSession != null ) {
+            statelessSession.removeEventListener( (RuleRuntimeEventListener) this );
+            statelessSession.removeEventListener( (AgendaEventListener) this );
+            statelessSession.getKnowledgeBase().removeEventListener( (KieBaseEventListener) this );
+            statelessSession = null;
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
         filters = (List<ILogEventFilter>) in.readObject();
@@ -22,12 +22,10 @@ import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.Serializable;
 
-import org.kie.api.runtime.rule.AccumulateFunction;
-
 /**
  * An implementation of an accumulator capable of calculating average values
  */
-public class AverageAccumulateFunction implements AccumulateFunction {
+public class AverageAccumulateFunction implements CombinableAccumulateFunction {
 
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
 
@@ -91,6 +89,17 @@ public class AverageAccumulateFunction implements AccumulateFunction {
         data.total -= ((Number) value).doubleValue();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public void combine(Serializable context,
+                        Serializable partial) throws Exception {
+        AverageData data = (AverageData) context;
+        AverageData other = (AverageData) partial;
+        data.count += other.count;
+        data.total += other.total;
+    }
+
     /* (non-Javadoc)
      * @see org.kie.base.accumulators.AccumulateFunction#getResult(java.lang.Object)
      */
@@ -16,8 +16,6 @@
 
 package org.drools.core.base.accumulators;
 
-import org.kie.api.runtime.rule.AccumulateFunction;
-
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
@@ -28,7 +26,7 @@ import java.math.BigDecimal;
 /**
  * An implementation of an accumulator capable of calculating average values
  */
-public class BigDecimalAverageAccumulateFunction implements AccumulateFunction {
+public class BigDecimalAverageAccumulateFunction implements CombinableAccumulateFunction {
 
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
 
@@ -92,6 +90,17 @@ public class BigDecimalAverageAccumulateFunction implements AccumulateFunction {
         data.total = data.total.subtract( BigDecimal.valueOf( ((Number) value).doubleValue() ) );
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public void combine(Serializable context,
+                        Serializable partial) throws Exception {
+        AverageData data = (AverageData) context;
+        AverageData other = (AverageData) partial;
+        data.count += other.count;
+        data.total = data.total.add( other.total );
+    }
+
     /* (non-Javadoc)
      * @see org.kie.base.accumulators.AccumulateFunction#getResult(java.lang.Object)
      */
@@ -23,12 +23,10 @@ import java.io.ObjectOutput;
 import java.io.Serializable;
 import java.math.BigDecimal;
 
-import org.kie.api.runtime.rule.AccumulateFunction;
-
 /**
  * An implementation of an accumulator capable of calculating sum of values
  */
-public class BigDecimalSumAccumulateFunction implements AccumulateFunction {
+public class BigDecimalSumAccumulateFunction implements CombinableAccumulateFunction {
 
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
 
@@ -86,6 +84,15 @@ public class BigDecimalSumAccumulateFunction implements AccumulateFunction {
         data.total = data.total.subtract( BigDecimal.valueOf( ( (Number) value ).doubleValue() ) );
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public void combine(Serializable context,
+                        Serializable partial) throws Exception {
+        SumData data = (SumData) context;
+        data.total = data.total.add( ((SumData) partial).total );
+    }
+
     /* (non-Javadoc)
      * @see org.kie.base.accumulators.AccumulateFunction#getResult(java.lang.Object)
      */
@@ -25,8 +25,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-import org.kie.api.runtime.rule.AccumulateFunction;
-
 /**
  * <p>An implementation of an accumulator capable of collecting lists of values.
  * This is similar to the "collect" CE, but allows us to collect any value, not
@@ -49,7 +47,7 @@ import org.kie.api.runtime.rule.AccumulateFunction;
  */
 public class CollectListAccumulateFunction
     implements
-    AccumulateFunction {
+    CombinableAccumulateFunction {
 
     public void readExternal(ObjectInput in) throws IOException,
                                             ClassNotFoundException {
@@ -113,6 +111,15 @@ public class CollectListAccumulateFunction
         data.list.remove( value );
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public void combine(Serializable context,
+                        Serializable partial) throws Exception {
+        CollectListData data = (CollectListData) context;
+        data.list.addAll( ((CollectListData) partial).list );
+    }
+
     /* (non-Javadoc)
      * @see org.kie.base.accumulators.AccumulateFunction#getResult(java.lang.Object)
      */
@@ -26,8 +26,6 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
-import org.kie.api.runtime.rule.AccumulateFunction;
-
 /**
  * <p>An implementation of an accumulator capable of collecting sets of values.
  * This is similar to the "collect" CE, but allows us to collect any value, not
@@ -50,7 +48,7 @@ import org.kie.api.runtime.rule.AccumulateFunction;
  */
 public class CollectSetAccumulateFunction
     implements
-    AccumulateFunction {
+    CombinableAccumulateFunction {
 
     public void readExternal(ObjectInput in) throws IOException,
                                             ClassNotFoundException {
@@ -127,6 +125,22 @@ public class CollectSetAccumulateFunction
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public void combine(Serializable context,
+                        Serializable partial) throws Exception {
+        CollectListData data = (CollectListData) context;
+        for ( Map.Entry<Object, CollectListData.MutableInt> entry : ((CollectListData) partial).map.entrySet() ) {
+            CollectListData.MutableInt counter = data.map.get( entry.getKey() );
+            if( counter == null ) {
+                counter = new CollectListData.MutableInt();
+                data.map.put( entry.getKey(), counter );
+            }
+            counter.value += entry.getValue().value;
+        }
+    }
+
     /* (non-Javadoc)
      * @see org.kie.base.accumulators.AccumulateFunction#getResult(java.lang.Object)
      */
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.base.accumulators;
+
+import java.io.Serializable;
+
+import org.kie.api.runtime.rule.AccumulateFunction;
+
+/**
+ * An accumulate function whose partial accumulations can be merged together.
+ *
+ * When a function that does not support reverse implements this interface, the matched
+ * values are split into panes, each one with its own partial accumulation: removing a value
+ * only requires to recalculate its pane, and the result is obtained combining the panes,
+ * instead of accumulating again all the values. Since the events expired by a sliding window
+ * are the oldest ones, they are removed from the first pane, that is dropped as a whole once
+ * all its events are gone.
+ */
+public interface CombinableAccumulateFunction extends AccumulateFunction {
+
+    /**
+     * Merges the partial accumulation into the given context, so that the context contains
+     * the accumulation of both its values and the values accumulated in the partial one.
+     * The partial context must not be modified.
+     */
+    void combine(Serializable context,
+                 Serializable partial) throws Exception;
+}
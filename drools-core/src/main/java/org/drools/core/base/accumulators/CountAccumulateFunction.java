@@ -22,12 +22,10 @@ import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.Serializable;
 
-import org.kie.api.runtime.rule.AccumulateFunction;
-
 /**
  * An implementation of an accumulator capable of counting occurences
  */
-public class CountAccumulateFunction implements AccumulateFunction {
+public class CountAccumulateFunction implements CombinableAccumulateFunction {
 
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
 
@@ -85,6 +83,15 @@ public class CountAccumulateFunction implements AccumulateFunction {
         data.count--;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public void combine(Serializable context,
+                        Serializable partial) throws Exception {
+        CountData data = (CountData) context;
+        data.count += ((CountData) partial).count;
+    }
+
     /* (non-Javadoc)
      * @see org.kie.base.accumulators.AccumulateFunction#getResult(java.lang.Object)
      */
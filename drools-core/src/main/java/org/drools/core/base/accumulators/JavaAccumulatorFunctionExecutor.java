@@ -78,6 +78,10 @@ public class JavaAccumulatorFunctionExecutor
      */
     public Serializable createContext() {
         JavaAccumulatorFunctionContext context = new JavaAccumulatorFunctionContext();
+        if ( isPaned() ) {
+            context.panes = new PanedAccumulation();
+            return context;
+        }
         context.context = this.function.createContext();
         if ( this.function.supportsReverse() ) {
             context.reverseSupport = new HashMap<Integer, Object>();
@@ -93,6 +97,10 @@ public class JavaAccumulatorFunctionExecutor
                      Tuple leftTuple,
                      Declaration[] declarations,
                      WorkingMemory workingMemory) throws Exception {
+        if ( ((JavaAccumulatorFunctionContext) context).panes != null ) {
+            ((JavaAccumulatorFunctionContext) context).panes.init( (CombinableAccumulateFunction) this.function );
+            return;
+        }
         this.function.init( ((JavaAccumulatorFunctionContext) context).context );
     }
 
@@ -112,6 +120,10 @@ public class JavaAccumulatorFunctionExecutor
                                                        innerDeclarations,
                                                        workingMemory,
                                                        workingMemoryContext ).getValue();
+        if ( ((JavaAccumulatorFunctionContext) context).panes != null ) {
+            ((JavaAccumulatorFunctionContext) context).panes.accumulate( (CombinableAccumulateFunction) this.function, handle.getId(), value );
+            return;
+        }
         if ( this.function.supportsReverse() ) {
             ((JavaAccumulatorFunctionContext) context).reverseSupport.put( handle.getId(),
                                                                            value );
@@ -128,6 +140,10 @@ public class JavaAccumulatorFunctionExecutor
                         Declaration[] innerDeclarations,
                         WorkingMemory workingMemory) throws Exception {
 
+        if ( ((JavaAccumulatorFunctionContext) context).panes != null ) {
+            ((JavaAccumulatorFunctionContext) context).panes.reverse( handle.getId() );
+            return;
+        }
         final Object value = ((JavaAccumulatorFunctionContext) context).reverseSupport.remove(handle.getId());
         this.function.reverse( ((JavaAccumulatorFunctionContext) context).context,
                                value );
@@ -141,11 +157,19 @@ public class JavaAccumulatorFunctionExecutor
                             Tuple leftTuple,
                             Declaration[] declarations,
                             WorkingMemory workingMemory) throws Exception {
+        if ( ((JavaAccumulatorFunctionContext) context).panes != null ) {
+            return ((JavaAccumulatorFunctionContext) context).panes.getResult( (CombinableAccumulateFunction) this.function );
+        }
         return this.function.getResult( ((JavaAccumulatorFunctionContext) context).context );
     }
 
     public boolean supportsReverse() {
-        return this.function.supportsReverse();
+        // paned accumulations only recalculate the pane of the removed value
+        return this.function.supportsReverse() || isPaned();
+    }
+
+    private boolean isPaned() {
+        return !this.function.supportsReverse() && this.function instanceof CombinableAccumulateFunction;
     }
 
     public ReturnValueExpression getExpression() {
@@ -170,6 +194,7 @@ public class JavaAccumulatorFunctionExecutor
         Externalizable {
         public Serializable               context;
         public Map<Integer, Object>       reverseSupport;
+        public PanedAccumulation          panes;
 
         public JavaAccumulatorFunctionContext() {
         }
@@ -179,11 +204,13 @@ public class JavaAccumulatorFunctionExecutor
                                                 ClassNotFoundException {
             context = (Externalizable) in.readObject();
             reverseSupport = (Map<Integer, Object>) in.readObject();
+            panes = (PanedAccumulation) in.readObject();
         }
 
         public void writeExternal(ObjectOutput out) throws IOException {
             out.writeObject( context );
             out.writeObject( reverseSupport );
+            out.writeObject( panes );
         }
     }
     
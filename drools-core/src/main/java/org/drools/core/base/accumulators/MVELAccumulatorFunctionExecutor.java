@@ -89,6 +89,10 @@ public class MVELAccumulatorFunctionExecutor
      */
     public Serializable createContext() {
         MVELAccumulatorFunctionContext context = new MVELAccumulatorFunctionContext();
+        if ( isPaned() ) {
+            context.panes = new PanedAccumulation();
+            return context;
+        }
         context.context = this.function.createContext();
         if ( this.function.supportsReverse() ) {
             context.reverseSupport = new HashMap<Integer, Object>();
@@ -104,6 +108,10 @@ public class MVELAccumulatorFunctionExecutor
                      Tuple leftTuple,
                      Declaration[] declarations,
                      WorkingMemory workingMemory) throws Exception {
+        if ( ((MVELAccumulatorFunctionContext) context).panes != null ) {
+            ((MVELAccumulatorFunctionContext) context).panes.init( (CombinableAccumulateFunction) this.function );
+            return;
+        }
         this.function.init( ((MVELAccumulatorFunctionContext) context).context );
     }
 
@@ -123,6 +131,10 @@ public class MVELAccumulatorFunctionExecutor
         final Object value = MVEL.executeExpression( this.expression,
                                                      handle.getObject(),
                                                      factory );
+        if ( ((MVELAccumulatorFunctionContext) context).panes != null ) {
+            ((MVELAccumulatorFunctionContext) context).panes.accumulate( (CombinableAccumulateFunction) this.function, handle.getId(), value );
+            return;
+        }
         if ( this.function.supportsReverse() ) {
             ((MVELAccumulatorFunctionContext) context).reverseSupport.put( Integer.valueOf( handle.getId() ),
                                                                            value );
@@ -138,6 +150,10 @@ public class MVELAccumulatorFunctionExecutor
                         Declaration[] declarations,
                         Declaration[] innerDeclarations,
                         WorkingMemory workingMemory) throws Exception {
+        if ( ((MVELAccumulatorFunctionContext) context).panes != null ) {
+            ((MVELAccumulatorFunctionContext) context).panes.reverse( handle.getId() );
+            return;
+        }
         final Object value = ((MVELAccumulatorFunctionContext) context).reverseSupport.remove( Integer.valueOf( handle.getId() ) );
         this.function.reverse( ((MVELAccumulatorFunctionContext) context).context,
                                value );
@@ -151,11 +167,19 @@ public class MVELAccumulatorFunctionExecutor
                             Tuple leftTuple,
                             Declaration[] declarations,
                             WorkingMemory workingMemory) throws Exception {
+        if ( ((MVELAccumulatorFunctionContext) context).panes != null ) {
+            return ((MVELAccumulatorFunctionContext) context).panes.getResult( (CombinableAccumulateFunction) this.function );
+        }
         return this.function.getResult( ((MVELAccumulatorFunctionContext) context).context );
     }
 
     public boolean supportsReverse() {
-        return this.function.supportsReverse();
+        // paned accumulations only recalculate the pane of the removed value
+        return this.function.supportsReverse() || isPaned();
+    }
+
+    private boolean isPaned() {
+        return !this.function.supportsReverse() && this.function instanceof CombinableAccumulateFunction;
     }
 
     public Object createWorkingMemoryContext() {
@@ -172,6 +196,7 @@ public class MVELAccumulatorFunctionExecutor
         Externalizable {
         public Serializable               context;
         public Map<Integer, Object> reverseSupport;
+        public PanedAccumulation          panes;
 
         public MVELAccumulatorFunctionContext() {
         }
@@ -181,11 +206,13 @@ public class MVELAccumulatorFunctionExecutor
                                                 ClassNotFoundException {
             context = (Serializable) in.readObject();
             reverseSupport = (Map<Integer, Object>) in.readObject();
+            panes = (PanedAccumulation) in.readObject();
         }
 
         public void writeExternal(ObjectOutput out) throws IOException {
             out.writeObject( context );
             out.writeObject( reverseSupport );
+            out.writeObject( panes );
         }
     }
 
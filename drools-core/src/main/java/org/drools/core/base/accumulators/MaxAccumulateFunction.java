@@ -22,12 +22,10 @@ import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.Serializable;
 
-import org.kie.api.runtime.rule.AccumulateFunction;
-
 /**
  * An implementation of an accumulator capable of calculating maximum values
  */
-public class MaxAccumulateFunction implements AccumulateFunction {
+public class MaxAccumulateFunction implements CombinableAccumulateFunction {
 
     protected static class MaxData implements Externalizable {
         public double max = -Double.MAX_VALUE;
@@ -81,6 +79,15 @@ public class MaxAccumulateFunction implements AccumulateFunction {
                         Object value) throws Exception {
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public void combine(Serializable context,
+                        Serializable partial) throws Exception {
+        MaxData data = (MaxData) context;
+        data.max = Math.max( data.max, ((MaxData) partial).max );
+    }
+
     /* (non-Javadoc)
      * @see org.kie.base.accumulators.AccumulateFunction#getResult(java.lang.Object)
      */
@@ -22,12 +22,10 @@ import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.Serializable;
 
-import org.kie.api.runtime.rule.AccumulateFunction;
-
 /**
  * An implementation of an accumulator capable of calculating minimun values
  */
-public class MinAccumulateFunction implements AccumulateFunction {
+public class MinAccumulateFunction implements CombinableAccumulateFunction {
 
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
 
@@ -82,6 +80,15 @@ public class MinAccumulateFunction implements AccumulateFunction {
                         Object value) throws Exception {
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public void combine(Serializable context,
+                        Serializable partial) throws Exception {
+        MinData data = (MinData) context;
+        data.min = Math.min( data.min, ((MinData) partial).min );
+    }
+
     /* (non-Javadoc)
      * @see org.kie.base.accumulators.AccumulateFunction#getResult(java.lang.Object)
      */
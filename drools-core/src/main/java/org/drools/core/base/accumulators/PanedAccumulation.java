@@ -0,0 +1,220 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.base.accumulators;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The accumulation of a {@link CombinableAccumulateFunction} that does not support reverse,
+ * split into panes of consecutive values each one with its own partial result.
+ *
+ * Values are appended to the last pane, whose size grows with the square root of the number of
+ * accumulated values. Removing a value marks its pane as dirty, or drops it if it was its last
+ * value, so the cost of a removal is the recalculation of a single pane plus the combination of
+ * the panes, instead of the accumulation of all the values. While values are only added, the
+ * combined result is kept up to date accumulating them also on it.
+ */
+public class PanedAccumulation
+    implements
+    Externalizable {
+
+    private static final int MIN_PANE_SIZE = 16;
+
+    private Pane                 first;
+    private Pane                 last;
+    private int                  size;
+
+    private Map<Integer, Pane>   panesByHandle = new HashMap<Integer, Pane>();
+
+    private Serializable         combined;
+    private boolean              combinedValid;
+
+    public PanedAccumulation() {
+    }
+
+    public void readExternal(ObjectInput in) throws IOException,
+                                            ClassNotFoundException {
+        int panes = in.readInt();
+        for ( int i = 0; i < panes; i++ ) {
+            Pane pane = (Pane) in.readObject();
+            pane.dirty = true;
+            link( pane );
+            for ( Integer handleId : pane.values.keySet() ) {
+                panesByHandle.put( handleId, pane );
+            }
+            size += pane.values.size();
+        }
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException {
+        int panes = 0;
+        for ( Pane pane = first; pane != null; pane = pane.next ) {
+            panes++;
+        }
+        out.writeInt( panes );
+        for ( Pane pane = first; pane != null; pane = pane.next ) {
+            out.writeObject( pane );
+        }
+    }
+
+    public void init(CombinableAccumulateFunction function) throws Exception {
+        first = null;
+        last = null;
+        size = 0;
+        panesByHandle.clear();
+        if ( combined == null ) {
+            combined = function.createContext();
+        }
+        function.init( combined );
+        combinedValid = true;
+    }
+
+    public void accumulate(CombinableAccumulateFunction function,
+                           int handleId,
+                           Object value) throws Exception {
+        Pane pane = last;
+        if ( pane == null || pane.values.size() >= getPaneSize() ) {
+            pane = new Pane( function.createContext() );
+            function.init( pane.context );
+            link( pane );
+        }
+        pane.values.put( handleId, value );
+        panesByHandle.put( handleId, pane );
+        size++;
+        if ( !pane.dirty ) {
+            function.accumulate( pane.context, value );
+        }
+        if ( combinedValid ) {
+            function.accumulate( combined, value );
+        }
+    }
+
+    public void reverse(int handleId) {
+        Pane pane = panesByHandle.remove( handleId );
+        if ( pane == null ) {
+            return;
+        }
+        pane.values.remove( handleId );
+        size--;
+        if ( pane.values.isEmpty() ) {
+            unlink( pane );
+        } else {
+            pane.dirty = true;
+        }
+        combinedValid = false;
+    }
+
+    public Object getResult(CombinableAccumulateFunction function) throws Exception {
+        if ( !combinedValid ) {
+            if ( combined == null ) {
+                combined = function.createContext();
+            }
+            function.init( combined );
+            for ( Pane pane = first; pane != null; pane = pane.next ) {
+                if ( pane.dirty ) {
+                    function.init( pane.context );
+                    for ( Object value : pane.values.values() ) {
+                        function.accumulate( pane.context, value );
+                    }
+                    pane.dirty = false;
+                }
+                function.combine( combined, pane.context );
+            }
+            combinedValid = true;
+        }
+        return function.getResult( combined );
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getPaneCount() {
+        int panes = 0;
+        for ( Pane pane = first; pane != null; pane = pane.next ) {
+            panes++;
+        }
+        return panes;
+    }
+
+    private int getPaneSize() {
+        return Math.max( MIN_PANE_SIZE, (int) Math.sqrt( size ) );
+    }
+
+    private void link(Pane pane) {
+        if ( last == null ) {
+            first = pane;
+        } else {
+            last.next = pane;
+            pane.previous = last;
+        }
+        last = pane;
+    }
+
+    private void unlink(Pane pane) {
+        if ( pane.previous == null ) {
+            first = pane.next;
+        } else {
+            pane.previous.next = pane.next;
+        }
+        if ( pane.next == null ) {
+            last = pane.previous;
+        } else {
+            pane.next.previous = pane.previous;
+        }
+        pane.previous = null;
+        pane.next = null;
+    }
+
+    public static class Pane
+        implements
+        Externalizable {
+
+        private Serializable              context;
+        private LinkedHashMap<Integer, Object> values = new LinkedHashMap<Integer, Object>();
+        private boolean                   dirty;
+
+        private transient Pane            previous;
+        private transient Pane            next;
+
+        public Pane() {
+        }
+
+        Pane(Serializable context) {
+            this.context = context;
+        }
+
+        @SuppressWarnings("unchecked")
+        public void readExternal(ObjectInput in) throws IOException,
+                                                ClassNotFoundException {
+            context = (Serializable) in.readObject();
+            values = (LinkedHashMap<Integer, Object>) in.readObject();
+        }
+
+        public void writeExternal(ObjectOutput out) throws IOException {
+            out.writeObject( context );
+            out.writeObject( values );
+        }
+    }
+}
@@ -22,6 +22,7 @@ import org.drools.core.base.mvel.MVELCompileable;
 import org.drools.core.common.InternalFactHandle;
 import org.drools.core.common.InternalWorkingMemory;
 import org.drools.core.definitions.rule.impl.RuleImpl;
+import org.drools.core.phreak.ReactiveMap;
 import org.drools.core.reteoo.LeftTuple;
 import org.drools.core.rule.Declaration;
 import org.drools.core.rule.MVELDialectRuntimeData;
@@ -126,6 +127,8 @@ public class MVELDataProvider
             return Collections.EMPTY_LIST.iterator();
         } else if ( result instanceof Collection ) {
             return ((Collection) result).iterator();
+        } else if ( result instanceof ReactiveMap ) {
+            return ((ReactiveMap) result).values().iterator();
         } else if ( result instanceof Iterator ) {
             return (Iterator) result;
         } else if ( result.getClass().isArray() ) {
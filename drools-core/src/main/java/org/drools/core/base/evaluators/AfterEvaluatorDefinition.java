@@ -26,7 +26,9 @@ import org.drools.core.rule.VariableRestriction.VariableContextEntry;
 import org.drools.core.spi.Evaluator;
 import org.drools.core.spi.FieldValue;
 import org.drools.core.spi.InternalReadAccessor;
+import org.drools.core.spi.TemporalRangeEvaluator;
 import org.drools.core.time.Interval;
+import org.drools.core.time.TimeUtils;
 
 import java.io.IOException;
 import java.io.ObjectInput;
@@ -212,7 +214,7 @@ public class AfterEvaluatorDefinition
     /**
      * Implements the 'after' evaluator itself
      */
-    public static class AfterEvaluator extends BaseEvaluator {
+    public static class AfterEvaluator extends BaseEvaluator implements TemporalRangeEvaluator {
         private static final long serialVersionUID = 510l;
 
         private long              initRange;
@@ -289,6 +291,18 @@ public class AfterEvaluatorDefinition
                                  end );
         }
 
+        public boolean isRangeIndexable() {
+            return !this.unwrapLeft && !this.unwrapRight && !this.getOperator().isNegated();
+        }
+
+        public long getMinRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return TimeUtils.addOffset( leftEnd, this.initRange );
+        }
+
+        public long getMaxRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return TimeUtils.addOffset( leftEnd, this.finalRange );
+        }
+
         public boolean evaluate(InternalWorkingMemory workingMemory,
                                 final InternalReadAccessor extractor,
                                 final InternalFactHandle object1,
@@ -26,7 +26,9 @@ import org.drools.core.rule.VariableRestriction.VariableContextEntry;
 import org.drools.core.spi.Evaluator;
 import org.drools.core.spi.FieldValue;
 import org.drools.core.spi.InternalReadAccessor;
+import org.drools.core.spi.TemporalRangeEvaluator;
 import org.drools.core.time.Interval;
+import org.drools.core.time.TimeUtils;
 
 import java.io.IOException;
 import java.io.ObjectInput;
@@ -210,7 +212,7 @@ public class BeforeEvaluatorDefinition
     /**
      * Implements the 'before' evaluator itself
      */
-    public static class BeforeEvaluator extends BaseEvaluator {
+    public static class BeforeEvaluator extends BaseEvaluator implements TemporalRangeEvaluator {
         private static final long serialVersionUID = 510l;
 
         private long              initRange;
@@ -287,6 +289,18 @@ public class BeforeEvaluatorDefinition
                                  end );
         }
 
+        public boolean isRangeIndexable() {
+            return !this.unwrapLeft && !this.unwrapRight && !this.getOperator().isNegated();
+        }
+
+        public long getMinRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return TimeUtils.subtractOffset( TimeUtils.subtractOffset( leftStart, this.finalRange ), maxRightDuration );
+        }
+
+        public long getMaxRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return TimeUtils.subtractOffset( leftStart, this.initRange );
+        }
+
         public boolean evaluate(InternalWorkingMemory workingMemory,
                                 final InternalReadAccessor extractor,
                                 final InternalFactHandle object1,
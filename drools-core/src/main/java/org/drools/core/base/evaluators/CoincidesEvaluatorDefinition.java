@@ -33,7 +33,9 @@ import org.drools.core.rule.VariableRestriction.VariableContextEntry;
 import org.drools.core.spi.Evaluator;
 import org.drools.core.spi.FieldValue;
 import org.drools.core.spi.InternalReadAccessor;
+import org.drools.core.spi.TemporalRangeEvaluator;
 import org.drools.core.time.Interval;
+import org.drools.core.time.TimeUtils;
 
 /**
  * <p>The implementation of the 'coincides' evaluator definition.</p>
@@ -202,7 +204,7 @@ public class CoincidesEvaluatorDefinition
     /**
      * Implements the 'coincides' evaluator itself
      */
-    public static class CoincidesEvaluator extends BaseEvaluator {
+    public static class CoincidesEvaluator extends BaseEvaluator implements TemporalRangeEvaluator {
         private static final long serialVersionUID = 510l;
 
         private long              startDev;
@@ -266,6 +268,18 @@ public class CoincidesEvaluatorDefinition
                                  0 );
         }
 
+        public boolean isRangeIndexable() {
+            return !this.unwrapLeft && !this.unwrapRight && !this.getOperator().isNegated();
+        }
+
+        public long getMinRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return TimeUtils.subtractOffset( leftStart, this.startDev );
+        }
+
+        public long getMaxRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return TimeUtils.addOffset( leftStart, this.startDev );
+        }
+
         public boolean evaluate(InternalWorkingMemory workingMemory,
                                 final InternalReadAccessor extractor,
                                 final InternalFactHandle object1,
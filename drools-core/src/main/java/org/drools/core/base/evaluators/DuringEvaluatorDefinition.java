@@ -33,7 +33,9 @@ import org.drools.core.rule.VariableRestriction.VariableContextEntry;
 import org.drools.core.spi.Evaluator;
 import org.drools.core.spi.FieldValue;
 import org.drools.core.spi.InternalReadAccessor;
+import org.drools.core.spi.TemporalRangeEvaluator;
 import org.drools.core.time.Interval;
+import org.drools.core.time.TimeUtils;
 
 /**
  * <p>The implementation of the <code>during</code> evaluator definition.</p>
@@ -223,7 +225,7 @@ public class DuringEvaluatorDefinition
     /**
      * Implements the 'during' evaluator itself
      */
-    public static class DuringEvaluator extends BaseEvaluator {
+    public static class DuringEvaluator extends BaseEvaluator implements TemporalRangeEvaluator {
         private static final long serialVersionUID = 510l;
 
         private long              startMinDev, startMaxDev;
@@ -281,6 +283,18 @@ public class DuringEvaluatorDefinition
                                  Interval.MAX );
         }
 
+        public boolean isRangeIndexable() {
+            return !this.getOperator().isNegated();
+        }
+
+        public long getMinRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return TimeUtils.addOffset( leftStart, this.startMinDev );
+        }
+
+        public long getMaxRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return TimeUtils.addOffset( leftStart, this.startMaxDev );
+        }
+
         public boolean evaluate(InternalWorkingMemory workingMemory,
                                 final InternalReadAccessor extractor,
                                 final InternalFactHandle object1,
@@ -33,7 +33,9 @@ import org.drools.core.rule.VariableRestriction.VariableContextEntry;
 import org.drools.core.spi.Evaluator;
 import org.drools.core.spi.FieldValue;
 import org.drools.core.spi.InternalReadAccessor;
+import org.drools.core.spi.TemporalRangeEvaluator;
 import org.drools.core.time.Interval;
+import org.drools.core.time.TimeUtils;
 
 /**
  * <p>The implementation of the <code>finishedby</code> evaluator definition.</p>
@@ -201,7 +203,7 @@ public class FinishedByEvaluatorDefinition
     /**
      * Implements the 'finishedby' evaluator itself
      */
-    public static class FinishedByEvaluator extends BaseEvaluator {
+    public static class FinishedByEvaluator extends BaseEvaluator implements TemporalRangeEvaluator {
         private static final long serialVersionUID = 510l;
 
         private long              endDev;
@@ -252,6 +254,18 @@ public class FinishedByEvaluatorDefinition
                                  0 );
         }
 
+        public boolean isRangeIndexable() {
+            return !this.getOperator().isNegated();
+        }
+
+        public long getMinRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return TimeUtils.subtractOffset( TimeUtils.subtractOffset( leftEnd, this.endDev ), maxRightDuration );
+        }
+
+        public long getMaxRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return leftStart - 1;
+        }
+
         public boolean evaluate(InternalWorkingMemory workingMemory,
                                 final InternalReadAccessor extractor,
                                 final InternalFactHandle object1,
@@ -33,7 +33,9 @@ import org.drools.core.rule.VariableRestriction.VariableContextEntry;
 import org.drools.core.spi.Evaluator;
 import org.drools.core.spi.FieldValue;
 import org.drools.core.spi.InternalReadAccessor;
+import org.drools.core.spi.TemporalRangeEvaluator;
 import org.drools.core.time.Interval;
+import org.drools.core.time.TimeUtils;
 
 /**
  * <p>The implementation of the <code>includes</code> evaluator definition.</p>
@@ -224,7 +226,7 @@ public class IncludesEvaluatorDefinition
     /**
      * Implements the 'includes' evaluator itself
      */
-    public static class IncludesEvaluator extends BaseEvaluator {
+    public static class IncludesEvaluator extends BaseEvaluator implements TemporalRangeEvaluator {
         private static final long serialVersionUID = 510l;
 
         private long              startMinDev, startMaxDev;
@@ -280,6 +282,18 @@ public class IncludesEvaluatorDefinition
                                  0 );
         }
 
+        public boolean isRangeIndexable() {
+            return !this.getOperator().isNegated();
+        }
+
+        public long getMinRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return TimeUtils.subtractOffset( leftStart, this.startMaxDev );
+        }
+
+        public long getMaxRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return TimeUtils.subtractOffset( leftStart, this.startMinDev );
+        }
+
         public boolean evaluate(InternalWorkingMemory workingMemory,
                                 final InternalReadAccessor extractor,
                                 final InternalFactHandle object1,
@@ -30,6 +30,8 @@ import org.drools.core.spi.Evaluator;
 import org.drools.core.spi.FieldValue;
 import org.drools.core.spi.InternalReadAccessor;
 
+import static org.drools.core.rule.constraint.EvaluatorHelper.matches;
+
 /**
  * This class defines the matches evaluator
  */
@@ -156,7 +158,7 @@ public class MatchesEvaluatorsDefinition implements EvaluatorDefinition {
             if ( value1 == null ) {
                 return false;
             }
-            return value1.matches( value2 );
+            return matches( value1, value2 );
         }
 
         public boolean evaluateCachedRight(InternalWorkingMemory workingMemory,
@@ -165,7 +167,7 @@ public class MatchesEvaluatorsDefinition implements EvaluatorDefinition {
             if ( value == null ) {
                 return false;
             }
-            return value.matches( (String) context.declaration.getExtractor().getValue( workingMemory, left.getObject() ) );
+            return matches( value, (String) context.declaration.getExtractor().getValue( workingMemory, left.getObject() ) );
         }
 
         public boolean evaluateCachedLeft(InternalWorkingMemory workingMemory,
@@ -174,7 +176,7 @@ public class MatchesEvaluatorsDefinition implements EvaluatorDefinition {
             if ( value == null ) {
                 return false;
             }
-            return value.matches( (String) ((ObjectVariableContextEntry) context).left );
+            return matches( value, (String) ((ObjectVariableContextEntry) context).left );
         }
 
         public boolean evaluate(InternalWorkingMemory workingMemory,
@@ -186,7 +188,7 @@ public class MatchesEvaluatorsDefinition implements EvaluatorDefinition {
             if ( value1 == null ) {
                 return false;
             }
-            return ((String) value1).matches( (String) value2 );
+            return matches( (String) value1, (String) value2 );
         }
 
         public String toString() {
@@ -215,7 +217,7 @@ public class MatchesEvaluatorsDefinition implements EvaluatorDefinition {
             if ( value1 == null ) {
                 return false;
             }
-            return ! value1.matches( value2 );
+            return ! matches( value1, value2 );
         }
 
         public boolean evaluateCachedRight(InternalWorkingMemory workingMemory,
@@ -224,7 +226,7 @@ public class MatchesEvaluatorsDefinition implements EvaluatorDefinition {
             if ( value == null ) {
                 return false;
             }
-            return ! value.matches( (String) context.declaration.getExtractor().getValue( workingMemory, left.getObject() ) );
+            return ! matches( value, (String) context.declaration.getExtractor().getValue( workingMemory, left.getObject() ) );
         }
 
         public boolean evaluateCachedLeft(InternalWorkingMemory workingMemory,
@@ -233,7 +235,7 @@ public class MatchesEvaluatorsDefinition implements EvaluatorDefinition {
             if ( value == null ) {
                 return false;
             }
-            return ! value.matches( (String) ((ObjectVariableContextEntry) context).left );
+            return ! matches( value, (String) ((ObjectVariableContextEntry) context).left );
         }
 
         public boolean evaluate(InternalWorkingMemory workingMemory,
@@ -245,7 +247,7 @@ public class MatchesEvaluatorsDefinition implements EvaluatorDefinition {
             if ( value1 == null ) {
                 return false;
             }
-            return ! ((String) value1).matches( (String) value2 );
+            return ! matches( (String) value1, (String) value2 );
         }
 
         public String toString() {
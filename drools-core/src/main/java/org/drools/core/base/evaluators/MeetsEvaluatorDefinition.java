@@ -33,7 +33,9 @@ import org.drools.core.rule.VariableRestriction.VariableContextEntry;
 import org.drools.core.spi.Evaluator;
 import org.drools.core.spi.FieldValue;
 import org.drools.core.spi.InternalReadAccessor;
+import org.drools.core.spi.TemporalRangeEvaluator;
 import org.drools.core.time.Interval;
+import org.drools.core.time.TimeUtils;
 
 /**
  * <p>The implementation of the <code>meets</code> evaluator definition.</p>
@@ -200,7 +202,7 @@ public class MeetsEvaluatorDefinition
     /**
      * Implements the 'meets' evaluator itself
      */
-    public static class MeetsEvaluator extends BaseEvaluator {
+    public static class MeetsEvaluator extends BaseEvaluator implements TemporalRangeEvaluator {
         private static final long serialVersionUID = 510l;
 
         private long              finalRange;
@@ -251,6 +253,18 @@ public class MeetsEvaluatorDefinition
                                  Interval.MAX );
         }
 
+        public boolean isRangeIndexable() {
+            return !this.getOperator().isNegated();
+        }
+
+        public long getMinRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return TimeUtils.subtractOffset( TimeUtils.subtractOffset( leftStart, this.finalRange ), maxRightDuration );
+        }
+
+        public long getMaxRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return TimeUtils.addOffset( leftStart, this.finalRange );
+        }
+
         public boolean evaluate(InternalWorkingMemory workingMemory,
                                 final InternalReadAccessor extractor,
                                 final InternalFactHandle object1,
@@ -33,7 +33,9 @@ import org.drools.core.rule.VariableRestriction.VariableContextEntry;
 import org.drools.core.spi.Evaluator;
 import org.drools.core.spi.FieldValue;
 import org.drools.core.spi.InternalReadAccessor;
+import org.drools.core.spi.TemporalRangeEvaluator;
 import org.drools.core.time.Interval;
+import org.drools.core.time.TimeUtils;
 
 /**
  * <p>The implementation of the <code>overlappedby</code> evaluator definition.</p>
@@ -209,7 +211,7 @@ public class OverlappedByEvaluatorDefinition
     /**
      * Implements the 'overlappedby' evaluator itself
      */
-    public static class OverlappedByEvaluator extends BaseEvaluator {
+    public static class OverlappedByEvaluator extends BaseEvaluator implements TemporalRangeEvaluator {
         private static final long serialVersionUID = 510l;
 
         private long                  minDev, maxDev;
@@ -258,6 +260,18 @@ public class OverlappedByEvaluatorDefinition
             }
             return new Interval( 0, Interval.MAX );
         }
+
+        public boolean isRangeIndexable() {
+            return !this.getOperator().isNegated();
+        }
+
+        public long getMinRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return Math.max( leftStart + 1, TimeUtils.subtractOffset( leftEnd, this.maxDev ) );
+        }
+
+        public long getMaxRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return TimeUtils.subtractOffset( leftEnd, this.minDev );
+        }
         
         public boolean evaluate(InternalWorkingMemory workingMemory,
                                 final InternalReadAccessor extractor,
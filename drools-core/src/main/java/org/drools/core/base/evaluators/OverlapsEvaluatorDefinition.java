@@ -33,7 +33,9 @@ import org.drools.core.rule.VariableRestriction.VariableContextEntry;
 import org.drools.core.spi.Evaluator;
 import org.drools.core.spi.FieldValue;
 import org.drools.core.spi.InternalReadAccessor;
+import org.drools.core.spi.TemporalRangeEvaluator;
 import org.drools.core.time.Interval;
+import org.drools.core.time.TimeUtils;
 
 /**
  * <p>The implementation of the <code>overlaps</code> evaluator definition.</p>
@@ -210,7 +212,7 @@ public class OverlapsEvaluatorDefinition
     /**
      * Implements the 'overlaps' evaluator itself
      */
-    public static class OverlapsEvaluator extends BaseEvaluator {
+    public static class OverlapsEvaluator extends BaseEvaluator implements TemporalRangeEvaluator {
         private static final long serialVersionUID = 510l;
 
         private long              minDev, maxDev;
@@ -263,6 +265,18 @@ public class OverlapsEvaluatorDefinition
                                  0 );
         }
 
+        public boolean isRangeIndexable() {
+            return !this.getOperator().isNegated();
+        }
+
+        public long getMinRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return TimeUtils.subtractOffset( TimeUtils.addOffset( leftStart, this.minDev ), maxRightDuration );
+        }
+
+        public long getMaxRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return leftStart - 1;
+        }
+
         public boolean evaluate(InternalWorkingMemory workingMemory,
                                 final InternalReadAccessor extractor,
                                 final InternalFactHandle object1,
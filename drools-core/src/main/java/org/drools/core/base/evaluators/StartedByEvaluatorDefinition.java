@@ -33,7 +33,9 @@ import org.drools.core.rule.VariableRestriction.VariableContextEntry;
 import org.drools.core.spi.Evaluator;
 import org.drools.core.spi.FieldValue;
 import org.drools.core.spi.InternalReadAccessor;
+import org.drools.core.spi.TemporalRangeEvaluator;
 import org.drools.core.time.Interval;
+import org.drools.core.time.TimeUtils;
 
 /**
  * <p>The implementation of the <code>startedby</code> evaluator definition.</p>
@@ -200,7 +202,7 @@ public class StartedByEvaluatorDefinition
     /**
      * Implements the 'startedby' evaluator itself
      */
-    public static class StartedByEvaluator extends BaseEvaluator {
+    public static class StartedByEvaluator extends BaseEvaluator implements TemporalRangeEvaluator {
         private static final long serialVersionUID = 510l;
 
         private long                startDev;
@@ -248,6 +250,18 @@ public class StartedByEvaluatorDefinition
             }
             return new Interval( 0, 0 );
         }
+
+        public boolean isRangeIndexable() {
+            return !this.getOperator().isNegated();
+        }
+
+        public long getMinRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return TimeUtils.subtractOffset( leftStart, this.startDev );
+        }
+
+        public long getMaxRightStart(long leftStart, long leftEnd, long maxRightDuration) {
+            return TimeUtils.addOffset( leftStart, this.startDev );
+        }
         
         public boolean evaluate(InternalWorkingMemory workingMemory,
                                 final InternalReadAccessor extractor,
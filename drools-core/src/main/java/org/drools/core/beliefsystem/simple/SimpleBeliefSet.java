@@ -15,6 +15,9 @@ public class SimpleBeliefSet extends LinkedList<SimpleMode> implements BeliefSet
     protected InternalFactHandle fh;
     
     protected WorkingMemoryAction wmAction;
+
+    // the context of the last justification removed while this set was staged in a TruthMaintenanceBatch
+    protected PropagationContext batchedContext;
     
     public SimpleBeliefSet(BeliefSystem beliefSystem, InternalFactHandle fh) {
         this.beliefSystem = beliefSystem;
@@ -64,6 +67,18 @@ public class SimpleBeliefSet extends LinkedList<SimpleMode> implements BeliefSet
         this.wmAction = wmAction;
     }
 
+    public boolean isBatched() {
+        return batchedContext != null;
+    }
+
+    public PropagationContext getBatchedContext() {
+        return batchedContext;
+    }
+
+    public void setBatchedContext(PropagationContext batchedContext) {
+        this.batchedContext = batchedContext;
+    }
+
     @Override
     public boolean isNegated() {
         return false;
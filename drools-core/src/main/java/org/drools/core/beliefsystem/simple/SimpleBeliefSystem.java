@@ -7,6 +7,7 @@ import org.drools.core.common.InternalFactHandle;
 import org.drools.core.common.LogicalDependency;
 import org.drools.core.common.NamedEntryPoint;
 import org.drools.core.common.ObjectTypeConfigurationRegistry;
+import org.drools.core.common.TruthMaintenanceBatch;
 import org.drools.core.common.TruthMaintenanceSystem;
 import org.drools.core.definitions.rule.impl.RuleImpl;
 import org.drools.core.reteoo.ObjectTypeConf;
@@ -40,7 +41,8 @@ public class SimpleBeliefSystem
                                         BeliefSet<SimpleMode> beliefSet,
                                         PropagationContext context,
                                         ObjectTypeConf typeConf) {
-        boolean empty = beliefSet.isEmpty();
+        // a batched set lost its last justification in the current cycle, but its fact is still in the network
+        boolean empty = beliefSet.isEmpty() && !( (SimpleBeliefSet) beliefSet ).isBatched();
 
         beliefSet.add( node.getMode() );
 
@@ -70,6 +72,12 @@ public class SimpleBeliefSystem
         SimpleBeliefSet sBeliefSet = (SimpleBeliefSet) beliefSet;
         beliefSet.remove( node.getMode() );
 
+        TruthMaintenanceBatch batch = beliefSet.isEmpty() ? tms.getBatch() : null;
+        if ( batch != null && batch.stage( sBeliefSet, context ) ) {
+            // the status of the set will be resolved once, when the batch is closed
+            return;
+        }
+
         InternalFactHandle bfh = beliefSet.getFactHandle();
 
         if ( beliefSet.isEmpty() && bfh.getEqualityKey().getStatus() == EqualityKey.JUSTIFIED ) {
@@ -95,6 +103,32 @@ public class SimpleBeliefSystem
         }
     }
 
+    /**
+     * Resolves a belief set staged by a {@link TruthMaintenanceBatch}: if it has no justification left
+     * its fact is deleted from the network, unless it has been stated in the meanwhile.
+     */
+    public void resolve(SimpleBeliefSet beliefSet,
+                        PropagationContext context) {
+        if ( !beliefSet.isEmpty() ) {
+            // justified again before the end of the batch
+            return;
+        }
+
+        InternalFactHandle bfh = beliefSet.getFactHandle();
+        EqualityKey key = bfh.getEqualityKey();
+        if ( key.getStatus() == EqualityKey.JUSTIFIED ) {
+            ep.propagateDelete( bfh, bfh.getObject(), getObjectTypeConf( beliefSet ), (RuleImpl) context.getRule(), (Activation) context.getLeftTupleOrigin() );
+        }
+
+        // as in delete, null the logical handle and leave the key in the TMS only if it's stated
+        key.setLogicalFactHandle( null );
+        key.setBeliefSet( null );
+
+        if ( key.getStatus() == EqualityKey.JUSTIFIED ) {
+            tms.remove( key );
+        }
+    }
+
     public void stage(PropagationContext context,
                       BeliefSet<SimpleMode> beliefSet) {
         InternalFactHandle bfh = beliefSet.getFactHandle();
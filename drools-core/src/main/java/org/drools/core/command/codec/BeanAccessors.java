@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.command.codec;
+
+import org.drools.core.base.AccessorKey;
+import org.drools.core.base.BaseClassFieldReader;
+import org.drools.core.base.BaseClassFieldWriter;
+import org.drools.core.base.ClassFieldAccessorCache;
+import org.drools.core.util.ClassUtils;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves, once per class, the properties of the facts encoded by the codecs and their bytecode
+ * generated accessors, so that encoding and decoding a fact doesn't use reflection.
+ */
+class BeanAccessors {
+
+    private static final BeanType                  NOT_A_BEAN = new BeanType( Object.class, null );
+
+    private final ClassLoader                      classLoader;
+    private final ClassFieldAccessorCache          accessorCache;
+    private final ConcurrentMap<Class<?>, BeanType> beanTypes  = new ConcurrentHashMap<Class<?>, BeanType>();
+
+    BeanAccessors(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+        this.accessorCache = new ClassFieldAccessorCache( classLoader );
+    }
+
+    Class<?> loadClass(String className) throws ClassNotFoundException {
+        return Class.forName( className, false, classLoader );
+    }
+
+    ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * Returns the properties of the given class, or null if its instances can't be encoded as beans
+     */
+    BeanType getBeanType(Class<?> cls) {
+        BeanType beanType = beanTypes.get( cls );
+        if ( beanType == null ) {
+            beanType = createBeanType( cls );
+            BeanType existing = beanTypes.putIfAbsent( cls, beanType );
+            if ( existing != null ) {
+                beanType = existing;
+            }
+        }
+        return beanType == NOT_A_BEAN ? null : beanType;
+    }
+
+    // the accessor cache isn't thread safe, but the classes are inspected only the first time they are met
+    private synchronized BeanType createBeanType(Class<?> cls) {
+        if ( cls.isArray() || cls.isInterface() || cls.isPrimitive() || Modifier.isAbstract( cls.getModifiers() ) ||
+             cls.getName().startsWith( "java." ) || cls.getName().startsWith( "javax." ) ) {
+            return NOT_A_BEAN;
+        }
+        Constructor<?> constructor;
+        try {
+            constructor = cls.getConstructor();
+        } catch ( NoSuchMethodException e ) {
+            return NOT_A_BEAN;
+        }
+
+        BeanType beanType = new BeanType( cls, constructor );
+        ClassFieldAccessorCache.CacheEntry cacheEntry = accessorCache.getCacheEntry( cls );
+        for ( String property : ClassUtils.getSettableProperties( cls ) ) {
+            AccessorKey key = new AccessorKey( cls.getName(), property, AccessorKey.AccessorType.FieldAccessor );
+            BaseClassFieldReader reader;
+            BaseClassFieldWriter writer;
+            try {
+                reader = cacheEntry.getReadAccessor( key, cls );
+                writer = cacheEntry.getWriteAccessor( key, cls );
+            } catch ( RuntimeException e ) {
+                // not a java bean property
+                continue;
+            }
+            if ( reader != null && writer != null ) {
+                beanType.addProperty( property, writer.getFieldType(), reader, writer );
+            }
+        }
+        return beanType;
+    }
+
+    static class BeanType {
+        final Class<?>                       cls;
+        private final Constructor<?>         constructor;
+
+        final List<String>                   properties = new ArrayList<String>();
+        final List<Class<?>>                 types      = new ArrayList<Class<?>>();
+        final List<BaseClassFieldReader>     readers    = new ArrayList<BaseClassFieldReader>();
+        final List<BaseClassFieldWriter>     writers    = new ArrayList<BaseClassFieldWriter>();
+        private final Map<String, Integer>   indexes    = new HashMap<String, Integer>();
+
+        private BeanType(Class<?> cls,
+                         Constructor<?> constructor) {
+            this.cls = cls;
+            this.constructor = constructor;
+        }
+
+        private void addProperty(String property,
+                                 Class<?> type,
+                                 BaseClassFieldReader reader,
+                                 BaseClassFieldWriter writer) {
+            indexes.put( property, properties.size() );
+            properties.add( property );
+            types.add( type );
+            readers.add( reader );
+            writers.add( writer );
+        }
+
+        int size() {
+            return properties.size();
+        }
+
+        /**
+         * Returns the position of the given property, or -1 if the class doesn't have it
+         */
+        int indexOf(String property) {
+            Integer index = indexes.get( property );
+            return index != null ? index : -1;
+        }
+
+        Object get(Object bean,
+                   int index) {
+            return readers.get( index ).getValue( bean );
+        }
+
+        void set(Object bean,
+                 int index,
+                 Object value) {
+            writers.get( index ).setValue( bean, value );
+        }
+
+        Object newInstance() {
+            try {
+                return constructor.newInstance();
+            } catch ( Exception e ) {
+                throw new RuntimeException( "Unable to instantiate " + cls.getName(), e );
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.command.codec;
+
+import org.drools.core.command.runtime.BatchExecutionCommandImpl;
+import org.kie.api.command.BatchExecutionCommand;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Encodes and decodes batches of commands for remote execution, streaming them instead of building
+ * them in memory as the xstream converters do.
+ *
+ * The supported commands are insert, insert-elements, fire-all-rules, query, get-objects, set-global,
+ * get-global and retract. The facts are encoded as beans through the same bytecode generated accessors
+ * used by the constraints, so no reflection is needed for them once their class has been inspected.
+ *
+ * A batch can be decoded in a BatchExecutionCommand, or executed while it is decoded with
+ * {@link #newStreamingBatch(InputStream)}, so that the facts of an insert-elements are inserted as
+ * soon as they are read, without collecting them.
+ *
+ * A codec is thread safe and should be reused, since it caches the accessors of the encoded classes.
+ */
+public abstract class CommandCodec {
+
+    private final BeanAccessors beanAccessors;
+
+    CommandCodec(ClassLoader classLoader) {
+        this.beanAccessors = new BeanAccessors( classLoader );
+    }
+
+    /**
+     * Returns a codec for the compact binary encoding, in the protobuf wire format
+     *
+     * @param classLoader the class loader of the facts, usually the one of the kie base
+     */
+    public static CommandCodec newProtobufCodec(ClassLoader classLoader) {
+        return new ProtobufCommandCodec( classLoader );
+    }
+
+    /**
+     * Returns a codec for the json encoding
+     *
+     * @param classLoader the class loader of the facts, usually the one of the kie base
+     */
+    public static CommandCodec newJsonCodec(ClassLoader classLoader) {
+        return new JsonCommandCodec( classLoader );
+    }
+
+    public void encode(BatchExecutionCommand batch,
+                       OutputStream out) throws IOException {
+        newEncoder( beanAccessors, out ).encode( (BatchExecutionCommandImpl) batch );
+    }
+
+    public BatchExecutionCommandImpl decode(InputStream in) throws IOException {
+        CommandDecoder decoder = newDecoder( beanAccessors, in );
+        String lookup = decoder.startBatch();
+        return new BatchExecutionCommandImpl( decoder.decode(), lookup );
+    }
+
+    /**
+     * Returns a batch that is decoded while it is executed. Only its lookup is read by this method,
+     * the stream must be left open until the batch is executed.
+     */
+    public BatchExecutionCommandImpl newStreamingBatch(InputStream in) throws IOException {
+        CommandDecoder decoder = newDecoder( beanAccessors, in );
+        String lookup = decoder.startBatch();
+        return new StreamingBatchExecutionCommand( decoder, lookup );
+    }
+
+    abstract CommandEncoder newEncoder(BeanAccessors beanAccessors,
+                                       OutputStream out);
+
+    abstract CommandDecoder newDecoder(BeanAccessors beanAccessors,
+                                       InputStream in);
+}
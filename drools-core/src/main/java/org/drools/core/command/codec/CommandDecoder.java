@@ -0,0 +1,245 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.command.codec;
+
+import org.drools.core.command.impl.GenericCommand;
+import org.drools.core.command.runtime.GetGlobalCommand;
+import org.drools.core.command.runtime.SetGlobalCommand;
+import org.drools.core.command.runtime.rule.DeleteCommand;
+import org.drools.core.command.runtime.rule.FireAllRulesCommand;
+import org.drools.core.command.runtime.rule.GetObjectsCommand;
+import org.drools.core.command.runtime.rule.InsertElementsCommand;
+import org.drools.core.command.runtime.rule.InsertObjectCommand;
+import org.drools.core.command.runtime.rule.QueryCommand;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a batch of commands, one field at a time, in the format of the codec that created it.
+ * The commands are passed to a {@link CommandHandler} as soon as they are decoded, and the objects of an
+ * insert-elements one by one, so that they don't need to be collected when they are executed while decoding.
+ */
+abstract class CommandDecoder {
+
+    interface CommandHandler {
+
+        void onCommand(GenericCommand<?> command);
+
+        /**
+         * Called when all the fields of an insert-elements, but its objects, have been decoded
+         */
+        void onStartElements(InsertElementsCommand command);
+
+        void onElement(InsertElementsCommand command,
+                       Object element);
+
+        void onEndElements(InsertElementsCommand command);
+    }
+
+    /**
+     * Decodes all the commands of the batch
+     */
+    void decode(CommandHandler handler) throws IOException {
+        for ( CommandKind kind = nextCommand(); kind != null; kind = nextCommand() ) {
+            decodeCommand( kind, handler );
+        }
+    }
+
+    /**
+     * Decodes all the commands of the batch in a list
+     */
+    List<GenericCommand<?>> decode() throws IOException {
+        final List<GenericCommand<?>> commands = new ArrayList<GenericCommand<?>>();
+        decode( new CommandHandler() {
+            public void onCommand(GenericCommand<?> command) {
+                commands.add( command );
+            }
+
+            public void onStartElements(InsertElementsCommand command) {
+                command.setObjects( new ArrayList<Object>() );
+            }
+
+            public void onElement(InsertElementsCommand command,
+                                  Object element) {
+                command.getObjects().add( element );
+            }
+
+            public void onEndElements(InsertElementsCommand command) {
+                commands.add( command );
+            }
+        } );
+        return commands;
+    }
+
+    private void decodeCommand(CommandKind kind,
+                               CommandHandler handler) throws IOException {
+        switch ( kind ) {
+            case INSERT : {
+                InsertObjectCommand insert = new InsertObjectCommand();
+                for ( CommandField field = nextField(); field != null; field = nextField() ) {
+                    switch ( field ) {
+                        case OUT_IDENTIFIER : insert.setOutIdentifier( readString() ); break;
+                        case ENTRY_POINT : insert.setEntryPoint( readString() ); break;
+                        case RETURN_OBJECT : insert.setReturnObject( readBoolean() ); break;
+                        case OBJECT : insert.setObject( readValue() ); break;
+                        default : skipField();
+                    }
+                }
+                handler.onCommand( insert );
+                break;
+            }
+            case INSERT_ELEMENTS : {
+                InsertElementsCommand insert = new InsertElementsCommand();
+                boolean elements = false;
+                for ( CommandField field = nextField(); field != null; field = nextField() ) {
+                    if ( elements ) {
+                        throw new IOException( "The objects must be the last field of " + kind.name );
+                    }
+                    switch ( field ) {
+                        case OUT_IDENTIFIER : insert.setOutIdentifier( readString() ); break;
+                        case ENTRY_POINT : insert.setEntryPoint( readString() ); break;
+                        case RETURN_OBJECT : insert.setReturnObject( readBoolean() ); break;
+                        case ELEMENTS :
+                            handler.onStartElements( insert );
+                            while ( hasNextElement() ) {
+                                handler.onElement( insert, readElement() );
+                            }
+                            handler.onEndElements( insert );
+                            elements = true;
+                            break;
+                        default : skipField();
+                    }
+                }
+                if ( !elements ) {
+                    handler.onStartElements( insert );
+                    handler.onEndElements( insert );
+                }
+                break;
+            }
+            case FIRE_ALL_RULES : {
+                FireAllRulesCommand fire = new FireAllRulesCommand();
+                for ( CommandField field = nextField(); field != null; field = nextField() ) {
+                    switch ( field ) {
+                        case OUT_IDENTIFIER : fire.setOutIdentifier( readString() ); break;
+                        case MAX : fire.setMax( readInt() ); break;
+                        default : skipField();
+                    }
+                }
+                handler.onCommand( fire );
+                break;
+            }
+            case QUERY : {
+                QueryCommand query = new QueryCommand();
+                List<Object> arguments = new ArrayList<Object>();
+                for ( CommandField field = nextField(); field != null; field = nextField() ) {
+                    switch ( field ) {
+                        case OUT_IDENTIFIER : query.setOutIdentifier( readString() ); break;
+                        case NAME : query.setName( readString() ); break;
+                        case ARGUMENTS : readValues( arguments ); break;
+                        default : skipField();
+                    }
+                }
+                query.setArguments( arguments );
+                handler.onCommand( query );
+                break;
+            }
+            case GET_OBJECTS : {
+                GetObjectsCommand getObjects = new GetObjectsCommand();
+                for ( CommandField field = nextField(); field != null; field = nextField() ) {
+                    switch ( field ) {
+                        case OUT_IDENTIFIER : getObjects.setOutIdentifier( readString() ); break;
+                        default : skipField();
+                    }
+                }
+                handler.onCommand( getObjects );
+                break;
+            }
+            case SET_GLOBAL : {
+                SetGlobalCommand setGlobal = new SetGlobalCommand();
+                for ( CommandField field = nextField(); field != null; field = nextField() ) {
+                    switch ( field ) {
+                        case IDENTIFIER : setGlobal.setIdentifier( readString() ); break;
+                        case OUT_IDENTIFIER : setGlobal.setOutIdentifier( readString() ); break;
+                        case OBJECT : setGlobal.setObject( readValue() ); break;
+                        default : skipField();
+                    }
+                }
+                handler.onCommand( setGlobal );
+                break;
+            }
+            case GET_GLOBAL : {
+                GetGlobalCommand getGlobal = new GetGlobalCommand();
+                for ( CommandField field = nextField(); field != null; field = nextField() ) {
+                    switch ( field ) {
+                        case IDENTIFIER : getGlobal.setIdentifier( readString() ); break;
+                        case OUT_IDENTIFIER : getGlobal.setOutIdentifier( readString() ); break;
+                        default : skipField();
+                    }
+                }
+                handler.onCommand( getGlobal );
+                break;
+            }
+            case DELETE : {
+                DeleteCommand delete = new DeleteCommand();
+                for ( CommandField field = nextField(); field != null; field = nextField() ) {
+                    switch ( field ) {
+                        case FACT_HANDLE : delete.setFactHandleFromString( readString() ); break;
+                        default : skipField();
+                    }
+                }
+                handler.onCommand( delete );
+                break;
+            }
+        }
+    }
+
+    /**
+     * Reads the start of the batch, returning its lookup
+     */
+    abstract String startBatch() throws IOException;
+
+    /**
+     * Returns the kind of the next command, or null at the end of the batch
+     */
+    abstract CommandKind nextCommand() throws IOException;
+
+    /**
+     * Returns the next field of the current command, or null at its end. Unknown fields are skipped.
+     */
+    abstract CommandField nextField() throws IOException;
+
+    abstract void skipField() throws IOException;
+
+    abstract String readString() throws IOException;
+
+    abstract int readInt() throws IOException;
+
+    abstract boolean readBoolean() throws IOException;
+
+    abstract Object readValue() throws IOException;
+
+    /**
+     * Reads the values of a repeated field, adding them to the given list
+     */
+    abstract void readValues(List<Object> values) throws IOException;
+
+    abstract boolean hasNextElement() throws IOException;
+
+    abstract Object readElement() throws IOException;
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.command.codec;
+
+import org.drools.core.command.impl.GenericCommand;
+import org.drools.core.command.runtime.BatchExecutionCommandImpl;
+import org.drools.core.command.runtime.GetGlobalCommand;
+import org.drools.core.command.runtime.SetGlobalCommand;
+import org.drools.core.command.runtime.rule.DeleteCommand;
+import org.drools.core.command.runtime.rule.FireAllRulesCommand;
+import org.drools.core.command.runtime.rule.GetObjectsCommand;
+import org.drools.core.command.runtime.rule.InsertElementsCommand;
+import org.drools.core.command.runtime.rule.InsertObjectCommand;
+import org.drools.core.command.runtime.rule.QueryCommand;
+import org.drools.core.common.DisconnectedFactHandle;
+import org.drools.core.rule.EntryPointId;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes a batch of commands, one field at a time, in the format of the codec that created it.
+ * The supported commands are dispatched here, the subclasses only write the fields and the values.
+ */
+abstract class CommandEncoder {
+
+    void encode(BatchExecutionCommandImpl batch) throws IOException {
+        startBatch( batch.getLookup() );
+        for ( GenericCommand<?> command : batch.getCommands() ) {
+            encodeCommand( command );
+        }
+        endBatch();
+    }
+
+    private void encodeCommand(GenericCommand<?> command) throws IOException {
+        if ( command instanceof InsertObjectCommand ) {
+            InsertObjectCommand insert = (InsertObjectCommand) command;
+            startCommand( CommandKind.INSERT );
+            writeString( CommandField.OUT_IDENTIFIER, insert.getOutIdentifier() );
+            writeEntryPoint( insert.getEntryPoint() );
+            writeReturnObject( insert.isReturnObject() );
+            writeValue( CommandField.OBJECT, insert.getObject() );
+            endCommand();
+        } else if ( command instanceof InsertElementsCommand ) {
+            InsertElementsCommand insert = (InsertElementsCommand) command;
+            startCommand( CommandKind.INSERT_ELEMENTS );
+            writeString( CommandField.OUT_IDENTIFIER, insert.getOutIdentifier() );
+            writeEntryPoint( insert.getEntryPoint() );
+            writeReturnObject( insert.isReturnObject() );
+            Collection<Object> objects = insert.getObjects();
+            if ( objects != null && !objects.isEmpty() ) {
+                startElements();
+                for ( Object object : objects ) {
+                    writeElement( object );
+                }
+                endElements();
+            }
+            endCommand();
+        } else if ( command instanceof FireAllRulesCommand ) {
+            FireAllRulesCommand fire = (FireAllRulesCommand) command;
+            if ( fire.getAgendaFilter() != null ) {
+                throw new IllegalArgumentException( "fire-all-rules with an agenda filter cannot be encoded" );
+            }
+            startCommand( CommandKind.FIRE_ALL_RULES );
+            writeString( CommandField.OUT_IDENTIFIER, fire.getOutIdentifier() );
+            if ( fire.getMax() != -1 ) {
+                writeInt( CommandField.MAX, fire.getMax() );
+            }
+            endCommand();
+        } else if ( command instanceof QueryCommand ) {
+            QueryCommand query = (QueryCommand) command;
+            startCommand( CommandKind.QUERY );
+            writeString( CommandField.OUT_IDENTIFIER, query.getOutIdentifier() );
+            writeString( CommandField.NAME, query.getName() );
+            List<Object> arguments = query.getArguments();
+            if ( !arguments.isEmpty() ) {
+                writeValues( CommandField.ARGUMENTS, arguments );
+            }
+            endCommand();
+        } else if ( command instanceof GetObjectsCommand ) {
+            GetObjectsCommand getObjects = (GetObjectsCommand) command;
+            if ( getObjects.getFilter() != null ) {
+                throw new IllegalArgumentException( "get-objects with an object filter cannot be encoded" );
+            }
+            startCommand( CommandKind.GET_OBJECTS );
+            writeString( CommandField.OUT_IDENTIFIER, getObjects.getOutIdentifier() );
+            endCommand();
+        } else if ( command instanceof SetGlobalCommand ) {
+            SetGlobalCommand setGlobal = (SetGlobalCommand) command;
+            startCommand( CommandKind.SET_GLOBAL );
+            writeString( CommandField.IDENTIFIER, setGlobal.getIdentifier() );
+            writeString( CommandField.OUT_IDENTIFIER, setGlobal.getOutIdentifier() );
+            writeValue( CommandField.OBJECT, setGlobal.getObject() );
+            endCommand();
+        } else if ( command instanceof GetGlobalCommand ) {
+            GetGlobalCommand getGlobal = (GetGlobalCommand) command;
+            startCommand( CommandKind.GET_GLOBAL );
+            writeString( CommandField.IDENTIFIER, getGlobal.getIdentifier() );
+            writeString( CommandField.OUT_IDENTIFIER, getGlobal.getOutIdentifier() );
+            endCommand();
+        } else if ( command instanceof DeleteCommand ) {
+            DeleteCommand delete = (DeleteCommand) command;
+            startCommand( CommandKind.DELETE );
+            writeString( CommandField.FACT_HANDLE, ( (DisconnectedFactHandle) delete.getFactHandle() ).toExternalForm() );
+            endCommand();
+        } else {
+            throw new IllegalArgumentException( "Command " + command.getClass().getName() + " is not supported by the codec" );
+        }
+    }
+
+    private void writeEntryPoint(String entryPoint) throws IOException {
+        if ( entryPoint != null && !EntryPointId.DEFAULT.getEntryPointId().equals( entryPoint ) ) {
+            writeString( CommandField.ENTRY_POINT, entryPoint );
+        }
+    }
+
+    private void writeReturnObject(boolean returnObject) throws IOException {
+        if ( !returnObject ) {
+            writeBoolean( CommandField.RETURN_OBJECT, false );
+        }
+    }
+
+    abstract void startBatch(String lookup) throws IOException;
+
+    abstract void startCommand(CommandKind kind) throws IOException;
+
+    /**
+     * Writes a string field, nothing if the value is null
+     */
+    abstract void writeString(CommandField field,
+                              String value) throws IOException;
+
+    abstract void writeInt(CommandField field,
+                           int value) throws IOException;
+
+    abstract void writeBoolean(CommandField field,
+                               boolean value) throws IOException;
+
+    abstract void writeValue(CommandField field,
+                             Object value) throws IOException;
+
+    abstract void writeValues(CommandField field,
+                              List<Object> values) throws IOException;
+
+    /**
+     * Starts the objects of an insert-elements, they must be the last field of the command
+     */
+    abstract void startElements() throws IOException;
+
+    abstract void writeElement(Object element) throws IOException;
+
+    abstract void endElements() throws IOException;
+
+    abstract void endCommand() throws IOException;
+
+    abstract void endBatch() throws IOException;
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.command.codec;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The fields of the commands supported by the codecs, with their protobuf tag and json name.
+ * The tag 1 of a command message is its kind.
+ */
+enum CommandField {
+
+    OUT_IDENTIFIER( 2, "out-identifier" ),
+    ENTRY_POINT( 3, "entry-point" ),
+    RETURN_OBJECT( 4, "return-object" ),
+    MAX( 5, "max" ),
+    NAME( 6, "name" ),
+    IDENTIFIER( 7, "identifier" ),
+    OBJECT( 8, "object" ),
+    ARGUMENTS( 9, "arguments" ),
+    FACT_HANDLE( 10, "fact-handle" ),
+    ELEMENTS( 11, "objects" );
+
+    private static final CommandField[]            byTag  = new CommandField[values().length + 2];
+    private static final Map<String, CommandField> byName = new HashMap<String, CommandField>();
+
+    static {
+        for ( CommandField field : values() ) {
+            byTag[field.tag] = field;
+            byName.put( field.name, field );
+        }
+    }
+
+    final int    tag;
+    final String name;
+
+    CommandField(int tag,
+                 String name) {
+        this.tag = tag;
+        this.name = name;
+    }
+
+    static CommandField forTag(int tag) {
+        return tag > 0 && tag < byTag.length ? byTag[tag] : null;
+    }
+
+    static CommandField forName(String name) {
+        return byName.get( name );
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.command.codec;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The commands supported by the codecs, with their protobuf tag and json name. The names are the
+ * same used by the xstream converters.
+ */
+enum CommandKind {
+
+    INSERT( 1, "insert" ),
+    INSERT_ELEMENTS( 2, "insert-elements" ),
+    FIRE_ALL_RULES( 3, "fire-all-rules" ),
+    QUERY( 4, "query" ),
+    GET_OBJECTS( 5, "get-objects" ),
+    SET_GLOBAL( 6, "set-global" ),
+    GET_GLOBAL( 7, "get-global" ),
+    DELETE( 8, "retract" );
+
+    private static final CommandKind[]            byTag  = new CommandKind[values().length + 1];
+    private static final Map<String, CommandKind> byName = new HashMap<String, CommandKind>();
+
+    static {
+        for ( CommandKind kind : values() ) {
+            byTag[kind.tag] = kind;
+            byName.put( kind.name, kind );
+        }
+    }
+
+    final int    tag;
+    final String name;
+
+    CommandKind(int tag,
+                String name) {
+        this.tag = tag;
+        this.name = name;
+    }
+
+    static CommandKind forTag(int tag) {
+        return tag > 0 && tag < byTag.length ? byTag[tag] : null;
+    }
+
+    static CommandKind forName(String name) {
+        return byName.get( name );
+    }
+}
@@ -0,0 +1,518 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.command.codec;
+
+import org.drools.core.util.IoUtils;
+import org.kie.api.runtime.rule.Variable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes the batches in json, with the same names used by the xstream json converter:
+ *
+ * <pre>
+ * {"batch-execution":{"lookup":"ksession1","commands":[
+ *     {"insert-elements":{"out-identifier":"cheeses","objects":[
+ *         {"@type":"org.acme.Cheese","price":5,"type":"stilton"}]}},
+ *     {"fire-all-rules":{"max":10}},
+ *     {"query":{"out-identifier":"result","name":"cheeses","arguments":["stilton"]}}]}}
+ * </pre>
+ *
+ * A bean is an object whose first member is its @type, followed by its properties. The values whose class
+ * can't be inferred from the json value or from the type of the property holding them, as a Long in a
+ * query argument, are written as {"@type":"java.lang.Long","@value":5}. The objects of an insert-elements
+ * must be its last member, so that they can be decoded and inserted one at a time.
+ */
+class JsonCommandCodec extends CommandCodec {
+
+    static final String TYPE     = "@type";
+    static final String VALUE    = "@value";
+    static final String BATCH    = "batch-execution";
+    static final String LOOKUP   = "lookup";
+    static final String COMMANDS = "commands";
+
+    private static final Map<Class<?>, Class<?>> boxes = new HashMap<Class<?>, Class<?>>();
+
+    static {
+        boxes.put( int.class, Integer.class );
+        boxes.put( long.class, Long.class );
+        boxes.put( double.class, Double.class );
+        boxes.put( float.class, Float.class );
+        boxes.put( short.class, Short.class );
+        boxes.put( byte.class, Byte.class );
+        boxes.put( char.class, Character.class );
+        boxes.put( boolean.class, Boolean.class );
+    }
+
+    JsonCommandCodec(ClassLoader classLoader) {
+        super( classLoader );
+    }
+
+    CommandEncoder newEncoder(BeanAccessors beanAccessors,
+                              OutputStream out) {
+        return new Encoder( beanAccessors, out );
+    }
+
+    CommandDecoder newDecoder(BeanAccessors beanAccessors,
+                              InputStream in) {
+        return new Decoder( beanAccessors, in );
+    }
+
+    private static Class<?> box(Class<?> type) {
+        return type.isPrimitive() ? boxes.get( type ) : type;
+    }
+
+    static class Encoder extends CommandEncoder {
+
+        private final BeanAccessors beanAccessors;
+        private final JsonWriter    writer;
+
+        Encoder(BeanAccessors beanAccessors,
+                OutputStream out) {
+            this.beanAccessors = beanAccessors;
+            this.writer = new JsonWriter( new BufferedWriter( new OutputStreamWriter( out, IoUtils.UTF8_CHARSET ) ) );
+        }
+
+        void startBatch(String lookup) throws IOException {
+            writer.beginObject().name( BATCH ).beginObject();
+            if ( lookup != null ) {
+                writer.name( LOOKUP ).value( lookup );
+            }
+            writer.name( COMMANDS ).beginArray();
+        }
+
+        void startCommand(CommandKind kind) throws IOException {
+            writer.beginObject().name( kind.name ).beginObject();
+        }
+
+        void writeString(CommandField field,
+                         String value) throws IOException {
+            if ( value != null ) {
+                writer.name( field.name ).value( value );
+            }
+        }
+
+        void writeInt(CommandField field,
+                      int value) throws IOException {
+            writer.name( field.name ).value( value );
+        }
+
+        void writeBoolean(CommandField field,
+                          boolean value) throws IOException {
+            writer.name( field.name ).value( value );
+        }
+
+        void writeValue(CommandField field,
+                        Object value) throws IOException {
+            writer.name( field.name );
+            encodeValue( value, null );
+        }
+
+        void writeValues(CommandField field,
+                         List<Object> values) throws IOException {
+            writer.name( field.name ).beginArray();
+            for ( Object value : values ) {
+                encodeValue( value, null );
+            }
+            writer.endArray();
+        }
+
+        void startElements() throws IOException {
+            writer.name( CommandField.ELEMENTS.name ).beginArray();
+        }
+
+        void writeElement(Object element) throws IOException {
+            encodeValue( element, null );
+        }
+
+        void endElements() throws IOException {
+            writer.endArray();
+        }
+
+        void endCommand() throws IOException {
+            writer.endObject().endObject();
+        }
+
+        void endBatch() throws IOException {
+            writer.endArray().endObject().endObject();
+            writer.flush();
+        }
+
+        /**
+         * Writes a value, with its type unless it is implied by the json value or by the declared type
+         */
+        private void encodeValue(Object value,
+                                 Class<?> declaredType) throws IOException {
+            if ( value == null ) {
+                writer.nullValue();
+                return;
+            }
+            Class<?> cls = value.getClass();
+            if ( cls == String.class ) {
+                writer.value( (String) value );
+            } else if ( cls == Boolean.class ) {
+                writer.value( (Boolean) value );
+            } else if ( cls == Integer.class ) {
+                writer.value( (Integer) value );
+            } else if ( cls == Double.class && !( (Double) value ).isNaN() && !( (Double) value ).isInfinite() ) {
+                writer.literal( value.toString() );
+            } else if ( value instanceof Collection ) {
+                writer.beginArray();
+                for ( Object element : (Collection<?>) value ) {
+                    encodeValue( element, null );
+                }
+                writer.endArray();
+            } else if ( value instanceof Variable ) {
+                writer.beginObject().name( TYPE ).value( Variable.class.getName() ).endObject();
+            } else if ( isScalar( value ) ) {
+                Class<?> scalarClass = value instanceof Enum ? ( (Enum<?>) value ).getDeclaringClass() : cls;
+                if ( declaredType != null && box( declaredType ) == scalarClass ) {
+                    writeScalar( value );
+                } else {
+                    writer.beginObject().name( TYPE ).value( scalarClass.getName() ).name( VALUE );
+                    writeScalar( value );
+                    writer.endObject();
+                }
+            } else {
+                BeanAccessors.BeanType beanType = beanAccessors.getBeanType( cls );
+                if ( beanType == null ) {
+                    throw new IllegalArgumentException( "Unable to encode an instance of " + cls.getName() +
+                                                        " in json, it is not a java bean" );
+                }
+                writer.beginObject().name( TYPE ).value( cls.getName() );
+                for ( int i = 0, length = beanType.size(); i < length; i++ ) {
+                    writer.name( beanType.properties.get( i ) );
+                    encodeValue( beanType.get( value, i ), beanType.types.get( i ) );
+                }
+                writer.endObject();
+            }
+        }
+
+        private static boolean isScalar(Object value) {
+            return value instanceof Number || value instanceof Boolean || value instanceof Character ||
+                   value instanceof Enum || value.getClass() == Date.class;
+        }
+
+        private void writeScalar(Object value) throws IOException {
+            if ( value instanceof Date ) {
+                writer.value( ( (Date) value ).getTime() );
+            } else if ( value instanceof Enum ) {
+                writer.value( ( (Enum<?>) value ).name() );
+            } else if ( value instanceof Character ) {
+                writer.value( value.toString() );
+            } else if ( ( value instanceof Double && ( ( (Double) value ).isNaN() || ( (Double) value ).isInfinite() ) ) ||
+                        ( value instanceof Float && ( ( (Float) value ).isNaN() || ( (Float) value ).isInfinite() ) ) ) {
+                // not valid json numbers
+                writer.value( value.toString() );
+            } else if ( value instanceof Number || value instanceof Boolean ) {
+                writer.literal( value.toString() );
+            } else {
+                throw new IllegalArgumentException( "Unable to encode an instance of " + value.getClass().getName() + " in json" );
+            }
+        }
+    }
+
+    static class Decoder extends CommandDecoder {
+
+        private final BeanAccessors         beanAccessors;
+        private final JsonReader            reader;
+        private final Map<String, Class<?>> classes = new HashMap<String, Class<?>>();
+
+        private boolean                     elementsStarted;
+
+        Decoder(BeanAccessors beanAccessors,
+                InputStream in) {
+            this.beanAccessors = beanAccessors;
+            this.reader = new JsonReader( new InputStreamReader( in, IoUtils.UTF8_CHARSET ) );
+        }
+
+        String startBatch() throws IOException {
+            reader.beginObject();
+            if ( !reader.hasNext() || !BATCH.equals( reader.nextName() ) ) {
+                throw new IOException( "Expected a " + BATCH );
+            }
+            reader.beginObject();
+            String lookup = null;
+            while ( reader.hasNext() ) {
+                String name = reader.nextName();
+                if ( COMMANDS.equals( name ) ) {
+                    reader.beginArray();
+                    return lookup;
+                } else if ( LOOKUP.equals( name ) ) {
+                    lookup = readString();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            throw new IOException( "The " + BATCH + " doesn't have any " + COMMANDS );
+        }
+
+        CommandKind nextCommand() throws IOException {
+            if ( !reader.hasNext() ) {
+                reader.endArray();
+                while ( reader.hasNext() ) {
+                    reader.nextName();
+                    reader.skipValue();
+                }
+                reader.endObject();
+                reader.endObject();
+                return null;
+            }
+            reader.beginObject();
+            String name = reader.nextName();
+            CommandKind kind = CommandKind.forName( name );
+            if ( kind == null ) {
+                throw new IOException( "Unknown command " + name );
+            }
+            reader.beginObject();
+            return kind;
+        }
+
+        CommandField nextField() throws IOException {
+            while ( reader.hasNext() ) {
+                CommandField field = CommandField.forName( reader.nextName() );
+                if ( field != null ) {
+                    return field;
+                }
+                reader.skipValue();
+            }
+            reader.endObject();
+            reader.endObject();
+            return null;
+        }
+
+        void skipField() throws IOException {
+            reader.skipValue();
+        }
+
+        String readString() throws IOException {
+            if ( reader.peek() == JsonReader.Token.NULL ) {
+                reader.nextNull();
+                return null;
+            }
+            return reader.nextString();
+        }
+
+        int readInt() throws IOException {
+            return Integer.parseInt( reader.nextNumber() );
+        }
+
+        boolean readBoolean() throws IOException {
+            return reader.nextBoolean();
+        }
+
+        Object readValue() throws IOException {
+            return decodeValue( null );
+        }
+
+        void readValues(List<Object> values) throws IOException {
+            reader.beginArray();
+            while ( reader.hasNext() ) {
+                values.add( decodeValue( null ) );
+            }
+            reader.endArray();
+        }
+
+        boolean hasNextElement() throws IOException {
+            if ( !elementsStarted ) {
+                reader.beginArray();
+                elementsStarted = true;
+            }
+            if ( reader.hasNext() ) {
+                return true;
+            }
+            reader.endArray();
+            elementsStarted = false;
+            return false;
+        }
+
+        Object readElement() throws IOException {
+            return decodeValue( null );
+        }
+
+        /**
+         * Reads a value, converting it to the expected type if known
+         */
+        private Object decodeValue(Class<?> expectedType) throws IOException {
+            switch ( reader.peek() ) {
+                case NULL :
+                    reader.nextNull();
+                    return null;
+                case STRING :
+                    return fromString( reader.nextString(), expectedType );
+                case NUMBER :
+                    return fromNumber( reader.nextNumber(), expectedType );
+                case BOOLEAN :
+                    return reader.nextBoolean();
+                case BEGIN_ARRAY :
+                    List<Object> list = new ArrayList<Object>();
+                    reader.beginArray();
+                    while ( reader.hasNext() ) {
+                        list.add( decodeValue( null ) );
+                    }
+                    reader.endArray();
+                    return toCollection( list, expectedType );
+                case BEGIN_OBJECT :
+                    return decodeObject();
+                default :
+                    throw new IOException( "Invalid json: expected a value but was " + reader.peek() );
+            }
+        }
+
+        private Object decodeObject() throws IOException {
+            reader.beginObject();
+            if ( !reader.hasNext() || !TYPE.equals( reader.nextName() ) ) {
+                throw new IOException( "The first member of a json object must be its " + TYPE );
+            }
+            String className = reader.nextString();
+            if ( Variable.class.getName().equals( className ) ) {
+                skipMembers();
+                return Variable.v;
+            }
+            Class<?> cls = getClass( className );
+
+            String name = reader.hasNext() ? reader.nextName() : null;
+            if ( VALUE.equals( name ) ) {
+                Object value = decodeValue( cls );
+                skipMembers();
+                return value;
+            }
+
+            BeanAccessors.BeanType beanType = beanAccessors.getBeanType( cls );
+            if ( beanType == null ) {
+                throw new IOException( "The class " + className + " is not a java bean" );
+            }
+            Object bean = beanType.newInstance();
+            for ( ; name != null; name = reader.hasNext() ? reader.nextName() : null ) {
+                int index = beanType.indexOf( name );
+                if ( index >= 0 ) {
+                    beanType.set( bean, index, decodeValue( beanType.types.get( index ) ) );
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return bean;
+        }
+
+        private void skipMembers() throws IOException {
+            while ( reader.hasNext() ) {
+                reader.nextName();
+                reader.skipValue();
+            }
+            reader.endObject();
+        }
+
+        private Class<?> getClass(String className) throws IOException {
+            Class<?> cls = classes.get( className );
+            if ( cls == null ) {
+                try {
+                    cls = beanAccessors.loadClass( className );
+                } catch ( ClassNotFoundException e ) {
+                    throw new IOException( "Unable to load the class " + className );
+                }
+                classes.put( className, cls );
+            }
+            return cls;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Object fromString(String text,
+                                  Class<?> expectedType) throws IOException {
+            if ( expectedType == null || expectedType.isAssignableFrom( String.class ) ) {
+                return text;
+            }
+            Class<?> type = box( expectedType );
+            if ( type == Character.class ) {
+                return text.isEmpty() ? null : text.charAt( 0 );
+            } else if ( type.isEnum() ) {
+                return Enum.valueOf( (Class) type, text );
+            } else if ( type == Boolean.class ) {
+                return Boolean.valueOf( text );
+            }
+            // as NaN and Infinity
+            return fromNumber( text, type );
+        }
+
+        private Object fromNumber(String text,
+                                  Class<?> expectedType) throws IOException {
+            try {
+                Class<?> type = expectedType != null ? box( expectedType ) : null;
+                if ( type == Integer.class ) {
+                    return Integer.valueOf( text );
+                } else if ( type == Long.class ) {
+                    return Long.valueOf( text );
+                } else if ( type == Double.class ) {
+                    return Double.valueOf( text );
+                } else if ( type == Float.class ) {
+                    return Float.valueOf( text );
+                } else if ( type == Short.class ) {
+                    return Short.valueOf( text );
+                } else if ( type == Byte.class ) {
+                    return Byte.valueOf( text );
+                } else if ( type == BigDecimal.class ) {
+                    return new BigDecimal( text );
+                } else if ( type == BigInteger.class ) {
+                    return new BigInteger( text );
+                } else if ( type == Date.class ) {
+                    return new Date( Long.parseLong( text ) );
+                } else if ( type == String.class ) {
+                    return text;
+                }
+
+                if ( text.indexOf( '.' ) >= 0 || text.indexOf( 'e' ) >= 0 || text.indexOf( 'E' ) >= 0 ) {
+                    return Double.valueOf( text );
+                }
+                long value = Long.parseLong( text );
+                return value == (int) value ? (Object) (int) value : (Object) value;
+            } catch ( NumberFormatException e ) {
+                throw new IOException( "Invalid number " + text );
+            }
+        }
+
+        private Object toCollection(List<Object> list,
+                                    Class<?> expectedType) throws IOException {
+            if ( expectedType == null || expectedType.isAssignableFrom( ArrayList.class ) ) {
+                return list;
+            } else if ( expectedType.isAssignableFrom( HashSet.class ) ) {
+                return new HashSet<Object>( list );
+            }
+            try {
+                @SuppressWarnings("unchecked")
+                Collection<Object> collection = (Collection<Object>) expectedType.newInstance();
+                collection.addAll( list );
+                return collection;
+            } catch ( Exception e ) {
+                throw new IOException( "Unable to decode a json array as " + expectedType.getName() );
+            }
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.command.codec;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A minimal streaming json reader, returning one token at a time without building any tree
+ */
+final class JsonReader {
+
+    enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private final Reader        in;
+    private final char[]        buffer  = new char[8192];
+    private int                 pos;
+    private int                 limit;
+
+    private final StringBuilder builder = new StringBuilder();
+
+    // for each open object or array, whether it is an object
+    private boolean[]           objects = new boolean[16];
+    private int                 depth;
+    private boolean             nameExpected;
+
+    private Token               peeked;
+
+    JsonReader(Reader in) {
+        this.in = in;
+    }
+
+    Token peek() throws IOException {
+        if ( peeked == null ) {
+            int c = nextToken();
+            switch ( c ) {
+                case -1 : peeked = Token.END_DOCUMENT; break;
+                case '{' : peeked = Token.BEGIN_OBJECT; break;
+                case '}' : peeked = Token.END_OBJECT; break;
+                case '[' : peeked = Token.BEGIN_ARRAY; break;
+                case ']' : peeked = Token.END_ARRAY; break;
+                case '"' : peeked = nameExpected ? Token.NAME : Token.STRING; break;
+                case 't' :
+                case 'f' : peeked = Token.BOOLEAN; break;
+                case 'n' : peeked = Token.NULL; break;
+                default :
+                    if ( c == '-' || ( c >= '0' && c <= '9' ) ) {
+                        peeked = Token.NUMBER;
+                    } else {
+                        throw syntaxError( "Unexpected character '" + (char) c + "'" );
+                    }
+            }
+        }
+        return peeked;
+    }
+
+    boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    void beginObject() throws IOException {
+        consume( Token.BEGIN_OBJECT );
+        push( true );
+    }
+
+    void endObject() throws IOException {
+        consume( Token.END_OBJECT );
+        pop();
+    }
+
+    void beginArray() throws IOException {
+        consume( Token.BEGIN_ARRAY );
+        push( false );
+    }
+
+    void endArray() throws IOException {
+        consume( Token.END_ARRAY );
+        pop();
+    }
+
+    String nextName() throws IOException {
+        consume( Token.NAME );
+        String name = readString();
+        nameExpected = false;
+        return name;
+    }
+
+    String nextString() throws IOException {
+        consume( Token.STRING );
+        String value = readString();
+        valueRead();
+        return value;
+    }
+
+    /**
+     * Returns the text of the next number
+     */
+    String nextNumber() throws IOException {
+        expect( Token.NUMBER );
+        peeked = null;
+        String value = readLiteral();
+        valueRead();
+        return value;
+    }
+
+    boolean nextBoolean() throws IOException {
+        expect( Token.BOOLEAN );
+        peeked = null;
+        String value = readLiteral();
+        valueRead();
+        if ( "true".equals( value ) ) {
+            return true;
+        } else if ( "false".equals( value ) ) {
+            return false;
+        }
+        throw syntaxError( "Invalid literal " + value );
+    }
+
+    void nextNull() throws IOException {
+        expect( Token.NULL );
+        peeked = null;
+        String value = readLiteral();
+        valueRead();
+        if ( !"null".equals( value ) ) {
+            throw syntaxError( "Invalid literal " + value );
+        }
+    }
+
+    void skipValue() throws IOException {
+        switch ( peek() ) {
+            case BEGIN_OBJECT :
+                beginObject();
+                while ( hasNext() ) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+                break;
+            case BEGIN_ARRAY :
+                beginArray();
+                while ( hasNext() ) {
+                    skipValue();
+                }
+                endArray();
+                break;
+            case STRING : nextString(); break;
+            case NUMBER : nextNumber(); break;
+            case BOOLEAN : nextBoolean(); break;
+            case NULL : nextNull(); break;
+            default : throw syntaxError( "Expected a value but was " + peek() );
+        }
+    }
+
+    private void expect(Token token) throws IOException {
+        if ( peek() != token ) {
+            throw syntaxError( "Expected " + token + " but was " + peek() );
+        }
+    }
+
+    private void consume(Token token) throws IOException {
+        expect( token );
+        peeked = null;
+        pos++;
+    }
+
+    private void push(boolean object) {
+        if ( depth == objects.length ) {
+            boolean[] newObjects = new boolean[depth * 2];
+            System.arraycopy( objects, 0, newObjects, 0, depth );
+            objects = newObjects;
+        }
+        objects[depth++] = object;
+        nameExpected = object;
+    }
+
+    private void pop() {
+        depth--;
+        valueRead();
+    }
+
+    private void valueRead() {
+        nameExpected = depth > 0 && objects[depth - 1];
+    }
+
+    /**
+     * Skips the whitespaces and the separators, returning the first character of the next token without
+     * consuming it, or -1 at the end of the input
+     */
+    private int nextToken() throws IOException {
+        while ( pos < limit || fill() ) {
+            char c = buffer[pos];
+            if ( c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == ',' || c == ':' ) {
+                pos++;
+            } else {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    private boolean fill() throws IOException {
+        pos = 0;
+        limit = in.read( buffer, 0, buffer.length );
+        if ( limit <= 0 ) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    private String readString() throws IOException {
+        builder.setLength( 0 );
+        while ( true ) {
+            int start = pos;
+            while ( pos < limit ) {
+                char c = buffer[pos];
+                if ( c == '"' ) {
+                    builder.append( buffer, start, pos - start );
+                    pos++;
+                    return builder.toString();
+                } else if ( c == '\\' ) {
+                    builder.append( buffer, start, pos - start );
+                    pos++;
+                    builder.append( readEscaped() );
+                    start = pos;
+                } else {
+                    pos++;
+                }
+            }
+            builder.append( buffer, start, pos - start );
+            if ( !fill() ) {
+                throw syntaxError( "Unterminated string" );
+            }
+        }
+    }
+
+    private char readEscaped() throws IOException {
+        char c = nextChar();
+        switch ( c ) {
+            case 'n' : return '\n';
+            case 'r' : return '\r';
+            case 't' : return '\t';
+            case 'b' : return '\b';
+            case 'f' : return '\f';
+            case 'u' :
+                int value = 0;
+                for ( int i = 0; i < 4; i++ ) {
+                    int digit = Character.digit( nextChar(), 16 );
+                    if ( digit < 0 ) {
+                        throw syntaxError( "Invalid unicode escape" );
+                    }
+                    value = ( value << 4 ) | digit;
+                }
+                return (char) value;
+            default : return c;
+        }
+    }
+
+    private char nextChar() throws IOException {
+        if ( pos == limit && !fill() ) {
+            throw syntaxError( "Unexpected end of input" );
+        }
+        return buffer[pos++];
+    }
+
+    private String readLiteral() throws IOException {
+        builder.setLength( 0 );
+        while ( pos < limit || fill() ) {
+            char c = buffer[pos];
+            if ( Character.isLetterOrDigit( c ) || c == '-' || c == '+' || c == '.' ) {
+                builder.append( c );
+                pos++;
+            } else {
+                break;
+            }
+        }
+        return builder.toString();
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException( "Invalid json: " + message );
+    }
+}
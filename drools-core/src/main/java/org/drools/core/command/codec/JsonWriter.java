@@ -0,0 +1,166 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.command.codec;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A minimal streaming json writer, adding the separators between the names and the values it is given
+ */
+final class JsonWriter {
+
+    private final Writer out;
+
+    // for each open object or array, whether nothing has been written in it yet
+    private boolean[]    empty = new boolean[16];
+    private int          depth;
+    private boolean      afterName;
+
+    JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    JsonWriter beginObject() throws IOException {
+        beforeValue();
+        out.write( '{' );
+        push();
+        return this;
+    }
+
+    JsonWriter endObject() throws IOException {
+        depth--;
+        out.write( '}' );
+        return this;
+    }
+
+    JsonWriter beginArray() throws IOException {
+        beforeValue();
+        out.write( '[' );
+        push();
+        return this;
+    }
+
+    JsonWriter endArray() throws IOException {
+        depth--;
+        out.write( ']' );
+        return this;
+    }
+
+    JsonWriter name(String name) throws IOException {
+        beforeElement();
+        writeString( name );
+        out.write( ':' );
+        afterName = true;
+        return this;
+    }
+
+    JsonWriter value(String value) throws IOException {
+        if ( value == null ) {
+            return nullValue();
+        }
+        beforeValue();
+        writeString( value );
+        return this;
+    }
+
+    JsonWriter value(boolean value) throws IOException {
+        return literal( value ? "true" : "false" );
+    }
+
+    JsonWriter value(long value) throws IOException {
+        return literal( Long.toString( value ) );
+    }
+
+    JsonWriter nullValue() throws IOException {
+        return literal( "null" );
+    }
+
+    /**
+     * Writes a number or a keyword as it is
+     */
+    JsonWriter literal(String value) throws IOException {
+        beforeValue();
+        out.write( value );
+        return this;
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    private void beforeValue() throws IOException {
+        if ( afterName ) {
+            afterName = false;
+        } else {
+            beforeElement();
+        }
+    }
+
+    private void beforeElement() throws IOException {
+        if ( depth > 0 ) {
+            if ( empty[depth - 1] ) {
+                empty[depth - 1] = false;
+            } else {
+                out.write( ',' );
+            }
+        }
+    }
+
+    private void push() {
+        if ( depth == empty.length ) {
+            boolean[] newEmpty = new boolean[depth * 2];
+            System.arraycopy( empty, 0, newEmpty, 0, depth );
+            empty = newEmpty;
+        }
+        empty[depth++] = true;
+    }
+
+    private void writeString(String value) throws IOException {
+        out.write( '"' );
+        int start = 0;
+        int length = value.length();
+        for ( int i = 0; i < length; i++ ) {
+            char c = value.charAt( i );
+            String escaped;
+            if ( c == '"' ) {
+                escaped = "\\\"";
+            } else if ( c == '\\' ) {
+                escaped = "\\\\";
+            } else if ( c == '\n' ) {
+                escaped = "\\n";
+            } else if ( c == '\r' ) {
+                escaped = "\\r";
+            } else if ( c == '\t' ) {
+                escaped = "\\t";
+            } else if ( c < 0x20 || c == '\u2028' || c == '\u2029' ) {
+                escaped = String.format( "\\u%04x", (int) c );
+            } else {
+                continue;
+            }
+            if ( start < i ) {
+                out.write( value, start, i - start );
+            }
+            out.write( escaped );
+            start = i + 1;
+        }
+        if ( start < length ) {
+            out.write( value, start, length - start );
+        }
+        out.write( '"' );
+    }
+}
@@ -0,0 +1,631 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.command.codec;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import org.drools.core.common.DroolsObjectInputStream;
+import org.kie.api.runtime.rule.Variable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encodes the batches in the protobuf wire format, as the following messages:
+ *
+ * <pre>
+ * message Batch {
+ *     optional string lookup = 1;
+ *     repeated Command command = 2;
+ *     repeated Value element = 3; // the objects of the insert-elements preceding them
+ *     repeated Type type = 4;     // defined before the first value using it
+ * }
+ * message Command {
+ *     required uint32 kind = 1;   // must be the first field
+ *     optional string out_identifier = 2;
+ *     optional string entry_point = 3;
+ *     optional bool return_object = 4;
+ *     optional int32 max = 5;
+ *     optional string name = 6;
+ *     optional string identifier = 7;
+ *     optional Value object = 8;
+ *     repeated Value arguments = 9;
+ *     optional string fact_handle = 10;
+ * }
+ * message Type {
+ *     required uint32 id = 1;
+ *     required string class_name = 2;
+ *     repeated string property = 3;
+ * }
+ * message Value {                 // empty for null
+ *     optional string string = 1;   optional sint32 int = 2;        optional sint64 long = 3;
+ *     optional double double = 4;   optional float float = 5;       optional bool boolean = 6;
+ *     optional sint32 short = 7;    optional sint32 byte = 8;       optional uint32 char = 9;
+ *     optional string decimal = 10; optional string integer = 11;   optional int64 date = 12;
+ *     optional uint32 type = 13;    // of an enum, whose name is in string, a bean or a collection
+ *     repeated Value property = 14; // of a bean, in the order of its type
+ *     repeated Value element = 15;  // of a collection
+ *     optional bytes serialized = 16;
+ *     optional bool variable = 17;
+ * }
+ * </pre>
+ *
+ * The objects of an insert-elements are written after their command as top level elements, so that they
+ * can be decoded, and inserted, one at a time.
+ */
+class ProtobufCommandCodec extends CommandCodec {
+
+    static final int BATCH_LOOKUP      = 1;
+    static final int BATCH_COMMAND     = 2;
+    static final int BATCH_ELEMENT     = 3;
+    static final int BATCH_TYPE        = 4;
+
+    static final int COMMAND_KIND      = 1;
+
+    static final int TYPE_ID           = 1;
+    static final int TYPE_CLASS_NAME   = 2;
+    static final int TYPE_PROPERTY     = 3;
+
+    static final int VALUE_STRING      = 1;
+    static final int VALUE_INT         = 2;
+    static final int VALUE_LONG        = 3;
+    static final int VALUE_DOUBLE      = 4;
+    static final int VALUE_FLOAT       = 5;
+    static final int VALUE_BOOLEAN     = 6;
+    static final int VALUE_SHORT       = 7;
+    static final int VALUE_BYTE        = 8;
+    static final int VALUE_CHAR        = 9;
+    static final int VALUE_DECIMAL     = 10;
+    static final int VALUE_INTEGER     = 11;
+    static final int VALUE_DATE        = 12;
+    static final int VALUE_TYPE        = 13;
+    static final int VALUE_PROPERTY    = 14;
+    static final int VALUE_ELEMENT     = 15;
+    static final int VALUE_SERIALIZED  = 16;
+    static final int VALUE_VARIABLE    = 17;
+
+    ProtobufCommandCodec(ClassLoader classLoader) {
+        super( classLoader );
+    }
+
+    CommandEncoder newEncoder(BeanAccessors beanAccessors,
+                              OutputStream out) {
+        return new Encoder( beanAccessors, out );
+    }
+
+    CommandDecoder newDecoder(BeanAccessors beanAccessors,
+                              InputStream in) {
+        return new Decoder( beanAccessors, in );
+    }
+
+    static class Encoder extends CommandEncoder {
+
+        private final BeanAccessors           beanAccessors;
+        private final OutputStream            out;
+        private final CodedOutputStream       output;
+
+        // the nested messages are written in reused buffers, since their length has to precede them
+        private final List<MessageBuffer>     buffers = new ArrayList<MessageBuffer>();
+        private int                           depth;
+        private boolean                       commandWritten;
+
+        private final Map<Class<?>, Integer>  typeIds = new HashMap<Class<?>, Integer>();
+
+        Encoder(BeanAccessors beanAccessors,
+                OutputStream out) {
+            this.beanAccessors = beanAccessors;
+            this.out = out;
+            this.output = CodedOutputStream.newInstance( out );
+        }
+
+        void startBatch(String lookup) throws IOException {
+            if ( lookup != null ) {
+                output.writeString( BATCH_LOOKUP, lookup );
+            }
+        }
+
+        void startCommand(CommandKind kind) throws IOException {
+            push().coded.writeUInt32( COMMAND_KIND, kind.tag );
+            commandWritten = false;
+        }
+
+        void writeString(CommandField field,
+                         String value) throws IOException {
+            if ( value != null ) {
+                current().writeString( field.tag, value );
+            }
+        }
+
+        void writeInt(CommandField field,
+                      int value) throws IOException {
+            current().writeInt32( field.tag, value );
+        }
+
+        void writeBoolean(CommandField field,
+                          boolean value) throws IOException {
+            current().writeBool( field.tag, value );
+        }
+
+        void writeValue(CommandField field,
+                        Object value) throws IOException {
+            writeNestedValue( current(), field.tag, value );
+        }
+
+        void writeValues(CommandField field,
+                         List<Object> values) throws IOException {
+            CodedOutputStream command = current();
+            for ( Object value : values ) {
+                writeNestedValue( command, field.tag, value );
+            }
+        }
+
+        void startElements() throws IOException {
+            // the command is written before its elements
+            pop().writeTo( output, BATCH_COMMAND );
+            commandWritten = true;
+        }
+
+        void writeElement(Object element) throws IOException {
+            writeNestedValue( output, BATCH_ELEMENT, element );
+        }
+
+        void endElements() {
+        }
+
+        void endCommand() throws IOException {
+            if ( !commandWritten ) {
+                pop().writeTo( output, BATCH_COMMAND );
+            }
+        }
+
+        void endBatch() throws IOException {
+            output.flush();
+            out.flush();
+        }
+
+        private void writeNestedValue(CodedOutputStream target,
+                                      int field,
+                                      Object value) throws IOException {
+            MessageBuffer buffer = push();
+            encodeValue( buffer.coded, value );
+            pop();
+            buffer.writeTo( target, field );
+        }
+
+        private void encodeValue(CodedOutputStream coded,
+                                 Object value) throws IOException {
+            if ( value == null ) {
+                return;
+            }
+            Class<?> cls = value.getClass();
+            if ( cls == String.class ) {
+                coded.writeString( VALUE_STRING, (String) value );
+            } else if ( cls == Integer.class ) {
+                coded.writeSInt32( VALUE_INT, (Integer) value );
+            } else if ( cls == Long.class ) {
+                coded.writeSInt64( VALUE_LONG, (Long) value );
+            } else if ( cls == Double.class ) {
+                coded.writeDouble( VALUE_DOUBLE, (Double) value );
+            } else if ( cls == Float.class ) {
+                coded.writeFloat( VALUE_FLOAT, (Float) value );
+            } else if ( cls == Boolean.class ) {
+                coded.writeBool( VALUE_BOOLEAN, (Boolean) value );
+            } else if ( cls == Short.class ) {
+                coded.writeSInt32( VALUE_SHORT, (Short) value );
+            } else if ( cls == Byte.class ) {
+                coded.writeSInt32( VALUE_BYTE, (Byte) value );
+            } else if ( cls == Character.class ) {
+                coded.writeUInt32( VALUE_CHAR, (Character) value );
+            } else if ( cls == BigDecimal.class ) {
+                coded.writeString( VALUE_DECIMAL, value.toString() );
+            } else if ( cls == BigInteger.class ) {
+                coded.writeString( VALUE_INTEGER, value.toString() );
+            } else if ( cls == Date.class ) {
+                coded.writeInt64( VALUE_DATE, ( (Date) value ).getTime() );
+            } else if ( value instanceof Variable ) {
+                coded.writeBool( VALUE_VARIABLE, true );
+            } else if ( value instanceof Enum ) {
+                Class<?> enumClass = ( (Enum<?>) value ).getDeclaringClass();
+                coded.writeUInt32( VALUE_TYPE, getTypeId( enumClass, enumClass, null ) );
+                coded.writeString( VALUE_STRING, ( (Enum<?>) value ).name() );
+            } else if ( value instanceof Collection ) {
+                coded.writeUInt32( VALUE_TYPE, getTypeId( cls, getCollectionClass( value ), null ) );
+                for ( Object element : (Collection<?>) value ) {
+                    writeNestedValue( coded, VALUE_ELEMENT, element );
+                }
+            } else {
+                BeanAccessors.BeanType beanType = beanAccessors.getBeanType( cls );
+                if ( beanType != null ) {
+                    coded.writeUInt32( VALUE_TYPE, getTypeId( cls, cls, beanType ) );
+                    for ( int i = 0, length = beanType.size(); i < length; i++ ) {
+                        writeNestedValue( coded, VALUE_PROPERTY, beanType.get( value, i ) );
+                    }
+                } else if ( value instanceof Serializable ) {
+                    writeSerialized( coded, value );
+                } else {
+                    throw new IllegalArgumentException( "Unable to encode an instance of " + cls.getName() +
+                                                        ", it is neither a java bean nor serializable" );
+                }
+            }
+        }
+
+        private void writeSerialized(CodedOutputStream coded,
+                                     Object value) throws IOException {
+            MessageBuffer buffer = push();
+            ObjectOutputStream stream = new ObjectOutputStream( buffer.bytes );
+            stream.writeObject( value );
+            stream.close();
+            pop();
+            buffer.writeTo( coded, VALUE_SERIALIZED );
+        }
+
+        private Class<?> getCollectionClass(Object collection) {
+            try {
+                collection.getClass().getConstructor();
+                return collection.getClass();
+            } catch ( NoSuchMethodException e ) {
+                // as the ones returned by Arrays.asList() or Collections.unmodifiableList()
+                return collection instanceof Set ? HashSet.class : ArrayList.class;
+            }
+        }
+
+        private int getTypeId(Class<?> cls,
+                              Class<?> definedClass,
+                              BeanAccessors.BeanType beanType) throws IOException {
+            Integer id = typeIds.get( cls );
+            if ( id == null ) {
+                id = typeIds.size() + 1;
+                typeIds.put( cls, id );
+
+                // the definition precedes the command or the element being written
+                MessageBuffer buffer = push();
+                buffer.coded.writeUInt32( TYPE_ID, id );
+                buffer.coded.writeString( TYPE_CLASS_NAME, definedClass.getName() );
+                if ( beanType != null ) {
+                    for ( String property : beanType.properties ) {
+                        buffer.coded.writeString( TYPE_PROPERTY, property );
+                    }
+                }
+                pop();
+                buffer.writeTo( output, BATCH_TYPE );
+            }
+            return id;
+        }
+
+        private CodedOutputStream current() {
+            return buffers.get( depth - 1 ).coded;
+        }
+
+        private MessageBuffer push() {
+            if ( depth == buffers.size() ) {
+                buffers.add( new MessageBuffer() );
+            }
+            return buffers.get( depth++ );
+        }
+
+        private MessageBuffer pop() {
+            return buffers.get( --depth );
+        }
+    }
+
+    private static class MessageBuffer {
+        private final Bytes             bytes = new Bytes();
+        private final CodedOutputStream coded = CodedOutputStream.newInstance( bytes );
+
+        private void writeTo(CodedOutputStream target,
+                             int field) throws IOException {
+            coded.flush();
+            target.writeTag( field, WireFormat.WIRETYPE_LENGTH_DELIMITED );
+            target.writeRawVarint32( bytes.size() );
+            target.writeRawBytes( bytes.getBuffer(), 0, bytes.size() );
+            bytes.reset();
+        }
+    }
+
+    private static class Bytes extends ByteArrayOutputStream {
+        private byte[] getBuffer() {
+            return buf;
+        }
+    }
+
+    static class Decoder extends CommandDecoder {
+
+        private final BeanAccessors          beanAccessors;
+        private final CodedInputStream       input;
+
+        private int                          pendingTag;
+        private int                          fieldTag;
+        private int                          commandLimit;
+        private boolean                      inCommand;
+
+        private final List<DecodedType>      types = new ArrayList<DecodedType>();
+
+        Decoder(BeanAccessors beanAccessors,
+                InputStream in) {
+            this.beanAccessors = beanAccessors;
+            this.input = CodedInputStream.newInstance( in );
+            this.input.setSizeLimit( Integer.MAX_VALUE );
+        }
+
+        String startBatch() throws IOException {
+            if ( WireFormat.getTagFieldNumber( peekTag() ) == BATCH_LOOKUP ) {
+                pendingTag = 0;
+                return input.readString();
+            }
+            return null;
+        }
+
+        CommandKind nextCommand() throws IOException {
+            int tag = peekTag();
+            while ( tag != 0 && WireFormat.getTagFieldNumber( tag ) != BATCH_COMMAND ) {
+                pendingTag = 0;
+                input.skipField( tag );
+                tag = peekTag();
+            }
+            if ( tag == 0 ) {
+                return null;
+            }
+            pendingTag = 0;
+            commandLimit = input.pushLimit( input.readRawVarint32() );
+            inCommand = true;
+
+            if ( WireFormat.getTagFieldNumber( input.readTag() ) != COMMAND_KIND ) {
+                throw new IOException( "The kind must be the first field of a command" );
+            }
+            int kindTag = input.readUInt32();
+            CommandKind kind = CommandKind.forTag( kindTag );
+            if ( kind == null ) {
+                throw new IOException( "Unknown command kind " + kindTag );
+            }
+            return kind;
+        }
+
+        CommandField nextField() throws IOException {
+            while ( inCommand ) {
+                int tag = input.readTag();
+                if ( tag == 0 ) {
+                    input.popLimit( commandLimit );
+                    inCommand = false;
+                    break;
+                }
+                CommandField field = CommandField.forTag( WireFormat.getTagFieldNumber( tag ) );
+                if ( field != null ) {
+                    fieldTag = tag;
+                    return field;
+                }
+                input.skipField( tag );
+            }
+            // the objects of an insert-elements follow their command
+            return hasNextElement() ? CommandField.ELEMENTS : null;
+        }
+
+        void skipField() throws IOException {
+            if ( inCommand ) {
+                input.skipField( fieldTag );
+            } else {
+                // elements following a command that doesn't have them
+                while ( hasNextElement() ) {
+                    int tag = pendingTag;
+                    pendingTag = 0;
+                    input.skipField( tag );
+                }
+            }
+        }
+
+        String readString() throws IOException {
+            return input.readString();
+        }
+
+        int readInt() throws IOException {
+            return input.readInt32();
+        }
+
+        boolean readBoolean() throws IOException {
+            return input.readBool();
+        }
+
+        Object readValue() throws IOException {
+            int limit = input.pushLimit( input.readRawVarint32() );
+            Object value = decodeValue();
+            input.popLimit( limit );
+            return value;
+        }
+
+        void readValues(List<Object> values) throws IOException {
+            values.add( readValue() );
+        }
+
+        boolean hasNextElement() throws IOException {
+            return WireFormat.getTagFieldNumber( peekTag() ) == BATCH_ELEMENT;
+        }
+
+        Object readElement() throws IOException {
+            pendingTag = 0;
+            return readValue();
+        }
+
+        private int peekTag() throws IOException {
+            while ( pendingTag == 0 ) {
+                // the limit applies to each top level message, not to the whole batch
+                input.resetSizeCounter();
+                int tag = input.readTag();
+                if ( tag == 0 ) {
+                    return 0;
+                }
+                if ( WireFormat.getTagFieldNumber( tag ) == BATCH_TYPE ) {
+                    readType();
+                } else {
+                    pendingTag = tag;
+                }
+            }
+            return pendingTag;
+        }
+
+        private void readType() throws IOException {
+            int limit = input.pushLimit( input.readRawVarint32() );
+            int id = 0;
+            String className = null;
+            List<String> properties = new ArrayList<String>();
+            for ( int tag = input.readTag(); tag != 0; tag = input.readTag() ) {
+                switch ( WireFormat.getTagFieldNumber( tag ) ) {
+                    case TYPE_ID : id = input.readUInt32(); break;
+                    case TYPE_CLASS_NAME : className = input.readString(); break;
+                    case TYPE_PROPERTY : properties.add( input.readString() ); break;
+                    default : input.skipField( tag );
+                }
+            }
+            input.popLimit( limit );
+
+            while ( types.size() < id ) {
+                types.add( null );
+            }
+            types.set( id - 1, new DecodedType( beanAccessors, className, properties ) );
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Object decodeValue() throws IOException {
+            Object value = null;
+            DecodedType type = null;
+            int property = 0;
+            for ( int tag = input.readTag(); tag != 0; tag = input.readTag() ) {
+                switch ( WireFormat.getTagFieldNumber( tag ) ) {
+                    case VALUE_STRING : value = input.readString(); break;
+                    case VALUE_INT : value = input.readSInt32(); break;
+                    case VALUE_LONG : value = input.readSInt64(); break;
+                    case VALUE_DOUBLE : value = input.readDouble(); break;
+                    case VALUE_FLOAT : value = input.readFloat(); break;
+                    case VALUE_BOOLEAN : value = input.readBool(); break;
+                    case VALUE_SHORT : value = (short) input.readSInt32(); break;
+                    case VALUE_BYTE : value = (byte) input.readSInt32(); break;
+                    case VALUE_CHAR : value = (char) input.readUInt32(); break;
+                    case VALUE_DECIMAL : value = new BigDecimal( input.readString() ); break;
+                    case VALUE_INTEGER : value = new BigInteger( input.readString() ); break;
+                    case VALUE_DATE : value = new Date( input.readInt64() ); break;
+                    case VALUE_VARIABLE : input.readBool(); value = Variable.v; break;
+                    case VALUE_TYPE :
+                        type = getType( input.readUInt32() );
+                        if ( !type.cls.isEnum() ) {
+                            value = type.newInstance();
+                        }
+                        break;
+                    case VALUE_PROPERTY :
+                        if ( type == null || type.beanType == null ) {
+                            throw new IOException( "Property of a value without a bean type" );
+                        }
+                        type.setProperty( value, property++, readValue() );
+                        break;
+                    case VALUE_ELEMENT :
+                        if ( !( value instanceof Collection ) ) {
+                            throw new IOException( "Element of a value without a collection type" );
+                        }
+                        ( (Collection<Object>) value ).add( readValue() );
+                        break;
+                    case VALUE_SERIALIZED : value = readSerialized(); break;
+                    default : input.skipField( tag );
+                }
+            }
+            if ( type != null && type.cls.isEnum() ) {
+                return Enum.valueOf( (Class) type.cls, (String) value );
+            }
+            return value;
+        }
+
+        private Object readSerialized() throws IOException {
+            DroolsObjectInputStream stream = new DroolsObjectInputStream( input.readBytes().newInput(),
+                                                                          beanAccessors.getClassLoader() );
+            try {
+                return stream.readObject();
+            } catch ( ClassNotFoundException e ) {
+                throw new IOException( "Unable to deserialize a value: " + e.getMessage() );
+            } finally {
+                stream.close();
+            }
+        }
+
+        private DecodedType getType(int id) throws IOException {
+            DecodedType type = id > 0 && id <= types.size() ? types.get( id - 1 ) : null;
+            if ( type == null ) {
+                throw new IOException( "Undefined type " + id );
+            }
+            return type;
+        }
+    }
+
+    private static class DecodedType {
+        private final Class<?>               cls;
+        private final BeanAccessors.BeanType beanType;
+        // the position in the local class of each encoded property, -1 if it doesn't have it
+        private final int[]                  positions;
+
+        private DecodedType(BeanAccessors beanAccessors,
+                            String className,
+                            List<String> properties) throws IOException {
+            try {
+                cls = beanAccessors.loadClass( className );
+            } catch ( ClassNotFoundException e ) {
+                throw new IOException( "Unable to load the class " + className );
+            }
+            if ( cls.isEnum() || Collection.class.isAssignableFrom( cls ) ) {
+                beanType = null;
+                positions = null;
+                return;
+            }
+            beanType = beanAccessors.getBeanType( cls );
+            if ( beanType == null ) {
+                throw new IOException( "The class " + className + " is not a java bean" );
+            }
+            positions = new int[properties.size()];
+            for ( int i = 0; i < positions.length; i++ ) {
+                positions[i] = beanType.indexOf( properties.get( i ) );
+            }
+        }
+
+        private Object newInstance() throws IOException {
+            if ( beanType != null ) {
+                return beanType.newInstance();
+            }
+            try {
+                return cls.newInstance();
+            } catch ( Exception e ) {
+                throw new IOException( "Unable to instantiate " + cls.getName() );
+            }
+        }
+
+        private void setProperty(Object bean,
+                                 int property,
+                                 Object value) {
+            if ( property < positions.length && positions[property] >= 0 ) {
+                beanType.set( bean, positions[property], value );
+            }
+        }
+    }
+}
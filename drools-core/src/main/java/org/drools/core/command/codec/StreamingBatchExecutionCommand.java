@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.command.codec;
+
+import org.drools.core.command.impl.GenericCommand;
+import org.drools.core.command.impl.KnowledgeCommandContext;
+import org.drools.core.command.runtime.BatchExecutionCommandImpl;
+import org.drools.core.command.runtime.rule.InsertElementsCommand;
+import org.drools.core.impl.StatefulKnowledgeSessionImpl;
+import org.drools.core.runtime.impl.ExecutionResultImpl;
+import org.drools.core.util.StringUtils;
+import org.kie.api.runtime.ExecutionResults;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.EntryPoint;
+import org.kie.api.runtime.rule.FactHandle;
+import org.kie.internal.command.Context;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch that executes its commands while they are decoded from a stream, inserting the objects of an
+ * insert-elements into the session as soon as each of them is read. The stream can be executed only once.
+ */
+class StreamingBatchExecutionCommand extends BatchExecutionCommandImpl {
+
+    private transient CommandDecoder decoder;
+
+    StreamingBatchExecutionCommand(CommandDecoder decoder,
+                                   String lookup) {
+        super( new ArrayList<GenericCommand<?>>(), lookup );
+        this.decoder = decoder;
+    }
+
+    public ExecutionResults execute(Context context) {
+        if ( decoder == null ) {
+            throw new IllegalStateException( "The streamed batch has already been executed" );
+        }
+        CommandDecoder batchDecoder = decoder;
+        decoder = null;
+        try {
+            batchDecoder.decode( new ExecutingHandler( context ) );
+        } catch ( IOException e ) {
+            throw new RuntimeException( "Unable to decode the batch", e );
+        }
+        return null;
+    }
+
+    private static class ExecutingHandler
+        implements
+        CommandDecoder.CommandHandler {
+
+        private final Context      context;
+        private final KieSession   ksession;
+
+        private EntryPoint         entryPoint;
+        private List<FactHandle>   handles;
+        private List<Object>       objects;
+
+        private ExecutingHandler(Context context) {
+            this.context = context;
+            this.ksession = ( (KnowledgeCommandContext) context ).getKieSession();
+        }
+
+        public void onCommand(GenericCommand<?> command) {
+            command.execute( context );
+        }
+
+        public void onStartElements(InsertElementsCommand command) {
+            String entryPointName = command.getEntryPoint();
+            entryPoint = StringUtils.isEmpty( entryPointName ) ? ksession : ksession.getEntryPoint( entryPointName );
+            // the handles and the objects are kept only if they have to be returned
+            if ( command.getOutIdentifier() != null ) {
+                handles = new ArrayList<FactHandle>();
+                objects = command.isReturnObject() ? new ArrayList<Object>() : null;
+            }
+        }
+
+        public void onElement(InsertElementsCommand command,
+                              Object element) {
+            FactHandle handle = entryPoint.insert( element );
+            if ( handles != null ) {
+                handles.add( handle );
+                if ( objects != null ) {
+                    objects.add( element );
+                }
+            }
+        }
+
+        public void onEndElements(InsertElementsCommand command) {
+            if ( handles != null ) {
+                ExecutionResultImpl results = ( (StatefulKnowledgeSessionImpl) ksession ).getExecutionResult();
+                if ( objects != null ) {
+                    results.getResults().put( command.getOutIdentifier(), objects );
+                }
+                results.getFactHandles().put( command.getOutIdentifier(), handles );
+            }
+            entryPoint = null;
+            handles = null;
+            objects = null;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.common;
+
+import org.drools.core.SessionConfiguration;
+import org.drools.core.base.DefaultKnowledgeHelper;
+import org.drools.core.definitions.rule.impl.RuleImpl;
+import org.drools.core.rule.Declaration;
+import org.drools.core.spi.Activation;
+import org.drools.core.spi.Tuple;
+import org.kie.internal.concurrent.ExecutorProviderFactory;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * Executes the consequences of the asynchronous rules, see {@link org.drools.core.rule.Async}, out of
+ * the thread firing the rules.
+ *
+ * The fact handles of the match are copied when the consequence is dispatched, so that the consequence
+ * is not affected by the tuple being deleted in the meanwhile. The consequences sharing the same ordering
+ * key, i.e. the rule and the value of its key declaration if any, are queued and executed one after the
+ * other in firing order. The number of consequences dispatched and not yet completed is bounded, without
+ * ever blocking the firing thread while it holds the agenda lock: once the bound is reached a consequence
+ * whose key has nothing pending is executed on the firing thread, while for one whose key is pending the
+ * firing thread waits in {@link #awaitCapacity(Activation)}, before taking the agenda lock, until either
+ * a consequence completes or its key has nothing pending anymore.
+ *
+ * The failures are collected and handed to the consequence exception handler of the agenda on the firing
+ * thread, before the next rule is fired or when waiting for the asynchronous consequences.
+ */
+public class AsyncConsequenceDispatcher {
+
+    private final InternalWorkingMemory    wm;
+
+    private final Executor                 executor;
+
+    private final int                      maxInFlight;
+
+    // guarded by itself
+    private final Map<Object, SerialQueue> queues = new HashMap<Object, SerialQueue>();
+
+    // guarded by queues
+    private int                            pending;
+
+    private final Queue<Failure>           failures = new ConcurrentLinkedQueue<Failure>();
+
+    public AsyncConsequenceDispatcher(InternalWorkingMemory wm) {
+        SessionConfiguration conf = wm.getSessionConfiguration();
+        this.wm = wm;
+        this.executor = conf.getAsyncConsequenceExecutor() != null ?
+                        conf.getAsyncConsequenceExecutor() :
+                        ExecutorProviderFactory.getExecutorProvider().getExecutor();
+        this.maxInFlight = conf.getAsyncConsequenceMaxInFlight();
+    }
+
+    /**
+     * Waits until the consequence of the given activation can be dispatched within the bound, either
+     * queued or executed on the calling thread. It must not be called while holding the agenda lock.
+     */
+    public void awaitCapacity(Activation activation) {
+        Object key = getOrderingKey( activation );
+        boolean interrupted = false;
+        synchronized ( queues ) {
+            while ( pending >= maxInFlight && queues.containsKey( key ) ) {
+                try {
+                    queues.wait();
+                } catch ( InterruptedException e ) {
+                    interrupted = true;
+                }
+            }
+        }
+        if ( interrupted ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Dispatches the consequence of the given activation. If the bound is reached the consequence is executed
+     * on the calling thread when its key has nothing pending; otherwise it is queued after the pending ones,
+     * which only exceeds the bound when {@link #awaitCapacity(Activation)} was not called beforehand.
+     */
+    public void dispatch(Activation activation) {
+        Object key = getOrderingKey( activation );
+        Task task = new Task( activation, new TupleSnapshot( activation.getTuple().toFactHandles() ) );
+
+        SerialQueue queue;
+        boolean start = false;
+        synchronized ( queues ) {
+            queue = queues.get( key );
+            if ( queue == null && pending < maxInFlight ) {
+                queue = new SerialQueue( key );
+                queues.put( key, queue );
+                start = true;
+            }
+            if ( queue != null ) {
+                queue.tasks.add( task );
+                pending++;
+            }
+        }
+
+        if ( queue == null ) {
+            // back-pressure: nothing is pending for this key, so running it here doesn't break the ordering
+            task.run();
+        } else if ( start ) {
+            try {
+                executor.execute( queue );
+            } catch ( RuntimeException e ) {
+                synchronized ( queues ) {
+                    queues.remove( key );
+                    completed( queue.tasks.size() );
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Waits until all the consequences dispatched so far are completed. It must not be called while holding
+     * the agenda lock if the consequences may be dispatched concurrently, e.g. by fireUntilHalt.
+     */
+    public void waitForCompletion() {
+        boolean interrupted = false;
+        synchronized ( queues ) {
+            while ( pending > 0 ) {
+                try {
+                    queues.wait();
+                } catch ( InterruptedException e ) {
+                    interrupted = true;
+                }
+            }
+        }
+        if ( interrupted ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // guarded by queues
+    private void completed(int tasks) {
+        pending -= tasks;
+        queues.notifyAll();
+    }
+
+    private static Object getOrderingKey(Activation activation) {
+        RuleImpl rule = activation.getRule();
+        return rule.getAsyncKey() == null ?
+               rule :
+               new OrderingKey( rule, activation.getDeclarationValue( rule.getAsyncKey() ) );
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    public Failure pollFailure() {
+        return failures.poll();
+    }
+
+    public static class Failure {
+        private final Activation activation;
+        private final Exception  exception;
+
+        private Failure(Activation activation, Exception exception) {
+            this.activation = activation;
+            this.exception = exception;
+        }
+
+        public Activation getActivation() {
+            return activation;
+        }
+
+        public Exception getException() {
+            return exception;
+        }
+    }
+
+    private class SerialQueue implements Runnable {
+        private final Object           key;
+        private final LinkedList<Task> tasks = new LinkedList<Task>();
+
+        private SerialQueue(Object key) {
+            this.key = key;
+        }
+
+        public void run() {
+            Task task;
+            synchronized ( queues ) {
+                task = tasks.getFirst();
+            }
+            while ( true ) {
+                task.run();
+                synchronized ( queues ) {
+                    tasks.removeFirst();
+                    completed( 1 );
+                    task = tasks.peek();
+                    if ( task == null ) {
+                        queues.remove( key );
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private class Task {
+        private final Activation    activation;
+        private final TupleSnapshot tuple;
+
+        private Task(Activation activation, TupleSnapshot tuple) {
+            this.activation = activation;
+            this.tuple = tuple;
+        }
+
+        private void run() {
+            try {
+                activation.getConsequence().evaluate( new AsyncKnowledgeHelper( activation, tuple, wm ), wm );
+            } catch ( Exception e ) {
+                failures.add( new Failure( activation, e ) );
+            }
+        }
+    }
+
+    private static class OrderingKey {
+        private final RuleImpl rule;
+        private final Object   value;
+
+        private OrderingKey(RuleImpl rule, Object value) {
+            this.rule = rule;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if ( this == o ) {
+                return true;
+            }
+            if ( !(o instanceof OrderingKey) ) {
+                return false;
+            }
+            OrderingKey other = (OrderingKey) o;
+            return rule == other.rule && (value == null ? other.value == null : value.equals( other.value ));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * rule.hashCode() + (value == null ? 0 : value.hashCode());
+        }
+    }
+
+    private static class TupleSnapshot implements Tuple {
+        private final InternalFactHandle[] handles;
+
+        private TupleSnapshot(InternalFactHandle[] handles) {
+            this.handles = handles;
+        }
+
+        public InternalFactHandle get(int pattern) {
+            return pattern < handles.length ? handles[pattern] : null;
+        }
+
+        public InternalFactHandle get(Declaration declaration) {
+            return get( declaration.getPattern().getOffset() );
+        }
+
+        public InternalFactHandle[] toFactHandles() {
+            return handles;
+        }
+
+        public int size() {
+            return handles.length;
+        }
+    }
+
+    private static class AsyncKnowledgeHelper extends DefaultKnowledgeHelper {
+        private final Tuple tuple;
+
+        private AsyncKnowledgeHelper(Activation activation, Tuple tuple, InternalWorkingMemory wm) {
+            super( activation, wm );
+            this.tuple = tuple;
+        }
+
+        @Override
+        public Tuple getTuple() {
+            return tuple;
+        }
+    }
+}
@@ -17,51 +17,109 @@
 package org.drools.core.common;
 
 import org.drools.core.impl.InternalKnowledgeBase;
+import org.drools.core.reteoo.ObjectSink;
+import org.drools.core.reteoo.PathMemory;
+import org.drools.core.reteoo.RiaPathMemory;
+import org.drools.core.reteoo.RightInputAdapterNode.RiaNodeMemory;
 import org.drools.core.reteoo.SegmentMemory;
 import org.kie.internal.runtime.StatefulKnowledgeSession;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * A concurrent implementation for the node memories interface
+ * A concurrent implementation for the node memories interface.
+ *
+ * The memories are stored in pages of PAGE_SIZE consecutive node ids, which are only allocated when
+ * a session first accesses a node of their range, so the sessions only using a small part of a large
+ * network do not pay for a slot per node. Both the pages and the memories are created lock free, by
+ * a compare and set of their slot. When nodes are added to the kbase only the directory of the pages
+ * grows, the pages and the memories they hold are shared with the previous directory.
  */
 public class ConcurrentNodeMemories implements NodeMemories {
 
-    private AtomicReferenceArray<Memory> memories;
+    private static final int PAGE_SHIFT = 6;
+    private static final int PAGE_SIZE  = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK  = PAGE_SIZE - 1;
+
+    // placed in the empty slots of a directory being replaced, so that no page is created in it anymore
+    private static final AtomicReferenceArray<Memory> MOVED = new AtomicReferenceArray<Memory>( 0 );
 
+    private volatile AtomicReferenceArray<AtomicReferenceArray<Memory>> pages;
+
+    // only taken to grow the directory of the pages
     private Lock                         lock;
     private InternalKnowledgeBase        kBase;
 
+    // the ids of the memories accessed since the last reset, null when they are not tracked
+    private BitSet                       touched;
+    private boolean                      resetAll;
+
     public ConcurrentNodeMemories( InternalKnowledgeBase kBase ) {
         this.kBase = kBase;
-        this.memories = new AtomicReferenceArray<Memory>( this.kBase.getNodeCount() );
+        this.pages = newDirectory( this.kBase.getNodeCount() );
         this.lock = new ReentrantLock();
     }
 
+    private static AtomicReferenceArray<AtomicReferenceArray<Memory>> newDirectory( int nodeCount ) {
+        return new AtomicReferenceArray<AtomicReferenceArray<Memory>>( ( nodeCount + PAGE_MASK ) >>> PAGE_SHIFT );
+    }
+
     public void clearNodeMemory( MemoryFactory node ) {
-        this.memories.set( node.getId(),
-                           null );
+        AtomicReferenceArray<Memory> page = getPage( node.getId() >>> PAGE_SHIFT, false );
+        if ( page != null ) {
+            page.set( node.getId() & PAGE_MASK,
+                      null );
+        }
+        this.resetAll = true;
     }
     
     public void clear() {
-        this.memories = new AtomicReferenceArray<Memory>( this.kBase.getNodeCount() );
+        this.pages = newDirectory( this.kBase.getNodeCount() );
+        this.resetAll = true;
+    }
+
+    public void trackTouchedMemories() {
+        if ( this.touched == null ) {
+            this.touched = new BitSet( length() );
+            this.resetAll = true;
+        }
     }
 
     public void resetAllMemories(StatefulKnowledgeSession session) {
+        if ( this.touched != null && !this.resetAll ) {
+            // the memories that were not touched since the last reset are still in their initial state
+            resetTouchedMemories( (InternalWorkingMemory) session );
+            return;
+        }
+        if ( this.touched != null ) {
+            this.touched.clear();
+            this.resetAll = false;
+        }
+
         InternalKnowledgeBase kBase = (InternalKnowledgeBase)session.getKieBase();
         Set<SegmentMemory> smems = new HashSet<SegmentMemory>();
 
-        for (int i = 0; i < memories.length(); i++) {
-            Memory memory = memories.get(i);
-            if (memory != null) {
-                if (memory.getSegmentMemory() != null) {
-                    smems.add(memory.getSegmentMemory());
+        AtomicReferenceArray<AtomicReferenceArray<Memory>> directory = this.pages;
+        for (int p = 0; p < directory.length(); p++) {
+            AtomicReferenceArray<Memory> page = directory.get(p);
+            if (page == null || page == MOVED) {
+                continue;
+            }
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                Memory memory = page.get(i);
+                if (memory != null) {
+                    if (memory.getSegmentMemory() != null) {
+                        smems.add(memory.getSegmentMemory());
+                    }
+                    memory.reset();
                 }
-                memory.reset();
             }
         }
 
@@ -74,66 +132,142 @@ public class ConcurrentNodeMemories implements NodeMemories {
     }
 
     /**
-     * The implementation tries to delay locking as much as possible, by running
-     * some potentialy unsafe opperations out of the critical session. In case it
-     * fails the checks, it will move into the critical sessions and re-check everything
-     * before effectively doing any change on data structures. 
+     * Resets the memories accessed since the last reset, together with all the segments the tuples could
+     * have been propagated to from them: the segments below theirs, and the ones fed by the right input
+     * adapters of their subnetworks. The path memories going through these segments are reset and linked
+     * again to their segments that are still linked.
      */
-    public Memory getNodeMemory(MemoryFactory node, InternalWorkingMemory wm) {
-        if( node.getId() >= this.memories.length() ) {
-            resize( node );
+    private void resetTouchedMemories(InternalWorkingMemory wm) {
+        Set<SegmentMemory> smems = new HashSet<SegmentMemory>();
+        List<SegmentMemory> toVisit = new ArrayList<SegmentMemory>();
+
+        for ( int i = touched.nextSetBit( 0 ); i >= 0; i = touched.nextSetBit( i + 1 ) ) {
+            Memory memory = peekNodeMemory( i );
+            if ( memory != null ) {
+                if ( memory.getSegmentMemory() != null ) {
+                    if ( smems.add( memory.getSegmentMemory() ) ) {
+                        toVisit.add( memory.getSegmentMemory() );
+                    }
+                } else {
+                    memory.reset();
+                }
+            }
+        }
+        touched.clear();
+
+        Set<PathMemory> pmems = new HashSet<PathMemory>();
+        while ( !toVisit.isEmpty() ) {
+            SegmentMemory smem = toVisit.remove( toVisit.size() - 1 );
+            for ( SegmentMemory child = smem.getFirst(); child != null; child = child.getNext() ) {
+                if ( smems.add( child ) ) {
+                    toVisit.add( child );
+                }
+            }
+            for ( PathMemory pmem : smem.getPathMemories() ) {
+                if ( pmems.add( pmem ) && pmem instanceof RiaPathMemory ) {
+                    for ( ObjectSink sink : ((RiaPathMemory) pmem).getRightInputAdapterNode().getSinkPropagator().getSinks() ) {
+                        Memory memory = peekNodeMemory( sink.getId() );
+                        if ( memory != null && memory.getSegmentMemory() != null && smems.add( memory.getSegmentMemory() ) ) {
+                            toVisit.add( memory.getSegmentMemory() );
+                        }
+                    }
+                }
+            }
+        }
+
+        InternalKnowledgeBase kBase = wm.getKnowledgeBase();
+        for ( SegmentMemory smem : smems ) {
+            for ( Memory memory = smem.getNodeMemories().getFirst(); memory != null; memory = memory.getNext() ) {
+                memory.reset();
+            }
+            smem.reset( kBase.getSegmentPrototype( smem ) );
+        }
+
+        for ( PathMemory pmem : pmems ) {
+            pmem.reset();
+            for ( SegmentMemory smem : pmem.getSegmentMemories() ) {
+                if ( smem != null && smem.isSegmentLinked() ) {
+                    pmem.linkSegment( smem.getSegmentPosMaskBit(), wm );
+                }
+            }
         }
-        Memory memory = this.memories.get( node.getId() );
+    }
+
+    /**
+     * Returns the memory of the given node, creating it on the first access. The creation does not
+     * lock: when two threads create the same memory at the same time, only the one set first in the
+     * page is kept and returned to both.
+     */
+    public Memory getNodeMemory(MemoryFactory node, InternalWorkingMemory wm) {
+        int id = node.getId();
+        AtomicReferenceArray<Memory> page = getPage( id >>> PAGE_SHIFT, true );
+        Memory memory = page.get( id & PAGE_MASK );
 
         if( memory == null ) {
-            memory = createNodeMemory( node, wm );
+            memory = node.createMemory( this.kBase.getConfiguration(), wm );
+            if( !page.compareAndSet( id & PAGE_MASK, null, memory ) ) {
+                memory = page.get( id & PAGE_MASK );
+            }
+        }
+
+        if ( this.touched != null ) {
+            this.touched.set( id );
         }
 
         return memory;
     }
 
-
     /**
-     * Checks if a memory does not exists for the given node and
-     * creates it.
+     * Returns the page with the given index, or null if it has not been created yet and create is false
      */
-    private Memory createNodeMemory( MemoryFactory node,
-                                     InternalWorkingMemory wm ) {
-        try {
-            this.lock.lock();
-            // need to try again in a synchronized code block to make sure
-            // it was not created yet
-            Memory memory = this.memories.get( node.getId() );
-            if( memory == null ) {
-                memory = node.createMemory( this.kBase.getConfiguration(), wm );
-
-                if( !this.memories.compareAndSet( node.getId(), null, memory ) ) {
-                    memory = this.memories.get( node.getId() );
+    private AtomicReferenceArray<Memory> getPage( int pageIndex, boolean create ) {
+        while ( true ) {
+            AtomicReferenceArray<AtomicReferenceArray<Memory>> directory = this.pages;
+            if ( pageIndex >= directory.length() ) {
+                if ( !create ) {
+                    return null;
                 }
-
+                grow( pageIndex );
+                continue;
+            }
+            AtomicReferenceArray<Memory> page = directory.get( pageIndex );
+            if ( page == MOVED ) {
+                // the directory is being replaced, wait for the new one to be published
+                this.lock.lock();
+                this.lock.unlock();
+                continue;
+            }
+            if ( page != null || !create ) {
+                return page;
+            }
+            page = new AtomicReferenceArray<Memory>( PAGE_SIZE );
+            if ( directory.compareAndSet( pageIndex, null, page ) ) {
+                return page;
             }
-            return memory;
-        } finally {
-            this.lock.unlock();
-
         }
     }
 
     /**
-     * @param node
+     * Replaces the directory with a larger one holding the given page index. Only the references to the
+     * existing pages are copied, while the empty slots of the old directory are marked as moved, so that
+     * a page cannot be created in it after it has been copied.
      */
-    private void resize( MemoryFactory node ) {
+    private void grow( int pageIndex ) {
         try {
             this.lock.lock();
-            if( node.getId() >= this.memories.length() ) {
-                // adding some buffer for new nodes, so that we reduce array copies
-                int size = Math.max( this.kBase.getNodeCount(), node.getId() + 32 );
-                AtomicReferenceArray<Memory> newMem = new AtomicReferenceArray<Memory>( size );
-                for ( int i = 0; i < this.memories.length(); i++ ) {
-                    newMem.set( i,
-                                this.memories.get( i ) );
+            AtomicReferenceArray<AtomicReferenceArray<Memory>> directory = this.pages;
+            if( pageIndex >= directory.length() ) {
+                // adding some buffer for new nodes, so that we reduce the directory copies
+                int length = Math.max( ( this.kBase.getNodeCount() + PAGE_MASK ) >>> PAGE_SHIFT, pageIndex + 1 );
+                AtomicReferenceArray<AtomicReferenceArray<Memory>> newDirectory = new AtomicReferenceArray<AtomicReferenceArray<Memory>>( length );
+                for ( int i = 0; i < directory.length(); i++ ) {
+                    if ( !directory.compareAndSet( i, null, MOVED ) ) {
+                        newDirectory.set( i,
+                                          directory.get( i ) );
+                    }
                 }
-                this.memories = newMem;
+                this.pages = newDirectory;
+                this.resetAll = true;
             }
         } finally {
             this.lock.unlock();
@@ -145,11 +279,53 @@ public class ConcurrentNodeMemories implements NodeMemories {
     }
 
     public Memory peekNodeMemory(int nodeId) {
-        return this.memories.get( nodeId );
+        AtomicReferenceArray<Memory> page = getPage( nodeId >>> PAGE_SHIFT, false );
+        return page != null ? page.get( nodeId & PAGE_MASK ) : null;
     }
 
     public int length() {
-        return this.memories.length();
+        return this.pages.length() << PAGE_SHIFT;
+    }
+
+    public NodeMemoriesStats getStats() {
+        Set<SegmentMemory> smems = new HashSet<SegmentMemory>();
+        Set<PathMemory> pmems = new HashSet<PathMemory>();
+        int nodes = 0;
+        int allocatedPages = 0;
+
+        AtomicReferenceArray<AtomicReferenceArray<Memory>> directory = this.pages;
+        for ( int p = 0; p < directory.length(); p++ ) {
+            AtomicReferenceArray<Memory> page = directory.get( p );
+            if ( page == null || page == MOVED ) {
+                continue;
+            }
+            allocatedPages++;
+            for ( int i = 0; i < PAGE_SIZE; i++ ) {
+                Memory memory = page.get( i );
+                if ( memory == null ) {
+                    continue;
+                }
+                nodes++;
+                if ( memory instanceof PathMemory ) {
+                    pmems.add( (PathMemory) memory );
+                } else if ( memory instanceof RiaNodeMemory ) {
+                    pmems.add( ( (RiaNodeMemory) memory ).getRiaPathMemory() );
+                }
+                if ( memory.getSegmentMemory() != null ) {
+                    smems.add( memory.getSegmentMemory() );
+                }
+            }
+        }
+
+        long bytes = NodeMemoriesStats.ARRAY_HEADER_BYTES + (long) directory.length() * NodeMemoriesStats.REFERENCE_BYTES;
+        bytes += allocatedPages * ( NodeMemoriesStats.ARRAY_HEADER_BYTES + (long) PAGE_SIZE * NodeMemoriesStats.REFERENCE_BYTES );
+        bytes += (long) nodes * NodeMemoriesStats.NODE_MEMORY_BYTES;
+        bytes += (long) smems.size() * NodeMemoriesStats.SEGMENT_MEMORY_BYTES;
+        for ( PathMemory pmem : pmems ) {
+            bytes += NodeMemoriesStats.PATH_MEMORY_BYTES + NodeMemoriesStats.ARRAY_HEADER_BYTES +
+                     (long) pmem.getSegmentMemories().length * NodeMemoriesStats.REFERENCE_BYTES;
+        }
+        return new NodeMemoriesStats( nodes, smems.size(), pmems.size(), bytes );
     }
 
 }
@@ -138,6 +138,10 @@ public class DefaultAgenda
 
     private GarbageCollector                                     garbageCollector;
 
+    private TruthMaintenanceBatch                                truthMaintenanceBatch;
+
+    private volatile AsyncConsequenceDispatcher                  asyncConsequenceDispatcher;
+
     // ------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------
@@ -264,6 +268,46 @@ public class DefaultAgenda
 //        } else {
             this.knowledgeHelper = rbc.getComponentFactory().getKnowledgeHelperFactory().newStatefulKnowledgeHelper( this.workingMemory );
 //        }
+        if ( this.workingMemory.getSessionConfiguration().isTmsBatching() ) {
+            this.truthMaintenanceBatch = new TruthMaintenanceBatch( this.workingMemory );
+        }
+    }
+
+    public TruthMaintenanceBatch getTruthMaintenanceBatch() {
+        return this.truthMaintenanceBatch;
+    }
+
+    private synchronized AsyncConsequenceDispatcher getAsyncConsequenceDispatcher() {
+        if ( this.asyncConsequenceDispatcher == null ) {
+            this.asyncConsequenceDispatcher = new AsyncConsequenceDispatcher( this.workingMemory );
+        }
+        return this.asyncConsequenceDispatcher;
+    }
+
+    public void awaitAsyncConsequenceCapacity(final Activation activation) {
+        if ( activation.getRule().isAsync() ) {
+            getAsyncConsequenceDispatcher().awaitCapacity( activation );
+        }
+    }
+
+    public void waitForAsyncConsequences() {
+        // the agenda lock is not held while waiting, so that the rules can still be fired meanwhile
+        AsyncConsequenceDispatcher dispatcher = this.asyncConsequenceDispatcher;
+        if ( dispatcher != null ) {
+            dispatcher.waitForCompletion();
+            synchronized ( this ) {
+                handleAsyncConsequenceFailures();
+            }
+        }
+    }
+
+    private void handleAsyncConsequenceFailures() {
+        if ( this.asyncConsequenceDispatcher != null && this.asyncConsequenceDispatcher.hasFailures() ) {
+            AsyncConsequenceDispatcher.Failure failure;
+            while ( (failure = this.asyncConsequenceDispatcher.pollFailure()) != null ) {
+                handleConsequenceException( failure.getActivation(), failure.getException() );
+            }
+        }
     }
 
     /*
@@ -1097,6 +1141,8 @@ public class DefaultAgenda
         // we need to make sure it re-activates
         this.workingMemory.startOperation();
         try {
+            handleAsyncConsequenceFailures();
+
             final EventSupport eventsupport = (EventSupport) this.workingMemory;
 
             eventsupport.getAgendaEventSupport().fireBeforeActivationFired( activation,
@@ -1112,27 +1158,23 @@ public class DefaultAgenda
             activation.setQueued(false);
 
             try {
-
-                this.knowledgeHelper.setActivation( activation );
-                if ( log.isTraceEnabled() ) {
-                    log.trace( "Fire \"{}\" \n{}", activation.getRule().getName(), activation.getTuple() );
-                }
-                activation.getConsequence().evaluate( this.knowledgeHelper,
-                                                      this.workingMemory );
-                activation.setActive(false);
-                this.knowledgeHelper.cancelRemainingPreviousLogicalDependencies();
-                this.knowledgeHelper.reset();
-            } catch ( final Exception e ) {
-                if ( this.legacyConsequenceExceptionHandler != null ) {
-                    this.legacyConsequenceExceptionHandler.handleException( activation,
-                                                                            this.workingMemory,
-                                                                            e );
-                } else if ( this.consequenceExceptionHandler != null ) {
-                    this.consequenceExceptionHandler.handleException( activation, this.workingMemory.getKnowledgeRuntime(),
-                                                                      e );
+                if ( activation.getRule().isAsync() ) {
+                    // the consequence cannot act on the working memory, so there are no logical dependencies to cancel
+                    getAsyncConsequenceDispatcher().dispatch( activation );
+                    activation.setActive(false);
                 } else {
-                    throw new RuntimeException( e );
+                    this.knowledgeHelper.setActivation( activation );
+                    if ( log.isTraceEnabled() ) {
+                        log.trace( "Fire \"{}\" \n{}", activation.getRule().getName(), activation.getTuple() );
+                    }
+                    activation.getConsequence().evaluate( this.knowledgeHelper,
+                                                          this.workingMemory );
+                    activation.setActive(false);
+                    cancelRemainingPreviousLogicalDependencies();
+                    this.knowledgeHelper.reset();
                 }
+            } catch ( final Exception e ) {
+                handleConsequenceException( activation, e );
             } finally {
                 if ( activation.getFactHandle() != null ) {
                     // update the Activation in the WM
@@ -1168,6 +1210,32 @@ public class DefaultAgenda
         }
     }
 
+    private void handleConsequenceException(Activation activation, Exception e) {
+        if ( this.legacyConsequenceExceptionHandler != null ) {
+            this.legacyConsequenceExceptionHandler.handleException( activation,
+                                                                    this.workingMemory,
+                                                                    e );
+        } else if ( this.consequenceExceptionHandler != null ) {
+            this.consequenceExceptionHandler.handleException( activation, this.workingMemory.getKnowledgeRuntime(),
+                                                              e );
+        } else {
+            throw new RuntimeException( e );
+        }
+    }
+
+    private void cancelRemainingPreviousLogicalDependencies() {
+        if ( this.truthMaintenanceBatch == null ) {
+            this.knowledgeHelper.cancelRemainingPreviousLogicalDependencies();
+            return;
+        }
+        this.truthMaintenanceBatch.open();
+        try {
+            this.knowledgeHelper.cancelRemainingPreviousLogicalDependencies();
+        } finally {
+            this.truthMaintenanceBatch.close();
+        }
+    }
+
     public void fireConsequenceEvent(Activation activation, String consequenceName) {
         Consequence consequence = activation.getRule().getNamedConsequence(consequenceName);
         if (consequence != null) {
@@ -1186,19 +1254,10 @@ public class DefaultAgenda
                 }
                 event.evaluate(this.knowledgeHelper,
                                this.workingMemory);
-                this.knowledgeHelper.cancelRemainingPreviousLogicalDependencies();
+                cancelRemainingPreviousLogicalDependencies();
                 this.knowledgeHelper.reset();
             } catch ( final Exception e ) {
-                if ( this.legacyConsequenceExceptionHandler != null ) {
-                    this.legacyConsequenceExceptionHandler.handleException( activation,
-                                                                            this.workingMemory,
-                                                                            e );
-                } else if ( this.consequenceExceptionHandler != null ) {
-                    this.consequenceExceptionHandler.handleException( activation, this.workingMemory.getKnowledgeRuntime(),
-                                                                      e );
-                } else {
-                    throw new RuntimeException( e );
-                }
+                handleConsequenceException( activation, e );
             } finally {
                 if ( activation.getFactHandle() != null ) {
                     // update the Activation in the WM
@@ -83,6 +83,24 @@ public interface InternalAgenda
 
     int unstageActivations();
 
+    /**
+     * Returns the batch staging the justifications removed during a network evaluation,
+     * or null if the truth maintenance batching is not enabled for this session
+     */
+    TruthMaintenanceBatch getTruthMaintenanceBatch();
+
+    /**
+     * Waits until the consequence of the given activation, if its rule is asynchronous, can be dispatched
+     * within the bound of the consequences in flight. It must be called before taking the agenda lock
+     */
+    void awaitAsyncConsequenceCapacity(Activation activation);
+
+    /**
+     * Waits until the consequences of the asynchronous rules fired so far are completed, and hands
+     * their failures to the consequence exception handler
+     */
+    void waitForAsyncConsequences();
+
     /**
      * Iterates all the <code>AgendGroup<code>s in the focus stack returning the total number of <code>Activation</code>s
      * @return
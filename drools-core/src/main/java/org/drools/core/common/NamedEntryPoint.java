@@ -49,6 +49,7 @@ import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static org.drools.core.reteoo.PropertySpecificUtil.allSetButTraitBitMask;
+import static org.drools.core.reteoo.PropertySpecificUtil.isAllSetPropertyReactiveMask;
 
 public class NamedEntryPoint
     implements
@@ -85,6 +86,8 @@ public class NamedEntryPoint
 
     protected TraitHelper traitHelper;
 
+    private PropertyChangeDetector changeDetector;
+
     public NamedEntryPoint(EntryPointId entryPoint,
                            EntryPointNode entryPointNode,
                            StatefulKnowledgeSessionImpl wm) {
@@ -108,6 +111,9 @@ public class NamedEntryPoint
         this.pctxFactory = kBase.getConfiguration().getComponentFactory().getPropagationContextFactory();
         this.objectStore = new ClassAwareObjectStore(this.kBase.getConfiguration(), this.lock);
         this.traitHelper = new TraitHelper( wm, this );
+        if ( wm.getSessionConfiguration() != null && wm.getSessionConfiguration().isUpdateChangeDetection() ) {
+            this.changeDetector = new PropertyChangeDetector( wm );
+        }
     }
 
     public void lock() {
@@ -120,6 +126,9 @@ public class NamedEntryPoint
 
     public void reset() {
         this.objectStore.clear();
+        if ( this.changeDetector != null ) {
+            this.changeDetector.clear();
+        }
     }
 
     public ObjectStore getObjectStore() {
@@ -274,6 +283,9 @@ public class NamedEntryPoint
 
         this.objectStore.addHandle( handle,
                                     object );
+        if ( this.changeDetector != null ) {
+            this.changeDetector.snapshot( handle, object, typeConf );
+        }
         this.entryPointNode.assertObject( handle,
                                           propagationContext,
                                           typeConf,
@@ -319,8 +331,8 @@ public class NamedEntryPoint
 
     public InternalFactHandle update(InternalFactHandle handle,
                                      final Object object,
-                                     final BitMask mask,
-                                     final Class<?> modifiedClass,
+                                     BitMask mask,
+                                     Class<?> modifiedClass,
                                      final Activation activation) {
         try {
             this.lock.lock();
@@ -361,6 +373,15 @@ public class NamedEntryPoint
             this.handleFactory.increaseFactHandleRecency( handle );
             RuleImpl rule = activation == null ? null : activation.getRule();
 
+            if ( this.changeDetector != null ) {
+                // the snapshot is refreshed by every update, but only an update without a precise mask uses the detected one
+                BitMask changedMask = this.changeDetector.detectChanges( handle, object, typeConf );
+                if ( changedMask != null && isAllSetPropertyReactiveMask( mask ) ) {
+                    mask = changedMask;
+                    modifiedClass = object.getClass();
+                }
+            }
+
             final PropagationContext propagationContext = pctxFactory.createPropagationContext(this.wm.getNextPropagationIdCounter(), PropagationContext.MODIFICATION,
                                                                                                rule, (activation == null) ? null : activation.getTuple(),
                                                                                                handle, entryPoint, mask, modifiedClass, null);
@@ -549,6 +570,24 @@ public class NamedEntryPoint
     }
 
     public PropagationContext delete(InternalFactHandle handle, Object object, ObjectTypeConf typeConf, RuleImpl rule, Activation activation) {
+        final PropagationContext propagationContext = propagateDelete( handle, object, typeConf, rule, activation );
+
+        this.wm.executeQueuedActions();
+
+
+        if ( rule == null ) {
+            // This is not needed for internal WM actions as the firing rule will unstage
+            ((InternalAgenda)this.wm.getAgenda()).unstageActivations();
+        }
+
+        return propagationContext;
+    }
+
+    /**
+     * Deletes the handle from the network and the object store without executing the queued
+     * working memory actions, so that a batch of deletes can execute them only once at its end
+     */
+    public PropagationContext propagateDelete(InternalFactHandle handle, Object object, ObjectTypeConf typeConf, RuleImpl rule, Activation activation) {
         final PropagationContext propagationContext = pctxFactory.createPropagationContext( this.wm.getNextPropagationIdCounter(), PropagationContext.DELETION,
                                                                                             rule, ( activation == null ) ? null : activation.getTuple(),
                                                                                             handle, this.entryPoint );
@@ -565,6 +604,9 @@ public class NamedEntryPoint
         }
 
         this.objectStore.removeHandle( handle );
+        if ( this.changeDetector != null ) {
+            this.changeDetector.remove( handle );
+        }
 
 
         propagationContext.evaluateActionQueue( this.wm );
@@ -574,14 +616,6 @@ public class NamedEntryPoint
                                                                  object,
                                                                  this.wm);
 
-        this.wm.executeQueuedActions();
-
-
-        if ( rule == null ) {
-            // This is not needed for internal WM actions as the firing rule will unstage
-            ((InternalAgenda)this.wm.getAgenda()).unstageActivations();
-        }
-
         return propagationContext;
     }
 
@@ -52,4 +52,17 @@ public interface NodeMemories {
     int length();
 
     void resetAllMemories(StatefulKnowledgeSession session);
+
+    /**
+     * Starts tracking the memories accessed by the session, so that the following resets only
+     * reset the part of the network reachable from them. The tracking is not thread safe, it
+     * is meant for the sessions used by a single thread at a time.
+     */
+    void trackTouchedMemories();
+
+    /**
+     * Returns the number of node, segment and path memories materialized so far, and an estimate
+     * of their size
+     */
+    NodeMemoriesStats getStats();
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.common;
+
+/**
+ * The number of node, segment and path memories a session has materialized so far, with a rough
+ * estimate of the bytes they take. The estimate only counts the shallow size of the memories and
+ * of the table holding them, not the tuples and facts they contain, and assumes 8 bytes references.
+ */
+public class NodeMemoriesStats {
+
+    static final int REFERENCE_BYTES      = 8;
+    static final int ARRAY_HEADER_BYTES   = 16;
+    static final int NODE_MEMORY_BYTES    = 48;
+    static final int SEGMENT_MEMORY_BYTES = 160;
+    static final int PATH_MEMORY_BYTES    = 96;
+
+    private final int  nodeMemories;
+    private final int  segmentMemories;
+    private final int  pathMemories;
+    private final long estimatedBytes;
+
+    public NodeMemoriesStats(int nodeMemories, int segmentMemories, int pathMemories, long estimatedBytes) {
+        this.nodeMemories = nodeMemories;
+        this.segmentMemories = segmentMemories;
+        this.pathMemories = pathMemories;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public int getNodeMemories() {
+        return nodeMemories;
+    }
+
+    public int getSegmentMemories() {
+        return segmentMemories;
+    }
+
+    public int getPathMemories() {
+        return pathMemories;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "NodeMemoriesStats[nodes=" + nodeMemories + ", segments=" + segmentMemories +
+               ", paths=" + pathMemories + ", estimatedBytes=" + estimatedBytes + "]";
+    }
+}
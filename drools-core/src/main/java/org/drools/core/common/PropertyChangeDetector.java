@@ -0,0 +1,188 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.common;
+
+import org.drools.core.base.AccessorKey;
+import org.drools.core.base.BaseClassFieldReader;
+import org.drools.core.factmodel.traits.TraitableBean;
+import org.drools.core.impl.InternalKnowledgeBase;
+import org.drools.core.reteoo.ObjectTypeConf;
+import org.drools.core.reteoo.PropertySpecificUtil;
+import org.drools.core.rule.TypeDeclaration;
+import org.drools.core.util.bitmask.BitMask;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.drools.core.reteoo.PropertySpecificUtil.getEmptyPropertyReactiveMask;
+import static org.drools.core.reteoo.PropertySpecificUtil.setPropertyOnMask;
+
+/**
+ * Keeps a snapshot of the property values of the property reactive facts in an entry point, so that an
+ * update without an explicit modification mask, as the ones done through the session api, can be propagated
+ * with the mask of the properties that actually changed instead of an all set one.
+ *
+ * The values are read with the same field accessors used by the constraints. A property whose value is not
+ * immutable, or that cannot be read, is always considered modified, since a change of its state can't be
+ * detected comparing the references.
+ */
+public class PropertyChangeDetector {
+
+    private final InternalKnowledgeBase         kBase;
+
+    private final InternalWorkingMemory         wm;
+
+    private final Map<Class<?>, PropertyReaders> readersByClass = new HashMap<Class<?>, PropertyReaders>();
+
+    private final Map<Integer, Snapshot>         snapshots      = new HashMap<Integer, Snapshot>();
+
+    public PropertyChangeDetector(InternalWorkingMemory wm) {
+        this.wm = wm;
+        this.kBase = wm.getKnowledgeBase();
+    }
+
+    /**
+     * Takes the snapshot of a newly inserted fact
+     */
+    public void snapshot(InternalFactHandle handle,
+                         Object object,
+                         ObjectTypeConf typeConf) {
+        PropertyReaders readers = getReaders( object, typeConf );
+        if ( readers != null ) {
+            snapshots.put( handle.getId(), new Snapshot( readers, readers.read( wm, object ) ) );
+        }
+    }
+
+    /**
+     * Returns the mask of the properties changed since the last snapshot of the fact, or null if they can't be
+     * detected, and takes a new snapshot
+     */
+    public BitMask detectChanges(InternalFactHandle handle,
+                                 Object object,
+                                 ObjectTypeConf typeConf) {
+        PropertyReaders readers = getReaders( object, typeConf );
+        if ( readers == null ) {
+            snapshots.remove( handle.getId() );
+            return null;
+        }
+        Object[] values = readers.read( wm, object );
+        Snapshot previous = snapshots.put( handle.getId(), new Snapshot( readers, values ) );
+        if ( previous == null || previous.readers != readers ) {
+            return null;
+        }
+
+        BitMask mask = getEmptyPropertyReactiveMask( readers.properties.size() );
+        for ( int i = 0; i < values.length; i++ ) {
+            if ( readers.readers[i] == null || !equals( previous.values[i], values[i] ) ) {
+                mask = setPropertyOnMask( mask, i );
+            }
+        }
+        return mask;
+    }
+
+    public void remove(InternalFactHandle handle) {
+        snapshots.remove( handle.getId() );
+    }
+
+    public void clear() {
+        snapshots.clear();
+    }
+
+    public int size() {
+        return snapshots.size();
+    }
+
+    private PropertyReaders getReaders(Object object,
+                                       ObjectTypeConf typeConf) {
+        TypeDeclaration typeDeclaration = typeConf.getTypeDeclaration();
+        if ( typeDeclaration == null || !typeDeclaration.isPropertyReactive() || object instanceof TraitableBean ) {
+            return null;
+        }
+        Class<?> cls = object.getClass();
+        PropertyReaders readers = readersByClass.get( cls );
+        if ( readers == null ) {
+            readers = new PropertyReaders( PropertySpecificUtil.getSettableProperties( kBase, cls ) );
+            for ( int i = 0; i < readers.readers.length; i++ ) {
+                readers.readers[i] = getReader( cls, readers.properties.get( i ) );
+            }
+            readersByClass.put( cls, readers );
+        }
+        return readers;
+    }
+
+    private BaseClassFieldReader getReader(Class<?> cls,
+                                           String property) {
+        BaseClassFieldReader reader;
+        try {
+            reader = kBase.getClassFieldAccessorCache().getCacheEntry( cls ).getReadAccessor( new AccessorKey( cls.getName(),
+                                                                                                               property,
+                                                                                                               AccessorKey.AccessorType.FieldAccessor ),
+                                                                                              cls );
+        } catch ( RuntimeException e ) {
+            // a property without a getter, it will be always considered modified
+            return null;
+        }
+        return reader != null && isImmutable( reader.getExtractToClass() ) ? reader : null;
+    }
+
+    private static boolean isImmutable(Class<?> type) {
+        return type != null && ( type.isPrimitive() || type.isEnum() ||
+                                 type == String.class || type == Boolean.class || type == Character.class ||
+                                 ( Number.class.isAssignableFrom( type ) && type.getName().startsWith( "java.lang." ) ) ||
+                                 type == BigDecimal.class || type == BigInteger.class );
+    }
+
+    private static boolean equals(Object o1,
+                                  Object o2) {
+        return o1 == null ? o2 == null : o1.equals( o2 );
+    }
+
+    private static class PropertyReaders {
+        private final List<String>           properties;
+        private final BaseClassFieldReader[] readers;
+
+        private PropertyReaders(List<String> properties) {
+            this.properties = properties;
+            this.readers = new BaseClassFieldReader[properties.size()];
+        }
+
+        private Object[] read(InternalWorkingMemory wm,
+                              Object object) {
+            Object[] values = new Object[readers.length];
+            for ( int i = 0; i < readers.length; i++ ) {
+                if ( readers[i] != null ) {
+                    values[i] = readers[i].getValue( wm, object );
+                }
+            }
+            return values;
+        }
+    }
+
+    private static class Snapshot {
+        private final PropertyReaders readers;
+        private final Object[]        values;
+
+        private Snapshot(PropertyReaders readers,
+                         Object[] values) {
+            this.readers = readers;
+            this.values = values;
+        }
+    }
+}
@@ -76,6 +76,7 @@ public final class Scheduler {
             InternalAgenda agenda = ( InternalAgenda ) ((ActivationTimerJobContext)ctx).getAgenda();
             ScheduledAgendaItem item  = ((ActivationTimerJobContext)ctx).getScheduledAgendaItem();
 
+            agenda.awaitAsyncConsequenceCapacity( item );
             boolean wasFired = agenda.fireTimedActivation( item, false );
 
             if ( ((ActivationTimerJobContext)ctx).getTrigger().hasNextFireTime() == null ) {
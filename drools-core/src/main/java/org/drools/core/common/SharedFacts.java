@@ -0,0 +1,255 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.common;
+
+import org.drools.core.base.AccessorKey;
+import org.drools.core.base.ClassFieldAccessorCache;
+import org.drools.core.spi.ReadAccessor;
+import org.drools.core.util.ClassUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A named set of read only reference facts (e.g. a product catalog or a table of exchange rates)
+ * registered on the kbase and shared by all its sessions. The facts are not inserted in the
+ * sessions, so they do not take space in their node memories: every session having a global with
+ * the same name gets this instance bound to it and the rules join against it with from, e.g.
+ *
+ * <pre>
+ * global org.drools.core.common.SharedFacts catalog
+ *
+ * rule "Order price"
+ * when
+ *     $o : Order( $sku : sku )
+ *     $p : Product( ) from catalog.lookup( "sku", $sku )
+ * then
+ * </pre>
+ *
+ * The lookup by property uses a hash index built once, on the first lookup, and then shared by all
+ * the sessions. The index reads the property with the accessors of the kbase, and the looked up
+ * value is coerced to the type of the property, so that for instance an int matches a long property. The facts are immutable once registered: the kbase replaces them as a whole with a
+ * new snapshot, whose indexes are built again, while the lookups still running keep using the
+ * previous one. The left tuples already evaluated keep the results of the snapshot they have seen.
+ * <p/>
+ * Removing the shared facts from the kbase doesn't unbind them from the globals of the live sessions,
+ * since a global can't be reset to null: those sessions keep looking up the last snapshot, until
+ * shared facts with the same name are registered again and replace the removed instance.
+ */
+public class SharedFacts implements Iterable<Object> {
+
+    private final String name;
+
+    private final ClassFieldAccessorCache accessorCache;
+
+    private volatile Snapshot snapshot;
+
+    public SharedFacts(String name, Collection<?> facts, ClassFieldAccessorCache accessorCache) {
+        this.name = name;
+        this.accessorCache = accessorCache;
+        this.snapshot = new Snapshot( facts );
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns all the facts of the current snapshot
+     */
+    public List<Object> getFacts() {
+        return snapshot.facts;
+    }
+
+    public Iterator<Object> iterator() {
+        return snapshot.facts.iterator();
+    }
+
+    public int size() {
+        return snapshot.facts.size();
+    }
+
+    /**
+     * Returns the facts of the current snapshot whose given property is equal to the given value
+     */
+    public List<Object> lookup(String property, Object value) {
+        Index index = snapshot.getIndex( property );
+        List<Object> facts = index.facts.get( coerce( value, index.type ) );
+        return facts != null ? facts : Collections.emptyList();
+    }
+
+    /**
+     * Replaces all the facts with a new snapshot, copying the given collection
+     */
+    public void replace(Collection<?> facts) {
+        this.snapshot = new Snapshot( facts );
+    }
+
+    @Override
+    public String toString() {
+        return "SharedFacts[" + name + ", size=" + size() + "]";
+    }
+
+    private ReadAccessor getReader(Class<?> factClass, String property) {
+        // the cache by classloader of the kbase is not thread safe
+        synchronized ( accessorCache ) {
+            try {
+                return accessorCache.getCacheEntry( factClass ).getReadAccessor( new AccessorKey( factClass.getName(),
+                                                                                                    property,
+                                                                                                    AccessorKey.AccessorType.FieldAccessor ),
+                                                                                    factClass );
+            } catch ( RuntimeException e ) {
+                // the class has no such property
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Converts a number to the given numeric type, if it can be done without losing information,
+     * otherwise returns the value as is, that doesn't match any key of that type
+     */
+    private static Object coerce(Object value, Class<?> type) {
+        if ( value == null || type == null || type.isInstance( value ) || !( value instanceof Number ) ) {
+            return value;
+        }
+        if ( ( value instanceof Double || value instanceof Float ) && ( Double.isNaN( ( (Number) value ).doubleValue() ) || Double.isInfinite( ( (Number) value ).doubleValue() ) ) ) {
+            return value;
+        }
+        BigDecimal decimal = toBigDecimal( (Number) value );
+        if ( type == BigDecimal.class ) {
+            return decimal;
+        } else if ( type == Double.class ) {
+            double d = decimal.doubleValue();
+            return decimal.compareTo( new BigDecimal( d ) ) == 0 ? (Object) d : value;
+        } else if ( type == Float.class ) {
+            float f = decimal.floatValue();
+            return decimal.compareTo( new BigDecimal( f ) ) == 0 ? (Object) f : value;
+        }
+
+        BigInteger integer;
+        try {
+            integer = decimal.toBigIntegerExact();
+        } catch ( ArithmeticException e ) {
+            // has a fractional part
+            return value;
+        }
+        if ( type == BigInteger.class ) {
+            return integer;
+        }
+        if ( integer.bitLength() >= 64 ) {
+            return value;
+        }
+        long l = integer.longValue();
+        if ( type == Long.class ) {
+            return l;
+        } else if ( type == Integer.class && l == (int) l ) {
+            return (int) l;
+        } else if ( type == Short.class && l == (short) l ) {
+            return (short) l;
+        } else if ( type == Byte.class && l == (byte) l ) {
+            return (byte) l;
+        }
+        return value;
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        if ( number instanceof BigDecimal ) {
+            return (BigDecimal) number;
+        } else if ( number instanceof BigInteger ) {
+            return new BigDecimal( (BigInteger) number );
+        } else if ( number instanceof Double || number instanceof Float ) {
+            return new BigDecimal( number.doubleValue() );
+        }
+        return BigDecimal.valueOf( number.longValue() );
+    }
+
+    private static class Index {
+        private final Map<Object, List<Object>> facts;
+
+        // the boxed type of the property, the keys are coerced to it
+        private final Class<?>                  type;
+
+        private Index(Map<Object, List<Object>> facts, Class<?> type) {
+            this.facts = facts;
+            this.type = type;
+        }
+    }
+
+    private class Snapshot {
+        private final List<Object> facts;
+
+        private final ConcurrentMap<String, Index> indexes = new ConcurrentHashMap<String, Index>();
+
+        private Snapshot(Collection<?> facts) {
+            this.facts = Collections.unmodifiableList( new ArrayList<Object>( facts ) );
+        }
+
+        private Index getIndex(String property) {
+            Index index = indexes.get( property );
+            if ( index == null ) {
+                index = buildIndex( property );
+                Index existing = indexes.putIfAbsent( property, index );
+                if ( existing != null ) {
+                    index = existing;
+                }
+            }
+            return index;
+        }
+
+        private Index buildIndex(String property) {
+            Map<Class<?>, ReadAccessor> readers = new HashMap<Class<?>, ReadAccessor>();
+            Map<Object, List<Object>> index = new HashMap<Object, List<Object>>();
+            Class<?> type = null;
+            for ( Object fact : facts ) {
+                Class<?> factClass = fact.getClass();
+                ReadAccessor reader = readers.get( factClass );
+                if ( reader == null && !readers.containsKey( factClass ) ) {
+                    reader = getReader( factClass, property );
+                    readers.put( factClass, reader );
+                }
+                if ( reader == null ) {
+                    // the facts of other types are not returned by the lookups on this property
+                    continue;
+                }
+                if ( type == null ) {
+                    type = ClassUtils.convertFromPrimitiveType( reader.getExtractToClass() );
+                }
+                Object key = coerce( reader.getValue( fact ), type );
+                List<Object> list = index.get( key );
+                if ( list == null ) {
+                    list = new ArrayList<Object>();
+                    index.put( key, list );
+                }
+                list.add( fact );
+            }
+            for ( Map.Entry<Object, List<Object>> entry : index.entrySet() ) {
+                entry.setValue( Collections.unmodifiableList( entry.getValue() ) );
+            }
+            return new Index( index, type );
+        }
+    }
+}
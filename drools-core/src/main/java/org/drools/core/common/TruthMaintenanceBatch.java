@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.common;
+
+import org.drools.core.beliefsystem.simple.SimpleBeliefSet;
+import org.drools.core.beliefsystem.simple.SimpleBeliefSystem;
+import org.drools.core.spi.PropagationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the belief sets that lost a justification while a batch is open, i.e. during a network
+ * evaluation or while the previous justifications of a fired rule are cancelled.
+ *
+ * The status of each belief set is resolved only once, when the outermost batch is closed: the
+ * justified facts left without any justification are then deleted from the network one after the
+ * other, and the queued working memory actions are executed once for the whole batch.
+ * A belief set that gets justified again before the batch is closed is left untouched, so its
+ * fact is neither deleted nor inserted again.
+ */
+public class TruthMaintenanceBatch {
+
+    private final InternalWorkingMemory wm;
+
+    private int                         depth;
+
+    private List<SimpleBeliefSet>       staged = new ArrayList<SimpleBeliefSet>();
+
+    public TruthMaintenanceBatch(InternalWorkingMemory wm) {
+        this.wm = wm;
+    }
+
+    public void open() {
+        depth++;
+    }
+
+    public boolean isOpen() {
+        return depth > 0;
+    }
+
+    public void close() {
+        if ( --depth == 0 ) {
+            flush();
+        }
+    }
+
+    /**
+     * Stages a belief set that lost a justification, returns false if there isn't any open batch
+     * and then the belief set has to be resolved straight away
+     */
+    public boolean stage(SimpleBeliefSet beliefSet,
+                         PropagationContext context) {
+        if ( depth == 0 ) {
+            return false;
+        }
+        if ( !beliefSet.isBatched() ) {
+            staged.add( beliefSet );
+        }
+        beliefSet.setBatchedContext( context );
+        return true;
+    }
+
+    public int size() {
+        return staged.size();
+    }
+
+    private void flush() {
+        if ( staged.isEmpty() ) {
+            return;
+        }
+        // keep the batch open while resolving, so the removals caused by the deletes are staged too
+        depth++;
+        try {
+            while ( !staged.isEmpty() ) {
+                List<SimpleBeliefSet> beliefSets = staged;
+                staged = new ArrayList<SimpleBeliefSet>();
+                for ( SimpleBeliefSet beliefSet : beliefSets ) {
+                    PropagationContext context = beliefSet.getBatchedContext();
+                    beliefSet.setBatchedContext( null );
+                    ( (SimpleBeliefSystem) beliefSet.getBeliefSystem() ).resolve( beliefSet, context );
+                }
+            }
+        } finally {
+            depth--;
+        }
+        wm.executeQueuedActions();
+    }
+}
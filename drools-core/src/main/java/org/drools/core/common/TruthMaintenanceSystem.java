@@ -250,6 +250,14 @@ public class TruthMaintenanceSystem {
         this.equalityKeyMap.clear();
     }
 
+    /**
+     * Returns the batch staging the removed justifications of the session,
+     * or null if the session doesn't batch them
+     */
+    public TruthMaintenanceBatch getBatch() {
+        return ( (InternalAgenda) ep.getInternalWorkingMemory().getAgenda() ).getTruthMaintenanceBatch();
+    }
+
     public BeliefSystem getBeliefSystem() {
         return defaultBeliefSystem;
     }
@@ -77,6 +77,7 @@ public class RuleImpl implements Externalizable,
     private static final int EAGER_BIT =                1 << 5;
     private static final int DATA_DRIVEN_BIT =          1 << 6;
     private static final int ALL_MATCHES_BIT =          1 << 7;
+    private static final int ASYNC_BIT =                1 << 8;
 
     public static final String DEFAULT_CONSEQUENCE_NAME = "default";
 
@@ -140,6 +141,8 @@ public class RuleImpl implements Externalizable,
 
     private int ruleFlags;
 
+    private String asyncKey;
+
     public RuleImpl() {
 
     }
@@ -218,6 +221,7 @@ public class RuleImpl implements Externalizable,
         out.writeObject(consequenceMetaData);
         out.writeObject( usedQueries );
         out.writeInt(ruleFlags);
+        out.writeObject(asyncKey);
     }
 
     @SuppressWarnings("unchecked")
@@ -251,6 +255,7 @@ public class RuleImpl implements Externalizable,
         consequenceMetaData = ( ConsequenceMetaData ) in.readObject();
         usedQueries = (List<QueryImpl>) in.readObject();
         ruleFlags = in.readInt();
+        asyncKey = (String) in.readObject();
     }
 
     public void addUsedQuery(QueryImpl query) {
@@ -716,6 +721,26 @@ public class RuleImpl implements Externalizable,
         set(ALL_MATCHES_BIT, allMatches);
     }
 
+    public boolean isAsync() {
+        return isSet(ASYNC_BIT);
+    }
+
+    public void setAsync(boolean async) {
+        set(ASYNC_BIT, async);
+    }
+
+    /**
+     * The name of the declaration whose value orders the asynchronous consequences of this rule,
+     * or null when all of them are executed in firing order.
+     */
+    public String getAsyncKey() {
+        return asyncKey;
+    }
+
+    public void setAsyncKey(String asyncKey) {
+        this.asyncKey = asyncKey;
+    }
+
     public String toString() {
         return "[Rule name=" + this.name + ", agendaGroup=" + this.agendaGroup + ", salience=" + this.salience + ", no-loop=" + isNoLoop() + "]";
     }
@@ -80,10 +80,19 @@ public abstract class AbstractTraitFactory<T extends Thing<K>, K extends Traitab
                 if ( ! ( cbf.getPropertyWrapperBuilder() instanceof TraitMapProxyClassBuilderImpl ) ) {
                     cbf.setPropertyWrapperBuilder( new TraitMapPropertyWrapperClassBuilderImpl() );
                 }
-                if ( ! ( cbf.getTraitProxyBuilder() instanceof TraitMapProxyClassBuilderImpl ) ) {
+                if ( ! ( cbf.getTraitProxyBuilder() instanceof TraitMapProxyClassBuilderImpl ) || cbf.getTraitProxyBuilder() instanceof TraitSlotProxyClassBuilderImpl ) {
                     cbf.setTraitProxyBuilder( new TraitMapProxyClassBuilderImpl() );
                 }
                 break;
+            case SLOTS  :
+                // soft fields are still exposed to the property wrappers as a map, a slot based one
+                if ( ! ( cbf.getPropertyWrapperBuilder() instanceof TraitMapPropertyWrapperClassBuilderImpl ) ) {
+                    cbf.setPropertyWrapperBuilder( new TraitMapPropertyWrapperClassBuilderImpl() );
+                }
+                if ( ! ( cbf.getTraitProxyBuilder() instanceof TraitSlotProxyClassBuilderImpl ) ) {
+                    cbf.setTraitProxyBuilder( new TraitSlotProxyClassBuilderImpl() );
+                }
+                break;
             case TRIPLES:
                 if ( ! ( cbf.getPropertyWrapperBuilder() instanceof TraitTriplePropertyWrapperClassBuilderImpl ) ) {
                     cbf.setPropertyWrapperBuilder( new TraitTriplePropertyWrapperClassBuilderImpl() );
@@ -150,6 +159,8 @@ public abstract class AbstractTraitFactory<T extends Thing<K>, K extends Traitab
                     break;
                 case TRIPLES:   proxy = konst.newInstance( core, getTripleStore(), getTripleFactory(), hier.getCode( trait.getName() ), hier.getBottom(), logical );
                     break;
+                case SLOTS  :   proxy = konst.newInstance( core, getSlotMap( core ), hier.getCode( trait.getName() ), hier.getBottom(), logical );
+                    break;
                 default     :   throw new RuntimeException( " This should not happen : unexpected property wrapping method " + mode );
             }
 
@@ -165,6 +176,25 @@ public abstract class AbstractTraitFactory<T extends Thing<K>, K extends Traitab
     }
 
 
+    /**
+     * Returns the soft fields of a core as a {@link TraitSlotMap}, replacing the map of the core on its first don
+     */
+    protected Map<String, Object> getSlotMap( K core ) {
+        TraitSlotLayout layout = getTraitRegistry().getSlotLayout( core.getClass().getName() );
+        Map<String, Object> map = core._getDynamicProperties();
+        if ( map instanceof TraitSlotMap ) {
+            ( (TraitSlotMap) map ).bind( layout );
+            return map;
+        }
+        TraitSlotMap slotMap = new TraitSlotMap( layout );
+        if ( map != null ) {
+            slotMap.putAll( map );
+        }
+        core._setDynamicProperties( slotMap );
+        // some cores (e.g. MapCore) keep their own map, and their proxies fall back to keyed access
+        return core._getDynamicProperties();
+    }
+
     protected Constructor<T> cacheConstructor( String key, K core, Class<?> trait ) {
         Class<T> proxyClass = buildProxyClass( key, core, trait );
         if ( proxyClass == null ) {
@@ -174,7 +204,8 @@ public abstract class AbstractTraitFactory<T extends Thing<K>, K extends Traitab
             Constructor konst;
 
             switch ( mode ) {
-                case MAP    :   konst = proxyClass.getConstructor( core.getClass(), Map.class, BitSet.class, BitSet.class, boolean.class );
+                case MAP    :
+                case SLOTS  :   konst = proxyClass.getConstructor( core.getClass(), Map.class, BitSet.class, BitSet.class, boolean.class );
                     break;
                 case TRIPLES:   konst = proxyClass.getConstructor( core.getClass(), TripleStore.class, TripleFactory.class, BitSet.class, BitSet.class, boolean.class );
                     break;
@@ -66,6 +66,10 @@ public class TraitMapProxyClassBuilderImpl implements TraitProxyClassBuilder, Se
         return trait;
     }
 
+    protected TraitRegistry getTraitRegistry() {
+        return traitRegistry;
+    }
+
     public void init( ClassDefinition trait, Class<?> baseClass, TraitRegistry traitRegistry ) {
         this.trait = trait;
         this.proxyBaseClass = baseClass;
@@ -740,14 +744,12 @@ public class TraitMapProxyClassBuilderImpl implements TraitProxyClassBuilder, Se
 
         mv.visitVarInsn( ALOAD, 0 );
         mv.visitFieldInsn( GETFIELD, BuildUtils.getInternalType( proxy ), "map", Type.getDescriptor( Map.class ) );
-        mv.visitLdcInsn( field.resolveAlias() );
+        pushSoftFieldKey( mv, field, core );
         mv.visitVarInsn( BuildUtils.varType( type ), 1 );
         if ( BuildUtils.isPrimitive( type ) ) {
             TraitFactory.valueOf( mv, type );
         }
-        mv.visitMethodInsn( INVOKEINTERFACE, Type.getInternalName( Map.class ), "put", 
-                            "(" + Type.getDescriptor( Object.class ) + Type.getDescriptor( Object.class ) + ")" + Type.getDescriptor( Object.class ) );
-        mv.visitInsn( POP );
+        invokeSoftFieldPut( mv );
         mv.visitInsn( RETURN );
 
         mv.visitMaxs( 0, 0 );
@@ -773,8 +775,8 @@ public class TraitMapProxyClassBuilderImpl implements TraitProxyClassBuilder, Se
         mv.visitCode();
         mv.visitVarInsn( ALOAD, 0 );
         mv.visitFieldInsn( GETFIELD, BuildUtils.getInternalType( proxy ), "map", Type.getDescriptor( Map.class ) );
-        mv.visitLdcInsn( field.resolveAlias() );
-        mv.visitMethodInsn( INVOKEINTERFACE, Type.getInternalName( Map.class ), "get", "(" + Type.getDescriptor( Object.class ) + ")" + Type.getDescriptor( Object.class ) );
+        pushSoftFieldKey( mv, field, core );
+        invokeSoftFieldGet( mv );
 
         String actualType = BuildUtils.isPrimitive( type ) ? BuildUtils.box( type ) : type;
 
@@ -809,6 +811,29 @@ public class TraitMapProxyClassBuilderImpl implements TraitProxyClassBuilder, Se
     }
 
 
+    /**
+     * Pushes the key of a soft field on the stack, right after the map of the soft fields
+     */
+    protected void pushSoftFieldKey( MethodVisitor mv, FieldDefinition field, ClassDefinition core ) {
+        mv.visitLdcInsn( field.resolveAlias() );
+    }
+
+    /**
+     * Reads a soft field, given the map and the key on the stack
+     */
+    protected void invokeSoftFieldGet( MethodVisitor mv ) {
+        mv.visitMethodInsn( INVOKEINTERFACE, Type.getInternalName( Map.class ), "get", "(" + Type.getDescriptor( Object.class ) + ")" + Type.getDescriptor( Object.class ) );
+    }
+
+    /**
+     * Writes a soft field, given the map, the key and the boxed value on the stack
+     */
+    protected void invokeSoftFieldPut( MethodVisitor mv ) {
+        mv.visitMethodInsn( INVOKEINTERFACE, Type.getInternalName( Map.class ), "put",
+                            "(" + Type.getDescriptor( Object.class ) + Type.getDescriptor( Object.class ) + ")" + Type.getDescriptor( Object.class ) );
+        mv.visitInsn( POP );
+    }
+
     private void logicalSetter( MethodVisitor mv, FieldDefinition field, String masterName, ClassDefinition trait, ClassDefinition core, boolean hardField ) {
         String fieldType = field.getTypeName();
         int reg = 1 + BuildUtils.sizeOf( fieldType );
@@ -1497,13 +1522,10 @@ public class TraitMapProxyClassBuilderImpl implements TraitProxyClassBuilder, Se
             mv.visitVarInsn( ALOAD, 0 );
             mv.visitFieldInsn( GETFIELD, BuildUtils.getInternalType( proxyName ), "map", Type.getDescriptor( Map.class ) );
 
-            mv.visitLdcInsn( fld.resolveAlias() );
+            pushSoftFieldKey( mv, fld, core );
             mv.visitVarInsn( ALOAD, j );
 
-            mv.visitMethodInsn( INVOKEINTERFACE,
-                                Type.getInternalName( Map.class ),
-                                "put",
-                                Type.getMethodDescriptor( Type.getType( Object.class ), new Type[] { Type.getType( Object.class ), Type.getType( Object.class ) } ) );
+            invokeSoftFieldPut( mv );
         }
     }
 
@@ -51,6 +51,8 @@ public class TraitRegistry implements Externalizable {
 
     private Map<String, BitSet> masks;
 
+    private Map<String, TraitSlotLayout> slotLayouts;
+
     private HierarchyEncoder<String> hierarchy;
 
 
@@ -116,6 +118,15 @@ public class TraitRegistry implements Externalizable {
             this.masks.putAll( other.masks );
         }
 
+        if ( other.slotLayouts != null ) {
+            // keep the layouts already in use, the proxies built on them have their offsets hardcoded
+            for ( Map.Entry<String, TraitSlotLayout> entry : other.slotLayouts.entrySet() ) {
+                if ( getSlotLayout( entry.getKey() ).size() == 0 ) {
+                    slotLayouts.put( entry.getKey(), entry.getValue() );
+                }
+            }
+        }
+
         if ( hierarchy == null || hierarchy.size() <= 1 ) {
             hierarchy = other.hierarchy;
         } else {
@@ -215,6 +226,29 @@ public class TraitRegistry implements Externalizable {
         return mask;
     }
 
+    /**
+     * Returns the layout of the soft fields of the cores of a traitable class, when stored in slots
+     */
+    public synchronized TraitSlotLayout getSlotLayout( String traitable ) {
+        if ( slotLayouts == null ) {
+            slotLayouts = new HashMap<String, TraitSlotLayout>();
+        }
+        TraitSlotLayout layout = slotLayouts.get( traitable );
+        if ( layout == null ) {
+            layout = new TraitSlotLayout();
+            slotLayouts.put( traitable, layout );
+        }
+        return layout;
+    }
+
+    /**
+     * Returns the offset of a soft field in the slots of the cores of a traitable class,
+     * assigning it when a proxy using that field is first built
+     */
+    public int getSoftFieldSlot( String traitable, String field ) {
+        return getSlotLayout( traitable ).assign( field );
+    }
+
     private BitSet bind( String trait, String traitable ) throws UnsupportedOperationException {
         ClassDefinition traitDef = getTrait( trait );
         if ( traitDef == null ) {
@@ -255,6 +289,7 @@ public class TraitRegistry implements Externalizable {
         objectOutput.writeObject( masks );
         objectOutput.writeObject( hierarchy );
         objectOutput.writeInt( codeSize );
+        objectOutput.writeObject( slotLayouts );
     }
 
     public void readExternal(ObjectInput objectInput) throws IOException, ClassNotFoundException {
@@ -263,6 +298,7 @@ public class TraitRegistry implements Externalizable {
         masks = (Map<String, BitSet>) objectInput.readObject();
         hierarchy = (HierarchyEncoderImpl) objectInput.readObject();
         codeSize = objectInput.readInt();
+        slotLayouts = (Map<String, TraitSlotLayout>) objectInput.readObject();
         init();
     }
 
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.factmodel.traits;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The offsets of the soft fields in the slot arrays of the cores of a traitable class.
+ * Offsets are assigned by the {@link TraitRegistry} while the trait proxies are built and never change,
+ * so the generated accessors can refer to them as constants.
+ */
+public class TraitSlotLayout implements Serializable {
+
+    private final Map<String, Integer> slots = new ConcurrentHashMap<String, Integer>();
+
+    private volatile String[] names = new String[ 0 ];
+
+    /**
+     * Returns the offset of a soft field, assigning the next free one if the field has none yet
+     */
+    public int assign( String name ) {
+        Integer slot = slots.get( name );
+        if ( slot != null ) {
+            return slot;
+        }
+        synchronized ( this ) {
+            slot = slots.get( name );
+            if ( slot == null ) {
+                slot = names.length;
+                String[] newNames = Arrays.copyOf( names, slot + 1 );
+                newNames[ slot ] = name;
+                names = newNames;
+                slots.put( name, slot );
+            }
+            return slot;
+        }
+    }
+
+    /**
+     * Returns the offset of a soft field, or -1 if the field has none
+     */
+    public int getSlot( Object name ) {
+        Integer slot = name != null ? slots.get( name ) : null;
+        return slot != null ? slot : -1;
+    }
+
+    public String getName( int slot ) {
+        return names[ slot ];
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    @Override
+    public String toString() {
+        return "TraitSlotLayout" + Arrays.toString( names );
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.factmodel.traits;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The soft fields of a core in {@link VirtualPropertyMode#SLOTS} mode, stored in an array whose
+ * offsets are given by the {@link TraitSlotLayout} of the core class.
+ *
+ * The proxies read and write the slots directly through {@link #get(Map, int, String)} and
+ * {@link #put(Map, int, String, Object)}, while the map view serves the property wrappers
+ * and any other keyed access. The array grows when a trait using new soft fields is donned.
+ */
+public class TraitSlotMap extends AbstractMap<String, Object> implements Externalizable {
+
+    // tells an unset slot from a field set to null
+    private static final Object ABSENT = new Object();
+
+    private TraitSlotLayout layout;
+
+    private Object[] slots;
+
+    private int size;
+
+    public TraitSlotMap() {
+        this( new TraitSlotLayout() );
+    }
+
+    public TraitSlotMap( TraitSlotLayout layout ) {
+        this.layout = layout;
+        this.slots = newSlots( layout.size() );
+    }
+
+    /**
+     * Reads a soft field through its offset, falling back to the key when the
+     * soft fields of the core are not kept in a slot map
+     */
+    public static Object get( Map<String, Object> map, int slot, String name ) {
+        if ( map instanceof TraitSlotMap ) {
+            return ( (TraitSlotMap) map ).getSlot( slot );
+        }
+        return map.get( name );
+    }
+
+    /**
+     * Writes a soft field through its offset, falling back to the key when the
+     * soft fields of the core are not kept in a slot map
+     */
+    public static void put( Map<String, Object> map, int slot, String name, Object value ) {
+        if ( map instanceof TraitSlotMap ) {
+            ( (TraitSlotMap) map ).setSlot( slot, value );
+        } else {
+            map.put( name, value );
+        }
+    }
+
+    public TraitSlotLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Moves the fields to the offsets of the given layout, e.g. after the core
+     * has been deserialized with a copy of the layout of its class
+     */
+    public void bind( TraitSlotLayout newLayout ) {
+        if ( newLayout == layout ) {
+            return;
+        }
+        Object[] oldSlots = slots;
+        TraitSlotLayout oldLayout = layout;
+        layout = newLayout;
+        slots = newSlots( newLayout.size() );
+        size = 0;
+        for ( int j = 0; j < oldSlots.length; j++ ) {
+            if ( oldSlots[ j ] != ABSENT ) {
+                setSlot( newLayout.assign( oldLayout.getName( j ) ), oldSlots[ j ] );
+            }
+        }
+    }
+
+    public Object getSlot( int slot ) {
+        if ( slot >= slots.length ) {
+            return null;
+        }
+        Object value = slots[ slot ];
+        return value != ABSENT ? value : null;
+    }
+
+    public Object setSlot( int slot, Object value ) {
+        if ( slot >= slots.length ) {
+            grow( slot );
+        }
+        Object old = slots[ slot ];
+        slots[ slot ] = value;
+        if ( old == ABSENT ) {
+            size++;
+            return null;
+        }
+        return old;
+    }
+
+    private Object clearSlot( int slot ) {
+        if ( slot < 0 || slot >= slots.length || slots[ slot ] == ABSENT ) {
+            return null;
+        }
+        Object old = slots[ slot ];
+        slots[ slot ] = ABSENT;
+        size--;
+        return old;
+    }
+
+    private void grow( int slot ) {
+        int oldLength = slots.length;
+        slots = Arrays.copyOf( slots, Math.max( slot + 1, layout.size() ) );
+        Arrays.fill( slots, oldLength, slots.length, ABSENT );
+    }
+
+    private static Object[] newSlots( int length ) {
+        Object[] slots = new Object[ length ];
+        Arrays.fill( slots, ABSENT );
+        return slots;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey( Object key ) {
+        int slot = layout.getSlot( key );
+        return slot >= 0 && slot < slots.length && slots[ slot ] != ABSENT;
+    }
+
+    @Override
+    public Object get( Object key ) {
+        int slot = layout.getSlot( key );
+        return slot >= 0 ? getSlot( slot ) : null;
+    }
+
+    @Override
+    public Object put( String key, Object value ) {
+        return setSlot( layout.assign( key ), value );
+    }
+
+    @Override
+    public Object remove( Object key ) {
+        return clearSlot( layout.getSlot( key ) );
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill( slots, ABSENT );
+        size = 0;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new SlotIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    public void writeExternal( ObjectOutput out ) throws IOException {
+        // slots are written in order with their names, so the offsets survive the round trip
+        out.writeInt( slots.length );
+        for ( int j = 0; j < slots.length; j++ ) {
+            out.writeUTF( layout.getName( j ) );
+            out.writeBoolean( slots[ j ] != ABSENT );
+            if ( slots[ j ] != ABSENT ) {
+                out.writeObject( slots[ j ] );
+            }
+        }
+    }
+
+    public void readExternal( ObjectInput in ) throws IOException, ClassNotFoundException {
+        // the layout of the core class is not known here, until the core is bound to it again
+        layout = new TraitSlotLayout();
+        int length = in.readInt();
+        slots = newSlots( length );
+        size = 0;
+        for ( int j = 0; j < length; j++ ) {
+            layout.assign( in.readUTF() );
+            if ( in.readBoolean() ) {
+                setSlot( j, in.readObject() );
+            }
+        }
+    }
+
+    private class SlotIterator implements Iterator<Entry<String, Object>> {
+
+        private int next = advance( 0 );
+        private int last = -1;
+
+        private int advance( int from ) {
+            while ( from < slots.length && slots[ from ] == ABSENT ) {
+                from++;
+            }
+            return from;
+        }
+
+        public boolean hasNext() {
+            return next < slots.length;
+        }
+
+        public Entry<String, Object> next() {
+            if ( next >= slots.length ) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = advance( next + 1 );
+            return new SlotEntry( last );
+        }
+
+        public void remove() {
+            if ( last < 0 ) {
+                throw new IllegalStateException();
+            }
+            clearSlot( last );
+            last = -1;
+        }
+    }
+
+    private class SlotEntry implements Entry<String, Object> {
+
+        private final int slot;
+
+        private SlotEntry( int slot ) {
+            this.slot = slot;
+        }
+
+        public String getKey() {
+            return layout.getName( slot );
+        }
+
+        public Object getValue() {
+            return getSlot( slot );
+        }
+
+        public Object setValue( Object value ) {
+            return setSlot( slot, value );
+        }
+
+        @Override
+        public boolean equals( Object o ) {
+            if ( !( o instanceof Entry ) ) {
+                return false;
+            }
+            Entry<?, ?> other = (Entry<?, ?>) o;
+            Object value = getValue();
+            return getKey().equals( other.getKey() ) && ( value == null ? other.getValue() == null : value.equals( other.getValue() ) );
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return getKey().hashCode() ^ ( value == null ? 0 : value.hashCode() );
+        }
+    }
+}
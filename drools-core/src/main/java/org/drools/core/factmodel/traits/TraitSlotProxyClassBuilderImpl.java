@@ -0,0 +1,57 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.factmodel.traits;
+
+import org.drools.core.factmodel.BuildUtils;
+import org.drools.core.factmodel.ClassDefinition;
+import org.drools.core.factmodel.FieldDefinition;
+import org.mvel2.asm.MethodVisitor;
+import org.mvel2.asm.Type;
+
+import java.util.Map;
+
+/**
+ * Builds the proxies of {@link VirtualPropertyMode#SLOTS} mode: same as the map based ones,
+ * but the soft field accessors address the {@link TraitSlotMap} of the core through the
+ * offsets assigned by the {@link TraitRegistry}, instead of hashing the field names.
+ */
+public class TraitSlotProxyClassBuilderImpl extends TraitMapProxyClassBuilderImpl {
+
+    @Override
+    protected void pushSoftFieldKey( MethodVisitor mv, FieldDefinition field, ClassDefinition core ) {
+        BuildUtils.pushInt( mv, getTraitRegistry().getSoftFieldSlot( core.getName(), field.resolveAlias() ) );
+        mv.visitLdcInsn( field.resolveAlias() );
+    }
+
+    @Override
+    protected void invokeSoftFieldGet( MethodVisitor mv ) {
+        mv.visitMethodInsn( INVOKESTATIC,
+                            Type.getInternalName( TraitSlotMap.class ),
+                            "get",
+                            Type.getMethodDescriptor( Type.getType( Object.class ),
+                                                      new Type[] { Type.getType( Map.class ), Type.INT_TYPE, Type.getType( String.class ) } ) );
+    }
+
+    @Override
+    protected void invokeSoftFieldPut( MethodVisitor mv ) {
+        mv.visitMethodInsn( INVOKESTATIC,
+                            Type.getInternalName( TraitSlotMap.class ),
+                            "put",
+                            Type.getMethodDescriptor( Type.VOID_TYPE,
+                                                      new Type[] { Type.getType( Map.class ), Type.INT_TYPE, Type.getType( String.class ), Type.getType( Object.class ) } ) );
+    }
+}
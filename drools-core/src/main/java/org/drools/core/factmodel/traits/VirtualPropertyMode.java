@@ -4,6 +4,7 @@ package org.drools.core.factmodel.traits;
 public enum VirtualPropertyMode {
 
     MAP,
-    TRIPLES;
+    TRIPLES,
+    SLOTS;
 
 }
@@ -5,6 +5,7 @@ import org.drools.core.SessionConfiguration;
 import org.drools.core.base.ClassFieldAccessorCache;
 import org.drools.core.common.InternalWorkingMemory;
 import org.drools.core.common.RuleBasePartitionId;
+import org.drools.core.common.SharedFacts;
 import org.drools.core.definitions.InternalKnowledgePackage;
 import org.drools.core.definitions.rule.impl.RuleImpl;
 import org.drools.core.factmodel.traits.TraitRegistry;
@@ -112,6 +113,11 @@ public interface InternalKnowledgeBase extends KnowledgeBase {
 
     void addGlobal(String identifier, Class clazz);
 
+    SharedFacts getSharedFacts(String name);
+    Collection<SharedFacts> getSharedFacts();
+    SharedFacts setSharedFacts(String name, Collection<?> facts);
+    SharedFacts removeSharedFacts(String name);
+
     boolean removeObjectsGeneratedFromResource(Resource resource);
 
     TypeDeclaration getTypeDeclaration( Class<?> clazz );
@@ -28,6 +28,7 @@ import org.drools.core.common.InternalFactHandle;
 import org.drools.core.common.InternalWorkingMemory;
 import org.drools.core.common.ProjectClassLoader;
 import org.drools.core.common.RuleBasePartitionId;
+import org.drools.core.common.SharedFacts;
 import org.drools.core.common.WorkingMemoryFactory;
 import org.drools.core.definitions.InternalKnowledgePackage;
 import org.drools.core.definitions.impl.KnowledgePackageImpl;
@@ -105,6 +106,7 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -154,6 +156,8 @@ public class KnowledgeBaseImpl
 
     private transient ObjectHashSet statefulSessions;
 
+    private transient ConcurrentMap<String, SharedFacts> sharedFacts;
+
     // lock for entire rulebase, used for dynamic updates
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
@@ -207,6 +211,7 @@ public class KnowledgeBaseImpl
         this.processes = new HashMap<String, Process>();
         this.globals = new HashMap<String, Class<?>>();
         this.statefulSessions = new ObjectHashSet();
+        this.sharedFacts = new ConcurrentHashMap<String, SharedFacts>();
 
         this.classTypeDeclaration = new HashMap<String, TypeDeclaration>();
         this.partitionIDs = new CopyOnWriteArrayList<RuleBasePartitionId>();
@@ -500,6 +505,7 @@ public class KnowledgeBaseImpl
         this.eventSupport = (KieBaseEventSupport) droolsStream.readObject();
         this.eventSupport.setKnowledgeBase(this);
         this.statefulSessions = new ObjectHashSet();
+        this.sharedFacts = new ConcurrentHashMap<String, SharedFacts>();
 
         this.reteooBuilder = (ReteooBuilder) droolsStream.readObject();
         this.reteooBuilder.setRuleBase(this);
@@ -1191,6 +1197,52 @@ public class KnowledgeBaseImpl
 
     public void addGlobal(String identifier, Class clazz) {
         this.globals.put( identifier, clazz );
+        SharedFacts shared = this.sharedFacts.get( identifier );
+        if ( shared != null ) {
+            bindSharedFacts( shared );
+        }
+    }
+
+    public SharedFacts getSharedFacts(String name) {
+        return this.sharedFacts.get( name );
+    }
+
+    public Collection<SharedFacts> getSharedFacts() {
+        return this.sharedFacts.values();
+    }
+
+    /**
+     * Registers the given facts as the shared facts with the given name, or replaces them with a new
+     * snapshot if they already exist. The sessions having a global with that name get them bound to it.
+     */
+    public SharedFacts setSharedFacts(String name, Collection<?> facts) {
+        SharedFacts shared = this.sharedFacts.get( name );
+        if ( shared != null ) {
+            shared.replace( facts );
+            return shared;
+        }
+        shared = new SharedFacts( name, facts, this.classFieldAccessorCache );
+        SharedFacts existing = this.sharedFacts.putIfAbsent( name, shared );
+        if ( existing != null ) {
+            existing.replace( facts );
+            return existing;
+        }
+        bindSharedFacts( shared );
+        return shared;
+    }
+
+    /**
+     * Unregisters the shared facts with the given name. They stay bound to the globals of the live
+     * sessions, that keep their last snapshot until shared facts with that name are registered again.
+     */
+    public SharedFacts removeSharedFacts(String name) {
+        return this.sharedFacts.remove( name );
+    }
+
+    private void bindSharedFacts(SharedFacts shared) {
+        for ( StatefulKnowledgeSessionImpl session : getStatefulSessions() ) {
+            session.bindSharedFacts( shared );
+        }
     }
 
     protected void setupRete() {
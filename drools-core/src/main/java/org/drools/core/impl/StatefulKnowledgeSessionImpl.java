@@ -48,9 +48,11 @@ import org.drools.core.common.Memory;
 import org.drools.core.common.MemoryFactory;
 import org.drools.core.common.NamedEntryPoint;
 import org.drools.core.common.NodeMemories;
+import org.drools.core.common.NodeMemoriesStats;
 import org.drools.core.common.ObjectStore;
 import org.drools.core.common.ObjectTypeConfigurationRegistry;
 import org.drools.core.common.PropagationContextFactory;
+import org.drools.core.common.SharedFacts;
 import org.drools.core.common.TruthMaintenanceSystem;
 import org.drools.core.common.WorkingMemoryAction;
 import org.drools.core.definitions.InternalKnowledgePackage;
@@ -354,6 +356,7 @@ public class StatefulKnowledgeSessionImpl extends AbstractRuntime
         } else {
             this.globalResolver = new MapGlobalResolver();
         }
+        bindSharedFacts();
 
         this.calendars = new CalendarsImpl();
 
@@ -490,7 +493,19 @@ public class StatefulKnowledgeSessionImpl extends AbstractRuntime
         return this.kBase;
     }
 
+    /**
+     * Waits until the consequences of the asynchronous rules fired so far are completed, and hands
+     * their failures to the consequence exception handler
+     */
+    public void waitForAsyncConsequences() {
+        this.agenda.waitForAsyncConsequences();
+    }
+
     public void dispose() {
+        // the pending asynchronous consequences may still use the globals of this session; if one of them
+        // failed the session is left alive, and disposing it again won't report the same failure twice
+        waitForAsyncConsequences();
+
         if (logger != null) {
             try {
                 logger.close();
@@ -1065,6 +1080,10 @@ public class StatefulKnowledgeSessionImpl extends AbstractRuntime
         ((DefaultAgenda)this.agenda).reset();
 
         this.globalResolver.clear();
+        bindSharedFacts();
+        for (KieBaseEventListener listener : kieBaseEventListeners) {
+            this.kBase.removeEventListener(listener);
+        }
         this.kieBaseEventListeners.clear();
         this.handleFactory.clear( 0, 0 );
         this.propagationIdCounter.set( 0 );
@@ -1073,10 +1092,15 @@ public class StatefulKnowledgeSessionImpl extends AbstractRuntime
 
         initTransient();
 
+        if (timerService != null) {
+            timerService.shutdown();
+        }
         timerService = TimerServiceFactory.getTimerService(this.config);
         ((AcceptsTimerJobFactoryManager) timerService).setTimerJobFactoryManager( config.getTimerJobFactoryManager() );
 
         if (this.processRuntime != null) {
+            // the runtime being replaced has to unregister its listeners
+            this.processRuntime.dispose();
             this.processRuntime = createProcessRuntime();
         }
 
@@ -1199,6 +1223,27 @@ public class StatefulKnowledgeSessionImpl extends AbstractRuntime
         }
     }
 
+    private void bindSharedFacts() {
+        for ( SharedFacts shared : this.kBase.getSharedFacts() ) {
+            bindSharedFacts( shared );
+        }
+    }
+
+    /**
+     * Binds the given shared facts to the global with the same name, if it is declared and not already set,
+     * or still set to shared facts with that name that have been removed from the kbase
+     */
+    public void bindSharedFacts(SharedFacts shared) {
+        Class<?> type = this.kBase.getGlobals().get( shared.getName() );
+        if ( type == null || !type.isInstance( shared ) ) {
+            return;
+        }
+        Object current = this.globalResolver.resolveGlobal( shared.getName() );
+        if ( current == null || ( current instanceof SharedFacts && current != shared && ( (SharedFacts) current ).getName().equals( shared.getName() ) ) ) {
+            this.globalResolver.setGlobal( shared.getName(), shared );
+        }
+    }
+
     public void setGlobalResolver(final GlobalResolver globalResolver) {
         try {
             this.lock.lock();
@@ -1626,6 +1671,66 @@ public class StatefulKnowledgeSessionImpl extends AbstractRuntime
         return nodeMemories;
     }
 
+    /**
+     * Returns the number of node, segment and path memories this session has materialized so far
+     */
+    public NodeMemoriesStats getNodeMemoriesStats() {
+        return nodeMemories.getStats();
+    }
+
+    /**
+     * Eagerly creates the segment and path memories of all the rules and queries of the kbase, which are
+     * otherwise created when the first facts reach them, so that the first insertions do not pay for it.
+     * It can be called again after the kbase has been updated, e.g. from a background thread, to create the
+     * memories of the new rules and of the segments split or merged by the update.
+     */
+    public void warmUp() {
+        warmUp( null, null );
+    }
+
+    /**
+     * Eagerly creates the segment and path memories of the rule with the given name
+     */
+    public void warmUpRule(String ruleName) {
+        if ( kBase.getReteooBuilder().getTerminalNodes( ruleName ) == null ) {
+            throw new RuntimeException( "Rule '" + ruleName + "' does not exist" );
+        }
+        warmUp( ruleName, null );
+    }
+
+    /**
+     * Eagerly creates the segment and path memories of the rules in the given agenda group
+     */
+    public void warmUpAgendaGroup(String agendaGroup) {
+        warmUp( null, agendaGroup );
+    }
+
+    private void warmUp(String ruleName, String agendaGroup) {
+        if ( !this.kBase.getConfiguration().isPhreakEnabled() ) {
+            // only phreak uses segment and path memories
+            return;
+        }
+        try {
+            startOperation();
+            this.kBase.readLock();
+            this.lock.lock();
+
+            for ( BaseNode[] tnodes : kBase.getReteooBuilder().getTerminalNodes().values() ) {
+                for ( BaseNode node : tnodes ) {
+                    RuleImpl rule = ( (TerminalNode) node ).getRule();
+                    if ( ( ruleName == null || ruleName.equals( rule.getName() ) ) &&
+                         ( agendaGroup == null || agendaGroup.equals( rule.getAgendaGroup() ) ) ) {
+                        SegmentUtilities.createPathSegments( (TerminalNode) node, this );
+                    }
+                }
+            }
+        } finally {
+            this.lock.unlock();
+            this.kBase.readUnlock();
+            endOperation();
+        }
+    }
+
     public RuleRuntimeEventSupport getRuleRuntimeEventSupport() {
         return this.ruleRuntimeEventSupport;
     }
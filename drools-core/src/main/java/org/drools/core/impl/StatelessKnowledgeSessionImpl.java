@@ -55,6 +55,7 @@ import org.kie.api.runtime.ObjectFilter;
 import org.kie.api.runtime.StatelessKieSession;
 import org.kie.api.runtime.rule.FactHandle;
 import org.kie.internal.agent.KnowledgeAgent;
+import org.kie.internal.concurrent.ExecutorProviderFactory;
 import org.kie.internal.runtime.StatefulKnowledgeSession;
 import org.kie.internal.runtime.StatelessKnowledgeSession;
 
@@ -66,6 +67,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 public class StatelessKnowledgeSessionImpl extends AbstractRuntime
         implements
@@ -92,6 +97,11 @@ public class StatelessKnowledgeSessionImpl extends AbstractRuntime
 
     private WorkingMemoryFactory wmFactory;
 
+    // the sessions reused by the executions of each thread, when the session reuse is enabled
+    private ThreadLocal<ReusableSession> reusableSessions;
+    // all the sessions held by the threads, so that they can be disposed together with this session
+    private Set<ReusableSession>         reusedSessions;
+
     public StatelessKnowledgeSessionImpl() {
     }
 
@@ -103,6 +113,10 @@ public class StatelessKnowledgeSessionImpl extends AbstractRuntime
         this.conf = (conf != null) ? conf : SessionConfiguration.getDefaultInstance();
         this.environment = EnvironmentFactory.newEnvironment();
         this.wmFactory = kBase.getConfiguration().getComponentFactory().getWorkingMemoryFactory();
+        if ( this.conf instanceof SessionConfiguration && ((SessionConfiguration) this.conf).isStatelessSessionReuse() ) {
+            this.reusableSessions = new ThreadLocal<ReusableSession>();
+            this.reusedSessions = Collections.synchronizedSet( new HashSet<ReusableSession>() );
+        }
     }
 
     public InternalKnowledgeBase getKnowledgeBase() {
@@ -135,6 +149,11 @@ public class StatelessKnowledgeSessionImpl extends AbstractRuntime
 
             ((Globals) ksessionImpl.getGlobalResolver()).setDelegate(this.sessionGlobals);
 
+            if ( this.reusableSessions != null ) {
+                // the reused sessions get their own event support on each execution, see bindReusableSession
+                return ksession;
+            }
+
             // copy over the default generated listeners that are used for internal stuff once
             registerSystemListeners(ksessionImpl);
             registerCustomListeners();
@@ -168,6 +187,175 @@ public class StatelessKnowledgeSessionImpl extends AbstractRuntime
         }
     }
 
+    /**
+     * Returns the session for an execution: a new one, or the one reused by the current thread when
+     * the session reuse is enabled. In the latter case the session is reset when released, and only
+     * the parts of the network touched by the execution are reset.
+     */
+    private StatefulKnowledgeSession acquireWorkingMemory() {
+        if ( this.reusableSessions == null ) {
+            return newWorkingMemory();
+        }
+        ReusableSession reusable = this.reusableSessions.get();
+        if ( reusable != null && !reusable.acquire() ) {
+            // this session has been disposed
+            this.reusableSessions.remove();
+            this.reusedSessions.remove( reusable );
+            reusable = null;
+        } else if ( reusable != null && reusable.ksession.getKnowledgeBase() != getKnowledgeBase() ) {
+            // the agent replaced the kbase
+            reusable.release();
+            this.reusableSessions.remove();
+            disposeReusableSession( reusable );
+            reusable = null;
+        }
+        if ( reusable == null ) {
+            StatefulKnowledgeSessionImpl ksession = (StatefulKnowledgeSessionImpl) newWorkingMemory();
+            ksession.getNodeMemories().trackTouchedMemories();
+            reusable = new ReusableSession( ksession );
+            reusable.acquire();
+            this.reusableSessions.set( reusable );
+            this.reusedSessions.add( reusable );
+        }
+        bindReusableSession( reusable );
+        return reusable.ksession;
+    }
+
+    /**
+     * Binds a reused session to the current state of this session. The listeners are set in event supports
+     * used only by this execution, together with the system listeners of the session, so that they are not
+     * registered more than once and do not see the events of the other threads.
+     */
+    private void bindReusableSession(ReusableSession reusable) {
+        StatefulKnowledgeSessionImpl ksession = reusable.ksession;
+        ((Globals) ksession.getGlobalResolver()).setDelegate( this.sessionGlobals );
+
+        AgendaEventSupport agendaSupport = new AgendaEventSupport();
+        for ( AgendaEventListener listener : reusable.agendaListeners ) {
+            agendaSupport.addEventListener( listener );
+        }
+        RuleRuntimeEventSupport ruleRuntimeSupport = new RuleRuntimeEventSupport();
+        for ( RuleRuntimeEventListener listener : reusable.ruleRuntimeListeners ) {
+            ruleRuntimeSupport.addEventListener( listener );
+        }
+        if ( cachedAgendaListeners != null ) {
+            for ( AgendaEventListener listener : cachedAgendaListeners ) {
+                agendaSupport.addEventListener( listener );
+            }
+        }
+        if ( cachedRuleRuntimeListeners != null ) {
+            for ( RuleRuntimeEventListener listener : cachedRuleRuntimeListeners ) {
+                ruleRuntimeSupport.addEventListener( listener );
+            }
+        }
+        ksession.setAgendaEventSupport( agendaSupport );
+        ksession.setRuleRuntimeEventSupport( ruleRuntimeSupport );
+
+        // the process runtime is created again by each reset, so it only has its own listeners
+        InternalProcessRuntime processRuntime = ksession.getProcessRuntime();
+        if ( processRuntime != null ) {
+            ProcessEventSupport processSupport = new ProcessEventSupport();
+            for ( ProcessEventListener listener : processRuntime.getProcessEventListeners() ) {
+                processSupport.addEventListener( listener );
+            }
+            if ( cachedProcessEventListener != null ) {
+                for ( ProcessEventListener listener : cachedProcessEventListener ) {
+                    processSupport.addEventListener( listener );
+                }
+            }
+            processRuntime.setProcessEventSupport( processSupport );
+        }
+
+        ksession.getChannels().clear();
+        ksession.getChannels().putAll( this.channels );
+    }
+
+    private void releaseWorkingMemory(StatefulKnowledgeSession ksession) {
+        if ( this.reusableSessions == null ) {
+            dispose( ksession );
+            return;
+        }
+        ReusableSession reusable = this.reusableSessions.get();
+        if ( !reusable.release() ) {
+            // this session has been disposed during the execution, which was left to dispose it
+            this.reusableSessions.remove();
+            this.reusedSessions.remove( reusable );
+            reusable.ksession.dispose();
+            return;
+        }
+        try {
+            reusable.ksession.reset();
+        } catch ( RuntimeException e ) {
+            this.reusableSessions.remove();
+            disposeReusableSession( reusable );
+            throw e;
+        }
+    }
+
+    private void disposeReusableSession(ReusableSession reusable) {
+        this.reusedSessions.remove( reusable );
+        if ( reusable.dispose() ) {
+            reusable.ksession.dispose();
+        }
+    }
+
+    /**
+     * Disposes the sessions reused by the threads that executed this session, when the session reuse is
+     * enabled. The sessions still running an execution are disposed when it completes. This session can
+     * still be executed afterwards, creating new sessions.
+     */
+    public void dispose() {
+        if ( this.reusedSessions == null ) {
+            return;
+        }
+        List<ReusableSession> sessions;
+        synchronized ( this.reusedSessions ) {
+            sessions = new ArrayList<ReusableSession>( this.reusedSessions );
+            this.reusedSessions.clear();
+        }
+        for ( ReusableSession reusable : sessions ) {
+            if ( reusable.dispose() ) {
+                reusable.ksession.dispose();
+            }
+        }
+        this.reusableSessions.remove();
+    }
+
+    /**
+     * Executes each of the given commands as an independent execution of this session, in parallel on
+     * the shared drools executor, and returns their results in the same order. It is meant to be used
+     * with the session reuse enabled, so that each worker thread reuses its own session.
+     */
+    public <T> List<T> executeAll(List<? extends Command<T>> commands) {
+        Executor executor = ExecutorProviderFactory.getExecutorProvider().getExecutor();
+        List<FutureTask<T>> tasks = new ArrayList<FutureTask<T>>( commands.size() );
+        for ( final Command<T> command : commands ) {
+            FutureTask<T> task = new FutureTask<T>( new Callable<T>() {
+                public T call() {
+                    return execute( command );
+                }
+            } );
+            tasks.add( task );
+            executor.execute( task );
+        }
+
+        List<T> results = new ArrayList<T>( commands.size() );
+        for ( FutureTask<T> task : tasks ) {
+            try {
+                results.add( task.get() );
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException( e );
+            } catch ( ExecutionException e ) {
+                if ( e.getCause() instanceof RuntimeException ) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new RuntimeException( e.getCause() );
+            }
+        }
+        return results;
+    }
+
     private void registerSystemListeners(StatefulKnowledgeSessionImpl wm) {
         for (AgendaEventListener listener : wm.getAgendaEventSupport().getEventListeners()) {
             this.agendaEventSupport.addEventListener(listener);
@@ -299,7 +487,7 @@ public class StatelessKnowledgeSessionImpl extends AbstractRuntime
     }
 
     public <T> T execute(Command<T> command) {
-        StatefulKnowledgeSession ksession = newWorkingMemory();
+        StatefulKnowledgeSession ksession = acquireWorkingMemory();
 
         FixedKnowledgeCommandContext context = new FixedKnowledgeCommandContext( new ContextImpl( "ksession",
                                                                                                   null ),
@@ -335,35 +523,35 @@ public class StatelessKnowledgeSessionImpl extends AbstractRuntime
             }
         } finally {
             ((StatefulKnowledgeSessionImpl) ksession).endBatchExecution();
-            dispose(ksession);
+            releaseWorkingMemory(ksession);
         }
     }
 
     public void execute(Object object) {
-        StatefulKnowledgeSession ksession = newWorkingMemory();
+        StatefulKnowledgeSession ksession = acquireWorkingMemory();
         try {
             ksession.insert( object );
             ksession.fireAllRules();
         } finally {
-            dispose(ksession);
+            releaseWorkingMemory(ksession);
         }
     }
 
     public void execute(Iterable objects) {
-        StatefulKnowledgeSession ksession = newWorkingMemory();
+        StatefulKnowledgeSession ksession = acquireWorkingMemory();
         try {
             for ( Object object : objects ) {
                 ksession.insert( object );
             }
             ksession.fireAllRules();
         } finally {
-            dispose(ksession);
+            releaseWorkingMemory(ksession);
         }
     }
 
     public List executeWithResults(Iterable objects, ObjectFilter filter) {
         List list = new ArrayList();
-        StatefulKnowledgeSession ksession = newWorkingMemory();
+        StatefulKnowledgeSession ksession = acquireWorkingMemory();
         try {
             for ( Object object : objects ) {
                 ksession.insert( object );
@@ -373,7 +561,7 @@ public class StatelessKnowledgeSessionImpl extends AbstractRuntime
                 list.add(((InternalFactHandle) fh).getObject());
             }
         } finally {
-            dispose(ksession);
+            releaseWorkingMemory(ksession);
         }
         return list;
     }
@@ -400,6 +588,52 @@ public class StatelessKnowledgeSessionImpl extends AbstractRuntime
         ksession.dispose();
     }
 
+    /**
+     * A session reused by the executions of a thread, with the system listeners it was created with
+     */
+    private static class ReusableSession {
+        private final StatefulKnowledgeSessionImpl   ksession;
+        private final List<AgendaEventListener>      agendaListeners;
+        private final List<RuleRuntimeEventListener> ruleRuntimeListeners;
+
+        private boolean                              inUse;
+        private boolean                              disposed;
+
+        private ReusableSession(StatefulKnowledgeSessionImpl ksession) {
+            this.ksession = ksession;
+            this.agendaListeners = new ArrayList<AgendaEventListener>( ksession.getAgendaEventSupport().getEventListeners() );
+            this.ruleRuntimeListeners = new ArrayList<RuleRuntimeEventListener>( ksession.getRuleRuntimeEventSupport().getEventListeners() );
+        }
+
+        /**
+         * Marks the session as used by an execution, returns false if it has been disposed
+         */
+        private synchronized boolean acquire() {
+            if ( disposed ) {
+                return false;
+            }
+            inUse = true;
+            return true;
+        }
+
+        /**
+         * Marks the session as no longer used, returns false if it has been disposed in the meantime
+         */
+        private synchronized boolean release() {
+            inUse = false;
+            return !disposed;
+        }
+
+        /**
+         * Marks the session as disposed, returns true if it is not used, so it has to be disposed now
+         */
+        private synchronized boolean dispose() {
+            boolean wasDisposed = disposed;
+            disposed = true;
+            return !inUse && !wasDisposed;
+        }
+    }
+
     private static class AgendaEventListenerPlaceholder implements AgendaEventListener {
 
         @Override
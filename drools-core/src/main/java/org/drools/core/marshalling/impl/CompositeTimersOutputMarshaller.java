@@ -0,0 +1,31 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.marshalling.impl;
+
+import java.util.List;
+
+import org.drools.core.time.JobContext;
+
+/**
+ * A {@link TimersOutputMarshaller} for the jobs that stand for more than one timer,
+ * like the ones shared by several tuples, and are then written as a list of timers.
+ */
+public interface CompositeTimersOutputMarshaller extends TimersOutputMarshaller {
+
+    public List<ProtobufMessages.Timers.Timer> serializeAll( JobContext jobCtx,
+                                                             MarshallerWriteContext outputCtx );
+}
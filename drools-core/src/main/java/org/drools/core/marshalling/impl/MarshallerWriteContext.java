@@ -29,6 +29,8 @@ import org.drools.core.common.InternalWorkingMemory;
 import org.drools.core.common.Scheduler.ActivationTimerJobContext;
 import org.drools.core.common.Scheduler.ActivationTimerOutputMarshaller;
 import org.drools.core.impl.InternalKnowledgeBase;
+import org.drools.core.phreak.PhreakTimerNode.CoalescedTimerNodeJobContext;
+import org.drools.core.phreak.PhreakTimerNode.CoalescedTimerNodeTimerOutputMarshaller;
 import org.drools.core.phreak.PhreakTimerNode.TimerNodeJobContext;
 import org.drools.core.phreak.PhreakTimerNode.TimerNodeTimerOutputMarshaller;
 import org.drools.core.reteoo.LeftTuple;
@@ -105,6 +107,8 @@ public class MarshallerWriteContext extends ObjectOutputStream {
         
         this.writersByClass.put( TimerNodeJobContext.class, new TimerNodeTimerOutputMarshaller() );
 
+        this.writersByClass.put( CoalescedTimerNodeJobContext.class, new CoalescedTimerNodeTimerOutputMarshaller() );
+
         if ( resolverStrategyFactory == null ) {
             ObjectMarshallingStrategy[] strats = (ObjectMarshallingStrategy[]) env.get( EnvironmentName.OBJECT_MARSHALLING_STRATEGIES );
             if ( strats == null ) {
@@ -875,6 +875,10 @@ public class ProtobufOutputMarshaller {
                     continue;
                 }
                 TimersOutputMarshaller writer = outCtx.writersByClass.get( jctx.getClass() );
+                if ( writer instanceof CompositeTimersOutputMarshaller ) {
+                    _timers.addAllTimer( ((CompositeTimersOutputMarshaller) writer).serializeAll( jctx, outCtx ) );
+                    continue;
+                }
                 Timer _timer = writer.serialize( jctx, outCtx );
                 if ( _timer != null ) {
                     _timers.addTimer( _timer );
@@ -1023,6 +1023,8 @@ public class AddRemoveRule {
                  BetaMemory bm = null;
                  if ( mem instanceof AccumulateNode.AccumulateMemory ) {
                      bm = ((AccumulateNode.AccumulateMemory) mem).getBetaMemory();
+                 } else if ( mem instanceof FromMemory ) {
+                     bm = ((FromMemory) mem).getBetaMemory();
                  } else if ( mem instanceof BetaMemory ) {
                      bm = ( BetaMemory ) mem;
                  }
@@ -1056,6 +1058,8 @@ public class AddRemoveRule {
              BetaMemory bm = null;
              if ( mem instanceof AccumulateNode.AccumulateMemory ) {
                  bm = ((AccumulateNode.AccumulateMemory) mem).getBetaMemory();
+             } else if ( mem instanceof FromMemory ) {
+                 bm = ((FromMemory) mem).getBetaMemory();
              } else if ( mem instanceof BetaMemory ) {
                  bm = ( BetaMemory ) mem;
              }
@@ -22,6 +22,10 @@ import org.drools.core.spi.PropagationContext;
 import org.drools.core.util.AbstractHashTable;
 import org.drools.core.util.FastIterator;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
 /**
 * Created with IntelliJ IDEA.
 * User: mdproctor
@@ -616,6 +620,10 @@ public class PhreakAccumulateNode {
         RightTupleMemory rtm = am.getBetaMemory().getRightTupleMemory();
         Accumulate accumulate = accNode.getAccumulate();
 
+        // when the accumulate does not support reverse, each left tuple is recalculated only once
+        // after all the deletes, e.g. when many events expire together from a sliding window
+        Set<LeftTuple> dirtyLeftTuples = accumulate.supportsReverse() ? null : Collections.newSetFromMap(new IdentityHashMap<LeftTuple, Boolean>());
+
         for (RightTuple rightTuple = srcRightTuples.getDeleteFirst(); rightTuple != null; ) {
             RightTuple next = rightTuple.getStagedNext();
             if (rightTuple.getMemory() != null) {
@@ -630,7 +638,10 @@ public class PhreakAccumulateNode {
 
                         LeftTuple leftTuple = match.getLeftParent();
                         final AccumulateContext accctx = (AccumulateContext) leftTuple.getObject();
-                        removeMatch(accNode, accumulate, rightTuple, match, wm, am, accctx, true);
+                        removeMatch(accNode, accumulate, rightTuple, match, wm, am, accctx, dirtyLeftTuples == null);
+                        if (dirtyLeftTuples != null) {
+                            dirtyLeftTuples.add(leftTuple);
+                        }
 
                         if (leftTuple.getStagedType() == LeftTuple.NONE) {
                             trgLeftTuples.addUpdate(leftTuple);
@@ -644,6 +655,12 @@ public class PhreakAccumulateNode {
             rightTuple.clearStaged();
             rightTuple = next;
         }
+
+        if (dirtyLeftTuples != null) {
+            for (LeftTuple leftTuple : dirtyLeftTuples) {
+                reaccumulateForLeftTuple(accNode, accumulate, leftTuple, wm, am, (AccumulateContext) leftTuple.getObject());
+            }
+        }
     }
 
     private void evaluateResultConstraints(final AccumulateNode accNode,
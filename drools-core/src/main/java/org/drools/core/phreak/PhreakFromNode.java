@@ -5,7 +5,9 @@ import org.drools.core.common.InternalWorkingMemory;
 import org.drools.core.common.LeftTupleSets;
 import org.drools.core.reteoo.BetaMemory;
 import org.drools.core.reteoo.FromNode;
+import org.drools.core.reteoo.FromNode.ElementChange;
 import org.drools.core.reteoo.FromNode.FromMemory;
+import org.drools.core.reteoo.FromNode.ReactiveMatches;
 import org.drools.core.reteoo.LeftTuple;
 import org.drools.core.reteoo.LeftTupleMemory;
 import org.drools.core.reteoo.LeftTupleSink;
@@ -18,6 +20,7 @@ import org.drools.core.util.FastIterator;
 import org.drools.core.util.LinkedList;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -51,6 +54,10 @@ public class PhreakFromNode {
             doLeftInserts(fromNode, fm, sink, wm, srcLeftTuples, trgLeftTuples);
         }
 
+        if (fm.hasReactiveMatches()) {
+            doReactiveChanges(fromNode, fm, sink, wm, trgLeftTuples, stagedLeftTuples);
+        }
+
         srcLeftTuples.resetAll();
     }
 
@@ -76,9 +83,18 @@ public class PhreakFromNode {
             Map<Object, RightTuple> matches = null;
             boolean useLeftMemory = RuleNetworkEvaluator.useLeftMemory(fromNode, leftTuple);
 
+            final Iterator<?> results = dataProvider.getResults(leftTuple,
+                                                                wm,
+                                                                propagationContext,
+                                                                fm.providerContext);
+
             if (useLeftMemory) {
                 fm.betaMemory.getLeftTupleMemory().add(leftTuple);
-                matches = new LinkedHashMap<Object, RightTuple>();
+                if (results instanceof ReactiveContainer.ContainerIterator) {
+                    matches = new ReactiveMatches(((ReactiveContainer.ContainerIterator<?>) results).getContainer(), leftTuple, fm, wm);
+                } else {
+                    matches = new LinkedHashMap<Object, RightTuple>();
+                }
                 leftTuple.setObject(matches);
             }
 
@@ -86,10 +102,7 @@ public class PhreakFromNode {
                                             wm,
                                             leftTuple);
 
-            for (final java.util.Iterator<?> it = dataProvider.getResults(leftTuple,
-                                                                          wm,
-                                                                          propagationContext,
-                                                                          fm.providerContext); it.hasNext(); ) {
+            for (final Iterator<?> it = results; it.hasNext(); ) {
                 final Object object = it.next();
                 if ( (object == null) || !resultClass.isAssignableFrom( object.getClass() ) ) {
                     continue; // skip anything if it not assignable
@@ -144,7 +157,22 @@ public class PhreakFromNode {
             PropagationContext propagationContext = leftTuple.getPropagationContext();
 
             final Map<Object, RightTuple> previousMatches = (Map<Object, RightTuple>) leftTuple.getObject();
-            final Map<Object, RightTuple> newMatches = new HashMap<Object, RightTuple>();
+            if (previousMatches instanceof ReactiveMatches) {
+                // all the results are evaluated again, so the pending changes are not needed anymore
+                ((ReactiveMatches) previousMatches).dispose();
+            }
+
+            final Iterator<?> results = dataProvider.getResults(leftTuple,
+                                                                wm,
+                                                                propagationContext,
+                                                                fm.providerContext);
+
+            final Map<Object, RightTuple> newMatches;
+            if (results instanceof ReactiveContainer.ContainerIterator) {
+                newMatches = new ReactiveMatches(((ReactiveContainer.ContainerIterator<?>) results).getContainer(), leftTuple, fm, wm);
+            } else {
+                newMatches = new HashMap<Object, RightTuple>();
+            }
             leftTuple.setObject(newMatches);
 
             betaConstraints.updateFromTuple(context,
@@ -152,10 +180,7 @@ public class PhreakFromNode {
                                             leftTuple);
 
             FastIterator rightIt = LinkedList.fastIterator;
-            for (final java.util.Iterator<?> it = dataProvider.getResults(leftTuple,
-                                                                          wm,
-                                                                          propagationContext,
-                                                                          fm.providerContext); it.hasNext(); ) {
+            for (final Iterator<?> it = results; it.hasNext(); ) {
                 final Object object = it.next();
                 if ( (object == null) || !resultClass.isAssignableFrom( object.getClass() ) ) {
                     continue; // skip anything if it not assignable
@@ -234,7 +259,10 @@ public class PhreakFromNode {
 
             // if matches == null, the deletion might be happening before the fact was even propagated. See BZ-1019473 for details.
             if( matches != null ) {
-                
+                if (matches instanceof ReactiveMatches) {
+                    ((ReactiveMatches) matches).dispose();
+                }
+
                 // @TODO (mdp) is this really necessary? won't the entire FH and RightTuple chaines just et GC'd?
                 unlinkCreatedHandles(leftTuple);
             }
@@ -244,6 +272,102 @@ public class PhreakFromNode {
         }
     }
 
+    /**
+     * Propagates only the elements added, removed or modified in the reactive containers observed by the left tuples
+     * of this node, as collected since the last evaluation. Each element is processed once, with its net changes.
+     */
+    public void doReactiveChanges(FromNode fromNode,
+                                  FromMemory fm,
+                                  LeftTupleSink sink,
+                                  InternalWorkingMemory wm,
+                                  LeftTupleSets trgLeftTuples,
+                                  LeftTupleSets stagedLeftTuples) {
+        BetaMemory bm = fm.getBetaMemory();
+        ContextEntry[] context = bm.getContext();
+        BetaConstraints betaConstraints = fromNode.getBetaConstraints();
+        AlphaNodeFieldConstraint[] alphaConstraints = fromNode.getAlphaConstraints();
+        Class<?> resultClass = fromNode.getResultClass();
+        FastIterator rightIt = LinkedList.fastIterator;
+
+        for (ReactiveMatches matches : fm.takeReactiveMatches()) {
+            Map<Object, ElementChange> changes = matches.takeChanges();
+            if (changes == null || !matches.isActive()) {
+                // the left tuple has been deleted or fully evaluated again in the meanwhile
+                continue;
+            }
+
+            LeftTuple leftTuple = matches.getLeftTuple();
+            PropagationContext propagationContext = wm.getKnowledgeBase().getConfiguration().getComponentFactory().getPropagationContextFactory()
+                                                      .createPropagationContext(wm.getNextPropagationIdCounter(), PropagationContext.MODIFICATION,
+                                                                                null, null, leftTuple.getHandle());
+
+            betaConstraints.updateFromTuple(context,
+                                            wm,
+                                            leftTuple);
+
+            for (Map.Entry<Object, ElementChange> entry : changes.entrySet()) {
+                Object object = entry.getKey();
+                if ( (object == null) || !resultClass.isAssignableFrom( object.getClass() ) ) {
+                    continue; // skip anything if it not assignable
+                }
+                ElementChange change = entry.getValue();
+                int count = change.count;
+
+                RightTuple rightTuple = matches.remove(object);
+                for (; count < 0 && rightTuple != null; count++) {
+                    // removed element, there could be more right tuples for the same element
+                    RightTuple next = (RightTuple) rightIt.next(rightTuple);
+                    rightTuple.setNext(null);
+                    deleteChildLeftTuple(propagationContext, trgLeftTuples, stagedLeftTuples, rightTuple.getFirstChild());
+                    rightTuple = next;
+                }
+                if (rightTuple != null) {
+                    matches.put(object, rightTuple);
+                }
+
+                if (change.modified) {
+                    for (RightTuple current = rightTuple; current != null; current = (RightTuple) rightIt.next(current)) {
+                        checkConstraintsAndPropagate(sink,
+                                                     leftTuple,
+                                                     current,
+                                                     alphaConstraints,
+                                                     betaConstraints,
+                                                     propagationContext,
+                                                     wm,
+                                                     fm,
+                                                     context,
+                                                     true,
+                                                     trgLeftTuples,
+                                                     stagedLeftTuples);
+                    }
+                }
+
+                for (; count > 0; count--) {
+                    // added element
+                    RightTuple newRightTuple = fromNode.createRightTuple(leftTuple,
+                                                                         propagationContext,
+                                                                         wm,
+                                                                         object);
+                    checkConstraintsAndPropagate(sink,
+                                                 leftTuple,
+                                                 newRightTuple,
+                                                 alphaConstraints,
+                                                 betaConstraints,
+                                                 propagationContext,
+                                                 wm,
+                                                 fm,
+                                                 context,
+                                                 true,
+                                                 trgLeftTuples,
+                                                 stagedLeftTuples);
+                    fromNode.addToCreatedHandlesMap(matches,
+                                                    newRightTuple);
+                }
+            }
+        }
+        betaConstraints.resetTuple(context);
+    }
+
     public static void unlinkCreatedHandles(final LeftTuple leftTuple) {
         Map<Object, RightTuple> matches = (Map<Object, RightTuple>) leftTuple.getObject();
         FastIterator rightIt = LinkedList.fastIterator;
@@ -15,6 +15,9 @@ import org.drools.core.rule.ContextEntry;
 import org.drools.core.spi.PropagationContext;
 import org.drools.core.util.FastIterator;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 public class PhreakJoinNode {
     public void doNode(JoinNode joinNode,
                        LeftTupleSink sink,
@@ -188,6 +191,14 @@ public class PhreakJoinNode {
 
             LeftTuple childLeftTuple = leftTuple.getFirstChild();
 
+            if (childLeftTuple != null && rtm.getIndexType().isComparison()) {
+                // a comparison index returns a range instead of a bucket, and its order doesn't follow the children
+                doLeftUpdatesProcessRangeChildren(childLeftTuple, leftTuple, rightTuple, stagedLeftTuples, contextEntry, constraints, sink, it, trgLeftTuples);
+                leftTuple.clearStaged();
+                leftTuple = next;
+                continue;
+            }
+
             // first check our index (for indexed nodes only) hasn't changed and we are returning the same bucket
             // if rightTuple is null, we assume there was a bucket change and that bucket is empty
             if (childLeftTuple != null && rtm.isIndexed() && !it.isFullIterator() && (rightTuple == null || (rightTuple.getMemory() != childLeftTuple.getRightParent().getMemory()))) {
@@ -263,6 +274,51 @@ public class PhreakJoinNode {
         return childLeftTuple;
     }
 
+    /**
+     * Matches the children of an updated left tuple by their right parent, so only the children whose right
+     * tuple doesn't match anymore, or is out of the new range, are deleted.
+     */
+    public void doLeftUpdatesProcessRangeChildren(LeftTuple childLeftTuple,
+                                                  LeftTuple leftTuple,
+                                                  RightTuple rightTuple,
+                                                  LeftTupleSets stagedLeftTuples,
+                                                  ContextEntry[] contextEntry,
+                                                  BetaConstraints constraints,
+                                                  LeftTupleSink sink,
+                                                  FastIterator it,
+                                                  LeftTupleSets trgLeftTuples) {
+        Map<RightTuple, LeftTuple> children = new IdentityHashMap<RightTuple, LeftTuple>();
+        for (; childLeftTuple != null; childLeftTuple = childLeftTuple.getLeftParentNext()) {
+            children.put(childLeftTuple.getRightParent(), childLeftTuple);
+        }
+
+        for (; rightTuple != null; rightTuple = (RightTuple) it.next(rightTuple)) {
+            childLeftTuple = children.remove(rightTuple);
+            if (constraints.isAllowedCachedLeft(contextEntry,
+                                                rightTuple.getFactHandle())) {
+                if (childLeftTuple == null) {
+                    trgLeftTuples.addInsert(sink.createLeftTuple(leftTuple,
+                                                                 rightTuple,
+                                                                 null,
+                                                                 null,
+                                                                 sink,
+                                                                 true));
+                } else {
+                    childLeftTuple.setPropagationContext(rightTuple.getPropagationContext());
+                    updateChildLeftTuple(childLeftTuple, stagedLeftTuples, trgLeftTuples);
+                    childLeftTuple.reAddRight();
+                }
+            } else if (childLeftTuple != null) {
+                RuleNetworkEvaluator.deleteLeftChild(childLeftTuple, trgLeftTuples, stagedLeftTuples);
+            }
+        }
+
+        // the right tuples left out of the range can't match anymore
+        for (LeftTuple outOfRange : children.values()) {
+            RuleNetworkEvaluator.deleteLeftChild(outOfRange, trgLeftTuples, stagedLeftTuples);
+        }
+    }
+
     public void doRightUpdates(JoinNode joinNode,
                                LeftTupleSink sink,
                                BetaMemory bm,
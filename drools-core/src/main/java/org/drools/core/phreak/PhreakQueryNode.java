@@ -11,6 +11,7 @@ import org.drools.core.reteoo.LeftTuple;
 import org.drools.core.reteoo.LeftTupleSink;
 import org.drools.core.reteoo.QueryElementNode;
 import org.drools.core.reteoo.QueryElementNode.QueryElementNodeMemory;
+import org.drools.core.reteoo.QueryElementNode.TabledViewChangedEventListener;
 import org.drools.core.reteoo.QueryElementNode.UnificationNodeViewChangedEventListener;
 import org.drools.core.reteoo.SegmentMemory;
 import org.drools.core.rule.Declaration;
@@ -32,7 +33,7 @@ public class PhreakQueryNode {
         }
 
         if (srcLeftTuples.getUpdateFirst() != null) {
-            doLeftUpdates(queryNode, qmem, sink, wm, srcLeftTuples);
+            doLeftUpdates(queryNode, qmem, stackEntry, sink, wm, srcLeftTuples, trgLeftTuples, stagedLeftTuples);
         }
 
         if (srcLeftTuples.getInsertFirst() != null) {
@@ -52,38 +53,101 @@ public class PhreakQueryNode {
 
             PropagationContext pCtx = (PropagationContext) leftTuple.getPropagationContext();
 
-            InternalFactHandle handle = queryNode.createFactHandle(pCtx,
-                                                                   wm,
-                                                                   leftTuple);
-
-            DroolsQuery dquery = queryNode.createDroolsQuery(leftTuple, handle, stackEntry,
-                                                             qmem.getSegmentMemory().getPathMemories(),
-                                                             qmem,
-                                                             qmem.getResultLeftTuples(),
-                                                             stackEntry.getSink(), wm);
+            if (queryNode.isTabled() && queryNode.isExecutedAsOpenQuery(leftTuple)) {
+                doTabledInsert(queryNode, qmem, stackEntry, wm, leftTuple, pCtx);
+            } else {
+                InternalFactHandle handle = queryNode.createFactHandle(pCtx,
+                                                                       wm,
+                                                                       leftTuple);
 
-            LeftInputAdapterNode lian = (LeftInputAdapterNode) qmem.getQuerySegmentMemory().getRootNode();
-            LiaNodeMemory lm = (LiaNodeMemory) qmem.getQuerySegmentMemory().getNodeMemories().get(0);
-            LeftInputAdapterNode.doInsertObject(handle, pCtx, lian, wm, lm, false, dquery.isOpen());
+                DroolsQuery dquery = queryNode.createDroolsQuery(leftTuple, handle, stackEntry,
+                                                                 qmem.getSegmentMemory().getPathMemories(),
+                                                                 qmem,
+                                                                 qmem.getResultLeftTuples(),
+                                                                 stackEntry.getSink(), wm);
 
-            flushTupleQuery( lm, wm );
+                insertQuery(qmem, wm, handle, pCtx, dquery);
+            }
 
             leftTuple.clearStaged();
             leftTuple = next;
         }
     }
 
+    private void doTabledInsert(QueryElementNode queryNode,
+                                QueryElementNodeMemory qmem,
+                                StackEntry stackEntry,
+                                InternalWorkingMemory wm,
+                                LeftTuple leftTuple,
+                                PropagationContext pCtx) {
+        Object[] args = queryNode.createArguments(leftTuple, wm);
+
+        TabledViewChangedEventListener answerTable = qmem.getAnswerTable(args);
+        if (answerTable != null) {
+            // the query is already evaluated for these arguments, possibly by an enclosing recursive call
+            answerTable.subscribe(leftTuple);
+            return;
+        }
+
+        InternalFactHandle handle = queryNode.createFactHandle(pCtx,
+                                                               wm,
+                                                               leftTuple);
+
+        DroolsQuery dquery = queryNode.createDroolsQuery(leftTuple, handle, stackEntry,
+                                                         qmem.getSegmentMemory().getPathMemories(),
+                                                         qmem,
+                                                         qmem.getResultLeftTuples(),
+                                                         stackEntry.getSink(), wm,
+                                                         args);
+
+        qmem.addAnswerTable((TabledViewChangedEventListener) dquery.getQueryResultCollector());
+
+        insertQuery(qmem, wm, handle, pCtx, dquery);
+    }
+
+    private void insertQuery(QueryElementNodeMemory qmem,
+                             InternalWorkingMemory wm,
+                             InternalFactHandle handle,
+                             PropagationContext pCtx,
+                             DroolsQuery dquery) {
+        LeftInputAdapterNode lian = (LeftInputAdapterNode) qmem.getQuerySegmentMemory().getRootNode();
+        LiaNodeMemory lm = (LiaNodeMemory) qmem.getQuerySegmentMemory().getNodeMemories().get(0);
+        LeftInputAdapterNode.doInsertObject(handle, pCtx, lian, wm, lm, false, dquery.isOpen());
+
+        flushTupleQuery( lm, wm );
+    }
+
+    private void deleteQuery(QueryElementNodeMemory qmem,
+                             InternalWorkingMemory wm,
+                             InternalFactHandle fh) {
+        LeftInputAdapterNode lian = (LeftInputAdapterNode) qmem.getQuerySegmentMemory().getRootNode();
+        LiaNodeMemory lm = (LiaNodeMemory) qmem.getQuerySegmentMemory().getNodeMemories().get(0);
+        LeftTuple childLeftTuple = fh.getFirstLeftTuple(); // there is only one, all other LTs are peers
+        LeftInputAdapterNode.doDeleteObject(childLeftTuple, childLeftTuple.getPropagationContext(), qmem.getQuerySegmentMemory(), wm, lian, false, lm);
+        flushTupleQuery( lm, wm );
+    }
+
     public void doLeftUpdates(QueryElementNode queryNode,
                               QueryElementNodeMemory qmem,
+                              StackEntry stackEntry,
                               LeftTupleSink sink,
                               InternalWorkingMemory wm,
-                              LeftTupleSets srcLeftTuples) {
+                              LeftTupleSets srcLeftTuples,
+                              LeftTupleSets trgLeftTuples,
+                              LeftTupleSets stagedLeftTuples) {
         for (LeftTuple leftTuple = srcLeftTuples.getUpdateFirst(); leftTuple != null; ) {
             LeftTuple next = leftTuple.getStagedNext();
 
             InternalFactHandle fh = (InternalFactHandle) leftTuple.getObject();
             DroolsQuery dquery = (DroolsQuery) fh.getObject();
 
+            if (dquery.getQueryResultCollector() instanceof TabledViewChangedEventListener) {
+                doTabledUpdate(queryNode, qmem, stackEntry, wm, leftTuple, fh, trgLeftTuples, stagedLeftTuples);
+                leftTuple.clearStaged();
+                leftTuple = next;
+                continue;
+            }
+
             Object[] argTemplate = queryNode.getQueryElement().getArgTemplate(); // an array of declr, variable and literals
             Object[] args = new Object[argTemplate.length]; // the actual args, to be created from the  template
 
@@ -153,6 +217,29 @@ public class PhreakQueryNode {
         }
     }
 
+    private void doTabledUpdate(QueryElementNode queryNode,
+                                QueryElementNodeMemory qmem,
+                                StackEntry stackEntry,
+                                InternalWorkingMemory wm,
+                                LeftTuple leftTuple,
+                                InternalFactHandle fh,
+                                LeftTupleSets trgLeftTuples,
+                                LeftTupleSets stagedLeftTuples) {
+        TabledViewChangedEventListener answerTable = (TabledViewChangedEventListener) ((DroolsQuery) fh.getObject()).getQueryResultCollector();
+        Object[] args = queryNode.createArguments(leftTuple, wm);
+        if (answerTable.hasArguments(args)) {
+            // same call, the results stay the same but the caller changed
+            answerTable.update(leftTuple, trgLeftTuples);
+        } else {
+            // the caller moves to the answer table of its new arguments
+            if (answerTable.unsubscribe(leftTuple, trgLeftTuples, stagedLeftTuples)) {
+                qmem.removeAnswerTable(answerTable);
+                deleteQuery(qmem, wm, fh);
+            }
+            doTabledInsert(queryNode, qmem, stackEntry, wm, leftTuple, (PropagationContext) leftTuple.getPropagationContext());
+        }
+    }
+
     public void doLeftDeletes(QueryElementNodeMemory qmem,
                               InternalWorkingMemory wm,
                               LeftTupleSets srcLeftTuples,
@@ -163,12 +250,15 @@ public class PhreakQueryNode {
 
             InternalFactHandle fh = (InternalFactHandle) leftTuple.getObject();
             DroolsQuery dquery = (DroolsQuery) fh.getObject();
-            if (dquery.isOpen()) {
-                LeftInputAdapterNode lian = (LeftInputAdapterNode) qmem.getQuerySegmentMemory().getRootNode();
-                LiaNodeMemory lm = (LiaNodeMemory) qmem.getQuerySegmentMemory().getNodeMemories().get(0);
-                LeftTuple childLeftTuple = fh.getFirstLeftTuple(); // there is only one, all other LTs are peers
-                LeftInputAdapterNode.doDeleteObject(childLeftTuple, childLeftTuple.getPropagationContext(), qmem.getQuerySegmentMemory(), wm, lian, false, lm);
-                flushTupleQuery( lm, wm );
+            if (dquery.getQueryResultCollector() instanceof TabledViewChangedEventListener) {
+                TabledViewChangedEventListener answerTable = (TabledViewChangedEventListener) dquery.getQueryResultCollector();
+                if (answerTable.unsubscribe(leftTuple, trgLeftTuples, stagedLeftTuples)) {
+                    // no more callers, the evaluation can be retracted
+                    qmem.removeAnswerTable(answerTable);
+                    deleteQuery(qmem, wm, fh);
+                }
+            } else if (dquery.isOpen()) {
+                deleteQuery(qmem, wm, fh);
             } else {
                 LeftTuple childLeftTuple = leftTuple.getFirstChild();
                 while (childLeftTuple != null) {
@@ -5,6 +5,7 @@ import org.drools.core.common.LeftTupleSets;
 import org.drools.core.common.LeftTupleSetsImpl;
 import org.drools.core.common.NetworkNode;
 import org.drools.core.common.TimedRuleExecution;
+import org.drools.core.marshalling.impl.CompositeTimersOutputMarshaller;
 import org.drools.core.marshalling.impl.MarshallerReaderContext;
 import org.drools.core.marshalling.impl.MarshallerWriteContext;
 import org.drools.core.marshalling.impl.PersisterHelper;
@@ -42,9 +43,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 public class PhreakTimerNode {
     private static final Logger log = LoggerFactory.getLogger( PhreakTimerNode.class );
@@ -120,6 +125,13 @@ public class PhreakTimerNode {
         for ( LeftTuple leftTuple = srcLeftTuples.getUpdateFirst(); leftTuple != null; ) {
             LeftTuple next = leftTuple.getStagedNext();
 
+            if ( leftTuple.getObject() instanceof CoalescedTimerNodeJobContext ) {
+                // the fire times of a coalesced tuple do not depend on its variables, so it keeps its place in the shared job
+                leftTuple.clearStaged();
+                leftTuple = next;
+                continue;
+            }
+
             LeftTupleList leftTuples = tm.getInsertOrUpdateLeftTuples();
             DefaultJobHandle jobHandle = (DefaultJobHandle) leftTuple.getObject();
             if ( jobHandle != null ) {
@@ -165,10 +177,13 @@ public class PhreakTimerNode {
             for ( LeftTuple leftTuple = srcLeftTuples.getDeleteFirst(); leftTuple != null; ) {
                 LeftTuple next = leftTuple.getStagedNext();
 
-                DefaultJobHandle jobHandle = (DefaultJobHandle) leftTuple.getObject();
-                if ( jobHandle != null ) {
+                Object timerJob = leftTuple.getObject();
+                if ( timerJob instanceof CoalescedTimerNodeJobContext ) {
+                    ((CoalescedTimerNodeJobContext) timerJob).removeLeftTuple( leftTuple, timerService );
+                    leftTuple.setObject( null );
+                } else if ( timerJob != null ) {
                     // jobHandle can be null, if the time fired straight away, and never ended up scheduling a job
-                    timerService.removeJob( jobHandle );
+                    timerService.removeJob( (DefaultJobHandle) timerJob );
                 }
 
                 org.drools.core.spi.PropagationContext pctx = leftTuple.getPropagationContext();
@@ -259,7 +274,7 @@ public class PhreakTimerNode {
                                   final String[] calendarNames,
                                   final Calendars calendars,
                                   final LeftTuple leftTuple) {
-        final DefaultJobHandle jobHandle = (DefaultJobHandle) leftTuple.getObject();
+        final DefaultJobHandle jobHandle = leftTuple.getObject() instanceof DefaultJobHandle ? (DefaultJobHandle) leftTuple.getObject() : null;
         final Trigger trigger = timer.createTrigger( timestamp, leftTuple, jobHandle, calendarNames, calendars, timerNode.getDeclarations(), wm );
         return trigger;
     }
@@ -306,7 +321,9 @@ public class PhreakTimerNode {
             }
         }
 
-        if ( trigger.hasNextFireTime() != null ) {
+        if ( trigger.hasNextFireTime() != null && timerNode.isCoalescingTimers() ) {
+            scheduleCoalescedTimer( timerNode, tm, smem, sink, wm, timerService, leftTuple, trigger );
+        } else if ( trigger.hasNextFireTime() != null ) {
             // can be null, if the system timestamp has surpassed when this was suppose to fire
             TimerNodeJob job = new TimerNodeJob();
             TimerNodeJobContext jobCtx = new TimerNodeJobContext( timerNode.getId(), trigger, leftTuple, tm, sink, smem.getPathMemories(), wm );
@@ -320,6 +337,34 @@ public class PhreakTimerNode {
         }
     }
 
+    private void scheduleCoalescedTimer(TimerNode timerNode,
+                                        TimerNodeMemory tm,
+                                        SegmentMemory smem,
+                                        LeftTupleSink sink,
+                                        InternalWorkingMemory wm,
+                                        TimerService timerService,
+                                        LeftTuple leftTuple,
+                                        Trigger trigger) {
+        long nextFireTime = trigger.hasNextFireTime().getTime();
+
+        LeftTupleList leftTuples = tm.getInsertOrUpdateLeftTuples();
+        synchronized ( leftTuples ) {
+            // the shared job can be joined only if it has not already moved on to its following fire time
+            CoalescedTimerNodeJobContext jobCtx = tm.getCoalescedJob( nextFireTime );
+            if ( jobCtx == null || jobCtx.getJobHandle().isCancel() || !jobCtx.isScheduledAt( nextFireTime ) ) {
+                jobCtx = new CoalescedTimerNodeJobContext( timerNode.getId(), trigger, nextFireTime, tm, sink, smem.getPathMemories(), wm );
+                tm.addCoalescedJob( nextFireTime, jobCtx );
+                timerService.scheduleJob( new CoalescedTimerNodeJob(), jobCtx, trigger );
+            }
+            jobCtx.addLeftTuple( leftTuple );
+            leftTuple.setObject( jobCtx );
+        }
+
+        if ( log.isTraceEnabled() ) {
+            log.trace( "Timer Coalesced {}", leftTuple );
+        }
+    }
+
     public static void doPropagateChildLeftTuples(TimerNode timerNode,
                                                   TimerNodeMemory tm,
                                                   LeftTupleSink sink,
@@ -407,24 +452,66 @@ public class PhreakTimerNode {
 
             timerJobCtx.getTimerNodeMemory().setNodeDirtyWithoutNotify();
 
-            for (final PathMemory pmem : timerJobCtx.getPathMemories()) {
-                pmem.doLinkRule( timerJobCtx.getWorkingMemory() );
-
-                pmem.queueRuleAgendaItem(timerJobCtx.getWorkingMemory());
-                final TimedRuleExecutionFilter filter = timerJobCtx.getWorkingMemory().getSessionConfiguration().getTimedRuleExecutionFilter();
-                if (filter != null) {
-                    ExecutorHolder.executor.execute( new Runnable() {
-                        @Override
-                        public void run() {
-                            if (filter.accept(  new Rule[] { pmem.getRule() } )) {
-                                new Executor(pmem,
-                                             timerJobCtx.getWorkingMemory(),
-                                             timerJobCtx.getSink(),
-                                             timerJobCtx.getTimerNodeMemory()).evauateAndFireRule();
-                            }
-                        }
-                    });
+            evaluateRules( timerJobCtx.getPathMemories(), timerJobCtx.getWorkingMemory(), timerJobCtx.getSink(), timerJobCtx.getTimerNodeMemory() );
+        }
+    }
+
+    /**
+     * Fires all the tuples of a coalesced job with a single propagation: they are all staged at once,
+     * so each rule sharing the timer node is linked, queued and evaluated only once per fire time.
+     */
+    public static class CoalescedTimerNodeJob
+            implements
+            Job {
+        public void execute(JobContext ctx) {
+            final CoalescedTimerNodeJobContext timerJobCtx = (CoalescedTimerNodeJobContext) ctx;
+            TimerNodeMemory tm = timerJobCtx.getTimerNodeMemory();
+            LeftTupleList leftTuples = tm.getInsertOrUpdateLeftTuples();
+
+            if ( log.isTraceEnabled() ) {
+                log.trace( "Timer Executor {} {} tuples", timerJobCtx.getTrigger(), timerJobCtx.getLeftTuples().size() );
+            }
+
+            synchronized ( leftTuples ) {
+                if ( timerJobCtx.getJobHandle().isCancel() ) {
+                    return;
+                }
+                for ( LeftTuple lt : timerJobCtx.getLeftTuples() ) {
+                    if ( lt.getMemory() == null ) {
+                        leftTuples.add( lt );
+                    }
                 }
+                // the trigger has already been moved on, so the job is now found under its following fire time
+                timerJobCtx.reindex();
+            }
+
+            tm.setNodeDirtyWithoutNotify();
+
+            evaluateRules( timerJobCtx.getPathMemories(), timerJobCtx.getWorkingMemory(), timerJobCtx.getSink(), tm );
+        }
+    }
+
+    private static void evaluateRules(final List<PathMemory> pmems,
+                                      final InternalWorkingMemory wm,
+                                      final LeftTupleSink sink,
+                                      final TimerNodeMemory tm) {
+        for (final PathMemory pmem : pmems) {
+            pmem.doLinkRule( wm );
+
+            pmem.queueRuleAgendaItem( wm );
+            final TimedRuleExecutionFilter filter = wm.getSessionConfiguration().getTimedRuleExecutionFilter();
+            if (filter != null) {
+                ExecutorHolder.executor.execute( new Runnable() {
+                    @Override
+                    public void run() {
+                        if (filter.accept(  new Rule[] { pmem.getRule() } )) {
+                            new Executor(pmem,
+                                         wm,
+                                         sink,
+                                         tm).evauateAndFireRule();
+                        }
+                    }
+                });
             }
         }
     }
@@ -553,6 +640,125 @@ public class PhreakTimerNode {
         }
     }
 
+    /**
+     * The job shared by the tuples of a timer node whose fire times do not depend on the tuple,
+     * see {@link TimerNode#isCoalescingTimers()}. It is indexed in the node memory by its next fire time,
+     * so the tuples scheduled for the same time join it instead of scheduling a job each.
+     */
+    public static class CoalescedTimerNodeJobContext
+            implements
+            JobContext {
+        private       JobHandle             jobHandle;
+        private final Trigger               trigger;
+        private       long                  nextFireTime;
+
+        private final Set<LeftTuple>        leftTuples;
+        private final int                   timerNodeId;
+        private final TimerNodeMemory       tm;
+
+        private final LeftTupleSink         sink;
+        private final List<PathMemory>      pmems;
+        private final InternalWorkingMemory wm;
+
+        public CoalescedTimerNodeJobContext(int timerNodeId,
+                                            Trigger trigger,
+                                            long nextFireTime,
+                                            TimerNodeMemory tm,
+                                            LeftTupleSink sink,
+                                            List<PathMemory> pmems,
+                                            InternalWorkingMemory wm) {
+            this.timerNodeId = timerNodeId;
+            this.trigger = trigger;
+            this.nextFireTime = nextFireTime;
+            this.leftTuples = Collections.newSetFromMap( new IdentityHashMap<LeftTuple, Boolean>() );
+            this.sink = sink;
+            this.pmems = pmems;
+            this.tm = tm;
+            this.wm = wm;
+        }
+
+        public JobHandle getJobHandle() {
+            return this.jobHandle;
+        }
+
+        public void setJobHandle(JobHandle jobHandle) {
+            this.jobHandle = jobHandle;
+        }
+
+        public LeftTupleSink getSink() {
+            return sink;
+        }
+
+        public Set<LeftTuple> getLeftTuples() {
+            return leftTuples;
+        }
+
+        public TimerNodeMemory getTimerNodeMemory() {
+            return tm;
+        }
+
+        public List<PathMemory> getPathMemories() {
+            return pmems;
+        }
+
+        public InternalWorkingMemory getWorkingMemory() {
+            return wm;
+        }
+
+        public Trigger getTrigger() {
+            return trigger;
+        }
+
+        public int getTimerNodeId() {
+            return timerNodeId;
+        }
+
+        public boolean isScheduledAt(long fireTime) {
+            Date date = trigger.hasNextFireTime();
+            return date != null && date.getTime() == fireTime;
+        }
+
+        // the following methods must be called within a sync block on the insertOrUpdate list of the node memory
+
+        void addLeftTuple(LeftTuple leftTuple) {
+            leftTuples.add( leftTuple );
+        }
+
+        void removeLeftTuple(LeftTuple leftTuple, TimerService timerService) {
+            leftTuples.remove( leftTuple );
+            if ( leftTuples.isEmpty() ) {
+                timerService.removeJob( jobHandle );
+                tm.removeCoalescedJob( nextFireTime, this );
+            }
+        }
+
+        void reindex() {
+            tm.removeCoalescedJob( nextFireTime, this );
+            Date date = trigger.hasNextFireTime();
+            if ( date != null ) {
+                nextFireTime = date.getTime();
+                if ( tm.getCoalescedJob( nextFireTime ) == null ) {
+                    tm.addCoalescedJob( nextFireTime, this );
+                }
+            }
+        }
+    }
+
+    private static ProtobufMessages.Timers.Timer serializeTimerNodeTimer(int timerNodeId,
+                                                                         LeftTuple leftTuple,
+                                                                         Trigger trigger,
+                                                                         MarshallerWriteContext outputCtx) {
+        return ProtobufMessages.Timers.Timer.newBuilder()
+                                      .setType( ProtobufMessages.Timers.TimerType.TIMER_NODE )
+                                      .setTimerNode( ProtobufMessages.Timers.TimerNodeTimer.newBuilder()
+                                                                            .setNodeId( timerNodeId )
+                                                                            .setTuple( PersisterHelper.createTuple( leftTuple ) )
+                                                                            .setTrigger( ProtobufOutputMarshaller.writeTrigger( trigger,
+                                                                                                                                outputCtx ) )
+                                                                            .build() )
+                                      .build();
+    }
+
     public static class TimerNodeTimerOutputMarshaller
             implements
             TimersOutputMarshaller {
@@ -567,15 +773,33 @@ public class PhreakTimerNode {
             // TimerNodeJobContext   
             TimerNodeJobContext tnJobCtx = (TimerNodeJobContext) jobCtx;
 
-            return ProtobufMessages.Timers.Timer.newBuilder()
-                                          .setType( ProtobufMessages.Timers.TimerType.TIMER_NODE )
-                                          .setTimerNode( ProtobufMessages.Timers.TimerNodeTimer.newBuilder()
-                                                                                .setNodeId( tnJobCtx.getTimerNodeId() )
-                                                                                .setTuple( PersisterHelper.createTuple( tnJobCtx.getLeftTuple() ) )
-                                                                                .setTrigger( ProtobufOutputMarshaller.writeTrigger( tnJobCtx.getTrigger(),
-                                                                                                                                    outputCtx ) )
-                                                                                .build() )
-                                          .build();
+            return serializeTimerNodeTimer( tnJobCtx.getTimerNodeId(), tnJobCtx.getLeftTuple(), tnJobCtx.getTrigger(), outputCtx );
+        }
+    }
+
+    /**
+     * Writes a coalesced job as one timer node timer for each of its tuples, all with the shared trigger,
+     * so the session is read back by the {@link TimerNodeTimerInputMarshaller}, that schedules the tuples again
+     * and coalesces them into a single job as they all have the same next fire time.
+     */
+    public static class CoalescedTimerNodeTimerOutputMarshaller
+            implements
+            CompositeTimersOutputMarshaller {
+
+        public ProtobufMessages.Timers.Timer serialize(JobContext jobCtx,
+                                                       MarshallerWriteContext outputCtx) {
+            throw new UnsupportedOperationException( "A coalesced timer is serialized as a timer for each one of its tuples" );
+        }
+
+        public List<ProtobufMessages.Timers.Timer> serializeAll(JobContext jobCtx,
+                                                                MarshallerWriteContext outputCtx) {
+            CoalescedTimerNodeJobContext tnJobCtx = (CoalescedTimerNodeJobContext) jobCtx;
+
+            List<ProtobufMessages.Timers.Timer> timers = new ArrayList<ProtobufMessages.Timers.Timer>( tnJobCtx.getLeftTuples().size() );
+            for ( LeftTuple leftTuple : tnJobCtx.getLeftTuples() ) {
+                timers.add( serializeTimerNodeTimer( tnJobCtx.getTimerNodeId(), leftTuple, tnJobCtx.getTrigger(), outputCtx ) );
+            }
+            return timers;
         }
     }
 
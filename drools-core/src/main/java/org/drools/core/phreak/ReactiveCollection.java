@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.phreak;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * A collection recording the changes of its elements, see {@link ReactiveContainer}.
+ * All the mutations are implemented on top of add, remove and the iterator removal,
+ * that take care of notifying the observers.
+ */
+public abstract class ReactiveCollection<T> extends ReactiveContainer implements Collection<T> {
+
+    protected abstract Collection<T> getDelegate();
+
+    public int size() {
+        return getDelegate().size();
+    }
+
+    public boolean isEmpty() {
+        return getDelegate().isEmpty();
+    }
+
+    public boolean contains(Object o) {
+        return getDelegate().contains(o);
+    }
+
+    public Iterator<T> iterator() {
+        return new ContainerIterator<T>(this, getDelegate().iterator());
+    }
+
+    public Object[] toArray() {
+        return getDelegate().toArray();
+    }
+
+    public <E> E[] toArray(E[] a) {
+        return getDelegate().toArray(a);
+    }
+
+    public boolean containsAll(Collection<?> c) {
+        return getDelegate().containsAll(c);
+    }
+
+    public boolean addAll(Collection<? extends T> c) {
+        boolean changed = false;
+        for (T element : c) {
+            changed |= add(element);
+        }
+        return changed;
+    }
+
+    public boolean removeAll(Collection<?> c) {
+        boolean changed = false;
+        for (Iterator<T> it = iterator(); it.hasNext(); ) {
+            if (c.contains(it.next())) {
+                it.remove();
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    public boolean retainAll(Collection<?> c) {
+        boolean changed = false;
+        for (Iterator<T> it = iterator(); it.hasNext(); ) {
+            if (!c.contains(it.next())) {
+                it.remove();
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    public void clear() {
+        for (Iterator<T> it = iterator(); it.hasNext(); ) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o == this || getDelegate().equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return getDelegate().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return getDelegate().toString();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.phreak;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Base class of the reactive containers: {@link ReactiveList}, {@link ReactiveSet} and {@link ReactiveMap}.
+ *
+ * A reactive container records each element added, removed or modified and passes it to its observers,
+ * so that a from over it, like from $order.items, only processes the elements that changed instead of
+ * iterating again the whole container. An element is reported as modified when it is itself a
+ * {@link ReactiveObject} notifying a modification, or when it is set again in the same position.
+ *
+ * Observers are not released until they are removed, so a container shouldn't outlive the sessions using it.
+ */
+public abstract class ReactiveContainer extends ReactiveObject {
+
+    public interface Observer {
+        void elementAdded(Object element);
+
+        void elementRemoved(Object element);
+
+        void elementModified(Object element);
+    }
+
+    private final List<Observer> observers = new CopyOnWriteArrayList<Observer>();
+
+    public void addObserver(Observer observer) {
+        observers.add(observer);
+    }
+
+    public void removeObserver(Observer observer) {
+        observers.remove(observer);
+    }
+
+    protected void notifyAdded(Object element) {
+        if (element instanceof ReactiveObject) {
+            ((ReactiveObject) element).addParent(this);
+        }
+        for (Observer observer : observers) {
+            observer.elementAdded(element);
+        }
+        notifyModification();
+    }
+
+    protected void notifyRemoved(Object element) {
+        for (Observer observer : observers) {
+            observer.elementRemoved(element);
+        }
+        notifyModification();
+    }
+
+    protected void notifyModified(Object element) {
+        for (Observer observer : observers) {
+            observer.elementModified(element);
+        }
+        notifyModification();
+    }
+
+    @Override
+    protected void childModified(ReactiveObject child) {
+        // the child could have been removed, but its observers just ignore elements they don't have
+        notifyModified(child);
+    }
+
+    /**
+     * An iterator over the elements of a reactive container, that the from node recognizes in order to observe it
+     */
+    public static class ContainerIterator<T> implements Iterator<T> {
+        private final ReactiveContainer container;
+        private final Iterator<T>       iterator;
+        private T                       last;
+
+        public ContainerIterator(ReactiveContainer container, Iterator<T> iterator) {
+            this.container = container;
+            this.iterator = iterator;
+        }
+
+        public ReactiveContainer getContainer() {
+            return container;
+        }
+
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        public T next() {
+            last = iterator.next();
+            return last;
+        }
+
+        public void remove() {
+            iterator.remove();
+            container.notifyRemoved(last);
+        }
+    }
+}
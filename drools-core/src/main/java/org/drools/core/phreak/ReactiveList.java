@@ -0,0 +1,171 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.phreak;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * A list recording the changes of its elements, see {@link ReactiveContainer}.
+ * Setting an element again in its own position notifies it as modified.
+ * The views returned by subList are read only.
+ */
+public class ReactiveList<T> extends ReactiveCollection<T> implements List<T> {
+
+    private final List<T> list;
+
+    public ReactiveList() {
+        this.list = new ArrayList<T>();
+    }
+
+    public ReactiveList(Collection<? extends T> c) {
+        this.list = new ArrayList<T>(c.size());
+        addAll(c);
+    }
+
+    @Override
+    protected List<T> getDelegate() {
+        return list;
+    }
+
+    public boolean add(T element) {
+        list.add(element);
+        notifyAdded(element);
+        return true;
+    }
+
+    public void add(int index, T element) {
+        list.add(index, element);
+        notifyAdded(element);
+    }
+
+    public boolean addAll(int index, Collection<? extends T> c) {
+        for (T element : c) {
+            add(index++, element);
+        }
+        return !c.isEmpty();
+    }
+
+    public boolean remove(Object o) {
+        int index = list.indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    public T remove(int index) {
+        T removed = list.remove(index);
+        notifyRemoved(removed);
+        return removed;
+    }
+
+    public T set(int index, T element) {
+        T previous = list.set(index, element);
+        if (previous == element) {
+            notifyModified(element);
+        } else {
+            notifyRemoved(previous);
+            notifyAdded(element);
+        }
+        return previous;
+    }
+
+    public T get(int index) {
+        return list.get(index);
+    }
+
+    public int indexOf(Object o) {
+        return list.indexOf(o);
+    }
+
+    public int lastIndexOf(Object o) {
+        return list.lastIndexOf(o);
+    }
+
+    public ListIterator<T> listIterator() {
+        return listIterator(0);
+    }
+
+    public ListIterator<T> listIterator(int index) {
+        return new ReactiveListIterator(list.listIterator(index));
+    }
+
+    public List<T> subList(int fromIndex, int toIndex) {
+        return Collections.unmodifiableList(list.subList(fromIndex, toIndex));
+    }
+
+    private class ReactiveListIterator implements ListIterator<T> {
+        private final ListIterator<T> iterator;
+        private T                     last;
+
+        private ReactiveListIterator(ListIterator<T> iterator) {
+            this.iterator = iterator;
+        }
+
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        public T next() {
+            last = iterator.next();
+            return last;
+        }
+
+        public boolean hasPrevious() {
+            return iterator.hasPrevious();
+        }
+
+        public T previous() {
+            last = iterator.previous();
+            return last;
+        }
+
+        public int nextIndex() {
+            return iterator.nextIndex();
+        }
+
+        public int previousIndex() {
+            return iterator.previousIndex();
+        }
+
+        public void remove() {
+            iterator.remove();
+            notifyRemoved(last);
+        }
+
+        public void set(T element) {
+            iterator.set(element);
+            if (last == element) {
+                notifyModified(element);
+            } else {
+                notifyRemoved(last);
+                notifyAdded(element);
+            }
+            last = element;
+        }
+
+        public void add(T element) {
+            iterator.add(element);
+            notifyAdded(element);
+        }
+    }
+}
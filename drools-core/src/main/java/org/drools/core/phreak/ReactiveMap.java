@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.phreak;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A map recording the changes of its values, see {@link ReactiveContainer}: a from over a reactive map
+ * iterates its values. Putting a value again under its own key notifies it as modified.
+ * The key and entry views are read only, the values view only supports removals.
+ */
+public class ReactiveMap<K, V> extends ReactiveContainer implements Map<K, V> {
+
+    private final Map<K, V> map;
+
+    private transient Collection<V> values;
+
+    public ReactiveMap() {
+        this.map = new LinkedHashMap<K, V>();
+    }
+
+    public ReactiveMap(Map<? extends K, ? extends V> m) {
+        this.map = new LinkedHashMap<K, V>(Math.max((int) (m.size() / .75f) + 1, 16));
+        putAll(m);
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    public boolean containsValue(Object value) {
+        return map.containsValue(value);
+    }
+
+    public V get(Object key) {
+        return map.get(key);
+    }
+
+    public V put(K key, V value) {
+        boolean replaced = map.containsKey(key);
+        V previous = map.put(key, value);
+        if (!replaced) {
+            notifyAdded(value);
+        } else if (previous == value) {
+            notifyModified(value);
+        } else {
+            notifyRemoved(previous);
+            notifyAdded(value);
+        }
+        return previous;
+    }
+
+    public V remove(Object key) {
+        if (!map.containsKey(key)) {
+            return null;
+        }
+        V removed = map.remove(key);
+        notifyRemoved(removed);
+        return removed;
+    }
+
+    public void putAll(Map<? extends K, ? extends V> m) {
+        for (Entry<? extends K, ? extends V> entry : m.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public void clear() {
+        for (Iterator<V> it = values().iterator(); it.hasNext(); ) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(map.keySet());
+    }
+
+    public Collection<V> values() {
+        if (values == null) {
+            values = new Values();
+        }
+        return values;
+    }
+
+    public Set<Entry<K, V>> entrySet() {
+        return Collections.unmodifiableMap(map).entrySet();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o == this || map.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return map.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return map.toString();
+    }
+
+    private class Values extends AbstractCollection<V> {
+        public Iterator<V> iterator() {
+            return new ContainerIterator<V>(ReactiveMap.this, map.values().iterator());
+        }
+
+        public int size() {
+            return map.size();
+        }
+    }
+}
@@ -11,7 +11,9 @@ import org.drools.core.reteoo.ObjectSink;
 import org.drools.core.spi.PropagationContext;
 import org.drools.core.util.bitmask.AllSetBitMask;
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Set;
 
 public abstract class ReactiveObject {
@@ -20,7 +22,7 @@ public abstract class ReactiveObject {
 
     private Set<ObjectSink> sinks = new HashSet<ObjectSink>();
 
-    private Set<ReactiveObject> parents = new HashSet<ReactiveObject>();
+    private Set<ReactiveObject> parents = Collections.newSetFromMap(new IdentityHashMap<ReactiveObject, Boolean>());
 
     public InternalFactHandle getFactHandle() {
         return factHandle;
@@ -49,11 +51,18 @@ public abstract class ReactiveObject {
             propagateModify();
         } else {
             for (ReactiveObject parent : parents) {
-                parent.notifyModification();
+                parent.childModified(this);
             }
         }
     }
 
+    /**
+     * Called when a child of this object, that doesn't have its own fact handle, notifies a modification
+     */
+    protected void childModified(ReactiveObject child) {
+        notifyModification();
+    }
+
     private void propagateModify() {
         InternalWorkingMemoryEntryPoint ep = (InternalWorkingMemoryEntryPoint)factHandle.getEntryPoint();
         InternalWorkingMemory wm = ep.getInternalWorkingMemory();
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.phreak;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A set recording the changes of its elements, see {@link ReactiveContainer}.
+ * It keeps the insertion order of its elements.
+ */
+public class ReactiveSet<T> extends ReactiveCollection<T> implements Set<T> {
+
+    // the element is also the value, so that a removal reports the instance actually contained
+    private final Map<T, T> elements;
+
+    public ReactiveSet() {
+        this.elements = new LinkedHashMap<T, T>();
+    }
+
+    public ReactiveSet(Collection<? extends T> c) {
+        this.elements = new LinkedHashMap<T, T>(Math.max((int) (c.size() / .75f) + 1, 16));
+        addAll(c);
+    }
+
+    @Override
+    protected Set<T> getDelegate() {
+        return elements.keySet();
+    }
+
+    public boolean add(T element) {
+        if (elements.containsKey(element)) {
+            return false;
+        }
+        elements.put(element, element);
+        notifyAdded(element);
+        return true;
+    }
+
+    public boolean remove(Object o) {
+        if (!elements.containsKey(o)) {
+            return false;
+        }
+        notifyRemoved(elements.remove(o));
+        return true;
+    }
+}
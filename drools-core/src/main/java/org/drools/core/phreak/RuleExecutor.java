@@ -9,6 +9,7 @@ import org.drools.core.common.InternalWorkingMemory;
 import org.drools.core.common.LeftTupleSets;
 import org.drools.core.common.Memory;
 import org.drools.core.common.StreamTupleEntryQueue;
+import org.drools.core.common.TruthMaintenanceBatch;
 import org.drools.core.common.TupleEntryQueue;
 import org.drools.core.conflict.DepthConflictResolver;
 import org.drools.core.conflict.PhreakConflictResolver;
@@ -91,7 +92,12 @@ public class RuleExecutor {
     }
 
     public synchronized void evaluateNetwork(InternalWorkingMemory wm) {
-        NETWORK_EVALUATOR.evaluateNetwork(pmem, null, this, wm);
+        TruthMaintenanceBatch tmsBatch = openTruthMaintenanceBatch(wm);
+        try {
+            NETWORK_EVALUATOR.evaluateNetwork(pmem, null, this, wm);
+        } finally {
+            closeTruthMaintenanceBatch(tmsBatch);
+        }
         setDirty(false);
         wm.executeQueuedActions();
     }
@@ -155,6 +161,8 @@ public class RuleExecutor {
                     continue;
                 }
 
+                // the back-pressure of the asynchronous consequences is applied out of the agenda lock
+                agenda.awaitAsyncConsequenceCapacity(item);
                 agenda.fireActivation(item);
                 localFireCount++;
 
@@ -246,17 +254,40 @@ public class RuleExecutor {
             setDirty(false);
             TupleEntryQueue queue = pmem.getStreamQueue() != null ? pmem.getStreamQueue().takeAllForFlushing() : null;
 
-            if ( queue == null || queue.isEmpty() ) {
-                NETWORK_EVALUATOR.evaluateNetwork(pmem, outerStack, this, wm);
-            } else {
-                while (!queue.isEmpty()) {
-                    removeQueuedTupleEntry( queue );
+            TruthMaintenanceBatch tmsBatch = openTruthMaintenanceBatch(wm);
+            try {
+                if ( queue == null || queue.isEmpty() ) {
                     NETWORK_EVALUATOR.evaluateNetwork(pmem, outerStack, this, wm);
+                } else {
+                    while (!queue.isEmpty()) {
+                        removeQueuedTupleEntry( queue );
+                        NETWORK_EVALUATOR.evaluateNetwork(pmem, outerStack, this, wm);
+                    }
                 }
+            } finally {
+                closeTruthMaintenanceBatch(tmsBatch);
             }
         }
     }
 
+    /**
+     * The justifications removed by the cancelled matches of a network evaluation
+     * are resolved once, at the end of the evaluation
+     */
+    private static TruthMaintenanceBatch openTruthMaintenanceBatch(InternalWorkingMemory wm) {
+        TruthMaintenanceBatch tmsBatch = ((InternalAgenda) wm.getAgenda()).getTruthMaintenanceBatch();
+        if (tmsBatch != null) {
+            tmsBatch.open();
+        }
+        return tmsBatch;
+    }
+
+    private static void closeTruthMaintenanceBatch(TruthMaintenanceBatch tmsBatch) {
+        if (tmsBatch != null) {
+            tmsBatch.close();
+        }
+    }
+
     private static void removeQueuedTupleEntry( TupleEntryQueue tupleQueue ) {
         TupleEntry tupleEntry = tupleQueue.remove();
         PropagationContext originalPctx = tupleEntry.getPropagationContext();
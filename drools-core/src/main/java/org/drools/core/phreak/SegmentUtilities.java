@@ -121,7 +121,7 @@ public class SegmentUtilities {
                             updateNodeBit = processBranchNode((ConditionalBranchNode) tupleSource, wm, smem);
                             break;
                         case NodeTypeEnums.FromNode:
-                            processFromNode((FromNode) tupleSource, wm, smem);
+                            processFromNode((FromNode) tupleSource, wm, smem, nodePosMask);
                             break;
                         case NodeTypeEnums.TimerConditionNode:
                             processTimerNode((TimerNode) tupleSource, wm, smem, nodePosMask);
@@ -229,9 +229,11 @@ public class SegmentUtilities {
         return querySmem;
     }
 
-    private static void processFromNode(FromNode tupleSource, InternalWorkingMemory wm, SegmentMemory smem) {
+    private static void processFromNode(FromNode tupleSource, InternalWorkingMemory wm, SegmentMemory smem, long nodePosMask) {
         FromMemory fromMemory = (FromMemory) smem.createNodeMemory(tupleSource, wm);
         fromMemory.getBetaMemory().setSegmentMemory(smem);
+        // the node is set dirty when the elements of a reactive container change, it never impacts linking
+        fromMemory.getBetaMemory().setNodePosMaskBit(nodePosMask);
     }
 
     private static boolean processBranchNode(ConditionalBranchNode tupleSource, InternalWorkingMemory wm, SegmentMemory smem) {
@@ -363,6 +365,37 @@ public class SegmentUtilities {
         return memory.getSegmentMemory();
     }
 
+    /**
+     * Eagerly creates the path memory of the given terminal or right input adapter node, together with
+     * all the segment memories of its path and of the subnetworks feeding it, so that they do not have to
+     * be created by the first tuples reaching them. The child segments of the splits along the path are
+     * created as well, as it would happen when the tuples are propagated through them.
+     * Segments and paths already created are left as they are.
+     */
+    public static void createPathSegments(LeftTupleSink pathEnd, InternalWorkingMemory wm) {
+        wm.getNodeMemory((MemoryFactory) pathEnd);
+
+        LeftTupleSource tupleSource = pathEnd.getLeftTupleSource();
+        while (true) {
+            if (NodeTypeEnums.isBetaNode(tupleSource) && ((BetaNode) tupleSource).isRightInputIsRiaNode()) {
+                createPathSegments((RightInputAdapterNode) ((BetaNode) tupleSource).getRightInput(), wm);
+            }
+
+            SegmentMemory smem = wm.getNodeMemory((MemoryFactory) tupleSource).getSegmentMemory();
+            if (smem == null) {
+                smem = createSegmentMemory(tupleSource, wm);
+            }
+            if (tupleSource.getSinkPropagator().size() > 1 && smem.isEmpty()) {
+                createChildSegments(wm, smem, tupleSource.getSinkPropagator());
+            }
+
+            if (tupleSource.getType() == NodeTypeEnums.LeftInputAdapterNode) {
+                break;
+            }
+            tupleSource = tupleSource.getLeftTupleSource();
+        }
+    }
+
     /**
      * Is the LeftTupleSource a node in the sub network for the RightInputAdapterNode
      * To be in the same network, it must be a node is after the two output of the parent
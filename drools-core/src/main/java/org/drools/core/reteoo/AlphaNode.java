@@ -407,5 +407,21 @@ public class AlphaNode extends ObjectSource
     @Override
     public void addObjectSink(final ObjectSink objectSink) {
         super.addObjectSink(objectSink);
+        sinksChanged();
+    }
+
+    @Override
+    public void removeObjectSink(final ObjectSink objectSink) {
+        super.removeObjectSink(objectSink);
+        sinksChanged();
+    }
+
+    /**
+     * Lets the range index of the parent, if any, index this node together with its second bound
+     */
+    private void sinksChanged() {
+        if ( this.source != null && this.source.getSinkPropagator() instanceof CompositeObjectSinkAdapter ) {
+            ((CompositeObjectSinkAdapter) this.source.getSinkPropagator()).rangeIndexedSinkChanged( this );
+        }
     }
 }
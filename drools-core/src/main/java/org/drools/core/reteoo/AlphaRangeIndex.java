@@ -0,0 +1,502 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.reteoo;
+
+import org.drools.core.base.ValueType;
+import org.drools.core.base.extractors.MVELObjectClassFieldReader;
+import org.drools.core.rule.IndexableConstraint;
+import org.drools.core.spi.AlphaNodeFieldConstraint;
+import org.drools.core.spi.FieldValue;
+import org.drools.core.spi.InternalReadAccessor;
+import org.drools.core.util.LinkedListNode;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+
+/**
+ * Interval index of the sibling alpha nodes comparing the same numeric field against a literal
+ * (e.g. the rows of a decision table with range conditions on the same column).
+ * The nodes are kept sorted by their literal value, so the ones satisfied by a fact are found
+ * with a binary search instead of evaluating every constraint.
+ *
+ * The ascending nodes (> and >=) satisfied by a value are a prefix of the ascending entries,
+ * while the descending ones (< and <=) are a suffix of the descending entries. The nodes whose
+ * literal is equal to the value are on the boundary and still have to evaluate their constraint.
+ *
+ * A node whose only sink is an alpha node bounding the same field in the opposite direction
+ * (e.g. the price &gt;= 10 and price &lt; 20 of a single row) is indexed as an interval: the second bound
+ * is kept next to the first one, together with the maximum (or minimum) second bound of the entries
+ * before (or after) it, so the entries whose interval does not reach the value are skipped with
+ * another binary search instead of being propagated to and tested one by one.
+ */
+public class AlphaRangeIndex
+    implements
+    LinkedListNode<AlphaRangeIndex>,
+    Externalizable {
+
+    private static final long    serialVersionUID = 510l;
+
+    private static final Entries EMPTY_ASCENDING  = new Entries( true );
+    private static final Entries EMPTY_DESCENDING = new Entries( false );
+
+    private int                  index;
+    private InternalReadAccessor fieldExtractor;
+
+    private int                  count;
+
+    private boolean              indexed;
+
+    // copy on write, so propagations always see a consistent snapshot
+    private volatile Entries     ascending        = EMPTY_ASCENDING;
+    private volatile Entries     descending       = EMPTY_DESCENDING;
+
+    private AlphaRangeIndex      previous;
+    private AlphaRangeIndex      next;
+
+    public AlphaRangeIndex() {
+    }
+
+    public AlphaRangeIndex(final int index,
+                           final InternalReadAccessor fieldExtractor) {
+        this.index = index;
+        this.fieldExtractor = fieldExtractor;
+    }
+
+    public void readExternal(ObjectInput in) throws IOException,
+                                            ClassNotFoundException {
+        index = in.readInt();
+        fieldExtractor = (InternalReadAccessor) in.readObject();
+        count = in.readInt();
+        indexed = in.readBoolean();
+        ascending = (Entries) in.readObject();
+        descending = (Entries) in.readObject();
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt( index );
+        out.writeObject( fieldExtractor );
+        out.writeInt( count );
+        out.writeBoolean( indexed );
+        out.writeObject( ascending );
+        out.writeObject( descending );
+    }
+
+    /**
+     * Returns true if the given alpha node compares a numeric field against a numeric literal,
+     * so that it can be put in an interval index
+     */
+    public static boolean isRangeIndexable(final AlphaNode alphaNode) {
+        final AlphaNodeFieldConstraint fieldConstraint = alphaNode.getConstraint();
+        if ( !(fieldConstraint instanceof IndexableConstraint) ) {
+            return false;
+        }
+        final IndexableConstraint indexableConstraint = (IndexableConstraint) fieldConstraint;
+        if ( !indexableConstraint.getConstraintType().isComparison() ) {
+            return false;
+        }
+
+        final FieldValue value = indexableConstraint.getField();
+        final InternalReadAccessor extractor = indexableConstraint.getFieldExtractor();
+        if ( value == null || value.isNull() || !(value.getValue() instanceof Number) || extractor == null ||
+             // our current implementation does not support indexing of deeply nested properties
+             extractor instanceof MVELObjectClassFieldReader ) {
+            return false;
+        }
+
+        final ValueType valueType = extractor.getValueType();
+        return ( valueType.isIntegerNumber() || valueType.isFloatNumber() ) && !Double.isNaN( value.getDoubleValue() );
+    }
+
+    public void add(final AlphaNode alphaNode) {
+        final IndexableConstraint constraint = (IndexableConstraint) alphaNode.getConstraint();
+        final double threshold = constraint.getField().getDoubleValue();
+        if ( constraint.getConstraintType().isAscending() ) {
+            ascending = ascending.add( threshold, alphaNode, index );
+        } else {
+            descending = descending.add( threshold, alphaNode, index );
+        }
+    }
+
+    /**
+     * Refreshes the second bound of the given node, after its sinks have been changed
+     */
+    public void sinksChanged(final AlphaNode alphaNode) {
+        final IndexableConstraint constraint = (IndexableConstraint) alphaNode.getConstraint();
+        if ( constraint.getConstraintType().isAscending() ) {
+            ascending = ascending.refresh( alphaNode, index );
+        } else {
+            descending = descending.refresh( alphaNode, index );
+        }
+    }
+
+    public void remove(final AlphaNode alphaNode) {
+        final IndexableConstraint constraint = (IndexableConstraint) alphaNode.getConstraint();
+        if ( constraint.getConstraintType().isAscending() ) {
+            ascending = ascending.remove( alphaNode );
+        } else {
+            descending = descending.remove( alphaNode );
+        }
+    }
+
+    public boolean contains(final AlphaNode alphaNode) {
+        return ascending.indexOf( alphaNode ) >= 0 || descending.indexOf( alphaNode ) >= 0;
+    }
+
+    public Entries getAscending() {
+        return ascending;
+    }
+
+    public Entries getDescending() {
+        return descending;
+    }
+
+    public int size() {
+        return ascending.sinks.length + descending.sinks.length;
+    }
+
+    public void clear() {
+        ascending = EMPTY_ASCENDING;
+        descending = EMPTY_DESCENDING;
+    }
+
+    public AlphaNode[] getSinks() {
+        final AlphaNode[] sinks = new AlphaNode[size()];
+        System.arraycopy( ascending.sinks, 0, sinks, 0, ascending.sinks.length );
+        System.arraycopy( descending.sinks, 0, sinks, ascending.sinks.length, descending.sinks.length );
+        return sinks;
+    }
+
+    public InternalReadAccessor getFieldExtractor() {
+        return this.fieldExtractor;
+    }
+
+    public int getIndex() {
+        return this.index;
+    }
+
+    public int getCount() {
+        return this.count;
+    }
+
+    public boolean isIndexed() {
+        return this.indexed;
+    }
+
+    public void setIndexed(final boolean indexed) {
+        this.indexed = indexed;
+    }
+
+    public void increaseCounter() {
+        this.count++;
+    }
+
+    public void decreaseCounter() {
+        this.count--;
+    }
+
+    public AlphaRangeIndex getNext() {
+        return this.next;
+    }
+
+    public AlphaRangeIndex getPrevious() {
+        return this.previous;
+    }
+
+    public void setNext(final AlphaRangeIndex next) {
+        this.next = next;
+    }
+
+    public void setPrevious(final AlphaRangeIndex previous) {
+        this.previous = previous;
+    }
+
+    public void nullPrevNext() {
+        previous = null;
+        next = null;
+    }
+
+    /**
+     * Immutable arrays holding the alpha nodes sorted by their literal value, with the second bound
+     * of the ones indexed as intervals
+     */
+    public static class Entries
+        implements
+        Externalizable {
+
+        private boolean     ascending;
+
+        private double[]    thresholds;
+        private AlphaNode[] sinks;
+
+        // the second bound of each node, infinite if the node isn't an interval, and its alpha node
+        private double[]    bounds;
+        private AlphaNode[] boundSinks;
+
+        // the maximum second bound up to each ascending entry, or the minimum from each descending entry
+        private double[]    limits;
+
+        public Entries() {
+        }
+
+        Entries(final boolean ascending) {
+            this( ascending, new double[0], new AlphaNode[0], new double[0], new AlphaNode[0] );
+        }
+
+        Entries(final boolean ascending,
+                final double[] thresholds,
+                final AlphaNode[] sinks,
+                final double[] bounds,
+                final AlphaNode[] boundSinks) {
+            this.ascending = ascending;
+            this.thresholds = thresholds;
+            this.sinks = sinks;
+            this.bounds = bounds;
+            this.boundSinks = boundSinks;
+            this.limits = new double[bounds.length];
+            if ( ascending ) {
+                double max = Double.NEGATIVE_INFINITY;
+                for ( int i = 0; i < bounds.length; i++ ) {
+                    max = Math.max( max, bounds[i] );
+                    limits[i] = max;
+                }
+            } else {
+                double min = Double.POSITIVE_INFINITY;
+                for ( int i = bounds.length - 1; i >= 0; i-- ) {
+                    min = Math.min( min, bounds[i] );
+                    limits[i] = min;
+                }
+            }
+        }
+
+        public void readExternal(ObjectInput in) throws IOException,
+                                                ClassNotFoundException {
+            ascending = in.readBoolean();
+            thresholds = (double[]) in.readObject();
+            sinks = (AlphaNode[]) in.readObject();
+            bounds = (double[]) in.readObject();
+            boundSinks = (AlphaNode[]) in.readObject();
+            limits = (double[]) in.readObject();
+        }
+
+        public void writeExternal(ObjectOutput out) throws IOException {
+            out.writeBoolean( ascending );
+            out.writeObject( thresholds );
+            out.writeObject( sinks );
+            out.writeObject( bounds );
+            out.writeObject( boundSinks );
+            out.writeObject( limits );
+        }
+
+        public double[] getThresholds() {
+            return thresholds;
+        }
+
+        public AlphaNode[] getSinks() {
+            return sinks;
+        }
+
+        public double[] getBounds() {
+            return bounds;
+        }
+
+        /**
+         * Returns the alpha nodes testing the second bound of the intervals, null for the nodes that aren't intervals
+         */
+        public AlphaNode[] getBoundSinks() {
+            return boundSinks;
+        }
+
+        /**
+         * Returns the position of the first ascending entry that may contain the given value,
+         * as all the entries before it have a second bound lower than the value
+         */
+        public int firstCandidate(final double value) {
+            return lowerBound( limits, value );
+        }
+
+        /**
+         * Returns the position after the last descending entry that may contain the given value,
+         * as all the entries after it have a second bound greater than the value
+         */
+        public int lastCandidate(final double value) {
+            return upperBound( limits, value );
+        }
+
+        /**
+         * Returns the number of entries whose threshold is lower or equal than the given value
+         */
+        public int upperBound(final double value) {
+            return upperBound( thresholds, value );
+        }
+
+        /**
+         * Returns the position of the first entry whose threshold is greater or equal than the given value
+         */
+        public int lowerBound(final double value) {
+            return lowerBound( thresholds, value );
+        }
+
+        private static int upperBound(final double[] values,
+                                      final double value) {
+            int low = 0;
+            int high = values.length;
+            while ( low < high ) {
+                final int mid = ( low + high ) >>> 1;
+                if ( values[mid] <= value ) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static int lowerBound(final double[] values,
+                                      final double value) {
+            int low = 0;
+            int high = values.length;
+            while ( low < high ) {
+                final int mid = ( low + high ) >>> 1;
+                if ( values[mid] < value ) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        Entries add(final double threshold,
+                    final AlphaNode sink,
+                    final int fieldIndex) {
+            final int pos = upperBound( threshold );
+            final AlphaNode boundSink = getBoundSink( sink, ascending, fieldIndex );
+            return new Entries( ascending,
+                                insert( thresholds, pos, threshold ),
+                                insert( sinks, pos, sink ),
+                                insert( bounds, pos, getBound( boundSink, ascending ) ),
+                                insert( boundSinks, pos, boundSink ) );
+        }
+
+        Entries remove(final AlphaNode sink) {
+            final int pos = indexOf( sink );
+            if ( pos < 0 ) {
+                return this;
+            }
+            return new Entries( ascending,
+                                delete( thresholds, pos ),
+                                delete( sinks, pos ),
+                                delete( bounds, pos ),
+                                delete( boundSinks, pos ) );
+        }
+
+        Entries refresh(final AlphaNode sink,
+                        final int fieldIndex) {
+            final int pos = indexOf( sink );
+            if ( pos < 0 ) {
+                return this;
+            }
+            final AlphaNode boundSink = getBoundSink( sink, ascending, fieldIndex );
+            if ( boundSink == boundSinks[pos] ) {
+                return this;
+            }
+            final double[] newBounds = bounds.clone();
+            final AlphaNode[] newBoundSinks = boundSinks.clone();
+            newBounds[pos] = getBound( boundSink, ascending );
+            newBoundSinks[pos] = boundSink;
+            return new Entries( ascending, thresholds, sinks, newBounds, newBoundSinks );
+        }
+
+        int indexOf(final AlphaNode sink) {
+            for ( int i = 0; i < sinks.length; i++ ) {
+                if ( sinks[i] == sink ) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns the only sink of the given node if it bounds the same field in the opposite direction
+         */
+        private static AlphaNode getBoundSink(final AlphaNode alphaNode,
+                                              final boolean ascending,
+                                              final int fieldIndex) {
+            final ObjectSink[] sinks = alphaNode.getSinkPropagator().getSinks();
+            if ( sinks.length != 1 || !(sinks[0] instanceof AlphaNode) || !isRangeIndexable( (AlphaNode) sinks[0] ) ) {
+                return null;
+            }
+            final IndexableConstraint constraint = (IndexableConstraint) ( (AlphaNode) sinks[0] ).getConstraint();
+            if ( constraint.getFieldExtractor().getIndex() != fieldIndex || constraint.getConstraintType().isAscending() == ascending ) {
+                return null;
+            }
+            return (AlphaNode) sinks[0];
+        }
+
+        private static double getBound(final AlphaNode boundSink,
+                                       final boolean ascending) {
+            if ( boundSink == null ) {
+                return ascending ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+            }
+            return ( (IndexableConstraint) boundSink.getConstraint() ).getField().getDoubleValue();
+        }
+
+        private static double[] insert(final double[] array,
+                                       final int pos,
+                                       final double value) {
+            final double[] newArray = new double[array.length + 1];
+            System.arraycopy( array, 0, newArray, 0, pos );
+            newArray[pos] = value;
+            System.arraycopy( array, pos, newArray, pos + 1, array.length - pos );
+            return newArray;
+        }
+
+        private static AlphaNode[] insert(final AlphaNode[] array,
+                                          final int pos,
+                                          final AlphaNode value) {
+            final AlphaNode[] newArray = new AlphaNode[array.length + 1];
+            System.arraycopy( array, 0, newArray, 0, pos );
+            newArray[pos] = value;
+            System.arraycopy( array, pos, newArray, pos + 1, array.length - pos );
+            return newArray;
+        }
+
+        private static double[] delete(final double[] array,
+                                       final int pos) {
+            final double[] newArray = new double[array.length - 1];
+            System.arraycopy( array, 0, newArray, 0, pos );
+            System.arraycopy( array, pos + 1, newArray, pos, array.length - pos - 1 );
+            return newArray;
+        }
+
+        private static AlphaNode[] delete(final AlphaNode[] array,
+                                          final int pos) {
+            final AlphaNode[] newArray = new AlphaNode[array.length - 1];
+            System.arraycopy( array, 0, newArray, 0, pos );
+            System.arraycopy( array, pos + 1, newArray, pos, array.length - pos - 1 );
+            return newArray;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString( thresholds );
+        }
+    }
+}
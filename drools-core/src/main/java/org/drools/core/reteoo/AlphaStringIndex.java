@@ -0,0 +1,367 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.reteoo;
+
+import org.drools.core.base.ValueType;
+import org.drools.core.base.extractors.MVELObjectClassFieldReader;
+import org.drools.core.rule.IndexableConstraint;
+import org.drools.core.spi.AlphaNodeFieldConstraint;
+import org.drools.core.spi.FieldValue;
+import org.drools.core.spi.InternalReadAccessor;
+import org.drools.core.util.LinkedListNode;
+import org.drools.core.util.index.IndexUtil.ConstraintType;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Trie index of the sibling alpha nodes matching the same String field against a literal with
+ * str[startsWith], str[endsWith] or matches, so a single scan of the value finds all the nodes
+ * it can satisfy instead of evaluating every constraint.
+ *
+ * The startsWith literals are stored in a trie walked from the first char of the value, the endsWith
+ * ones in a trie of the reversed literals walked from the last char: reaching the node of a literal
+ * means its constraint is satisfied. The regular expressions are stored in the first trie under their
+ * literal prefix (e.g. "abc" for "abc[0-9]+"), so they are only evaluated for the values having
+ * that prefix; the ones without a literal prefix are on the root and are always evaluated.
+ */
+public class AlphaStringIndex
+    implements
+    LinkedListNode<AlphaStringIndex>,
+    Externalizable {
+
+    private static final long        serialVersionUID = 510l;
+
+    private static final AlphaNode[] EMPTY_SINKS      = new AlphaNode[0];
+
+    private int                      index;
+    private InternalReadAccessor     fieldExtractor;
+
+    private int                      count;
+
+    private boolean                  indexed;
+
+    // the tries are rebuilt on each change and never modified once published
+    private volatile AlphaNode[]     sinks            = EMPTY_SINKS;
+    private volatile TrieNode        prefixes         = new TrieNode();
+    private volatile TrieNode        suffixes         = new TrieNode();
+
+    private AlphaStringIndex         previous;
+    private AlphaStringIndex         next;
+
+    public AlphaStringIndex() {
+    }
+
+    public AlphaStringIndex(final int index,
+                            final InternalReadAccessor fieldExtractor) {
+        this.index = index;
+        this.fieldExtractor = fieldExtractor;
+    }
+
+    public void readExternal(ObjectInput in) throws IOException,
+                                            ClassNotFoundException {
+        index = in.readInt();
+        fieldExtractor = (InternalReadAccessor) in.readObject();
+        count = in.readInt();
+        indexed = in.readBoolean();
+        sinks = (AlphaNode[]) in.readObject();
+        prefixes = (TrieNode) in.readObject();
+        suffixes = (TrieNode) in.readObject();
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt( index );
+        out.writeObject( fieldExtractor );
+        out.writeInt( count );
+        out.writeBoolean( indexed );
+        out.writeObject( sinks );
+        out.writeObject( prefixes );
+        out.writeObject( suffixes );
+    }
+
+    /**
+     * Returns true if the given alpha node matches a String field against a String literal
+     * with str[startsWith], str[endsWith] or matches, so that it can be put in a trie index
+     */
+    public static boolean isStringIndexable(final AlphaNode alphaNode) {
+        final AlphaNodeFieldConstraint fieldConstraint = alphaNode.getConstraint();
+        if ( !(fieldConstraint instanceof IndexableConstraint) ) {
+            return false;
+        }
+        final IndexableConstraint indexableConstraint = (IndexableConstraint) fieldConstraint;
+        if ( !indexableConstraint.getConstraintType().isStringMatch() ) {
+            return false;
+        }
+
+        final FieldValue value = indexableConstraint.getField();
+        final InternalReadAccessor extractor = indexableConstraint.getFieldExtractor();
+        if ( value == null || value.isNull() || !(value.getValue() instanceof String) || extractor == null ||
+             // our current implementation does not support indexing of deeply nested properties
+             extractor instanceof MVELObjectClassFieldReader || extractor.getValueType() != ValueType.STRING_TYPE ) {
+            return false;
+        }
+
+        if ( indexableConstraint.getConstraintType() == ConstraintType.MATCHES ) {
+            try {
+                Pattern.compile( (String) value.getValue() );
+            } catch ( PatternSyntaxException e ) {
+                // leave it to the constraint to report the invalid expression
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the chars any String matched by the given regular expression has to start with
+     */
+    static String getLiteralPrefix(final String regex) {
+        if ( regex.indexOf( '|' ) >= 0 ) {
+            // a top level alternative would allow other prefixes
+            return "";
+        }
+        int i = 0;
+        while ( i < regex.length() && "\\.[]{}()*+?^$".indexOf( regex.charAt( i ) ) < 0 ) {
+            i++;
+        }
+        if ( i < regex.length() && i > 0 && "*+?{".indexOf( regex.charAt( i ) ) >= 0 ) {
+            // the quantifier applies to the last literal char, so it cannot be part of the prefix
+            i--;
+        }
+        return regex.substring( 0, i );
+    }
+
+    public void add(final AlphaNode alphaNode) {
+        final AlphaNode[] newSinks = new AlphaNode[sinks.length + 1];
+        System.arraycopy( sinks, 0, newSinks, 0, sinks.length );
+        newSinks[sinks.length] = alphaNode;
+        rebuild( newSinks );
+    }
+
+    public void remove(final AlphaNode alphaNode) {
+        final int pos = indexOf( alphaNode );
+        if ( pos < 0 ) {
+            return;
+        }
+        final AlphaNode[] newSinks = new AlphaNode[sinks.length - 1];
+        System.arraycopy( sinks, 0, newSinks, 0, pos );
+        System.arraycopy( sinks, pos + 1, newSinks, pos, sinks.length - pos - 1 );
+        rebuild( newSinks );
+    }
+
+    private void rebuild(final AlphaNode[] newSinks) {
+        final TrieNode newPrefixes = new TrieNode();
+        final TrieNode newSuffixes = new TrieNode();
+        for ( AlphaNode sink : newSinks ) {
+            final IndexableConstraint constraint = (IndexableConstraint) sink.getConstraint();
+            final String literal = (String) constraint.getField().getValue();
+            final TrieNode node;
+            switch ( constraint.getConstraintType() ) {
+                case STARTS_WITH:
+                    node = newPrefixes.insert( literal );
+                    node.accepted = append( node.accepted, sink );
+                    break;
+                case ENDS_WITH:
+                    node = newSuffixes.insert( new StringBuilder( literal ).reverse().toString() );
+                    node.accepted = append( node.accepted, sink );
+                    break;
+                default:
+                    node = newPrefixes.insert( getLiteralPrefix( literal ) );
+                    node.candidates = append( node.candidates, sink );
+            }
+        }
+        this.prefixes = newPrefixes;
+        this.suffixes = newSuffixes;
+        this.sinks = newSinks;
+    }
+
+    private static AlphaNode[] append(final AlphaNode[] array,
+                                      final AlphaNode sink) {
+        final AlphaNode[] result = Arrays.copyOf( array, array.length + 1 );
+        result[array.length] = sink;
+        return result;
+    }
+
+    private int indexOf(final AlphaNode alphaNode) {
+        for ( int i = 0; i < sinks.length; i++ ) {
+            if ( sinks[i] == alphaNode ) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(final AlphaNode alphaNode) {
+        return indexOf( alphaNode ) >= 0;
+    }
+
+    /**
+     * Returns the root of the trie of the startsWith literals and of the regular expression prefixes
+     */
+    public TrieNode getPrefixes() {
+        return prefixes;
+    }
+
+    /**
+     * Returns the root of the trie of the reversed endsWith literals
+     */
+    public TrieNode getSuffixes() {
+        return suffixes;
+    }
+
+    public int size() {
+        return sinks.length;
+    }
+
+    public void clear() {
+        sinks = EMPTY_SINKS;
+        prefixes = new TrieNode();
+        suffixes = new TrieNode();
+    }
+
+    public AlphaNode[] getSinks() {
+        return sinks;
+    }
+
+    public InternalReadAccessor getFieldExtractor() {
+        return this.fieldExtractor;
+    }
+
+    public int getIndex() {
+        return this.index;
+    }
+
+    public int getCount() {
+        return this.count;
+    }
+
+    public boolean isIndexed() {
+        return this.indexed;
+    }
+
+    public void setIndexed(final boolean indexed) {
+        this.indexed = indexed;
+    }
+
+    public void increaseCounter() {
+        this.count++;
+    }
+
+    public void decreaseCounter() {
+        this.count--;
+    }
+
+    public AlphaStringIndex getNext() {
+        return this.next;
+    }
+
+    public AlphaStringIndex getPrevious() {
+        return this.previous;
+    }
+
+    public void setNext(final AlphaStringIndex next) {
+        this.next = next;
+    }
+
+    public void setPrevious(final AlphaStringIndex previous) {
+        this.previous = previous;
+    }
+
+    public void nullPrevNext() {
+        previous = null;
+        next = null;
+    }
+
+    /**
+     * Node of the trie, holding the alpha nodes satisfied by all the values reaching it and the
+     * ones that still have to evaluate their constraint
+     */
+    public static class TrieNode
+        implements
+        Externalizable {
+
+        private char[]      keys       = new char[0];
+        private TrieNode[]  children   = new TrieNode[0];
+
+        private AlphaNode[] accepted   = EMPTY_SINKS;
+        private AlphaNode[] candidates = EMPTY_SINKS;
+
+        public TrieNode() {
+        }
+
+        public void readExternal(ObjectInput in) throws IOException,
+                                                ClassNotFoundException {
+            keys = (char[]) in.readObject();
+            children = (TrieNode[]) in.readObject();
+            accepted = (AlphaNode[]) in.readObject();
+            candidates = (AlphaNode[]) in.readObject();
+        }
+
+        public void writeExternal(ObjectOutput out) throws IOException {
+            out.writeObject( keys );
+            out.writeObject( children );
+            out.writeObject( accepted );
+            out.writeObject( candidates );
+        }
+
+        public TrieNode getChild(final char c) {
+            final int pos = Arrays.binarySearch( keys, c );
+            return pos >= 0 ? children[pos] : null;
+        }
+
+        public AlphaNode[] getAccepted() {
+            return accepted;
+        }
+
+        public AlphaNode[] getCandidates() {
+            return candidates;
+        }
+
+        TrieNode insert(final String literal) {
+            TrieNode node = this;
+            for ( int i = 0; i < literal.length(); i++ ) {
+                final char c = literal.charAt( i );
+                int pos = Arrays.binarySearch( node.keys, c );
+                if ( pos < 0 ) {
+                    pos = -pos - 1;
+                    final char[] newKeys = new char[node.keys.length + 1];
+                    final TrieNode[] newChildren = new TrieNode[node.children.length + 1];
+                    System.arraycopy( node.keys, 0, newKeys, 0, pos );
+                    System.arraycopy( node.children, 0, newChildren, 0, pos );
+                    newKeys[pos] = c;
+                    newChildren[pos] = new TrieNode();
+                    System.arraycopy( node.keys, pos, newKeys, pos + 1, node.keys.length - pos );
+                    System.arraycopy( node.children, pos, newChildren, pos + 1, node.children.length - pos );
+                    node.keys = newKeys;
+                    node.children = newChildren;
+                }
+                node = node.children[pos];
+            }
+            return node;
+        }
+
+        @Override
+        public String toString() {
+            return "TrieNode" + Arrays.toString( keys );
+        }
+    }
+}
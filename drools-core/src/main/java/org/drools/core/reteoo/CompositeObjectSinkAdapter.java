@@ -58,6 +58,10 @@ public class CompositeObjectSinkAdapter extends AbstractObjectSinkAdapter {
 
     ObjectHashMap             hashedSinkMap;
 
+    LinkedList<AlphaRangeIndex> rangeIndexes;
+
+    LinkedList<AlphaStringIndex> stringIndexes;
+
     private int               alphaNodeHashingThreshold;
 
     private ObjectSink[]      sinks;
@@ -80,6 +84,8 @@ public class CompositeObjectSinkAdapter extends AbstractObjectSinkAdapter {
         hashableSinks = (ObjectSinkNodeList) in.readObject();
         hashedFieldIndexes = (LinkedList) in.readObject();
         hashedSinkMap = (ObjectHashMap) in.readObject();
+        rangeIndexes = (LinkedList) in.readObject();
+        stringIndexes = (LinkedList) in.readObject();
         alphaNodeHashingThreshold = in.readInt();
     }
 
@@ -89,6 +95,8 @@ public class CompositeObjectSinkAdapter extends AbstractObjectSinkAdapter {
         out.writeObject( hashableSinks );
         out.writeObject( hashedFieldIndexes );
         out.writeObject( hashedSinkMap );
+        out.writeObject( rangeIndexes );
+        out.writeObject( stringIndexes );
         out.writeInt( alphaNodeHashingThreshold );
     }
 
@@ -104,6 +112,14 @@ public class CompositeObjectSinkAdapter extends AbstractObjectSinkAdapter {
         return this.hashedSinkMap;
     }
 
+    public LinkedList<AlphaRangeIndex> getRangeIndexes() {
+        return this.rangeIndexes;
+    }
+
+    public LinkedList<AlphaStringIndex> getStringIndexes() {
+        return this.stringIndexes;
+    }
+
     public void addObjectSink(final ObjectSink sink) {
         this.sinks = null; // dirty it, so it'll rebuild on next get
         if ( sink.getType() ==  NodeTypeEnums.AlphaNode ) {
@@ -144,6 +160,28 @@ public class CompositeObjectSinkAdapter extends AbstractObjectSinkAdapter {
                     return;
                 }
             }
+
+            if ( AlphaRangeIndex.isRangeIndexable( alphaNode ) ) {
+                final AlphaRangeIndex rangeIndex = registerRangeIndex( alphaNode );
+                if ( !rangeIndex.isIndexed() && rangeIndex.getCount() >= this.alphaNodeHashingThreshold && this.alphaNodeHashingThreshold != 0 ) {
+                    indexRangeSinks( rangeIndex );
+                }
+                if ( rangeIndex.isIndexed() ) {
+                    rangeIndex.add( alphaNode );
+                    return;
+                }
+            }
+
+            if ( AlphaStringIndex.isStringIndexable( alphaNode ) ) {
+                final AlphaStringIndex stringIndex = registerStringIndex( alphaNode );
+                if ( !stringIndex.isIndexed() && stringIndex.getCount() >= this.alphaNodeHashingThreshold && this.alphaNodeHashingThreshold != 0 ) {
+                    indexStringSinks( stringIndex );
+                }
+                if ( stringIndex.isIndexed() ) {
+                    stringIndex.add( alphaNode );
+                    return;
+                }
+            }
         }
 
         if ( this.otherSinks == null ) {
@@ -193,6 +231,28 @@ public class CompositeObjectSinkAdapter extends AbstractObjectSinkAdapter {
                     return;
                 }
             }
+
+            if ( AlphaRangeIndex.isRangeIndexable( alphaNode ) ) {
+                final AlphaRangeIndex rangeIndex = unregisterRangeIndex( alphaNode );
+                if ( rangeIndex.isIndexed() ) {
+                    rangeIndex.remove( alphaNode );
+                    if ( rangeIndex.getCount() <= this.alphaNodeHashingThreshold - 1 ) {
+                        unIndexRangeSinks( rangeIndex );
+                    }
+                    return;
+                }
+            }
+
+            if ( AlphaStringIndex.isStringIndexable( alphaNode ) ) {
+                final AlphaStringIndex stringIndex = unregisterStringIndex( alphaNode );
+                if ( stringIndex.isIndexed() ) {
+                    stringIndex.remove( alphaNode );
+                    if ( stringIndex.getCount() <= this.alphaNodeHashingThreshold - 1 ) {
+                        unIndexStringSinks( stringIndex );
+                    }
+                    return;
+                }
+            }
         }
 
         this.otherSinks.remove( (ObjectSinkNode) sink );
@@ -282,6 +342,187 @@ public class CompositeObjectSinkAdapter extends AbstractObjectSinkAdapter {
         fieldIndex.setHashed( false );
     }
 
+    void indexRangeSinks(final AlphaRangeIndex rangeIndex) {
+        final int index = rangeIndex.getIndex();
+
+        if ( this.otherSinks != null ) {
+            ObjectSinkNode currentSink = this.otherSinks.getFirst();
+            while ( currentSink != null ) {
+                final ObjectSinkNode sink = currentSink;
+                // position to the next sink now because the current one may be moved to the range index
+                currentSink = currentSink.getNextObjectSinkNode();
+
+                if ( sink.getType() == NodeTypeEnums.AlphaNode && AlphaRangeIndex.isRangeIndexable( (AlphaNode) sink ) &&
+                     index == ( (IndexableConstraint) ( (AlphaNode) sink ).getConstraint() ).getFieldExtractor().getIndex() ) {
+                    rangeIndex.add( (AlphaNode) sink );
+                    this.otherSinks.remove( sink );
+                }
+            }
+
+            if ( this.otherSinks.isEmpty() ) {
+                this.otherSinks = null;
+            }
+        }
+
+        rangeIndex.setIndexed( true );
+    }
+
+    void unIndexRangeSinks(final AlphaRangeIndex rangeIndex) {
+        for ( AlphaNode alphaNode : rangeIndex.getSinks() ) {
+            if ( this.otherSinks == null ) {
+                this.otherSinks = new ObjectSinkNodeList();
+            }
+            this.otherSinks.add( alphaNode );
+        }
+        rangeIndex.clear();
+        rangeIndex.setIndexed( false );
+    }
+
+    /**
+     * Refreshes the range index entry of the given node, whose second bound depends on its sinks
+     */
+    public void rangeIndexedSinkChanged(final AlphaNode alphaNode) {
+        if ( !AlphaRangeIndex.isRangeIndexable( alphaNode ) ) {
+            return;
+        }
+        final AlphaRangeIndex rangeIndex = findRangeIndex( ( (IndexableConstraint) alphaNode.getConstraint() ).getFieldExtractor().getIndex() );
+        if ( rangeIndex != null && rangeIndex.isIndexed() ) {
+            rangeIndex.sinksChanged( alphaNode );
+        }
+    }
+
+    private AlphaRangeIndex registerRangeIndex(final AlphaNode alphaNode) {
+        final InternalReadAccessor fieldExtractor = ( (IndexableConstraint) alphaNode.getConstraint() ).getFieldExtractor();
+        if ( this.rangeIndexes == null ) {
+            this.rangeIndexes = new LinkedList<AlphaRangeIndex>();
+        }
+
+        AlphaRangeIndex rangeIndex = findRangeIndex( fieldExtractor.getIndex() );
+        if ( rangeIndex == null ) {
+            rangeIndex = new AlphaRangeIndex( fieldExtractor.getIndex(),
+                                              fieldExtractor );
+            this.rangeIndexes.add( rangeIndex );
+        }
+
+        rangeIndex.increaseCounter();
+
+        return rangeIndex;
+    }
+
+    private AlphaRangeIndex unregisterRangeIndex(final AlphaNode alphaNode) {
+        final AlphaRangeIndex rangeIndex = findRangeIndex( ( (IndexableConstraint) alphaNode.getConstraint() ).getFieldExtractor().getIndex() );
+        rangeIndex.decreaseCounter();
+
+        // if the count is 0 then remove it from the linkedlist
+        if ( rangeIndex.getCount() == 0 ) {
+            this.rangeIndexes.remove( rangeIndex );
+
+            // if the linkedlist is empty then null it
+            if ( this.rangeIndexes.isEmpty() ) {
+                this.rangeIndexes = null;
+            }
+        }
+
+        return rangeIndex;
+    }
+
+    private AlphaRangeIndex findRangeIndex(final int index) {
+        if ( this.rangeIndexes == null ) {
+            return null;
+        }
+        for ( AlphaRangeIndex node = this.rangeIndexes.getFirst(); node != null; node = node.getNext() ) {
+            if ( node.getIndex() == index ) {
+                return node;
+            }
+        }
+
+        return null;
+    }
+
+    void indexStringSinks(final AlphaStringIndex stringIndex) {
+        final int index = stringIndex.getIndex();
+
+        if ( this.otherSinks != null ) {
+            ObjectSinkNode currentSink = this.otherSinks.getFirst();
+            while ( currentSink != null ) {
+                final ObjectSinkNode sink = currentSink;
+                // position to the next sink now because the current one may be moved to the string index
+                currentSink = currentSink.getNextObjectSinkNode();
+
+                if ( sink.getType() == NodeTypeEnums.AlphaNode && AlphaStringIndex.isStringIndexable( (AlphaNode) sink ) &&
+                     index == ( (IndexableConstraint) ( (AlphaNode) sink ).getConstraint() ).getFieldExtractor().getIndex() ) {
+                    stringIndex.add( (AlphaNode) sink );
+                    this.otherSinks.remove( sink );
+                }
+            }
+
+            if ( this.otherSinks.isEmpty() ) {
+                this.otherSinks = null;
+            }
+        }
+
+        stringIndex.setIndexed( true );
+    }
+
+    void unIndexStringSinks(final AlphaStringIndex stringIndex) {
+        for ( AlphaNode alphaNode : stringIndex.getSinks() ) {
+            if ( this.otherSinks == null ) {
+                this.otherSinks = new ObjectSinkNodeList();
+            }
+            this.otherSinks.add( alphaNode );
+        }
+        stringIndex.clear();
+        stringIndex.setIndexed( false );
+    }
+
+    private AlphaStringIndex registerStringIndex(final AlphaNode alphaNode) {
+        final InternalReadAccessor fieldExtractor = ( (IndexableConstraint) alphaNode.getConstraint() ).getFieldExtractor();
+        if ( this.stringIndexes == null ) {
+            this.stringIndexes = new LinkedList<AlphaStringIndex>();
+        }
+
+        AlphaStringIndex stringIndex = findStringIndex( fieldExtractor.getIndex() );
+        if ( stringIndex == null ) {
+            stringIndex = new AlphaStringIndex( fieldExtractor.getIndex(),
+                                                fieldExtractor );
+            this.stringIndexes.add( stringIndex );
+        }
+
+        stringIndex.increaseCounter();
+
+        return stringIndex;
+    }
+
+    private AlphaStringIndex unregisterStringIndex(final AlphaNode alphaNode) {
+        final AlphaStringIndex stringIndex = findStringIndex( ( (IndexableConstraint) alphaNode.getConstraint() ).getFieldExtractor().getIndex() );
+        stringIndex.decreaseCounter();
+
+        // if the count is 0 then remove it from the linkedlist
+        if ( stringIndex.getCount() == 0 ) {
+            this.stringIndexes.remove( stringIndex );
+
+            // if the linkedlist is empty then null it
+            if ( this.stringIndexes.isEmpty() ) {
+                this.stringIndexes = null;
+            }
+        }
+
+        return stringIndex;
+    }
+
+    private AlphaStringIndex findStringIndex(final int index) {
+        if ( this.stringIndexes == null ) {
+            return null;
+        }
+        for ( AlphaStringIndex node = this.stringIndexes.getFirst(); node != null; node = node.getNext() ) {
+            if ( node.getIndex() == index ) {
+                return node;
+            }
+        }
+
+        return null;
+    }
+
     /**
      * Returns a FieldIndex which Keeps a count on how many times a particular field is used with an equality check
      * in the sinks.
@@ -373,6 +614,22 @@ public class CompositeObjectSinkAdapter extends AbstractObjectSinkAdapter {
             }
         }
 
+        if ( this.rangeIndexes != null ) {
+            for ( AlphaRangeIndex rangeIndex = this.rangeIndexes.getFirst(); rangeIndex != null; rangeIndex = rangeIndex.getNext() ) {
+                if ( rangeIndex.isIndexed() ) {
+                    propagateAssertObjectToRangeIndex( rangeIndex, factHandle, context, workingMemory );
+                }
+            }
+        }
+
+        if ( this.stringIndexes != null ) {
+            for ( AlphaStringIndex stringIndex = this.stringIndexes.getFirst(); stringIndex != null; stringIndex = stringIndex.getNext() ) {
+                if ( stringIndex.isIndexed() ) {
+                    propagateAssertObjectToStringIndex( stringIndex, factHandle, context, workingMemory );
+                }
+            }
+        }
+
         // propagate unhashed
         if ( this.hashableSinks != null ) {
             for ( ObjectSinkNode sink = this.hashableSinks.getFirst(); sink != null; sink = sink.getNextObjectSinkNode() ) {
@@ -422,6 +679,22 @@ public class CompositeObjectSinkAdapter extends AbstractObjectSinkAdapter {
             }
         }
 
+        if ( this.rangeIndexes != null ) {
+            for ( AlphaRangeIndex rangeIndex = this.rangeIndexes.getFirst(); rangeIndex != null; rangeIndex = rangeIndex.getNext() ) {
+                if ( rangeIndex.isIndexed() ) {
+                    propagateModifyObjectToRangeIndex( rangeIndex, factHandle, modifyPreviousTuples, context, workingMemory );
+                }
+            }
+        }
+
+        if ( this.stringIndexes != null ) {
+            for ( AlphaStringIndex stringIndex = this.stringIndexes.getFirst(); stringIndex != null; stringIndex = stringIndex.getNext() ) {
+                if ( stringIndex.isIndexed() ) {
+                    propagateModifyObjectToStringIndex( stringIndex, factHandle, modifyPreviousTuples, context, workingMemory );
+                }
+            }
+        }
+
         // propagate unhashed
         if ( this.hashableSinks != null ) {
             for ( ObjectSinkNode sink = this.hashableSinks.getFirst(); sink != null; sink = sink.getNextObjectSinkNode() ) {
@@ -471,6 +744,22 @@ public class CompositeObjectSinkAdapter extends AbstractObjectSinkAdapter {
             }
         }
 
+        if ( this.rangeIndexes != null ) {
+            for ( AlphaRangeIndex rangeIndex = this.rangeIndexes.getFirst(); rangeIndex != null; rangeIndex = rangeIndex.getNext() ) {
+                for ( AlphaNode sink : rangeIndex.getSinks() ) {
+                    sink.getSinkPropagator().byPassModifyToBetaNode( factHandle, modifyPreviousTuples, context, workingMemory );
+                }
+            }
+        }
+
+        if ( this.stringIndexes != null ) {
+            for ( AlphaStringIndex stringIndex = this.stringIndexes.getFirst(); stringIndex != null; stringIndex = stringIndex.getNext() ) {
+                for ( AlphaNode sink : stringIndex.getSinks() ) {
+                    sink.getSinkPropagator().byPassModifyToBetaNode( factHandle, modifyPreviousTuples, context, workingMemory );
+                }
+            }
+        }
+
         // propagate unhashed
         if ( this.hashableSinks != null ) {
             for ( ObjectSinkNode sink = this.hashableSinks.getFirst(); sink != null; sink = sink.getNextObjectSinkNode() ) {
@@ -488,6 +777,165 @@ public class CompositeObjectSinkAdapter extends AbstractObjectSinkAdapter {
         }        
     }
 
+    private void propagateAssertObjectToRangeIndex(final AlphaRangeIndex rangeIndex,
+                                                   final InternalFactHandle factHandle,
+                                                   final PropagationContext context,
+                                                   final InternalWorkingMemory workingMemory) {
+        final Object object = factHandle.getObject();
+        final InternalReadAccessor extractor = rangeIndex.getFieldExtractor();
+        if ( extractor.isNullValue( workingMemory, object ) ) {
+            return;
+        }
+        final double value = extractor.getDoubleValue( workingMemory, object );
+        if ( Double.isNaN( value ) ) {
+            return;
+        }
+
+        // the sinks whose threshold is equal to the value are on the boundary, so let them test their constraint;
+        // the intervals whose second bound is not on the boundary either bypass their second alpha node too
+        AlphaRangeIndex.Entries entries = rangeIndex.getAscending();
+        double[] thresholds = entries.getThresholds();
+        AlphaNode[] sinks = entries.getSinks();
+        double[] bounds = entries.getBounds();
+        AlphaNode[] boundSinks = entries.getBoundSinks();
+        for ( int i = entries.firstCandidate( value ), end = entries.upperBound( value ); i < end; i++ ) {
+            if ( thresholds[i] == value ) {
+                doPropagateAssertObject( factHandle, context, workingMemory, sinks[i] );
+            } else if ( boundSinks[i] == null ) {
+                sinks[i].getSinkPropagator().propagateAssertObject( factHandle, context, workingMemory );
+            } else if ( bounds[i] > value ) {
+                boundSinks[i].getSinkPropagator().propagateAssertObject( factHandle, context, workingMemory );
+            } else if ( bounds[i] == value ) {
+                doPropagateAssertObject( factHandle, context, workingMemory, boundSinks[i] );
+            }
+        }
+
+        entries = rangeIndex.getDescending();
+        thresholds = entries.getThresholds();
+        sinks = entries.getSinks();
+        bounds = entries.getBounds();
+        boundSinks = entries.getBoundSinks();
+        for ( int i = entries.lowerBound( value ), end = entries.lastCandidate( value ); i < end; i++ ) {
+            if ( thresholds[i] == value ) {
+                doPropagateAssertObject( factHandle, context, workingMemory, sinks[i] );
+            } else if ( boundSinks[i] == null ) {
+                sinks[i].getSinkPropagator().propagateAssertObject( factHandle, context, workingMemory );
+            } else if ( bounds[i] < value ) {
+                boundSinks[i].getSinkPropagator().propagateAssertObject( factHandle, context, workingMemory );
+            } else if ( bounds[i] == value ) {
+                doPropagateAssertObject( factHandle, context, workingMemory, boundSinks[i] );
+            }
+        }
+    }
+
+    private void propagateModifyObjectToRangeIndex(final AlphaRangeIndex rangeIndex,
+                                                   final InternalFactHandle factHandle,
+                                                   final ModifyPreviousTuples modifyPreviousTuples,
+                                                   final PropagationContext context,
+                                                   final InternalWorkingMemory workingMemory) {
+        final Object object = factHandle.getObject();
+        final InternalReadAccessor extractor = rangeIndex.getFieldExtractor();
+        if ( extractor.isNullValue( workingMemory, object ) ) {
+            return;
+        }
+        final double value = extractor.getDoubleValue( workingMemory, object );
+        if ( Double.isNaN( value ) ) {
+            return;
+        }
+
+        AlphaRangeIndex.Entries entries = rangeIndex.getAscending();
+        double[] thresholds = entries.getThresholds();
+        AlphaNode[] sinks = entries.getSinks();
+        double[] bounds = entries.getBounds();
+        AlphaNode[] boundSinks = entries.getBoundSinks();
+        for ( int i = entries.firstCandidate( value ), end = entries.upperBound( value ); i < end; i++ ) {
+            if ( thresholds[i] == value ) {
+                doPropagateModifyObject( factHandle, modifyPreviousTuples, context, workingMemory, sinks[i] );
+            } else if ( boundSinks[i] == null ) {
+                sinks[i].getSinkPropagator().propagateModifyObject( factHandle, modifyPreviousTuples, context, workingMemory );
+            } else if ( bounds[i] > value ) {
+                boundSinks[i].getSinkPropagator().propagateModifyObject( factHandle, modifyPreviousTuples, context, workingMemory );
+            } else if ( bounds[i] == value ) {
+                doPropagateModifyObject( factHandle, modifyPreviousTuples, context, workingMemory, boundSinks[i] );
+            }
+        }
+
+        entries = rangeIndex.getDescending();
+        thresholds = entries.getThresholds();
+        sinks = entries.getSinks();
+        bounds = entries.getBounds();
+        boundSinks = entries.getBoundSinks();
+        for ( int i = entries.lowerBound( value ), end = entries.lastCandidate( value ); i < end; i++ ) {
+            if ( thresholds[i] == value ) {
+                doPropagateModifyObject( factHandle, modifyPreviousTuples, context, workingMemory, sinks[i] );
+            } else if ( boundSinks[i] == null ) {
+                sinks[i].getSinkPropagator().propagateModifyObject( factHandle, modifyPreviousTuples, context, workingMemory );
+            } else if ( bounds[i] < value ) {
+                boundSinks[i].getSinkPropagator().propagateModifyObject( factHandle, modifyPreviousTuples, context, workingMemory );
+            } else if ( bounds[i] == value ) {
+                doPropagateModifyObject( factHandle, modifyPreviousTuples, context, workingMemory, boundSinks[i] );
+            }
+        }
+    }
+
+    private void propagateAssertObjectToStringIndex(final AlphaStringIndex stringIndex,
+                                                    final InternalFactHandle factHandle,
+                                                    final PropagationContext context,
+                                                    final InternalWorkingMemory workingMemory) {
+        final Object value = stringIndex.getFieldExtractor().getValue( workingMemory, factHandle.getObject() );
+        if ( !(value instanceof String) ) {
+            return;
+        }
+        final String string = (String) value;
+
+        // the regular expressions sharing the prefix of the value still have to test their constraint
+        AlphaStringIndex.TrieNode node = stringIndex.getPrefixes();
+        for ( int i = 0; node != null; node = i < string.length() ? node.getChild( string.charAt( i++ ) ) : null ) {
+            for ( AlphaNode sink : node.getAccepted() ) {
+                sink.getSinkPropagator().propagateAssertObject( factHandle, context, workingMemory );
+            }
+            for ( AlphaNode sink : node.getCandidates() ) {
+                doPropagateAssertObject( factHandle, context, workingMemory, sink );
+            }
+        }
+
+        node = stringIndex.getSuffixes();
+        for ( int i = string.length(); node != null; node = i > 0 ? node.getChild( string.charAt( --i ) ) : null ) {
+            for ( AlphaNode sink : node.getAccepted() ) {
+                sink.getSinkPropagator().propagateAssertObject( factHandle, context, workingMemory );
+            }
+        }
+    }
+
+    private void propagateModifyObjectToStringIndex(final AlphaStringIndex stringIndex,
+                                                    final InternalFactHandle factHandle,
+                                                    final ModifyPreviousTuples modifyPreviousTuples,
+                                                    final PropagationContext context,
+                                                    final InternalWorkingMemory workingMemory) {
+        final Object value = stringIndex.getFieldExtractor().getValue( workingMemory, factHandle.getObject() );
+        if ( !(value instanceof String) ) {
+            return;
+        }
+        final String string = (String) value;
+
+        AlphaStringIndex.TrieNode node = stringIndex.getPrefixes();
+        for ( int i = 0; node != null; node = i < string.length() ? node.getChild( string.charAt( i++ ) ) : null ) {
+            for ( AlphaNode sink : node.getAccepted() ) {
+                sink.getSinkPropagator().propagateModifyObject( factHandle, modifyPreviousTuples, context, workingMemory );
+            }
+            for ( AlphaNode sink : node.getCandidates() ) {
+                doPropagateModifyObject( factHandle, modifyPreviousTuples, context, workingMemory, sink );
+            }
+        }
+
+        node = stringIndex.getSuffixes();
+        for ( int i = string.length(); node != null; node = i > 0 ? node.getChild( string.charAt( --i ) ) : null ) {
+            for ( AlphaNode sink : node.getAccepted() ) {
+                sink.getSinkPropagator().propagateModifyObject( factHandle, modifyPreviousTuples, context, workingMemory );
+            }
+        }
+    }
+
     /**
      * This is a Hook method for subclasses to override. Please keep it protected unless you know
      * what you are doing.
@@ -543,6 +991,26 @@ public class CompositeObjectSinkAdapter extends AbstractObjectSinkAdapter {
                 }
             }
         }
+
+        if ( this.rangeIndexes != null ) {
+            for ( AlphaRangeIndex rangeIndex = this.rangeIndexes.getFirst(); rangeIndex != null; rangeIndex = rangeIndex.getNext() ) {
+                for ( AlphaNode sink : rangeIndex.getSinks() ) {
+                    if ( candidate.equals( sink ) ) {
+                        return sink;
+                    }
+                }
+            }
+        }
+
+        if ( this.stringIndexes != null ) {
+            for ( AlphaStringIndex stringIndex = this.stringIndexes.getFirst(); stringIndex != null; stringIndex = stringIndex.getNext() ) {
+                for ( AlphaNode sink : stringIndex.getSinks() ) {
+                    if ( candidate.equals( sink ) ) {
+                        return sink;
+                    }
+                }
+            }
+        }
         return null;
     }
 
@@ -576,6 +1044,22 @@ public class CompositeObjectSinkAdapter extends AbstractObjectSinkAdapter {
                 sinks[at++] = sink;
             }
         }
+
+        if ( this.rangeIndexes != null ) {
+            for ( AlphaRangeIndex rangeIndex = this.rangeIndexes.getFirst(); rangeIndex != null; rangeIndex = rangeIndex.getNext() ) {
+                for ( AlphaNode sink : rangeIndex.getSinks() ) {
+                    sinks[at++] = sink;
+                }
+            }
+        }
+
+        if ( this.stringIndexes != null ) {
+            for ( AlphaStringIndex stringIndex = this.stringIndexes.getFirst(); stringIndex != null; stringIndex = stringIndex.getNext() ) {
+                for ( AlphaNode sink : stringIndex.getSinks() ) {
+                    sinks[at++] = sink;
+                }
+            }
+        }
         
         if ( this.otherSinks != null ) {
             for ( ObjectSinkNode sink = this.otherSinks.getFirst(); sink != null; sink = sink.getNextObjectSinkNode() ) {
@@ -605,7 +1089,27 @@ public class CompositeObjectSinkAdapter extends AbstractObjectSinkAdapter {
     }     
 
     public int size() {
-        return (this.otherSinks != null ? this.otherSinks.size() : 0) + (this.hashableSinks != null ? this.hashableSinks.size() : 0) + (this.hashedSinkMap != null ? this.hashedSinkMap.size() : 0);
+        return (this.otherSinks != null ? this.otherSinks.size() : 0) + (this.hashableSinks != null ? this.hashableSinks.size() : 0) + (this.hashedSinkMap != null ? this.hashedSinkMap.size() : 0) + rangeIndexedSize() + stringIndexedSize();
+    }
+
+    private int rangeIndexedSize() {
+        int size = 0;
+        if ( this.rangeIndexes != null ) {
+            for ( AlphaRangeIndex rangeIndex = this.rangeIndexes.getFirst(); rangeIndex != null; rangeIndex = rangeIndex.getNext() ) {
+                size += rangeIndex.size();
+            }
+        }
+        return size;
+    }
+
+    private int stringIndexedSize() {
+        int size = 0;
+        if ( this.stringIndexes != null ) {
+            for ( AlphaStringIndex stringIndex = this.stringIndexes.getFirst(); stringIndex != null; stringIndex = stringIndex.getNext() ) {
+                size += stringIndex.size();
+            }
+        }
+        return size;
     }
 
     public static class HashKey
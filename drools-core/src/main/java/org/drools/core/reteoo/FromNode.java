@@ -29,6 +29,7 @@ import org.drools.core.marshalling.impl.ProtobufInputMarshaller;
 import org.drools.core.marshalling.impl.ProtobufInputMarshaller.TupleKey;
 import org.drools.core.marshalling.impl.ProtobufMessages;
 import org.drools.core.marshalling.impl.ProtobufMessages.FactHandle;
+import org.drools.core.phreak.ReactiveContainer;
 import org.drools.core.reteoo.builder.BuildContext;
 import org.drools.core.rule.ContextEntry;
 import org.drools.core.rule.From;
@@ -42,6 +43,9 @@ import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -311,7 +315,151 @@ public class FromNode extends LeftTupleSource
         public void reset() {
             this.betaMemory.reset();
             this.providerContext = dataProvider.createContext();
+            synchronized ( this ) {
+                this.reactiveMatches = null;
+            }
+        }
+
+        private List<ReactiveMatches> reactiveMatches;
+
+        /**
+         * Schedules the evaluation of the changes collected by the given matches
+         */
+        void addReactiveMatches(ReactiveMatches matches,
+                                InternalWorkingMemory wm) {
+            synchronized ( this ) {
+                if ( reactiveMatches == null ) {
+                    reactiveMatches = new ArrayList<ReactiveMatches>();
+                }
+                reactiveMatches.add( matches );
+            }
+            betaMemory.setNodeDirty( wm );
+        }
+
+        public boolean hasReactiveMatches() {
+            return reactiveMatches != null;
+        }
+
+        /**
+         * Returns the matches with changes to be evaluated, and resets them
+         */
+        public List<ReactiveMatches> takeReactiveMatches() {
+            synchronized ( this ) {
+                List<ReactiveMatches> matches = reactiveMatches;
+                reactiveMatches = null;
+                betaMemory.setNodeCleanWithoutNotify();
+                return matches != null ? matches : Collections.<ReactiveMatches>emptyList();
+            }
+        }
+    }
+
+    /**
+     * The matches of a left tuple whose results are the elements of a {@link ReactiveContainer}. They observe
+     * the container, collecting the net changes of each element until the node is evaluated again, so that
+     * only the elements added, removed or modified are propagated. The elements are matched by identity.
+     */
+    public static class ReactiveMatches extends IdentityHashMap<Object, RightTuple>
+        implements
+        ReactiveContainer.Observer {
+
+        private final ReactiveContainer     container;
+        private final LeftTuple             leftTuple;
+        private final FromMemory            fm;
+        private final InternalWorkingMemory wm;
+
+        private Map<Object, ElementChange>  changes;
+        private boolean                     active = true;
+
+        public ReactiveMatches(ReactiveContainer container,
+                               LeftTuple leftTuple,
+                               FromMemory fm,
+                               InternalWorkingMemory wm) {
+            this.container = container;
+            this.leftTuple = leftTuple;
+            this.fm = fm;
+            this.wm = wm;
+            container.addObserver( this );
+        }
+
+        public ReactiveContainer getContainer() {
+            return container;
+        }
+
+        public LeftTuple getLeftTuple() {
+            return leftTuple;
+        }
+
+        public void elementAdded(Object element) {
+            change( element, 1, false );
         }
+
+        public void elementRemoved(Object element) {
+            change( element, -1, false );
+        }
+
+        public void elementModified(Object element) {
+            change( element, 0, true );
+        }
+
+        private void change(Object element,
+                            int count,
+                            boolean modified) {
+            boolean schedule = false;
+            synchronized ( this ) {
+                if ( changes == null ) {
+                    changes = new IdentityHashMap<Object, ElementChange>();
+                    schedule = active;
+                }
+                ElementChange change = changes.get( element );
+                if ( change == null ) {
+                    change = new ElementChange();
+                    changes.put( element, change );
+                }
+                change.count += count;
+                change.modified |= modified;
+            }
+            if ( schedule ) {
+                fm.addReactiveMatches( this, wm );
+            }
+        }
+
+        /**
+         * Returns the changes collected since the last call, or null if there are none
+         */
+        public synchronized Map<Object, ElementChange> takeChanges() {
+            Map<Object, ElementChange> taken = changes;
+            changes = null;
+            return taken;
+        }
+
+        /**
+         * Stops observing the container, the pending changes are discarded
+         */
+        public synchronized void dispose() {
+            container.removeObserver( this );
+            active = false;
+            changes = null;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode( this );
+        }
+    }
+
+    public static class ElementChange {
+        // the number of times the element has been added, minus the times it has been removed
+        public int     count;
+        public boolean modified;
     }
     
     public LeftTuple createLeftTuple(InternalFactHandle factHandle,
@@ -39,6 +39,7 @@ import org.drools.core.marshalling.impl.PersisterHelper;
 import org.drools.core.marshalling.impl.ProtobufInputMarshaller.QueryElementContext;
 import org.drools.core.marshalling.impl.ProtobufInputMarshaller.TupleKey;
 import org.drools.core.marshalling.impl.ProtobufMessages;
+import org.drools.core.phreak.RuleNetworkEvaluator;
 import org.drools.core.phreak.StackEntry;
 import org.drools.core.reteoo.builder.BuildContext;
 import org.drools.core.rule.AbductiveQuery;
@@ -52,7 +53,13 @@ import org.kie.api.runtime.rule.Variable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -155,6 +162,13 @@ public class QueryElementNode extends LeftTupleSource
         return openQuery;
     }
 
+    /**
+     * The reactive calls of a tabled query, with the same arguments, share the same evaluation
+     */
+    public boolean isTabled() {
+        return queryElement.isTabled() && !queryElement.isAbductive();
+    }
+
 
     @SuppressWarnings("unchecked")
     public InternalFactHandle createFactHandle(final PropagationContext context,
@@ -193,6 +207,57 @@ public class QueryElementNode extends LeftTupleSource
                                          LeftTupleSets trgLeftTuples,
                                          LeftTupleSink sink,
                                          InternalWorkingMemory workingMemory) {
+        return createDroolsQuery( leftTuple, handle, stackEntry, pmems, qmem, trgLeftTuples, sink, workingMemory,
+                                  createArguments( leftTuple, workingMemory ) );
+    }
+
+    public DroolsQuery createDroolsQuery(LeftTuple leftTuple,
+                                         InternalFactHandle handle,
+                                         StackEntry stackEntry,
+                                         final List<PathMemory> pmems,
+                                         QueryElementNodeMemory qmem,
+                                         LeftTupleSets trgLeftTuples,
+                                         LeftTupleSink sink,
+                                         InternalWorkingMemory workingMemory,
+                                         Object[] args) {
+        int[] varIndexes = this.queryElement.getVariableIndexes();
+
+        boolean executeAsOpenQuery = isExecutedAsOpenQuery( leftTuple );
+
+        UnificationNodeViewChangedEventListener collector = executeAsOpenQuery && isTabled() ?
+                                                            new TabledViewChangedEventListener( leftTuple, varIndexes, this, this.tupleMemoryEnabled, args ) :
+                                                            createCollector( leftTuple, varIndexes, this.tupleMemoryEnabled );
+
+        DroolsQuery queryObject = new DroolsQuery( this.queryElement.getQueryName(),
+                                                   args,
+                                                   collector,
+                                                   executeAsOpenQuery,
+                                                   stackEntry,
+                                                   pmems,
+                                                   trgLeftTuples,
+                                                   qmem,
+                                                   sink);
+
+        collector.setFactHandle( handle );
+
+        handle.setObject( queryObject );
+
+        leftTuple.setObject( handle ); // so it can be retracted later and destroyed
+
+        return queryObject;
+    }
+
+    public boolean isExecutedAsOpenQuery(LeftTuple leftTuple) {
+        if ( openQuery ) {
+            // There is no point in doing an open query if the caller is a non-open query.
+            Object object = leftTuple.get( 0 ).getObject();
+            return !( object instanceof DroolsQuery && !((DroolsQuery) object).isOpen() );
+        }
+        return false;
+    }
+
+    public Object[] createArguments(LeftTuple leftTuple,
+                                    InternalWorkingMemory workingMemory) {
         Object[] args = new Object[argsTemplate.length]; // the actual args, to be created from the  template
 
         // first copy everything, so that we get the literals. We will rewrite the declarations and variables next
@@ -235,35 +300,7 @@ public class QueryElementNode extends LeftTupleSource
                 args[varIndex] = Variable.v;
             }
         }
-
-        UnificationNodeViewChangedEventListener collector = createCollector( leftTuple, varIndexes, this.tupleMemoryEnabled );
-        
-        boolean executeAsOpenQuery = openQuery;
-        if ( executeAsOpenQuery ) {
-            // There is no point in doing an open query if the caller is a non-open query.
-            Object object = leftTuple.get( 0 ).getObject();
-            if ( object instanceof DroolsQuery && !((DroolsQuery) object).isOpen() ) {
-                executeAsOpenQuery = false;
-            }          
-        }
-
-        DroolsQuery queryObject = new DroolsQuery( this.queryElement.getQueryName(),
-                                                   args,
-                                                   collector,
-                                                   executeAsOpenQuery,
-                                                   stackEntry,
-                                                   pmems,
-                                                   trgLeftTuples,
-                                                   qmem,
-                                                   sink);
-
-        collector.setFactHandle( handle );
-
-        handle.setObject( queryObject );
-
-        leftTuple.setObject( handle ); // so it can be retracted later and destroyed
-
-        return queryObject;
+        return args;
     }
 
     protected UnificationNodeViewChangedEventListener createCollector( LeftTuple leftTuple, int[] varIndexes, boolean tupleMemoryEnabled ) {
@@ -413,17 +450,23 @@ public class QueryElementNode extends LeftTupleSource
             }
 
             if ( pass ) {
-                LeftTupleSink sink = dquery.getLeftTupleSink();
-                LeftTuple childLeftTuple = sink.createLeftTuple( this.leftTuple, rightTuple, sink );
-                boolean stagedInsertWasEmpty = dquery.getResultLeftTupleSets().addInsert(childLeftTuple);
-                if ( stagedInsertWasEmpty ) {
-                    dquery.getQueryNodeMemory().setNodeDirtyWithoutNotify();
-                }
+                propagateResult( dquery, this.leftTuple, rightTuple );
             }
 
 
         }
 
+        protected void propagateResult(DroolsQuery dquery,
+                                       LeftTuple callerLeftTuple,
+                                       RightTuple rightTuple) {
+            LeftTupleSink sink = dquery.getLeftTupleSink();
+            LeftTuple childLeftTuple = sink.createLeftTuple( callerLeftTuple, rightTuple, sink );
+            boolean stagedInsertWasEmpty = dquery.getResultLeftTupleSets().addInsert(childLeftTuple);
+            if ( stagedInsertWasEmpty ) {
+                dquery.getQueryNodeMemory().setNodeDirtyWithoutNotify();
+            }
+        }
+
         private int determineResultSize( QueryImpl query, DroolsQuery dquery ) {
             if ( ! query.isAbductive() ) {
                 return dquery.getElements().length;
@@ -483,22 +526,29 @@ public class QueryElementNode extends LeftTupleSource
             rightTuple.setLeftTuple( null );
             resultLeftTuple.setObject( null );
 
-            DroolsQuery query = (DroolsQuery) this.factHandle.getObject();
-            LeftTupleSets leftTuples = query.getResultLeftTupleSets();
-            LeftTuple childLeftTuple = rightTuple.getFirstChild();
+            retractResult( (DroolsQuery) this.factHandle.getObject(), rightTuple );
+        }
 
-            switch ( childLeftTuple.getStagedType() ) {
-                // handle clash with already staged entries
-                case LeftTuple.INSERT :
-                    leftTuples.removeInsert( childLeftTuple );
-                    break;
-                case LeftTuple.UPDATE :
-                    leftTuples.removeUpdate( childLeftTuple );
-                    break;
+        protected void retractResult(DroolsQuery dquery,
+                                     RightTuple rightTuple) {
+            LeftTupleSets leftTuples = dquery.getResultLeftTupleSets();
+            // there is a child for each caller sharing the result, only one unless the query is tabled
+            for ( LeftTuple childLeftTuple = rightTuple.getFirstChild(); childLeftTuple != null; ) {
+                LeftTuple next = childLeftTuple.getRightParentNext();
+                switch ( childLeftTuple.getStagedType() ) {
+                    // handle clash with already staged entries
+                    case LeftTuple.INSERT :
+                        leftTuples.removeInsert( childLeftTuple );
+                        break;
+                    case LeftTuple.UPDATE :
+                        leftTuples.removeUpdate( childLeftTuple );
+                        break;
+                }
+                leftTuples.addDelete( childLeftTuple  );
+                childLeftTuple.unlinkFromRightParent();
+                childLeftTuple.unlinkFromLeftParent();
+                childLeftTuple = next;
             }
-            leftTuples.addDelete( childLeftTuple  );
-            childLeftTuple.unlinkFromRightParent();
-            childLeftTuple.unlinkFromLeftParent();
         }
 
         public void rowUpdated(final RuleImpl rule,
@@ -539,18 +589,24 @@ public class QueryElementNode extends LeftTupleSource
                 resultLeftTuple.setObject( rightTuple );
             }
 
+            updateResult( dquery, rightTuple );
+        }
+
+        protected void updateResult(DroolsQuery dquery,
+                                    RightTuple rightTuple) {
             LeftTupleSets leftTuples = dquery.getResultLeftTupleSets();
-            LeftTuple childLeftTuple = rightTuple.getFirstChild();
-            switch ( childLeftTuple.getStagedType() ) {
-                // handle clash with already staged entries
-                case LeftTuple.INSERT :
-                    leftTuples.removeInsert( childLeftTuple );
-                    break;
-                case LeftTuple.UPDATE :
-                    leftTuples.removeUpdate( childLeftTuple );
-                    break;
+            for ( LeftTuple childLeftTuple = rightTuple.getFirstChild(); childLeftTuple != null; childLeftTuple = childLeftTuple.getRightParentNext() ) {
+                switch ( childLeftTuple.getStagedType() ) {
+                    // handle clash with already staged entries
+                    case LeftTuple.INSERT :
+                        leftTuples.removeInsert( childLeftTuple );
+                        break;
+                    case LeftTuple.UPDATE :
+                        leftTuples.removeUpdate( childLeftTuple );
+                        break;
+                }
+                leftTuples.addUpdate( childLeftTuple  );
             }
-            leftTuples.addUpdate( childLeftTuple  );
         }
 
         public List<?> getResults() {
@@ -563,6 +619,206 @@ public class QueryElementNode extends LeftTupleSource
 
     }
 
+    /**
+     * The answer table of a tabled query call: it collects the results of a single evaluation of the query
+     * and propagates them to all the callers with the same arguments. Each result is a single RightTuple,
+     * with a child for each caller, so the results added, updated or removed by the evaluation reach all
+     * the callers.
+     * <p/>
+     * An answer table is a set: a result is propagated only the first time its bindings are found, and the
+     * further derivations of the same answer are only counted, so that the answer is retracted when its last
+     * derivation is removed. This is what makes a left recursive query terminate on cyclic data, as an answer
+     * found again through a cycle doesn't reach the recursive caller a second time. Note that counting can't
+     * detect answers only supporting each other: when the base derivation of a cycle is removed while the
+     * cycle itself is still there, its answers are kept until one of the cycle's facts is removed.
+     * <p/>
+     * The answer tables are kept in the QueryElementNodeMemory, so they are scoped to a session and to a call
+     * site: the callers coming from the same query element, including the recursive calls of a query to
+     * itself, share a table, while calls of the same query from different rules are evaluated separately.
+     */
+    public static class TabledViewChangedEventListener extends UnificationNodeViewChangedEventListener {
+
+        private final List<Object>    arguments;
+
+        private final List<LeftTuple> callers = new ArrayList<LeftTuple>();
+
+        private final Map<List<Object>, Answer> answers = new HashMap<List<Object>, Answer>();
+
+        private final Map<RightTuple, Answer> answersByResult = new IdentityHashMap<RightTuple, Answer>();
+
+        public TabledViewChangedEventListener(LeftTuple leftTuple,
+                                              int[] variables,
+                                              QueryElementNode node,
+                                              boolean tupleMemoryEnabled,
+                                              Object[] arguments) {
+            super( leftTuple,
+                   variables,
+                   node,
+                   tupleMemoryEnabled );
+            this.arguments = Arrays.asList( arguments );
+            this.callers.add( leftTuple );
+        }
+
+        public List<Object> getArguments() {
+            return arguments;
+        }
+
+        public boolean hasArguments(Object[] args) {
+            return arguments.equals( Arrays.asList( args ) );
+        }
+
+        public int getCallersCount() {
+            return callers.size();
+        }
+
+        @Override
+        protected void propagateResult(DroolsQuery dquery,
+                                       LeftTuple callerLeftTuple,
+                                       RightTuple rightTuple) {
+            List<Object> bindings = Arrays.asList( (Object[]) rightTuple.getFactHandle().getObject() );
+            Answer answer = answers.get( bindings );
+            if ( answer == null ) {
+                answer = new Answer( bindings, rightTuple );
+                answers.put( bindings, answer );
+            }
+            answer.count++;
+            answersByResult.put( rightTuple, answer );
+
+            if ( answer.count == 1 ) {
+                for ( int i = 0, length = callers.size(); i < length; i++ ) {
+                    super.propagateResult( dquery, callers.get( i ), rightTuple );
+                }
+            }
+        }
+
+        @Override
+        public void rowRemoved(final RuleImpl rule,
+                               final LeftTuple resultLeftTuple,
+                               final PropagationContext context,
+                               final InternalWorkingMemory workingMemory) {
+            RightTuple rightTuple = (RightTuple) resultLeftTuple.getObject();
+            rightTuple.setLeftTuple( null );
+            resultLeftTuple.setObject( null );
+
+            Answer answer = answersByResult.remove( rightTuple );
+            if ( answer != null && --answer.count == 0 ) {
+                // the last derivation of the answer is gone, its RightTuple is the one holding the callers' children
+                removeAnswer( answer );
+                retractResult( (DroolsQuery) this.factHandle.getObject(), answer.rightTuple );
+            }
+        }
+
+        @Override
+        public void rowUpdated(final RuleImpl rule,
+                               final LeftTuple resultLeftTuple,
+                               final PropagationContext context,
+                               final InternalWorkingMemory workingMemory) {
+            RightTuple rightTuple = (RightTuple) resultLeftTuple.getObject();
+            Answer answer = answersByResult.get( rightTuple );
+            if ( answer == null ) {
+                super.rowUpdated( rule, resultLeftTuple, context, workingMemory );
+                return;
+            }
+
+            if ( answer.bindings.equals( Arrays.asList( getBindings( resultLeftTuple, workingMemory ) ) ) ) {
+                // same answer, but the bound facts were modified
+                updateResult( (DroolsQuery) this.factHandle.getObject(), answer.rightTuple );
+            } else {
+                // the derivation now yields a different answer
+                rowRemoved( rule, resultLeftTuple, context, workingMemory );
+                rowAdded( rule, resultLeftTuple, context, workingMemory );
+            }
+        }
+
+        private Object[] getBindings(LeftTuple resultLeftTuple,
+                                     InternalWorkingMemory workingMemory) {
+            Declaration[] decls = ((QueryTerminalNode) resultLeftTuple.getLeftTupleSink()).getDeclarations();
+            Object[] objects = new Object[ ((DroolsQuery) this.factHandle.getObject()).getElements().length ];
+            for ( int variable : this.variables ) {
+                Declaration decl = decls[variable];
+                objects[variable] = decl.getValue( workingMemory,
+                                                   resultLeftTuple.get( decl ).getObject() );
+            }
+            return objects;
+        }
+
+        private void removeAnswer(Answer answer) {
+            if ( answers.get( answer.bindings ) == answer ) {
+                answers.remove( answer.bindings );
+            } else {
+                // the hashcode of a bound fact changed since the answer was found
+                for ( Iterator<Answer> it = answers.values().iterator(); it.hasNext(); ) {
+                    if ( it.next() == answer ) {
+                        it.remove();
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds a caller of the query, that immediately receives the results found so far
+         */
+        public void subscribe(LeftTuple callerLeftTuple) {
+            DroolsQuery dquery = (DroolsQuery) this.factHandle.getObject();
+            LeftTuple peer = callers.get( 0 );
+            callers.add( callerLeftTuple );
+            callerLeftTuple.setObject( this.factHandle );
+
+            for ( LeftTuple result = peer.getFirstChild(); result != null; result = result.getLeftParentNext() ) {
+                super.propagateResult( dquery, callerLeftTuple, result.getRightParent() );
+            }
+        }
+
+        /**
+         * Removes a caller, deleting the results it received. Returns true if it was the last caller,
+         * in which case the evaluation of the query must be retracted.
+         */
+        public boolean unsubscribe(LeftTuple callerLeftTuple,
+                                   LeftTupleSets trgLeftTuples,
+                                   LeftTupleSets stagedLeftTuples) {
+            for ( LeftTuple childLeftTuple = callerLeftTuple.getFirstChild(); childLeftTuple != null; ) {
+                childLeftTuple = RuleNetworkEvaluator.deleteLeftChild( childLeftTuple, trgLeftTuples, stagedLeftTuples );
+            }
+
+            for ( int i = 0, length = callers.size(); i < length; i++ ) {
+                if ( callers.get( i ) == callerLeftTuple ) {
+                    callers.remove( i );
+                    break;
+                }
+            }
+            return callers.isEmpty();
+        }
+
+        /**
+         * Propagates the update of a caller, whose arguments didn't change, to the results it received
+         */
+        public void update(LeftTuple callerLeftTuple,
+                           LeftTupleSets trgLeftTuples) {
+            for ( LeftTuple childLeftTuple = callerLeftTuple.getFirstChild(); childLeftTuple != null; childLeftTuple = childLeftTuple.getLeftParentNext() ) {
+                if ( childLeftTuple.getStagedType() == LeftTuple.NONE ) {
+                    trgLeftTuples.addUpdate( childLeftTuple );
+                }
+            }
+        }
+
+        /**
+         * A distinct answer of the table, with the RightTuple propagated to the callers and the number
+         * of derivations that found it
+         */
+        private static class Answer {
+            private final List<Object> bindings;
+            private final RightTuple   rightTuple;
+            private int                count;
+
+            private Answer(List<Object> bindings,
+                           RightTuple rightTuple) {
+                this.bindings = bindings;
+                this.rightTuple = rightTuple;
+            }
+        }
+    }
+
     public LeftTuple createLeftTuple(InternalFactHandle factHandle,
                                      LeftTupleSink sink,
                                      boolean leftTupleMemoryEnabled) {
@@ -650,6 +906,8 @@ public class QueryElementNode extends LeftTupleSource
 
         private long          nodePosMaskBit;
 
+        private Map<List<Object>, TabledViewChangedEventListener> answerTables;
+
         public QueryElementNodeMemory(QueryElementNode node) {
             this.node = node;
             // @FIXME I don't think this is thread safe
@@ -700,8 +958,38 @@ public class QueryElementNode extends LeftTupleSource
             smem.updateCleanNodeMask( nodePosMaskBit );
         }
 
+        public TabledViewChangedEventListener getAnswerTable(Object[] args) {
+            return answerTables != null ? answerTables.get( Arrays.asList( args ) ) : null;
+        }
+
+        public Collection<TabledViewChangedEventListener> getAnswerTables() {
+            return answerTables != null ? answerTables.values() : Collections.<TabledViewChangedEventListener>emptyList();
+        }
+
+        public void addAnswerTable(TabledViewChangedEventListener answerTable) {
+            if ( answerTables == null ) {
+                answerTables = new HashMap<List<Object>, TabledViewChangedEventListener>();
+            }
+            answerTables.put( answerTable.getArguments(), answerTable );
+        }
+
+        public void removeAnswerTable(TabledViewChangedEventListener answerTable) {
+            if ( answerTables.get( answerTable.getArguments() ) == answerTable ) {
+                answerTables.remove( answerTable.getArguments() );
+            } else {
+                // the hashcode of an argument changed since the table was added
+                for ( Iterator<TabledViewChangedEventListener> it = answerTables.values().iterator(); it.hasNext(); ) {
+                    if ( it.next() == answerTable ) {
+                        it.remove();
+                        break;
+                    }
+                }
+            }
+        }
+
         public void reset() {
             resultLeftTuples.resetAll();
+            answerTables = null;
         }
     }
 
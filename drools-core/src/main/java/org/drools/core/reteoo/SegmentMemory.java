@@ -444,6 +444,9 @@ public class SegmentMemory extends LinkedList<SegmentMemory>
             if (memory instanceof AccumulateNode.AccumulateMemory) {
                 return new AccumulateMemoryPrototype((AccumulateNode.AccumulateMemory)memory);
             }
+            if (memory instanceof FromNode.FromMemory) {
+                return new FromMemoryPrototype((FromNode.FromMemory)memory);
+            }
             return null;
         }
 
@@ -22,9 +22,12 @@ import org.drools.core.common.InternalWorkingMemory;
 import org.drools.core.common.Memory;
 import org.drools.core.common.MemoryFactory;
 import org.drools.core.common.UpdateContext;
+import org.drools.core.phreak.PhreakTimerNode.CoalescedTimerNodeJobContext;
 import org.drools.core.reteoo.builder.BuildContext;
 import org.drools.core.rule.Declaration;
 import org.drools.core.spi.PropagationContext;
+import org.drools.core.time.impl.CronTimer;
+import org.drools.core.time.impl.IntervalTimer;
 import org.drools.core.time.impl.Timer;
 import org.drools.core.util.AbstractBaseLinkedListNode;
 import org.drools.core.util.index.LeftTupleList;
@@ -33,6 +36,8 @@ import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 public class TimerNode extends LeftTupleSource
         implements
@@ -108,6 +113,20 @@ public class TimerNode extends LeftTupleSource
         return this.calendarNames;
     }
 
+    /**
+     * Returns true if the timer of this node fires at the same times for all the tuples scheduled at the
+     * same next fire time, so that those tuples can share a single job instead of one job each
+     */
+    public boolean isCoalescingTimers() {
+        if ( this.timer instanceof CronTimer ) {
+            return ((CronTimer) this.timer).isTupleIndependent();
+        }
+        if ( this.timer instanceof IntervalTimer ) {
+            return ((IntervalTimer) this.timer).isTupleIndependent();
+        }
+        return false;
+    }
+
     public Declaration[][] getDeclarations() {
         return this.declarations;
     }
@@ -277,10 +296,13 @@ public class TimerNode extends LeftTupleSource
         private SegmentMemory memory;
         private long          nodePosMaskBit;
 
+        // the shared jobs of the coalesced tuples, indexed by their next fire time
+        private Map<Long, CoalescedTimerNodeJobContext> coalescedJobs;
 
         public TimerNodeMemory() {
             this.insertOrUpdateLeftTuples = new LeftTupleList();
             this.deleteLeftTuples = new LeftTupleList();
+            this.coalescedJobs = new HashMap<Long, CoalescedTimerNodeJobContext>();
         }
 
         public LeftTupleList getInsertOrUpdateLeftTuples() {
@@ -291,6 +313,20 @@ public class TimerNode extends LeftTupleSource
             return this.deleteLeftTuples;
         }
 
+        public CoalescedTimerNodeJobContext getCoalescedJob(long nextFireTime) {
+            return this.coalescedJobs.get( nextFireTime );
+        }
+
+        public void addCoalescedJob(long nextFireTime, CoalescedTimerNodeJobContext jobCtx) {
+            this.coalescedJobs.put( nextFireTime, jobCtx );
+        }
+
+        public void removeCoalescedJob(long nextFireTime, CoalescedTimerNodeJobContext jobCtx) {
+            if ( this.coalescedJobs.get( nextFireTime ) == jobCtx ) {
+                this.coalescedJobs.remove( nextFireTime );
+            }
+        }
+
         public short getNodeType() {
             return NodeTypeEnums.TimerConditionNode;
         }
@@ -322,6 +358,7 @@ public class TimerNode extends LeftTupleSource
         public void reset() {
             insertOrUpdateLeftTuples.clear();
             deleteLeftTuples.clear();
+            coalescedJobs.clear();
         }
     }
 
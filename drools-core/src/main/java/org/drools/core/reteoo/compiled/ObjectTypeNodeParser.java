@@ -18,6 +18,7 @@ package org.drools.core.reteoo.compiled;
 
 import org.drools.core.base.ClassFieldReader;
 import org.drools.core.util.Iterator;
+import org.drools.core.util.LinkedList;
 import org.drools.core.util.ObjectHashMap;
 import org.drools.core.reteoo.*;
 import org.drools.core.rule.constraint.MvelConstraint;
@@ -82,6 +83,8 @@ public class ObjectTypeNodeParser {
 
             traverseSinkLisk(composite.getHashableSinks(), handler);
             traverseSinkLisk(composite.getOthers(), handler);
+            traverseRangeIndexedAlphaNodes(composite.getRangeIndexes(), handler);
+            traverseStringIndexedAlphaNodes(composite.getStringIndexes(), handler);
             traverseHashedAlphaNodes(composite.getHashedSinkMap(), handler);
         }
     }
@@ -117,6 +120,27 @@ public class ObjectTypeNodeParser {
         }
     }
 
+    private void traverseRangeIndexedAlphaNodes(LinkedList<AlphaRangeIndex> rangeIndexes, NetworkHandler handler) {
+        if (rangeIndexes != null) {
+            // the compiled network evaluates the range constraints by itself, so these are handled as plain alpha nodes
+            for (AlphaRangeIndex rangeIndex = rangeIndexes.getFirst(); rangeIndex != null; rangeIndex = rangeIndex.getNext()) {
+                for (AlphaNode alphaNode : rangeIndex.getSinks()) {
+                    traverseSink(alphaNode, handler);
+                }
+            }
+        }
+    }
+
+    private void traverseStringIndexedAlphaNodes(LinkedList<AlphaStringIndex> stringIndexes, NetworkHandler handler) {
+        if (stringIndexes != null) {
+            for (AlphaStringIndex stringIndex = stringIndexes.getFirst(); stringIndex != null; stringIndex = stringIndex.getNext()) {
+                for (AlphaNode alphaNode : stringIndex.getSinks()) {
+                    traverseSink(alphaNode, handler);
+                }
+            }
+        }
+    }
+
     private void traverseHashedAlphaNodes(ObjectHashMap hashedAlphaNodes, NetworkHandler handler) {
         if (hashedAlphaNodes != null && hashedAlphaNodes.size() > 0) {
             AlphaNode firstAlpha = getFirstAlphaNode(hashedAlphaNodes);
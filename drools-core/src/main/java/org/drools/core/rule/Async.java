@@ -0,0 +1,33 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.rule;
+
+/**
+ * Marks a rule whose consequence only has side effects outside of the session: instead of being
+ * evaluated on the thread firing the rules, it is handed over to the asynchronous consequence executor
+ * of the session. The consequence can read the declarations of the rule and the globals, but it cannot
+ * use the knowledge helper (drools or kcontext), nor any of the working memory actions, and the rule
+ * is reported as a build error if it does.
+ * <p>
+ * The consequences of the same rule are executed in firing order. When a key is given, it names a
+ * declaration of the rule: only the consequences with equal values for it are executed in order,
+ * the others can run in parallel.
+ */
+public @interface Async {
+
+    String key() default "";
+}
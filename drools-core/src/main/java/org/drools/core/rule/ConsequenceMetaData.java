@@ -11,12 +11,17 @@ public class ConsequenceMetaData implements Externalizable {
 
     private List<Statement> statements;
 
+    // true when the consequence uses the knowledge helper, i.e. it may act on the working memory
+    private boolean workingMemoryAccess;
+
     public void writeExternal(ObjectOutput out) throws IOException {
         out.writeObject( statements );
+        out.writeBoolean( workingMemoryAccess );
     }
 
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
         statements = (List<Statement>) in.readObject();
+        workingMemoryAccess = in.readBoolean();
     }
 
     public List<Statement> getStatements() {
@@ -30,6 +35,14 @@ public class ConsequenceMetaData implements Externalizable {
         statements.add(statement);
     }
 
+    public boolean hasWorkingMemoryAccess() {
+        return workingMemoryAccess;
+    }
+
+    public void setWorkingMemoryAccess(boolean workingMemoryAccess) {
+        this.workingMemoryAccess = workingMemoryAccess;
+    }
+
     @Override
     public String toString() {
         return statements != null ? statements.toString() : "";
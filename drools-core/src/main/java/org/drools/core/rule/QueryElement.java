@@ -38,6 +38,7 @@ public class QueryElement extends ConditionalElement
     private int[]         variableIndexes;
     private boolean       openQuery;
     private boolean       abductive;
+    private boolean       tabled;
 
     private Declaration[] requiredDeclarations;
 
@@ -53,6 +54,18 @@ public class QueryElement extends ConditionalElement
                         int[] variableIndexes, 
                         boolean openQuery,
                         boolean abductive) {
+        this( resultPattern, queryName, argTemplate, requiredDeclarations, declIndexes, variableIndexes, openQuery, abductive, false );
+    }
+
+    public QueryElement(Pattern       resultPattern,
+                        String queryName,
+                        Object[] argTemplate,
+                        Declaration[] requiredDeclarations,
+                        int[] declIndexes,
+                        int[] variableIndexes,
+                        boolean openQuery,
+                        boolean abductive,
+                        boolean tabled) {
         this.resultPattern = resultPattern;
         this.queryName = queryName;
         this.argTemplate = argTemplate;
@@ -61,6 +74,7 @@ public class QueryElement extends ConditionalElement
         this.variableIndexes = variableIndexes;
         this.openQuery = openQuery;
         this.abductive = abductive;
+        this.tabled = tabled;
     }
     
     
@@ -73,6 +87,7 @@ public class QueryElement extends ConditionalElement
        out.writeObject( this.variableIndexes );
        out.writeBoolean( this.openQuery );
         out.writeBoolean( this.abductive );
+        out.writeBoolean( this.tabled );
     }
 
     public void readExternal(ObjectInput in) throws IOException,
@@ -90,6 +105,7 @@ public class QueryElement extends ConditionalElement
         this.variableIndexes = ( int[] ) in.readObject();
         this.openQuery = in.readBoolean();
         this.abductive = in.readBoolean();
+        this.tabled = in.readBoolean();
     }
     
 
@@ -145,6 +161,10 @@ public class QueryElement extends ConditionalElement
         return abductive;
     }
 
+    public boolean isTabled() {
+        return tabled;
+    }
+
     /**
      * @inheritDoc
      */
@@ -154,7 +174,7 @@ public class QueryElement extends ConditionalElement
 
     @Override
     public QueryElement clone() {
-        return new QueryElement( resultPattern.clone(), queryName, argTemplate, requiredDeclarations, declIndexes, variableIndexes, openQuery, abductive );
+        return new QueryElement( resultPattern.clone(), queryName, argTemplate, requiredDeclarations, declIndexes, variableIndexes, openQuery, abductive, tabled );
     }
 
     @Override
@@ -164,6 +184,7 @@ public class QueryElement extends ConditionalElement
                    ", declIndexes=" + Arrays.toString( declIndexes ) + ", variableIndexes="+ Arrays.toString( variableIndexes ) + 
                    ", openQuery=" + openQuery + 
                    ", abductive=" + abductive +
+                   ", tabled=" + tabled +
                    ", requiredDeclarations=" + Arrays.toString( requiredDeclarations ) + "]";
     }
 
@@ -175,6 +196,7 @@ public class QueryElement extends ConditionalElement
         result = prime * result + Arrays.hashCode( declIndexes );
         result = prime * result + (openQuery ? 1231 : 1237);
         result = prime * result + (abductive ? 1231 : 1237);
+        result = prime * result + (tabled ? 1231 : 1237);
         result = prime * result + ((queryName == null) ? 0 : queryName.hashCode());
         result = prime * result + Arrays.hashCode( requiredDeclarations );
         result = prime * result + ((resultPattern == null) ? 0 : resultPattern.hashCode());
@@ -194,6 +216,7 @@ public class QueryElement extends ConditionalElement
                              other.declIndexes ) ) return false;
         if ( openQuery != other.openQuery ) return false;
         if ( abductive != other.abductive ) return false;
+        if ( tabled != other.tabled ) return false;
         if ( queryName == null ) {
             if ( other.queryName != null ) return false;
         } else if ( !queryName.equals( other.queryName ) ) return false;
@@ -33,6 +33,8 @@ public class QueryImpl extends RuleImpl implements Query {
     
     private Declaration[] parameters;
 
+    private boolean tabled;
+
     public QueryImpl(final String name) {
         super( name );
         setActivationListener( "query" );
@@ -41,11 +43,13 @@ public class QueryImpl extends RuleImpl implements Query {
     public void writeExternal(ObjectOutput out) throws IOException {
         super.writeExternal( out );
         out.writeObject( parameters );
+        out.writeBoolean( tabled );
     }
     
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
         super.readExternal(in);
         this.parameters = ( Declaration[] ) in.readObject();
+        this.tabled = in.readBoolean();
     }
 
     /**
@@ -77,4 +81,12 @@ public class QueryImpl extends RuleImpl implements Query {
         return false;
     }
 
+    public boolean isTabled() {
+        return tabled;
+    }
+
+    public void setTabled(boolean tabled) {
+        this.tabled = tabled;
+    }
+
 }
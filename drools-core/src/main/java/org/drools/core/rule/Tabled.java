@@ -0,0 +1,28 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.rule;
+
+/**
+ * Marks a query as tabled: the reactive calls of the query made by the same query element with
+ * identical arguments share a single evaluation, whose answers are maintained incrementally as the
+ * facts change and are propagated to all the callers. A call with the same arguments as an enclosing
+ * call subscribes to its answers instead of evaluating the query again, so left recursive queries
+ * terminate on acyclic data.
+ */
+public @interface Tabled {
+
+}
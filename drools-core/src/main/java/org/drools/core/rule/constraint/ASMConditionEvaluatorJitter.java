@@ -364,7 +364,7 @@ public class ASMConditionEvaluatorJitter {
                     }
                     break;
                 case MATCHES:
-                    invokeVirtual(type, "matches", boolean.class, String.class);
+                    invokeStatic(EvaluatorHelper.class, "matches", boolean.class, String.class, String.class);
                     break;
                 case SOUNDSLIKE:
                     invokeStatic(EvaluatorHelper.class, "soundslike", boolean.class, String.class, String.class);
@@ -9,9 +9,17 @@ import org.mvel2.util.Soundex;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
 
 public class EvaluatorHelper {
 
+    private static final int MAX_CACHED_PATTERNS = 1024;
+
+    // the regular expressions of the matches against a variable are only known at evaluation time
+    private static final ConcurrentMap<String, Pattern> PATTERN_CACHE = new ConcurrentHashMap<String, Pattern>();
+
     private EvaluatorHelper() { }
 
     public static Map<String, Object> valuesAsMap(Object object, InternalWorkingMemory workingMemory, LeftTuple leftTuple, Declaration[] declarations) {
@@ -61,6 +69,26 @@ public class EvaluatorHelper {
         return soundex1 != null && soundex1.equals(Soundex.soundex(value2));
     }
 
+    public static boolean matches(String value, String regex) {
+        if (value == null) {
+            return false;
+        }
+        return getPattern(regex).matcher(value).matches();
+    }
+
+    public static Pattern getPattern(String regex) {
+        Pattern pattern = PATTERN_CACHE.get(regex);
+        if (pattern == null) {
+            if (PATTERN_CACHE.size() >= MAX_CACHED_PATTERNS) {
+                // the variable values can be unbounded, so just start over instead of tracking their usage
+                PATTERN_CACHE.clear();
+            }
+            pattern = Pattern.compile(regex);
+            PATTERN_CACHE.put(regex, pattern);
+        }
+        return pattern;
+    }
+
     public static boolean contains(Object list, Object item) {
         if (list == null) return false;
         if (list instanceof Collection) {
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.spi;
+
+/**
+ * A temporal evaluator comparing two events that can translate its parameters into the range of start
+ * timestamps the right event may have in order to satisfy it, given the left event. This allows
+ * a beta memory of events to be probed by start timestamp instead of being scanned, see
+ * {@link org.drools.core.util.index.RightTupleIndexTemporalTree}.
+ *
+ * The returned range may be wider than the one actually allowed by the evaluator, since the evaluator
+ * is still executed on each probed event, but it must never be narrower. Interval.MIN and Interval.MAX
+ * are used for an unbounded range.
+ */
+public interface TemporalRangeEvaluator {
+
+    /**
+     * @return false if the evaluator cannot be translated into a range, e.g. because it is negated
+     */
+    boolean isRangeIndexable();
+
+    /**
+     * @param leftStart the start timestamp of the left event
+     * @param leftEnd the end timestamp of the left event
+     * @param maxRightDuration the longest duration of the right events that can be probed
+     */
+    long getMinRightStart(long leftStart, long leftEnd, long maxRightDuration);
+
+    /**
+     * @see #getMinRightStart(long, long, long)
+     */
+    long getMaxRightStart(long leftStart, long leftEnd, long maxRightDuration);
+}
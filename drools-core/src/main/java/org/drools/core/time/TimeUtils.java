@@ -97,6 +97,37 @@ public class TimeUtils {
         return result;
     }
     
+    /**
+     * Shifts the given timestamp by the given offset, saturating to Interval.MIN
+     * and Interval.MAX, which are both read as unbounded in input and output.
+     */
+    public static long addOffset( long timestamp, long offset ) {
+        if ( timestamp == Interval.MIN || timestamp == Interval.MAX ) {
+            return timestamp;
+        }
+        if ( offset == Interval.MIN || offset == Interval.MAX ) {
+            return offset;
+        }
+        long result = timestamp + offset;
+        if ( ( ( timestamp ^ result ) & ( offset ^ result ) ) < 0 ) {
+            return offset > 0 ? Interval.MAX : Interval.MIN;
+        }
+        return result;
+    }
+
+    /**
+     * @see #addOffset(long, long)
+     */
+    public static long subtractOffset( long timestamp, long offset ) {
+        if ( offset == Interval.MIN ) {
+            return addOffset( timestamp, Interval.MAX );
+        }
+        if ( offset == Interval.MAX ) {
+            return addOffset( timestamp, Interval.MIN );
+        }
+        return addOffset( timestamp, -offset );
+    }
+
     /**
      * Parses the given time String and returns the corresponding time
      * in milliseconds
@@ -88,6 +88,14 @@ public class    IntervalTimer extends BaseTimer
         return this.endTime != null ? this.endTime.getMVELCompilationUnit().getPreviousDeclarations() : null;
     }
 
+    /**
+     * Returns true if the fire times of this timer do not depend on the matched tuple, so that
+     * all the tuples scheduled for the same next fire time keep firing together
+     */
+    public boolean isTupleIndependent() {
+        return this.startTime == null && this.endTime == null && this.repeatLimit < 0;
+    }
+
     public Declaration[][] getTimerDeclarations(Map<String, Declaration> outerDeclrs) {
         return new Declaration[][] { sortDeclarations(outerDeclrs, getStartDeclarations()),
                                      sortDeclarations(outerDeclrs, getEndDeclarations()) };
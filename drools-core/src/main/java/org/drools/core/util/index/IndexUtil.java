@@ -7,14 +7,18 @@ import org.drools.core.reteoo.LeftTupleMemory;
 import org.drools.core.reteoo.NodeTypeEnums;
 import org.drools.core.reteoo.RightTupleMemory;
 import org.drools.core.rule.ContextEntry;
+import org.drools.core.rule.Declaration;
 import org.drools.core.rule.IndexableConstraint;
+import org.drools.core.rule.constraint.EvaluatorConstraint;
 import org.drools.core.rule.constraint.MvelConstraint;
 import org.drools.core.spi.BetaNodeFieldConstraint;
 import org.drools.core.spi.Constraint;
+import org.drools.core.spi.TemporalRangeEvaluator;
 import org.drools.core.util.AbstractHashTable.FieldIndex;
 import org.kie.internal.conf.IndexPrecedenceOption;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
@@ -24,6 +28,8 @@ public class IndexUtil {
 
     private static final boolean USE_COMPARISON_INDEX = true;
     private static final boolean USE_RANGE_INDEX = USE_COMPARISON_INDEX && false;
+    private static final boolean USE_TEMPORAL_INDEX = true;
+    private static final boolean USE_INVERTED_INDEX = true;
 
     public static boolean compositeAllowed(BetaNodeFieldConstraint[] constraints, short betaNodeType) {
         // 1) If there is 1 or more unification restrictions it cannot be composite
@@ -56,6 +62,57 @@ public class IndexUtil {
         return constraint instanceof IndexableConstraint && ((IndexableConstraint)constraint).isIndexable(nodeType);
     }
 
+    private static boolean canHaveTemporalIndex(short nodeType) {
+        // nots and exists look for a new blocker with a full iteration, that the temporal tree doesn't provide
+        return USE_TEMPORAL_INDEX && nodeType == NodeTypeEnums.JoinNode;
+    }
+
+    private static boolean canHaveInvertedIndex(short nodeType) {
+        return USE_INVERTED_INDEX && nodeType == NodeTypeEnums.JoinNode;
+    }
+
+    private static boolean isInvertedIndexable(BetaNodeFieldConstraint constraint) {
+        if ( !(constraint instanceof IndexableConstraint) ) {
+            return false;
+        }
+        IndexableConstraint indexableConstraint = (IndexableConstraint) constraint;
+        if ( !indexableConstraint.getConstraintType().isCollectionMatch() || indexableConstraint.isUnification() ) {
+            return false;
+        }
+        Declaration declaration = indexableConstraint.getFieldIndex().getDeclaration();
+        boolean contains = indexableConstraint.getConstraintType() == ConstraintType.CONTAINS;
+        Class<?> collectionClass = contains ?
+                                   indexableConstraint.getFieldExtractor().getExtractToClass() :
+                                   declaration.getExtractor().getExtractToClass();
+        if ( collectionClass == null || !( Collection.class.isAssignableFrom( collectionClass ) || collectionClass.isArray() ) ) {
+            return false;
+        }
+        // with contains the keys are the elements of the right collections, which can be modified without the right
+        // fact being updated, so they have to keep their hash codes. With memberOf the key is the right fact value,
+        // which is indexed again when the fact is updated
+        return !contains || hasImmutableHashCode( declaration.getExtractor().getExtractToClass() );
+    }
+
+    private static boolean hasImmutableHashCode(Class<?> clazz) {
+        return clazz != null && ( clazz.isPrimitive() || clazz.isEnum() || clazz == String.class ||
+                                  clazz == Character.class || clazz == Boolean.class ||
+                                  ( Number.class.isAssignableFrom( clazz ) && clazz.getName().startsWith( "java." ) ) );
+    }
+
+    private static boolean isTemporalIndexable(BetaNodeFieldConstraint constraint) {
+        if ( !(constraint instanceof EvaluatorConstraint) ) {
+            return false;
+        }
+        EvaluatorConstraint evaluatorConstraint = (EvaluatorConstraint) constraint;
+        if ( !evaluatorConstraint.isTemporal() || !evaluatorConstraint.isSelf() ||
+             !(evaluatorConstraint.getEvaluator() instanceof TemporalRangeEvaluator) ||
+             !((TemporalRangeEvaluator) evaluatorConstraint.getEvaluator()).isRangeIndexable() ) {
+            return false;
+        }
+        Declaration[] declarations = evaluatorConstraint.getRequiredDeclarations();
+        return declarations.length == 1 && declarations[0].isPatternDeclaration();
+    }
+
     private static boolean canHaveRangeIndex(short nodeType) {
         return USE_COMPARISON_INDEX && ( nodeType == NodeTypeEnums.NotNode || nodeType == NodeTypeEnums.ExistsNode );
     }
@@ -181,6 +238,11 @@ public class IndexUtil {
         LESS_THAN(true),
         LESS_OR_EQUAL(true),
         RANGE(true),
+        STARTS_WITH(false),
+        ENDS_WITH(false),
+        MATCHES(false),
+        CONTAINS(false),
+        MEMBER_OF(false),
         UNKNOWN(false);
 
         private final boolean indexable;
@@ -205,6 +267,14 @@ public class IndexUtil {
             return this == LESS_THAN || this == LESS_OR_EQUAL;
         }
 
+        public boolean isStringMatch() {
+            return this == STARTS_WITH || this == ENDS_WITH || this == MATCHES;
+        }
+
+        public boolean isCollectionMatch() {
+            return this == CONTAINS || this == MEMBER_OF;
+        }
+
         public boolean isIndexable() {
             return indexable;
         }
@@ -214,6 +284,11 @@ public class IndexUtil {
                 case EQUAL:
                     return true;
                 case NOT_EQUAL:
+                case STARTS_WITH:
+                case ENDS_WITH:
+                case MATCHES:
+                case CONTAINS:
+                case MEMBER_OF:
                 case UNKNOWN:
                     return false;
                 default:
@@ -243,6 +318,45 @@ public class IndexUtil {
             return UNKNOWN;
         }
 
+        /**
+         * Decodes the string operators whose literal can be combined with the ones of the sibling
+         * alpha nodes, e.g. str[startsWith] "abc" or matches "a.*c"
+         */
+        public static ConstraintType decodeStringMatch(String operator, String parameter, boolean negated) {
+            if (negated) {
+                return UNKNOWN;
+            }
+            if (operator.equals("matches")) {
+                return MATCHES;
+            }
+            if (operator.equals("str")) {
+                if ("startsWith".equals(parameter)) {
+                    return STARTS_WITH;
+                }
+                if ("endsWith".equals(parameter)) {
+                    return ENDS_WITH;
+                }
+            }
+            return UNKNOWN;
+        }
+
+        /**
+         * Decodes the collection operators that can be looked up by element with an inverted index,
+         * e.g. tags contains $tag or $tag memberOf $customer.tags
+         */
+        public static ConstraintType decodeCollectionMatch(String operator, boolean negated) {
+            if (negated) {
+                return UNKNOWN;
+            }
+            if (operator.equals("contains")) {
+                return CONTAINS;
+            }
+            if (operator.equals("memberOf")) {
+                return MEMBER_OF;
+            }
+            return UNKNOWN;
+        }
+
         public static ConstraintType getType(Constraint constraint) {
             return constraint instanceof IndexableConstraint ? ((IndexableConstraint)constraint).getConstraintType() : UNKNOWN;
         }
@@ -281,7 +395,20 @@ public class IndexUtil {
         }
 
         private static RightTupleMemory createRightMemory(RuleBaseConfiguration config, IndexSpec indexSpec) {
-            if ( !config.isIndexRightBetaMemory() || !indexSpec.constraintType.isIndexable() ) {
+            if ( !config.isIndexRightBetaMemory() ) {
+                return new RightTupleList();
+            }
+
+            if ( !indexSpec.constraintType.isIndexable() ) {
+                if ( indexSpec.temporalConstraint != null ) {
+                    return new RightTupleIndexTemporalTree( indexSpec.temporalConstraint.getRequiredDeclarations()[0],
+                                                            (TemporalRangeEvaluator) indexSpec.temporalConstraint.getEvaluator() );
+                }
+                if ( indexSpec.collectionConstraint != null ) {
+                    return new RightTupleInvertedIndex( indexSpec.collectionConstraint.getFieldExtractor(),
+                                                        indexSpec.collectionConstraint.getFieldIndex().getDeclaration(),
+                                                        indexSpec.collectionConstraint.getConstraintType() == ConstraintType.MEMBER_OF );
+                }
                 return new RightTupleList();
             }
 
@@ -342,6 +469,10 @@ public class IndexUtil {
             private ConstraintType ascendingConstraintType = null;
             private ConstraintType descendingConstraintType = null;
 
+            // only used when no other constraint can be indexed
+            private EvaluatorConstraint temporalConstraint = null;
+            private IndexableConstraint collectionConstraint = null;
+
             private IndexSpec(IndexPrecedenceOption indexPrecedenceOption, int keyDepth, short nodeType, BetaNodeFieldConstraint[] constraints) {
                 init(indexPrecedenceOption, keyDepth, nodeType, constraints);
             }
@@ -351,6 +482,24 @@ public class IndexUtil {
                         determineTypeWithEqualityPriority(nodeType, constraints) :
                         determineTypeWithPatternOrder(nodeType, constraints);
 
+                if (!constraintType.isIndexable() && canHaveTemporalIndex(nodeType)) {
+                    for (BetaNodeFieldConstraint constraint : constraints) {
+                        if (isTemporalIndexable(constraint)) {
+                            temporalConstraint = (EvaluatorConstraint) constraint;
+                            return;
+                        }
+                    }
+                }
+
+                if (!constraintType.isIndexable() && canHaveInvertedIndex(nodeType)) {
+                    for (BetaNodeFieldConstraint constraint : constraints) {
+                        if (isInvertedIndexable(constraint)) {
+                            collectionConstraint = (IndexableConstraint) constraint;
+                            return;
+                        }
+                    }
+                }
+
                 if (constraintType == ConstraintType.EQUAL) {
                     List<FieldIndex> indexList = new ArrayList<FieldIndex>();
                     indexList.add(((IndexableConstraint)constraints[firstIndexableConstraint]).getFieldIndex());
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.util.index;
+
+import org.drools.core.common.EventFactHandle;
+import org.drools.core.common.InternalFactHandle;
+import org.drools.core.reteoo.LeftTuple;
+import org.drools.core.reteoo.RightTuple;
+import org.drools.core.reteoo.RightTupleMemory;
+import org.drools.core.rule.Declaration;
+import org.drools.core.spi.TemporalRangeEvaluator;
+import org.drools.core.time.Interval;
+import org.drools.core.util.Entry;
+import org.drools.core.util.FastIterator;
+import org.drools.core.util.Iterator;
+import org.drools.core.util.RightTupleRBTree;
+import org.drools.core.util.RightTupleRBTree.Boundary;
+import org.drools.core.util.RightTupleRBTree.Node;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A right memory of events ordered by start timestamp, used for the joins constrained by a temporal
+ * operator between the right event and an event of the left tuple, e.g. this after[0,5m] $a.
+ *
+ * The operator translates the timestamps of the left event into the range of start timestamps the right
+ * event can have, see {@link TemporalRangeEvaluator}, so only that range is iterated. The operators
+ * constraining the end of the right event are widened by the longest duration of the events in
+ * the memory. The iteration is bounded by the fast iterator passed to getFirst, so each caller has to
+ * use its own iterator as returned by fastIterator().
+ *
+ * Since the events usually expire in start timestamp order, removing them only touches the first
+ * buckets of the tree. The right events not having a timestamp, or left tuples whose declaration is
+ * not an event, are still supported but fall back to iterating the whole memory.
+ */
+public class RightTupleIndexTemporalTree implements RightTupleMemory, Externalizable {
+
+    private RightTupleRBTree<Long> tree;
+
+    private Declaration declaration;
+    private TemporalRangeEvaluator evaluator;
+
+    private int size;
+
+    private long maxDuration;
+
+    private boolean hasUntimedTuples;
+
+    public RightTupleIndexTemporalTree() {
+        // constructor for serialisation
+    }
+
+    public RightTupleIndexTemporalTree(Declaration declaration, TemporalRangeEvaluator evaluator) {
+        this.declaration = declaration;
+        this.evaluator = evaluator;
+        tree = new RightTupleRBTree<Long>();
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeObject( tree );
+        out.writeObject( declaration );
+        out.writeObject( evaluator );
+        out.writeInt( size );
+        out.writeLong( maxDuration );
+        out.writeBoolean( hasUntimedTuples );
+    }
+
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        tree = (RightTupleRBTree<Long>) in.readObject();
+        declaration = (Declaration) in.readObject();
+        evaluator = (TemporalRangeEvaluator) in.readObject();
+        size = in.readInt();
+        maxDuration = in.readLong();
+        hasUntimedTuples = in.readBoolean();
+    }
+
+    public void add(RightTuple tuple) {
+        InternalFactHandle handle = tuple.getFactHandle();
+        long key;
+        if ( handle instanceof EventFactHandle ) {
+            key = ((EventFactHandle) handle).getStartTimestamp();
+            maxDuration = Math.max( maxDuration, ((EventFactHandle) handle).getDuration() );
+        } else {
+            key = Interval.MIN;
+            hasUntimedTuples = true;
+        }
+        RightTupleList list = tree.insert( key );
+        list.add( tuple );
+        size++;
+    }
+
+    public void remove(RightTuple tuple) {
+        RightTupleList list = tuple.getMemory();
+        list.remove( tuple );
+        if ( list.getFirst() == null ) {
+            tree.delete( ((Node<Long>) list).key );
+        }
+        if ( --size == 0 ) {
+            // the widening is only needed for the events currently in memory
+            maxDuration = 0;
+            hasUntimedTuples = false;
+        }
+    }
+
+    public void removeAdd(RightTuple tuple) {
+        remove( tuple );
+        add( tuple );
+    }
+
+    public boolean isIndexed() {
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Entry[] toArray() {
+        List<RightTuple> result = new ArrayList<RightTuple>();
+        for ( Node<Long> node = tree.first(); node != null; node = tree.findNearestNode( node.key, false, Boundary.LOWER ) ) {
+            for ( RightTuple entry = node.getFirst(); entry != null; entry = (RightTuple) entry.getNext() ) {
+                result.add( entry );
+            }
+        }
+        return result.toArray( new Entry[result.size()] );
+    }
+
+    public RightTuple getFirst(LeftTuple leftTuple, InternalFactHandle factHandle, FastIterator rightTupleIterator) {
+        long min = Interval.MIN;
+        long max = Interval.MAX;
+
+        InternalFactHandle leftHandle = leftTuple.get( declaration );
+        if ( !hasUntimedTuples && leftHandle instanceof EventFactHandle ) {
+            long leftStart = ((EventFactHandle) leftHandle).getStartTimestamp();
+            long leftEnd = ((EventFactHandle) leftHandle).getEndTimestamp();
+            min = evaluator.getMinRightStart( leftStart, leftEnd, maxDuration );
+            max = evaluator.getMaxRightStart( leftStart, leftEnd, maxDuration );
+            if ( min > max ) {
+                return null;
+            }
+        }
+
+        if ( rightTupleIterator instanceof TemporalTreeFastIterator ) {
+            ((TemporalTreeFastIterator) rightTupleIterator).upperBound = max;
+        }
+
+        Node<Long> firstNode = min == Interval.MIN ? tree.first() : tree.findNearestNode( min, true, Boundary.LOWER );
+        return firstNode == null || firstNode.key > max ? null : firstNode.getFirst();
+    }
+
+    public Iterator iterator() {
+        Node<Long> first = tree.first();
+        return new FastIterator.IteratorAdapter( fastIterator(), first != null ? first.getFirst() : null );
+    }
+
+    public boolean contains(RightTuple tuple) {
+        Node<Long> node = tree.lookup( getTimestamp( tuple ) );
+        return node != null && node.contains( tuple );
+    }
+
+    public FastIterator fastIterator() {
+        return new TemporalTreeFastIterator();
+    }
+
+    public FastIterator fullFastIterator() {
+        return new TemporalTreeFastIterator();
+    }
+
+    public FastIterator fullFastIterator(RightTuple tuple) {
+        return new TemporalTreeFastIterator();
+    }
+
+    public IndexType getIndexType() {
+        return IndexType.COMPARISON;
+    }
+
+    public void clear() {
+        tree = new RightTupleRBTree<Long>();
+        size = 0;
+        maxDuration = 0;
+        hasUntimedTuples = false;
+    }
+
+    private static long getTimestamp(RightTuple tuple) {
+        InternalFactHandle handle = tuple.getFactHandle();
+        return handle instanceof EventFactHandle ? ((EventFactHandle) handle).getStartTimestamp() : Interval.MIN;
+    }
+
+    public class TemporalTreeFastIterator implements FastIterator {
+        private long upperBound = Interval.MAX;
+
+        public Entry next(Entry object) {
+            if ( object == null ) {
+                upperBound = Interval.MAX;
+                Node<Long> firstNode = tree.first();
+                return firstNode == null ? null : firstNode.getFirst();
+            }
+            RightTuple next = (RightTuple) object.getNext();
+            if ( next != null ) {
+                return next;
+            }
+            RightTupleList bucket = ((RightTuple) object).getMemory();
+            long key = bucket != null ? ((Node<Long>) bucket).key : getTimestamp( (RightTuple) object );
+            Node<Long> node = tree.findNearestNode( key, false, Boundary.LOWER );
+            return node == null || node.key > upperBound ? null : node.getFirst();
+        }
+
+        public boolean isFullIterator() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.util.index;
+
+import org.drools.core.common.InternalFactHandle;
+import org.drools.core.reteoo.LeftTuple;
+import org.drools.core.reteoo.RightTuple;
+import org.drools.core.reteoo.RightTupleMemory;
+import org.drools.core.rule.Declaration;
+import org.drools.core.spi.InternalReadAccessor;
+import org.drools.core.util.Entry;
+import org.drools.core.util.FastIterator;
+import org.drools.core.util.Iterator;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * A right memory for the joins constrained by contains or memberOf, mapping each collection element
+ * to the right tuples it can match, e.g. for Customer( tags contains $tag ) each customer is listed
+ * under all of its tags, so the join with a $tag only iterates the customers having it.
+ *
+ * For contains the right fact holds the collection and the left tuple probes with a single value,
+ * while for memberOf the right fact holds the value and the left tuple probes with all the elements
+ * of its collection. The sets each right tuple was listed in are remembered, so it can be removed
+ * even after its collection has been modified in place, or its memberOf value has changed its hash code.
+ *
+ * All the tuples are also kept in a single list, which is their memory and is used for the full
+ * iterations. As for the comparison indexes, the tuples returned for a left tuple are not a bucket
+ * of that list, so getFirst has to be called with the iterator returned by fastIterator().
+ */
+public class RightTupleInvertedIndex implements RightTupleMemory, Externalizable {
+
+    private static final Object[] NO_KEYS = new Object[0];
+    private static final Posting[] NO_POSTINGS = new Posting[0];
+
+    private RightTupleList list;
+
+    private Map<Object, LinkedHashSet<RightTuple>> postings;
+
+    // the postings each tuple has been listed in: when it is removed its collection, or the hash codes of its
+    // keys, may have changed, so they can't be looked up again
+    private Map<RightTuple, Posting[]> tupleKeys;
+
+    private InternalReadAccessor extractor;
+    private Declaration declaration;
+
+    private boolean memberOf;
+
+    public RightTupleInvertedIndex() {
+        // constructor for serialisation
+    }
+
+    public RightTupleInvertedIndex(InternalReadAccessor extractor, Declaration declaration, boolean memberOf) {
+        this.extractor = extractor;
+        this.declaration = declaration;
+        this.memberOf = memberOf;
+        this.list = new RightTupleList();
+        this.postings = new HashMap<Object, LinkedHashSet<RightTuple>>();
+        this.tupleKeys = new IdentityHashMap<RightTuple, Posting[]>();
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeObject( list );
+        out.writeObject( postings );
+        out.writeObject( tupleKeys );
+        out.writeObject( extractor );
+        out.writeObject( declaration );
+        out.writeBoolean( memberOf );
+    }
+
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        list = (RightTupleList) in.readObject();
+        postings = (Map<Object, LinkedHashSet<RightTuple>>) in.readObject();
+        tupleKeys = (Map<RightTuple, Posting[]>) in.readObject();
+        extractor = (InternalReadAccessor) in.readObject();
+        declaration = (Declaration) in.readObject();
+        memberOf = in.readBoolean();
+    }
+
+    public void add(RightTuple tuple) {
+        list.add( tuple );
+        Object value = extractor.getValue( null, tuple.getFactHandle().getObject() );
+        Object[] keys = memberOf ? new Object[] { value } : getElements( value );
+        Posting[] tuplePostings = keys.length == 0 ? NO_POSTINGS : new Posting[keys.length];
+        for ( int i = 0; i < keys.length; i++ ) {
+            LinkedHashSet<RightTuple> tuples = postings.get( keys[i] );
+            if ( tuples == null ) {
+                tuples = new LinkedHashSet<RightTuple>();
+                postings.put( keys[i], tuples );
+            }
+            tuples.add( tuple );
+            tuplePostings[i] = new Posting( keys[i], tuples );
+        }
+        tupleKeys.put( tuple, tuplePostings );
+    }
+
+    public void remove(RightTuple tuple) {
+        Posting[] tuplePostings = tupleKeys.remove( tuple );
+        if ( tuplePostings != null ) {
+            for ( Posting posting : tuplePostings ) {
+                // the right tuple hash code is the one of its fact handle, so it can be always removed from its set
+                if ( posting.tuples.remove( tuple ) && posting.tuples.isEmpty() ) {
+                    removePosting( posting );
+                }
+            }
+        }
+        list.remove( tuple );
+    }
+
+    private void removePosting(Posting posting) {
+        if ( postings.get( posting.key ) == posting.tuples ) {
+            postings.remove( posting.key );
+            return;
+        }
+        // the hash code of the key has changed since it has been added, so it has to be searched by identity
+        for ( java.util.Iterator<LinkedHashSet<RightTuple>> it = postings.values().iterator(); it.hasNext(); ) {
+            if ( it.next() == posting.tuples ) {
+                it.remove();
+                return;
+            }
+        }
+    }
+
+    public void removeAdd(RightTuple tuple) {
+        remove( tuple );
+        add( tuple );
+    }
+
+    /**
+     * Returns the distinct elements of the given collection or array
+     */
+    private static Object[] getElements(Object collection) {
+        if ( collection instanceof Collection ) {
+            return new LinkedHashSet<Object>( (Collection<?>) collection ).toArray();
+        }
+        if ( collection != null && collection.getClass().isArray() ) {
+            LinkedHashSet<Object> elements = new LinkedHashSet<Object>();
+            for ( int i = 0, length = Array.getLength( collection ); i < length; i++ ) {
+                elements.add( Array.get( collection, i ) );
+            }
+            return elements.toArray();
+        }
+        return NO_KEYS;
+    }
+
+    public boolean isIndexed() {
+        return true;
+    }
+
+    public int size() {
+        return list.size();
+    }
+
+    public Entry[] toArray() {
+        return list.toArray();
+    }
+
+    public RightTuple getFirst(LeftTuple leftTuple, InternalFactHandle factHandle, FastIterator rightTupleIterator) {
+        InternalFactHandle leftHandle = leftTuple.get( declaration );
+        Object value = declaration.getValue( null, leftHandle.getObject() );
+        Object[] keys = memberOf ? getElements( value ) : new Object[] { value };
+
+        if ( rightTupleIterator instanceof InvertedIndexFastIterator ) {
+            return ((InvertedIndexFastIterator) rightTupleIterator).reset( keys );
+        }
+
+        // without our own iterator the tuples can only be returned as a whole
+        return list.getFirst();
+    }
+
+    public Iterator iterator() {
+        return new FastIterator.IteratorAdapter( fastIterator(), list.getFirst() );
+    }
+
+    public boolean contains(RightTuple tuple) {
+        return tupleKeys.containsKey( tuple );
+    }
+
+    public FastIterator fastIterator() {
+        return new InvertedIndexFastIterator();
+    }
+
+    public FastIterator fullFastIterator() {
+        return new InvertedIndexFastIterator();
+    }
+
+    public FastIterator fullFastIterator(RightTuple tuple) {
+        return new InvertedIndexFastIterator();
+    }
+
+    public IndexType getIndexType() {
+        // the tuples of a left tuple are not a bucket, so as for a comparison index they are always considered changed
+        return IndexType.COMPARISON;
+    }
+
+    public void clear() {
+        list.clear();
+        postings.clear();
+        tupleKeys.clear();
+    }
+
+    private static class Posting implements Serializable {
+        private final Object key;
+        private final LinkedHashSet<RightTuple> tuples;
+
+        private Posting(Object key, LinkedHashSet<RightTuple> tuples) {
+            this.key = key;
+            this.tuples = tuples;
+        }
+    }
+
+    public class InvertedIndexFastIterator implements FastIterator {
+        private Object[] keys;
+        private int keyPos;
+        private java.util.Iterator<RightTuple> current;
+
+        RightTuple reset(Object[] keys) {
+            this.keys = keys;
+            this.keyPos = 0;
+            this.current = null;
+            return nextPosting();
+        }
+
+        private RightTuple nextPosting() {
+            while ( current == null || !current.hasNext() ) {
+                if ( keyPos >= keys.length ) {
+                    return null;
+                }
+                LinkedHashSet<RightTuple> tuples = postings.get( keys[keyPos++] );
+                current = tuples != null ? tuples.iterator() : null;
+            }
+            return current.next();
+        }
+
+        public Entry next(Entry object) {
+            if ( object == null ) {
+                // a full iteration, following the list of all the tuples
+                keys = null;
+                current = null;
+                return list.getFirst();
+            }
+            return keys != null ? nextPosting() : object.getNext();
+        }
+
+        public boolean isFullIterator() {
+            return false;
+        }
+    }
+}
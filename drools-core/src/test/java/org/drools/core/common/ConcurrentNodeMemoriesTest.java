@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.core.common;
+
+import org.drools.core.RuleBaseConfiguration;
+import org.drools.core.impl.InternalKnowledgeBase;
+import org.drools.core.reteoo.AlphaNode.AlphaMemory;
+import org.junit.Test;
+import org.kie.internal.KnowledgeBaseFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentNodeMemoriesTest {
+
+    @Test
+    public void testPagesAreAllocatedOnDemand() {
+        InternalKnowledgeBase kBase = (InternalKnowledgeBase) KnowledgeBaseFactory.newKnowledgeBase();
+        ConcurrentNodeMemories memories = new ConcurrentNodeMemories( kBase );
+
+        // ids beyond the node count of the kbase only grow the directory of the pages
+        Memory mem1 = memories.getNodeMemory( new MockMemoryFactory( 3 ), null );
+        Memory mem2 = memories.getNodeMemory( new MockMemoryFactory( 10000 ), null );
+        assertTrue( memories.length() > 10000 );
+
+        assertSame( mem1, memories.peekNodeMemory( 3 ) );
+        assertSame( mem2, memories.peekNodeMemory( 10000 ) );
+        assertSame( mem1, memories.getNodeMemory( new MockMemoryFactory( 3 ), null ) );
+
+        assertNull( memories.peekNodeMemory( 4 ) );
+        assertNull( memories.peekNodeMemory( 5000 ) );
+        assertNull( memories.peekNodeMemory( 100000 ) );
+
+        memories.clearNodeMemory( new MockMemoryFactory( 3 ) );
+        assertNull( memories.peekNodeMemory( 3 ) );
+        assertSame( mem2, memories.peekNodeMemory( 10000 ) );
+
+        memories.clear();
+        assertNull( memories.peekNodeMemory( 10000 ) );
+    }
+
+    @Test(timeout = 10000)
+    public void testConcurrentCreation() throws Exception {
+        InternalKnowledgeBase kBase = (InternalKnowledgeBase) KnowledgeBaseFactory.newKnowledgeBase();
+        final ConcurrentNodeMemories memories = new ConcurrentNodeMemories( kBase );
+        final int nodes = 2000;
+        final int threads = 8;
+        final CountDownLatch start = new CountDownLatch( 1 );
+
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try {
+            Future<Memory[]>[] results = new Future[threads];
+            for ( int t = 0; t < threads; t++ ) {
+                results[t] = executor.submit( new Callable<Memory[]>() {
+                    public Memory[] call() throws Exception {
+                        start.await();
+                        Memory[] result = new Memory[nodes];
+                        // the directory grows page by page while the other threads are creating memories in it
+                        for ( int i = 0; i < nodes; i++ ) {
+                            result[i] = memories.getNodeMemory( new MockMemoryFactory( i * 7 ), null );
+                        }
+                        return result;
+                    }
+                } );
+            }
+            start.countDown();
+
+            Memory[] first = results[0].get();
+            for ( int t = 1; t < threads; t++ ) {
+                Memory[] result = results[t].get();
+                for ( int i = 0; i < nodes; i++ ) {
+                    assertSame( first[i], result[i] );
+                }
+            }
+            for ( int i = 0; i < nodes; i++ ) {
+                assertNotNull( first[i] );
+                assertSame( first[i], memories.peekNodeMemory( i * 7 ) );
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class MockMemoryFactory implements MemoryFactory {
+        private final int id;
+
+        private MockMemoryFactory(int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public Memory createMemory(RuleBaseConfiguration config, InternalWorkingMemory wm) {
+            return new AlphaMemory();
+        }
+    }
+}
@@ -28,6 +28,8 @@ import org.drools.compiler.compiler.PMMLCompiler;
 import org.drools.core.io.impl.ByteArrayResource;
 import org.drools.core.io.impl.ClassPathResource;
 import org.drools.core.util.IoUtils;
+import org.drools.pmml.pmml_4_2.evaluation.PMMLEvaluatorCompiler;
+import org.drools.pmml.pmml_4_2.evaluation.PMMLEvaluators;
 import org.kie.api.KieBase;
 import org.kie.api.KieServices;
 import org.kie.api.io.Resource;
@@ -491,6 +493,25 @@ public class PMML4Compiler implements PMMLCompiler {
         }
     }
 
+    /**
+     * Compiles the tree, regression and scorecard models of a PMML document into direct evaluators,
+     * which score records without generating nor firing any rule.
+     * The evaluators are returned in a registry owned by the caller, which can expose it to the rules as a global.
+     * Naive Bayes and clustering models are reported as warnings and have to be compiled with
+     * {@link #compile(InputStream, ClassLoader)}.
+     */
+    public PMMLEvaluators compileEvaluators( InputStream source ) {
+        this.results = new ArrayList<KnowledgeBuilderResult>();
+        PMML pmml = loadModel( PMML, source );
+        if ( pmml == null ) {
+            return new PMMLEvaluators();
+        }
+        PMMLEvaluatorCompiler evaluatorCompiler = new PMMLEvaluatorCompiler();
+        PMMLEvaluators evaluators = evaluatorCompiler.compile( pmml );
+        this.results.addAll( evaluatorCompiler.getResults() );
+        return evaluators;
+    }
+
     public List<KnowledgeBuilderResult> getResults() {
         List<KnowledgeBuilderResult> combinedResults = new ArrayList<KnowledgeBuilderResult>( this.results );
         combinedResults.addAll( visitorBuildResults );
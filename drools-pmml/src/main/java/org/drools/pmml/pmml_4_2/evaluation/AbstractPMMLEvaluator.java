@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.pmml.pmml_4_2.evaluation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class of the direct evaluators. The fields referenced by a model are resolved to
+ * positional indexes at compile time, so each record is bound once into an array of values
+ * that the compiled model reads by index.
+ */
+public abstract class AbstractPMMLEvaluator implements PMMLEvaluator {
+
+    private final String modelName;
+
+    private final FieldIndex fields;
+
+    protected AbstractPMMLEvaluator( String modelName, FieldIndex fields ) {
+        this.modelName = modelName;
+        this.fields = fields;
+    }
+
+    public String getModelName() {
+        return modelName;
+    }
+
+    public String[] getInputFields() {
+        return fields.getNames();
+    }
+
+    public Object evaluate( Map<String, ?> record ) {
+        return evaluate( fields.bind( record ) );
+    }
+
+    public List<Object> evaluate( List<? extends Map<String, ?>> records ) {
+        List<Object> results = new ArrayList<Object>( records.size() );
+        Object[] values = new Object[ fields.size() ];
+        for ( Map<String, ?> record : records ) {
+            results.add( evaluate( fields.bind( record, values ) ) );
+        }
+        return results;
+    }
+
+    protected Object[] bind( Map<String, ?> record ) {
+        return fields.bind( record );
+    }
+
+    protected abstract Object evaluate( Object[] values );
+
+    static double toDouble( Object o ) {
+        if ( o instanceof Number ) {
+            return ( (Number) o ).doubleValue();
+        }
+        return Double.parseDouble( o.toString().trim() );
+    }
+
+    static double toDouble( Object o, double defaultValue ) {
+        return o == null ? defaultValue : toDouble( o );
+    }
+
+    static boolean isMissing( Object value ) {
+        return value == null || ( value instanceof Double && ( (Double) value ).isNaN() );
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + modelName + "]";
+    }
+}
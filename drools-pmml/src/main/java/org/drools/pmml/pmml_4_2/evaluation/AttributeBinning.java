@@ -0,0 +1,201 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.pmml.pmml_4_2.evaluation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Lookup table resolving the attribute of a scorecard characteristic that matches a value,
+ * for the characteristics whose attributes all test the same field.
+ *
+ * Numeric characteristics (e.g. age bins) are turned into a sorted array of boundaries: a value
+ * is located with a binary search among the elementary intervals delimited by the boundaries, and
+ * the first matching attribute of each interval is precomputed by evaluating the attribute
+ * predicates once on a representative of that interval.
+ * Categorical characteristics are turned into a map from the category to the first matching attribute.
+ */
+final class AttributeBinning {
+
+    /**
+     * Returned by the lookups when there is no matching attribute
+     */
+    static final int NO_MATCH = -1;
+
+    /**
+     * Returned by the lookups when the value cannot be resolved by the table (e.g. a non numeric
+     * value for a numeric characteristic), so that the attribute predicates have to be evaluated
+     */
+    static final int UNRESOLVED = -2;
+
+    private final int field;
+
+    // numeric binning: segment 2i + 1 is the boundary i, segment 2i is the open interval before it
+    private final double[] boundaries;
+    private final int[] segments;
+
+    // categorical binning
+    private final Map<String, Integer> categories;
+    private final int otherAttribute;
+
+    private final int missingAttribute;
+
+    private AttributeBinning( int field, double[] boundaries, int[] segments, Map<String, Integer> categories, int otherAttribute, int missingAttribute ) {
+        this.field = field;
+        this.boundaries = boundaries;
+        this.segments = segments;
+        this.categories = categories;
+        this.otherAttribute = otherAttribute;
+        this.missingAttribute = missingAttribute;
+    }
+
+    /**
+     * Compiles the attributes of a characteristic, given by the predicates from first (included)
+     * to first + count (excluded). Returns null if the attributes do not test a single field or
+     * if their predicates cannot be tabulated.
+     */
+    static AttributeBinning compile( CompiledPredicate[] predicates, int first, int count, int numFields ) {
+        int field = -1;
+        for ( int a = first; a < first + count; a++ ) {
+            if ( !predicates[ a ].isConstant() ) {
+                field = predicates[ a ].getFirstField();
+                break;
+            }
+        }
+        if ( field < 0 ) {
+            return null;
+        }
+
+        Object[] probe = new Object[ numFields ];
+        int missingAttribute = match( predicates, first, count, probe );
+
+        TreeSet<Double> thresholds = new TreeSet<Double>();
+        if ( collectThresholds( predicates, first, count, field, thresholds ) ) {
+            double[] boundaries = new double[ thresholds.size() ];
+            int i = 0;
+            for ( Double threshold : thresholds ) {
+                boundaries[ i++ ] = threshold;
+            }
+            int[] segments = new int[ 2 * boundaries.length + 1 ];
+            for ( int s = 0; s < segments.length; s++ ) {
+                probe[ field ] = representative( boundaries, s );
+                segments[ s ] = match( predicates, first, count, probe );
+            }
+            return new AttributeBinning( field, boundaries, segments, null, NO_MATCH, missingAttribute );
+        }
+
+        Map<String, Integer> categories = new HashMap<String, Integer>();
+        int otherAttribute = NO_MATCH;
+        List<String> values = new ArrayList<String>();
+        for ( int a = first; a < first + count && otherAttribute == NO_MATCH; a++ ) {
+            CompiledPredicate predicate = predicates[ a ];
+            if ( predicate == CompiledPredicate.ALWAYS_TRUE ) {
+                // no value can get past this attribute
+                otherAttribute = a;
+            } else if ( predicate != CompiledPredicate.ALWAYS_FALSE ) {
+                values.clear();
+                if ( !predicate.collectCategories( field, values ) ) {
+                    return null;
+                }
+                for ( String value : values ) {
+                    if ( !categories.containsKey( value ) ) {
+                        categories.put( value, a );
+                    }
+                }
+            }
+        }
+        return new AttributeBinning( field, null, null, categories, otherAttribute, missingAttribute );
+    }
+
+    private static boolean collectThresholds( CompiledPredicate[] predicates, int first, int count, int field, TreeSet<Double> thresholds ) {
+        for ( int a = first; a < first + count; a++ ) {
+            if ( !predicates[ a ].collectNumericThresholds( field, thresholds ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Double representative( double[] boundaries, int segment ) {
+        if ( boundaries.length == 0 ) {
+            return 0.0;
+        }
+        int i = segment >> 1;
+        if ( ( segment & 1 ) == 1 ) {
+            return boundaries[ i ];
+        }
+        if ( i == 0 ) {
+            return Math.nextAfter( boundaries[ 0 ], Double.NEGATIVE_INFINITY );
+        }
+        // if there is no double between the two boundaries this interval is empty and never looked up
+        return Math.nextAfter( boundaries[ i - 1 ], Double.POSITIVE_INFINITY );
+    }
+
+    private static int match( CompiledPredicate[] predicates, int first, int count, Object[] values ) {
+        for ( int a = first; a < first + count; a++ ) {
+            if ( predicates[ a ].evaluate( values ) == CompiledPredicate.TRUE ) {
+                return a;
+            }
+        }
+        return NO_MATCH;
+    }
+
+    int getField() {
+        return field;
+    }
+
+    boolean isNumeric() {
+        return boundaries != null;
+    }
+
+    /**
+     * Returns the attribute matching a numeric value, where NaN stands for a missing value
+     */
+    int lookup( double value ) {
+        if ( Double.isNaN( value ) ) {
+            return missingAttribute;
+        }
+        if ( boundaries == null ) {
+            return lookupCategory( CompiledPredicate.formatValue( value ) );
+        }
+        int pos = Arrays.binarySearch( boundaries, value );
+        return segments[ pos >= 0 ? 2 * pos + 1 : -2 * ( pos + 1 ) ];
+    }
+
+    int lookup( Object value ) {
+        if ( AbstractPMMLEvaluator.isMissing( value ) ) {
+            return missingAttribute;
+        }
+        if ( boundaries == null ) {
+            return lookupCategory( CompiledPredicate.formatValue( value ) );
+        }
+        if ( value instanceof Number ) {
+            double d = ( (Number) value ).doubleValue();
+            return Double.isNaN( d ) ? UNRESOLVED : lookup( d );
+        }
+        return UNRESOLVED;
+    }
+
+    private int lookupCategory( String value ) {
+        Integer attribute = categories.get( value );
+        return attribute != null ? attribute : otherAttribute;
+    }
+}
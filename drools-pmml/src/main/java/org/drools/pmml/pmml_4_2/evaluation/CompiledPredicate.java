@@ -0,0 +1,417 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.pmml.pmml_4_2.evaluation;
+
+import org.dmg.pmml.pmml_4_2.descr.CompoundPredicate;
+import org.dmg.pmml.pmml_4_2.descr.SimplePredicate;
+import org.dmg.pmml.pmml_4_2.descr.SimpleSetPredicate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A PMML predicate compiled against a {@link FieldIndex}.
+ * Predicates are evaluated with the three-valued logic defined by the PMML specification,
+ * UNKNOWN being returned when a field the predicate depends on is missing.
+ */
+public final class CompiledPredicate {
+
+    public static final int FALSE = 0;
+    public static final int TRUE = 1;
+    public static final int UNKNOWN = -1;
+
+    private static final int KIND_TRUE = 0;
+    private static final int KIND_FALSE = 1;
+    private static final int KIND_SIMPLE = 2;
+    private static final int KIND_SET = 3;
+    private static final int KIND_AND = 4;
+    private static final int KIND_OR = 5;
+    private static final int KIND_XOR = 6;
+    private static final int KIND_SURROGATE = 7;
+
+    private static final int OP_EQUAL = 0;
+    private static final int OP_NOT_EQUAL = 1;
+    private static final int OP_LESS_THAN = 2;
+    private static final int OP_LESS_OR_EQUAL = 3;
+    private static final int OP_GREATER_THAN = 4;
+    private static final int OP_GREATER_OR_EQUAL = 5;
+    private static final int OP_IS_MISSING = 6;
+    private static final int OP_IS_NOT_MISSING = 7;
+
+    public static final CompiledPredicate ALWAYS_TRUE = new CompiledPredicate( KIND_TRUE, -1, -1, null, null, null );
+    public static final CompiledPredicate ALWAYS_FALSE = new CompiledPredicate( KIND_FALSE, -1, -1, null, null, null );
+
+    private final int kind;
+    private final int field;
+    private final int operator;
+    private final String stringValue;
+    private final double numericValue;
+    private final boolean numeric;
+    private final Set<String> set;
+    private final CompiledPredicate[] children;
+
+    private CompiledPredicate( int kind, int field, int operator, String value, Set<String> set, CompiledPredicate[] children ) {
+        this.kind = kind;
+        this.field = field;
+        this.operator = operator;
+        this.stringValue = value;
+        this.set = set;
+        this.children = children;
+        double parsed = 0.0;
+        boolean isNumber = false;
+        if ( value != null ) {
+            try {
+                parsed = Double.parseDouble( value.trim() );
+                isNumber = true;
+            } catch ( NumberFormatException nfe ) {
+                // a categorical value
+            }
+        }
+        this.numericValue = parsed;
+        this.numeric = isNumber;
+    }
+
+    /**
+     * Compiles one of the objects of the PMML "PREDICATE" group (SimplePredicate,
+     * CompoundPredicate, SimpleSetPredicate, True, False); returns null for any other object
+     */
+    public static CompiledPredicate compile( Object predicate, FieldIndex fields ) {
+        if ( predicate instanceof SimplePredicate ) {
+            SimplePredicate simple = (SimplePredicate) predicate;
+            return new CompiledPredicate( KIND_SIMPLE,
+                                          fields.indexOf( simple.getField() ),
+                                          parseOperator( String.valueOf( simple.getOperator() ) ),
+                                          simple.getValue(),
+                                          null,
+                                          null );
+        }
+        if ( predicate instanceof SimpleSetPredicate ) {
+            SimpleSetPredicate setPredicate = (SimpleSetPredicate) predicate;
+            boolean isIn = "isIn".equals( String.valueOf( setPredicate.getBooleanOperator() ) );
+            return new CompiledPredicate( KIND_SET,
+                                          fields.indexOf( setPredicate.getField() ),
+                                          isIn ? OP_EQUAL : OP_NOT_EQUAL,
+                                          null,
+                                          new HashSet<String>( tokenizeArray( setPredicate.getArray().getContent() ) ),
+                                          null );
+        }
+        if ( predicate instanceof CompoundPredicate ) {
+            CompoundPredicate compound = (CompoundPredicate) predicate;
+            List<CompiledPredicate> children = new ArrayList<CompiledPredicate>();
+            for ( Object child : compound.getSimplePredicatesAndCompoundPredicatesAndSimpleSetPredicates() ) {
+                CompiledPredicate compiled = compile( child, fields );
+                if ( compiled != null ) {
+                    children.add( compiled );
+                }
+            }
+            return new CompiledPredicate( parseBooleanOperator( String.valueOf( compound.getBooleanOperator() ) ),
+                                          -1,
+                                          -1,
+                                          null,
+                                          null,
+                                          children.toArray( new CompiledPredicate[ children.size() ] ) );
+        }
+        if ( predicate instanceof org.dmg.pmml.pmml_4_2.descr.True ) {
+            return ALWAYS_TRUE;
+        }
+        if ( predicate instanceof org.dmg.pmml.pmml_4_2.descr.False ) {
+            return ALWAYS_FALSE;
+        }
+        return null;
+    }
+
+    public int evaluate( Object[] values ) {
+        switch ( kind ) {
+            case KIND_TRUE :
+                return TRUE;
+            case KIND_FALSE :
+                return FALSE;
+            case KIND_SIMPLE :
+                return evaluateSimple( values[ field ] );
+            case KIND_SET :
+                Object value = values[ field ];
+                if ( AbstractPMMLEvaluator.isMissing( value ) ) {
+                    return UNKNOWN;
+                }
+                boolean contained = set.contains( formatValue( value ) );
+                return ( operator == OP_EQUAL ) == contained ? TRUE : FALSE;
+            case KIND_AND :
+                int and = TRUE;
+                for ( CompiledPredicate child : children ) {
+                    int res = child.evaluate( values );
+                    if ( res == FALSE ) {
+                        return FALSE;
+                    }
+                    if ( res == UNKNOWN ) {
+                        and = UNKNOWN;
+                    }
+                }
+                return and;
+            case KIND_OR :
+                int or = FALSE;
+                for ( CompiledPredicate child : children ) {
+                    int res = child.evaluate( values );
+                    if ( res == TRUE ) {
+                        return TRUE;
+                    }
+                    if ( res == UNKNOWN ) {
+                        or = UNKNOWN;
+                    }
+                }
+                return or;
+            case KIND_XOR :
+                int xor = FALSE;
+                for ( CompiledPredicate child : children ) {
+                    int res = child.evaluate( values );
+                    if ( res == UNKNOWN ) {
+                        return UNKNOWN;
+                    }
+                    xor ^= res;
+                }
+                return xor;
+            case KIND_SURROGATE :
+                for ( CompiledPredicate child : children ) {
+                    int res = child.evaluate( values );
+                    if ( res != UNKNOWN ) {
+                        return res;
+                    }
+                }
+                return UNKNOWN;
+            default :
+                throw new IllegalStateException( "Unknown predicate kind " + kind );
+        }
+    }
+
+    /**
+     * Returns true if this predicate only compares the given field against numeric values
+     * (through the relational operators and any boolean combination of them), collecting those values.
+     * On a present numeric value such a predicate can only change its outcome at the collected values.
+     */
+    boolean collectNumericThresholds( int fieldIndex, Collection<Double> thresholds ) {
+        switch ( kind ) {
+            case KIND_TRUE :
+            case KIND_FALSE :
+                return true;
+            case KIND_SIMPLE :
+                if ( field != fieldIndex || !numeric || operator == OP_IS_MISSING || operator == OP_IS_NOT_MISSING ) {
+                    return false;
+                }
+                thresholds.add( numericValue );
+                return true;
+            case KIND_SET :
+                return false;
+            default :
+                for ( CompiledPredicate child : children ) {
+                    if ( !child.collectNumericThresholds( fieldIndex, thresholds ) ) {
+                        return false;
+                    }
+                }
+                return true;
+        }
+    }
+
+    /**
+     * Returns true if this predicate holds exactly when the given field is equal to one of a set
+     * of categorical (non numeric) values, collecting those values
+     */
+    boolean collectCategories( int fieldIndex, Collection<String> categories ) {
+        switch ( kind ) {
+            case KIND_SIMPLE :
+                if ( field != fieldIndex || numeric || operator != OP_EQUAL ) {
+                    return false;
+                }
+                categories.add( stringValue );
+                return true;
+            case KIND_SET :
+                if ( field != fieldIndex || operator != OP_EQUAL ) {
+                    return false;
+                }
+                categories.addAll( set );
+                return true;
+            case KIND_OR :
+                for ( CompiledPredicate child : children ) {
+                    if ( !child.collectCategories( fieldIndex, categories ) ) {
+                        return false;
+                    }
+                }
+                return true;
+            default :
+                return false;
+        }
+    }
+
+    /**
+     * Returns the first field tested by this predicate, or -1 if it does not depend on any field
+     */
+    int getFirstField() {
+        if ( field >= 0 ) {
+            return field;
+        }
+        if ( children != null ) {
+            for ( CompiledPredicate child : children ) {
+                int childField = child.getFirstField();
+                if ( childField >= 0 ) {
+                    return childField;
+                }
+            }
+        }
+        return -1;
+    }
+
+    boolean isConstant() {
+        return kind == KIND_TRUE || kind == KIND_FALSE;
+    }
+
+    private int evaluateSimple( Object value ) {
+        if ( operator == OP_IS_MISSING ) {
+            return AbstractPMMLEvaluator.isMissing( value ) ? TRUE : FALSE;
+        }
+        if ( operator == OP_IS_NOT_MISSING ) {
+            return AbstractPMMLEvaluator.isMissing( value ) ? FALSE : TRUE;
+        }
+        if ( AbstractPMMLEvaluator.isMissing( value ) ) {
+            return UNKNOWN;
+        }
+
+        int comparison;
+        if ( numeric && ( value instanceof Number || isNumeric( value ) ) ) {
+            comparison = Double.compare( AbstractPMMLEvaluator.toDouble( value ), numericValue );
+        } else {
+            comparison = formatValue( value ).compareTo( stringValue );
+        }
+
+        switch ( operator ) {
+            case OP_EQUAL :
+                return comparison == 0 ? TRUE : FALSE;
+            case OP_NOT_EQUAL :
+                return comparison != 0 ? TRUE : FALSE;
+            case OP_LESS_THAN :
+                return comparison < 0 ? TRUE : FALSE;
+            case OP_LESS_OR_EQUAL :
+                return comparison <= 0 ? TRUE : FALSE;
+            case OP_GREATER_THAN :
+                return comparison > 0 ? TRUE : FALSE;
+            case OP_GREATER_OR_EQUAL :
+                return comparison >= 0 ? TRUE : FALSE;
+            default :
+                throw new IllegalStateException( "Unknown operator " + operator );
+        }
+    }
+
+    private static boolean isNumeric( Object value ) {
+        try {
+            Double.parseDouble( value.toString().trim() );
+            return true;
+        } catch ( NumberFormatException nfe ) {
+            return false;
+        }
+    }
+
+    /**
+     * Formats a value as it would appear in a PMML document, so that numbers like 1.0 match the "1" category
+     */
+    static String formatValue( Object value ) {
+        if ( value instanceof Double || value instanceof Float ) {
+            double d = ( (Number) value ).doubleValue();
+            if ( d == Math.rint( d ) && !Double.isInfinite( d ) ) {
+                return String.valueOf( (long) d );
+            }
+        }
+        return value.toString();
+    }
+
+    private static int parseOperator( String op ) {
+        if ( "equal".equals( op ) ) {
+            return OP_EQUAL;
+        } else if ( "notEqual".equals( op ) ) {
+            return OP_NOT_EQUAL;
+        } else if ( "lessThan".equals( op ) ) {
+            return OP_LESS_THAN;
+        } else if ( "lessOrEqual".equals( op ) ) {
+            return OP_LESS_OR_EQUAL;
+        } else if ( "greaterThan".equals( op ) ) {
+            return OP_GREATER_THAN;
+        } else if ( "greaterOrEqual".equals( op ) ) {
+            return OP_GREATER_OR_EQUAL;
+        } else if ( "isMissing".equals( op ) ) {
+            return OP_IS_MISSING;
+        } else if ( "isNotMissing".equals( op ) ) {
+            return OP_IS_NOT_MISSING;
+        }
+        throw new IllegalArgumentException( "Unsupported predicate operator " + op );
+    }
+
+    private static int parseBooleanOperator( String op ) {
+        if ( "and".equals( op ) ) {
+            return KIND_AND;
+        } else if ( "or".equals( op ) ) {
+            return KIND_OR;
+        } else if ( "xor".equals( op ) ) {
+            return KIND_XOR;
+        } else if ( "surrogate".equals( op ) ) {
+            return KIND_SURROGATE;
+        }
+        throw new IllegalArgumentException( "Unsupported boolean operator " + op );
+    }
+
+    /**
+     * Splits the content of a PMML Array on whitespaces, honouring double quoted values
+     */
+    static List<String> tokenizeArray( String content ) {
+        List<String> tokens = new ArrayList<String>();
+        if ( content == null ) {
+            return tokens;
+        }
+        StringBuilder current = null;
+        boolean quoted = false;
+        for ( int i = 0; i < content.length(); i++ ) {
+            char c = content.charAt( i );
+            if ( quoted ) {
+                if ( c == '\\' && i + 1 < content.length() && content.charAt( i + 1 ) == '"' ) {
+                    current.append( '"' );
+                    i++;
+                } else if ( c == '"' ) {
+                    quoted = false;
+                } else {
+                    current.append( c );
+                }
+            } else if ( c == '"' ) {
+                quoted = true;
+                if ( current == null ) {
+                    current = new StringBuilder();
+                }
+            } else if ( Character.isWhitespace( c ) ) {
+                if ( current != null ) {
+                    tokens.add( current.toString() );
+                    current = null;
+                }
+            } else {
+                if ( current == null ) {
+                    current = new StringBuilder();
+                }
+                current.append( c );
+            }
+        }
+        if ( current != null ) {
+            tokens.add( current.toString() );
+        }
+        return tokens;
+    }
+}
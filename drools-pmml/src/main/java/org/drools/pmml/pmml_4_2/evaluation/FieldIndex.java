@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.pmml.pmml_4_2.evaluation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns a position to each field referenced by a model while it is being compiled
+ */
+public class FieldIndex {
+
+    private final Map<String, Integer> positions = new HashMap<String, Integer>();
+    private final List<String> names = new ArrayList<String>();
+
+    public int indexOf( String fieldName ) {
+        Integer pos = positions.get( fieldName );
+        if ( pos == null ) {
+            pos = names.size();
+            positions.put( fieldName, pos );
+            names.add( fieldName );
+        }
+        return pos;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public String[] getNames() {
+        return names.toArray( new String[ names.size() ] );
+    }
+
+    Object[] bind( Map<String, ?> record ) {
+        return bind( record, new Object[ names.size() ] );
+    }
+
+    Object[] bind( Map<String, ?> record, Object[] values ) {
+        for ( int i = 0; i < values.length; i++ ) {
+            values[ i ] = record.get( names.get( i ) );
+        }
+        return values;
+    }
+}
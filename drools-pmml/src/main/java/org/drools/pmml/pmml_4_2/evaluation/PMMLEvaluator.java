@@ -0,0 +1,45 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.pmml.pmml_4_2.evaluation;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A predictive model compiled into a direct, rule-less evaluator.
+ * Records are passed as maps from the (mining) field names to their values.
+ */
+public interface PMMLEvaluator {
+
+    String getModelName();
+
+    /**
+     * Returns the names of the input fields used by the model
+     */
+    String[] getInputFields();
+
+    /**
+     * Scores a single record, returning the predicted value or null if the model can't predict it
+     */
+    Object evaluate( Map<String, ?> record );
+
+    /**
+     * Scores a batch of records, the i-th result being the prediction for the i-th record
+     */
+    List<Object> evaluate( List<? extends Map<String, ?>> records );
+
+}
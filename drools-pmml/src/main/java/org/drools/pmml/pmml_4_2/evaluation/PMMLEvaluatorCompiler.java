@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.pmml.pmml_4_2.evaluation;
+
+import org.dmg.pmml.pmml_4_2.descr.ClusteringModel;
+import org.dmg.pmml.pmml_4_2.descr.NaiveBayesModel;
+import org.dmg.pmml.pmml_4_2.descr.PMML;
+import org.dmg.pmml.pmml_4_2.descr.RegressionModel;
+import org.dmg.pmml.pmml_4_2.descr.Scorecard;
+import org.dmg.pmml.pmml_4_2.descr.TreeModel;
+import org.drools.pmml.pmml_4_2.PMMLError;
+import org.drools.pmml.pmml_4_2.PMMLWarning;
+import org.kie.internal.builder.KnowledgeBuilderResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles the models of a PMML document into direct evaluators, bypassing the generation of rules.
+ * Tree, regression and scorecard models are supported.
+ * Naive Bayes and clustering models are not compiled yet: they are reported as warnings and keep
+ * being evaluated by the rules generated from the templates by
+ * {@link org.drools.pmml.pmml_4_2.PMML4Compiler#compile(java.io.InputStream, ClassLoader)}.
+ * Any other model is reported as an error.
+ */
+public class PMMLEvaluatorCompiler {
+
+    private final List<KnowledgeBuilderResult> results = new ArrayList<KnowledgeBuilderResult>();
+
+    public PMMLEvaluators compile( PMML pmml ) {
+        PMMLEvaluators evaluators = new PMMLEvaluators();
+        for ( Object model : pmml.getAssociationModelsAndBaselineModelsAndClusteringModels() ) {
+            try {
+                PMMLEvaluator evaluator = compileModel( model );
+                if ( evaluator == null ) {
+                    continue;
+                }
+                if ( evaluators.contains( evaluator.getModelName() ) ) {
+                    results.add( new PMMLError( "Duplicate model name " + evaluator.getModelName() + ", the model can't be compiled for direct evaluation" ) );
+                } else {
+                    evaluators.register( evaluator );
+                }
+            } catch ( RuntimeException e ) {
+                results.add( new PMMLError( "Unable to compile model for direct evaluation: " + e.getMessage() ) );
+            }
+        }
+        return evaluators;
+    }
+
+    public static boolean isSupported( Object model ) {
+        return model instanceof TreeModel || model instanceof RegressionModel || model instanceof Scorecard;
+    }
+
+    /**
+     * The models that have to be evaluated by the rules generated from the PMML templates
+     */
+    public static boolean isRuleBasedOnly( Object model ) {
+        return model instanceof NaiveBayesModel || model instanceof ClusteringModel;
+    }
+
+    private PMMLEvaluator compileModel( Object model ) {
+        if ( model instanceof TreeModel ) {
+            return TreeEvaluator.compile( (TreeModel) model );
+        }
+        if ( model instanceof RegressionModel ) {
+            return RegressionEvaluator.compile( (RegressionModel) model );
+        }
+        if ( model instanceof Scorecard ) {
+            return ScorecardEvaluator.compile( (Scorecard) model );
+        }
+        if ( isRuleBasedOnly( model ) ) {
+            results.add( new PMMLWarning( null, model.getClass().getSimpleName() + " is not compiled for direct evaluation, " +
+                                                "it has to be compiled into rules with PMML4Compiler.compile" ) );
+        } else {
+            results.add( new PMMLError( "Direct evaluation is not supported for " + model.getClass().getSimpleName() ) );
+        }
+        return null;
+    }
+
+    public List<KnowledgeBuilderResult> getResults() {
+        return results;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.pmml.pmml_4_2.evaluation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The evaluators compiled from a PMML resource, by model name. Each compilation returns its own registry,
+ * so models with the same name coming from different resources don't clash, and the evaluators are
+ * released together with the knowledge base, or the session, that references the registry.
+ * The rules invoke them through a global, e.g.
+ *
+ * <pre>
+ * global org.drools.pmml.pmml_4_2.evaluation.PMMLEvaluators pmml;
+ *
+ * rule "Score"
+ * when
+ *     $app : Applicant( $record : record )
+ *     $score : ScorecardResult( score &gt; 50 ) from pmml.evaluate( "SampleScore", $record )
+ * then
+ *     ...
+ * </pre>
+ */
+public class PMMLEvaluators {
+
+    private final Map<String, PMMLEvaluator> evaluators = new ConcurrentHashMap<String, PMMLEvaluator>();
+
+    public PMMLEvaluators() { }
+
+    public PMMLEvaluators( List<PMMLEvaluator> evaluators ) {
+        for ( PMMLEvaluator evaluator : evaluators ) {
+            register( evaluator );
+        }
+    }
+
+    public void register( PMMLEvaluator evaluator ) {
+        PMMLEvaluator previous = evaluators.get( evaluator.getModelName() );
+        if ( previous != null && previous != evaluator ) {
+            throw new IllegalArgumentException( "An evaluator is already registered for model " + evaluator.getModelName() );
+        }
+        evaluators.put( evaluator.getModelName(), evaluator );
+    }
+
+    public PMMLEvaluator unregister( String modelName ) {
+        return evaluators.remove( modelName );
+    }
+
+    public boolean contains( String modelName ) {
+        return evaluators.containsKey( modelName );
+    }
+
+    public Collection<PMMLEvaluator> getEvaluators() {
+        return evaluators.values();
+    }
+
+    public PMMLEvaluator getEvaluator( String modelName ) {
+        PMMLEvaluator evaluator = evaluators.get( modelName );
+        if ( evaluator == null ) {
+            throw new IllegalArgumentException( "No evaluator registered for model " + modelName );
+        }
+        return evaluator;
+    }
+
+    public Object evaluate( String modelName, Map<String, ?> record ) {
+        return getEvaluator( modelName ).evaluate( record );
+    }
+
+    public List<Object> evaluateAll( String modelName, List<? extends Map<String, ?>> records ) {
+        return getEvaluator( modelName ).evaluate( records );
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.pmml.pmml_4_2.evaluation;
+
+import org.dmg.pmml.pmml_4_2.descr.CategoricalPredictor;
+import org.dmg.pmml.pmml_4_2.descr.FieldRef;
+import org.dmg.pmml.pmml_4_2.descr.NumericPredictor;
+import org.dmg.pmml.pmml_4_2.descr.PredictorTerm;
+import org.dmg.pmml.pmml_4_2.descr.RegressionModel;
+import org.dmg.pmml.pmml_4_2.descr.RegressionTable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates regression and classification RegressionModels, with the coefficients of each
+ * regression table stored in primitive arrays.
+ * Regression models return a Double, classification models the most probable target category.
+ * All the normalization methods but probit are supported, simplemax only for classification models:
+ * the others are rejected when the model is compiled.
+ */
+public class RegressionEvaluator extends AbstractPMMLEvaluator {
+
+    private final boolean classification;
+    private final String normalization;
+
+    private final String[] categories;
+    private final double[] intercepts;
+
+    private final int[][] numericFields;
+    private final int[][] numericExponents;
+    private final double[][] numericCoefficients;
+
+    private final int[][] categoricalFields;
+    private final String[][] categoricalValues;
+    private final double[][] categoricalCoefficients;
+
+    private final int[][][] termFields;
+    private final double[][] termCoefficients;
+
+    private RegressionEvaluator( String modelName,
+                                 FieldIndex fields,
+                                 boolean classification,
+                                 String normalization,
+                                 int tables ) {
+        super( modelName, fields );
+        this.classification = classification;
+        this.normalization = normalization;
+        this.categories = new String[ tables ];
+        this.intercepts = new double[ tables ];
+        this.numericFields = new int[ tables ][];
+        this.numericExponents = new int[ tables ][];
+        this.numericCoefficients = new double[ tables ][];
+        this.categoricalFields = new int[ tables ][];
+        this.categoricalValues = new String[ tables ][];
+        this.categoricalCoefficients = new double[ tables ][];
+        this.termFields = new int[ tables ][][];
+        this.termCoefficients = new double[ tables ][];
+    }
+
+    public boolean isClassification() {
+        return classification;
+    }
+
+    @Override
+    protected Object evaluate( Object[] values ) {
+        if ( !classification ) {
+            double y = evaluateTable( 0, values );
+            return Double.isNaN( y ) ? null : normalizeRegression( y );
+        }
+        double[] probabilities = evaluateProbabilities( values );
+        if ( probabilities == null ) {
+            return null;
+        }
+        int best = 0;
+        for ( int i = 1; i < probabilities.length; i++ ) {
+            if ( probabilities[ i ] > probabilities[ best ] ) {
+                best = i;
+            }
+        }
+        return categories[ best ];
+    }
+
+    /**
+     * Returns the probability of each target category for the given record
+     */
+    public Map<String, Double> evaluateProbabilities( Map<String, ?> record ) {
+        if ( !classification ) {
+            throw new UnsupportedOperationException( "Model " + getModelName() + " is not a classification model" );
+        }
+        double[] probabilities = evaluateProbabilities( bind( record ) );
+        if ( probabilities == null ) {
+            return null;
+        }
+        Map<String, Double> result = new LinkedHashMap<String, Double>();
+        for ( int i = 0; i < categories.length; i++ ) {
+            result.put( categories[ i ], probabilities[ i ] );
+        }
+        return result;
+    }
+
+    private double[] evaluateProbabilities( Object[] values ) {
+        int k = categories.length;
+        double[] y = new double[ k ];
+        for ( int i = 0; i < k; i++ ) {
+            y[ i ] = evaluateTable( i, values );
+            if ( Double.isNaN( y[ i ] ) ) {
+                return null;
+            }
+        }
+
+        double sum = 0.0;
+        if ( "softmax".equals( normalization ) ) {
+            for ( int i = 0; i < k; i++ ) {
+                y[ i ] = Math.exp( y[ i ] );
+                sum += y[ i ];
+            }
+            for ( int i = 0; i < k; i++ ) {
+                y[ i ] /= sum;
+            }
+        } else if ( "simplemax".equals( normalization ) ) {
+            for ( int i = 0; i < k; i++ ) {
+                sum += y[ i ];
+            }
+            for ( int i = 0; i < k; i++ ) {
+                y[ i ] /= sum;
+            }
+        } else {
+            // the last category takes the residual probability
+            for ( int i = 0; i < k - 1; i++ ) {
+                y[ i ] = normalizeRegression( y[ i ] );
+                sum += y[ i ];
+            }
+            y[ k - 1 ] = 1.0 - sum;
+        }
+        return y;
+    }
+
+    /**
+     * Fails the compilation of models whose normalization method can't be evaluated directly,
+     * rather than the first evaluation
+     */
+    private static void checkNormalization( String modelName, boolean classification, String normalization ) {
+        if ( "none".equals( normalization ) || "logit".equals( normalization ) || "softmax".equals( normalization )
+             || "exp".equals( normalization ) || "cloglog".equals( normalization ) || "loglog".equals( normalization )
+             || "cauchit".equals( normalization ) ) {
+            return;
+        }
+        if ( classification && "simplemax".equals( normalization ) ) {
+            return;
+        }
+        throw new UnsupportedOperationException( "Normalization method " + normalization + " of " +
+                                                 ( classification ? "classification" : "regression" ) + " model " +
+                                                 modelName + " is not supported by direct evaluation" );
+    }
+
+    private double normalizeRegression( double y ) {
+        if ( "none".equals( normalization ) ) {
+            return y;
+        } else if ( "logit".equals( normalization ) || "softmax".equals( normalization ) ) {
+            return 1.0 / ( 1.0 + Math.exp( -y ) );
+        } else if ( "exp".equals( normalization ) ) {
+            return Math.exp( y );
+        } else if ( "cloglog".equals( normalization ) ) {
+            return 1.0 - Math.exp( -Math.exp( y ) );
+        } else if ( "loglog".equals( normalization ) ) {
+            return Math.exp( -Math.exp( -y ) );
+        } else if ( "cauchit".equals( normalization ) ) {
+            return 0.5 + Math.atan( y ) / Math.PI;
+        }
+        throw new UnsupportedOperationException( "Normalization method " + normalization + " is not supported by direct evaluation" );
+    }
+
+    private double evaluateTable( int table, Object[] values ) {
+        double y = intercepts[ table ];
+
+        int[] nums = numericFields[ table ];
+        for ( int j = 0; j < nums.length; j++ ) {
+            Object value = values[ nums[ j ] ];
+            if ( isMissing( value ) ) {
+                return Double.NaN;
+            }
+            double x = toDouble( value );
+            int exp = numericExponents[ table ][ j ];
+            y += numericCoefficients[ table ][ j ] * ( exp == 1 ? x : Math.pow( x, exp ) );
+        }
+
+        int[] cats = categoricalFields[ table ];
+        for ( int j = 0; j < cats.length; j++ ) {
+            Object value = values[ cats[ j ] ];
+            if ( value != null && categoricalValues[ table ][ j ].equals( CompiledPredicate.formatValue( value ) ) ) {
+                y += categoricalCoefficients[ table ][ j ];
+            }
+        }
+
+        int[][] terms = termFields[ table ];
+        for ( int j = 0; j < terms.length; j++ ) {
+            double product = termCoefficients[ table ][ j ];
+            for ( int field : terms[ j ] ) {
+                Object value = values[ field ];
+                if ( isMissing( value ) ) {
+                    return Double.NaN;
+                }
+                product *= toDouble( value );
+            }
+            y += product;
+        }
+        return y;
+    }
+
+    static RegressionEvaluator compile( RegressionModel model ) {
+        List<RegressionTable> tables = new ArrayList<RegressionTable>();
+        for ( Object o : model.getExtensionsAndRegressionTablesAndMiningSchemas() ) {
+            if ( o instanceof RegressionTable ) {
+                tables.add( (RegressionTable) o );
+            }
+        }
+        if ( tables.isEmpty() ) {
+            throw new IllegalArgumentException( "Regression model " + model.getModelName() + " has no regression tables" );
+        }
+
+        boolean classification = "CLASSIFICATION".equals( String.valueOf( model.getFunctionName() ) );
+        String normalization = model.getNormalizationMethod() != null ?
+                               model.getNormalizationMethod().toString().toLowerCase() :
+                               "none";
+
+        checkNormalization( model.getModelName(), classification, normalization );
+
+        FieldIndex fields = new FieldIndex();
+        RegressionEvaluator evaluator = new RegressionEvaluator( model.getModelName(), fields, classification, normalization, tables.size() );
+        for ( int t = 0; t < tables.size(); t++ ) {
+            RegressionTable table = tables.get( t );
+            evaluator.categories[ t ] = table.getTargetCategory() != null ? table.getTargetCategory().toString() : null;
+            evaluator.intercepts[ t ] = toDouble( table.getIntercept(), 0.0 );
+
+            List<NumericPredictor> nums = table.getNumericPredictors();
+            evaluator.numericFields[ t ] = new int[ nums.size() ];
+            evaluator.numericExponents[ t ] = new int[ nums.size() ];
+            evaluator.numericCoefficients[ t ] = new double[ nums.size() ];
+            for ( int j = 0; j < nums.size(); j++ ) {
+                NumericPredictor np = nums.get( j );
+                evaluator.numericFields[ t ][ j ] = fields.indexOf( np.getName() );
+                evaluator.numericExponents[ t ][ j ] = (int) toDouble( np.getExponent(), 1.0 );
+                evaluator.numericCoefficients[ t ][ j ] = toDouble( np.getCoefficient() );
+            }
+
+            List<CategoricalPredictor> cats = table.getCategoricalPredictors();
+            evaluator.categoricalFields[ t ] = new int[ cats.size() ];
+            evaluator.categoricalValues[ t ] = new String[ cats.size() ];
+            evaluator.categoricalCoefficients[ t ] = new double[ cats.size() ];
+            for ( int j = 0; j < cats.size(); j++ ) {
+                CategoricalPredictor cp = cats.get( j );
+                evaluator.categoricalFields[ t ][ j ] = fields.indexOf( cp.getName() );
+                evaluator.categoricalValues[ t ][ j ] = String.valueOf( cp.getValue() );
+                evaluator.categoricalCoefficients[ t ][ j ] = toDouble( cp.getCoefficient() );
+            }
+
+            List<PredictorTerm> terms = table.getPredictorTerms();
+            evaluator.termFields[ t ] = new int[ terms.size() ][];
+            evaluator.termCoefficients[ t ] = new double[ terms.size() ];
+            for ( int j = 0; j < terms.size(); j++ ) {
+                PredictorTerm term = terms.get( j );
+                List<FieldRef> refs = term.getFieldReves();
+                evaluator.termFields[ t ][ j ] = new int[ refs.size() ];
+                for ( int r = 0; r < refs.size(); r++ ) {
+                    evaluator.termFields[ t ][ j ][ r ] = fields.indexOf( refs.get( r ).getField() );
+                }
+                evaluator.termCoefficients[ t ][ j ] = toDouble( term.getCoefficient() );
+            }
+        }
+        return evaluator;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.pmml.pmml_4_2.evaluation;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of the columnar evaluation of a batch of records by a scorecard: the scores
+ * and, for each record, the indexes of its reason codes ranked from the most to the least relevant one
+ */
+public class ScorecardBatchResult implements Serializable {
+
+    private final double[] scores;
+    private final int[][] rankings;
+    private final String[] reasonCodes;
+
+    public ScorecardBatchResult( double[] scores, int[][] rankings, String[] reasonCodes ) {
+        this.scores = scores;
+        this.rankings = rankings;
+        this.reasonCodes = reasonCodes;
+    }
+
+    public int size() {
+        return scores.length;
+    }
+
+    public double[] getScores() {
+        return scores;
+    }
+
+    public double getScore( int row ) {
+        return scores[ row ];
+    }
+
+    /**
+     * Returns the ranked reason codes of a record as indexes in {@link #getReasonCodeNames()}
+     */
+    public int[] getReasonCodeIndexes( int row ) {
+        return rankings[ row ];
+    }
+
+    public List<String> getReasonCodes( int row ) {
+        int[] ranking = rankings[ row ];
+        List<String> codes = new ArrayList<String>( ranking.length );
+        for ( int code : ranking ) {
+            codes.add( reasonCodes[ code ] );
+        }
+        return codes;
+    }
+
+    public String[] getReasonCodeNames() {
+        return reasonCodes;
+    }
+
+    public ScorecardResult getResult( int row ) {
+        return new ScorecardResult( scores[ row ], getReasonCodes( row ) );
+    }
+
+    @Override
+    public String toString() {
+        return "ScorecardBatchResult{size=" + scores.length + "}";
+    }
+}
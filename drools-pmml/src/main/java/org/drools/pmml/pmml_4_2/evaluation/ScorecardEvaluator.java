@@ -0,0 +1,362 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.pmml.pmml_4_2.evaluation;
+
+import org.dmg.pmml.pmml_4_2.descr.Attribute;
+import org.dmg.pmml.pmml_4_2.descr.Characteristic;
+import org.dmg.pmml.pmml_4_2.descr.Characteristics;
+import org.dmg.pmml.pmml_4_2.descr.Scorecard;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates a Scorecard: for each characteristic the first matching attribute contributes
+ * its partial score, while the distances from the baseline scores are accumulated per reason
+ * code and ranked according to the scorecard's reason code algorithm.
+ * Returns a {@link ScorecardResult}.
+ *
+ * The characteristics whose attributes only test one field are resolved through an
+ * {@link AttributeBinning} table, while the reason codes are accumulated and ranked on primitive
+ * arrays. Large batches should be evaluated column by column with {@link #evaluateColumns(Map, int)}.
+ */
+public class ScorecardEvaluator extends AbstractPMMLEvaluator {
+
+    private static final int BLOCK_SIZE = 256;
+
+    private final double initialScore;
+    private final boolean useReasonCodes;
+
+    private final int[] firstAttribute;
+    private final int[] attributeCount;
+    private final AttributeBinning[] binnings;
+
+    private final CompiledPredicate[] predicates;
+    private final double[] partialScores;
+    private final double[] distances;
+    private final int[] reasonCodeIndexes;
+    private final String[] reasonCodes;
+
+    private ScorecardEvaluator( String modelName,
+                                FieldIndex fields,
+                                double initialScore,
+                                boolean useReasonCodes,
+                                int[] firstAttribute,
+                                int[] attributeCount,
+                                AttributeBinning[] binnings,
+                                CompiledPredicate[] predicates,
+                                double[] partialScores,
+                                double[] distances,
+                                int[] reasonCodeIndexes,
+                                String[] reasonCodes ) {
+        super( modelName, fields );
+        this.initialScore = initialScore;
+        this.useReasonCodes = useReasonCodes;
+        this.firstAttribute = firstAttribute;
+        this.attributeCount = attributeCount;
+        this.binnings = binnings;
+        this.predicates = predicates;
+        this.partialScores = partialScores;
+        this.distances = distances;
+        this.reasonCodeIndexes = reasonCodeIndexes;
+        this.reasonCodes = reasonCodes;
+    }
+
+    /**
+     * Returns the distinct reason codes of the scorecard, which the ranked indexes
+     * of a {@link ScorecardBatchResult} refer to
+     */
+    public String[] getReasonCodes() {
+        return reasonCodes.clone();
+    }
+
+    @Override
+    protected Object evaluate( Object[] values ) {
+        double score = initialScore;
+        double[] points = useReasonCodes ? new double[ reasonCodes.length ] : null;
+        int[] ranking = useReasonCodes ? new int[ reasonCodes.length ] : null;
+        int ranked = 0;
+
+        for ( int c = 0; c < firstAttribute.length; c++ ) {
+            int a = binnings[ c ] != null ? binnings[ c ].lookup( values[ binnings[ c ].getField() ] ) : AttributeBinning.UNRESOLVED;
+            if ( a == AttributeBinning.UNRESOLVED ) {
+                a = match( c, values );
+            }
+            if ( a >= 0 ) {
+                score += partialScores[ a ];
+                if ( points != null && reasonCodeIndexes[ a ] >= 0 ) {
+                    ranked = accumulate( points, ranking, 0, ranked, reasonCodeIndexes[ a ], distances[ a ] );
+                }
+            }
+        }
+
+        List<String> codes;
+        if ( points != null ) {
+            sort( points, ranking, 0, ranked );
+            codes = new ArrayList<String>( ranked );
+            for ( int i = 0; i < ranked; i++ ) {
+                codes.add( reasonCodes[ ranking[ i ] ] );
+            }
+        } else {
+            codes = Collections.emptyList();
+        }
+        return new ScorecardResult( score, codes );
+    }
+
+    /**
+     * Scores a batch of records given in columnar form: the map associates each input field to
+     * either a double[] (where NaN stands for a missing value) or an Object[] holding one value per
+     * record; a field without a column is considered missing.
+     * The records are processed in blocks, one characteristic at a time, so that each column is
+     * scanned sequentially and the binned characteristics don't need to box their values.
+     */
+    public ScorecardBatchResult evaluateColumns( Map<String, ?> columns, int rows ) {
+        String[] names = getInputFields();
+        Object[] bound = new Object[ names.length ];
+        for ( int f = 0; f < names.length; f++ ) {
+            bound[ f ] = columns.get( names[ f ] );
+        }
+        return evaluateColumns( bound, rows );
+    }
+
+    /**
+     * Scores a batch of records given in columnar form, with the columns in the same order
+     * as the fields returned by {@link #getInputFields()}
+     */
+    public ScorecardBatchResult evaluateColumns( Object[] columns, int rows ) {
+        if ( columns.length != getInputFields().length ) {
+            throw new IllegalArgumentException( "Expected " + getInputFields().length + " columns, found " + columns.length );
+        }
+        for ( Object column : columns ) {
+            if ( column != null && !( column instanceof double[] || column instanceof Object[] ) ) {
+                throw new IllegalArgumentException( "Unsupported column type " + column.getClass().getName() );
+            }
+            if ( column != null && Array.getLength( column ) < rows ) {
+                throw new IllegalArgumentException( "Column shorter than the number of records: " + rows );
+            }
+        }
+
+        double[] scores = new double[ rows ];
+        int[][] rankings = new int[ rows ][];
+        int codeCount = useReasonCodes ? reasonCodes.length : 0;
+        double[] points = new double[ BLOCK_SIZE * codeCount ];
+        int[] ranking = new int[ BLOCK_SIZE * codeCount ];
+        int[] ranked = new int[ BLOCK_SIZE ];
+        int[] matches = new int[ BLOCK_SIZE ];
+        Object[] values = new Object[ columns.length ];
+
+        for ( int start = 0; start < rows; start += BLOCK_SIZE ) {
+            int size = Math.min( BLOCK_SIZE, rows - start );
+            Arrays.fill( ranked, 0 );
+            Arrays.fill( scores, start, start + size, initialScore );
+
+            for ( int c = 0; c < firstAttribute.length; c++ ) {
+                AttributeBinning binning = binnings[ c ];
+                Object column = binning != null ? columns[ binning.getField() ] : null;
+                if ( binning == null ) {
+                    Arrays.fill( matches, 0, size, AttributeBinning.UNRESOLVED );
+                } else if ( column instanceof double[] ) {
+                    double[] doubles = (double[]) column;
+                    for ( int r = 0; r < size; r++ ) {
+                        matches[ r ] = binning.lookup( doubles[ start + r ] );
+                    }
+                } else if ( column instanceof Object[] ) {
+                    Object[] objects = (Object[]) column;
+                    for ( int r = 0; r < size; r++ ) {
+                        matches[ r ] = binning.lookup( objects[ start + r ] );
+                    }
+                } else {
+                    Arrays.fill( matches, 0, size, binning.lookup( null ) );
+                }
+
+                for ( int r = 0; r < size; r++ ) {
+                    int a = matches[ r ];
+                    if ( a == AttributeBinning.UNRESOLVED ) {
+                        a = match( c, bindRow( columns, start + r, values ) );
+                    }
+                    if ( a >= 0 ) {
+                        scores[ start + r ] += partialScores[ a ];
+                        if ( codeCount > 0 && reasonCodeIndexes[ a ] >= 0 ) {
+                            ranked[ r ] = accumulate( points, ranking, r * codeCount, ranked[ r ], reasonCodeIndexes[ a ], distances[ a ] );
+                        }
+                    }
+                }
+            }
+
+            for ( int r = 0; r < size; r++ ) {
+                int offset = r * codeCount;
+                sort( points, ranking, offset, ranked[ r ] );
+                int[] rowRanking = new int[ ranked[ r ] ];
+                System.arraycopy( ranking, offset, rowRanking, 0, ranked[ r ] );
+                rankings[ start + r ] = rowRanking;
+            }
+        }
+        return new ScorecardBatchResult( scores, rankings, reasonCodes );
+    }
+
+    private int match( int characteristic, Object[] values ) {
+        int end = firstAttribute[ characteristic ] + attributeCount[ characteristic ];
+        for ( int a = firstAttribute[ characteristic ]; a < end; a++ ) {
+            if ( predicates[ a ].evaluate( values ) == CompiledPredicate.TRUE ) {
+                return a;
+            }
+        }
+        return AttributeBinning.NO_MATCH;
+    }
+
+    private static Object[] bindRow( Object[] columns, int row, Object[] values ) {
+        for ( int f = 0; f < columns.length; f++ ) {
+            Object column = columns[ f ];
+            if ( column instanceof double[] ) {
+                double d = ( (double[]) column )[ row ];
+                values[ f ] = Double.isNaN( d ) ? null : d;
+            } else {
+                values[ f ] = column != null ? ( (Object[]) column )[ row ] : null;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Adds the distance to the points of the given reason code, appending the code to the ranking
+     * when it is met for the first time; returns the number of codes in the ranking
+     */
+    private static int accumulate( double[] points, int[] ranking, int offset, int ranked, int code, double distance ) {
+        for ( int i = offset; i < offset + ranked; i++ ) {
+            if ( ranking[ i ] == code ) {
+                points[ offset + code ] += distance;
+                return ranked;
+            }
+        }
+        ranking[ offset + ranked ] = code;
+        points[ offset + code ] = distance;
+        return ranked + 1;
+    }
+
+    /**
+     * Sorts the ranked codes by decreasing points. The sort is stable, so that ties keep the order
+     * of the characteristics; being only a handful of codes an insertion sort is the fastest option.
+     */
+    private static void sort( double[] points, int[] ranking, int offset, int ranked ) {
+        for ( int i = offset + 1; i < offset + ranked; i++ ) {
+            int code = ranking[ i ];
+            double value = points[ offset + code ];
+            int j = i - 1;
+            while ( j >= offset && points[ offset + ranking[ j ] ] < value ) {
+                ranking[ j + 1 ] = ranking[ j ];
+                j--;
+            }
+            ranking[ j + 1 ] = code;
+        }
+    }
+
+    static ScorecardEvaluator compile( Scorecard scorecard ) {
+        List<Characteristic> characteristics = new ArrayList<Characteristic>();
+        for ( Object o : scorecard.getExtensionsAndCharacteristicsAndMiningSchemas() ) {
+            if ( o instanceof Characteristics ) {
+                characteristics.addAll( ( (Characteristics) o ).getCharacteristics() );
+            }
+        }
+
+        double defaultBaseline = toDouble( scorecard.getBaselineScore(), 0.0 );
+        boolean useReasonCodes = !Boolean.FALSE.equals( scorecard.isUseReasonCodes() );
+        boolean pointsAbove = "pointsAbove".equals( String.valueOf( scorecard.getReasonCodeAlgorithm() ) );
+
+        FieldIndex fields = new FieldIndex();
+        int numChars = characteristics.size();
+        int[] firstAttribute = new int[ numChars ];
+        int[] attributeCount = new int[ numChars ];
+        List<CompiledPredicate> predicates = new ArrayList<CompiledPredicate>();
+        List<Double> partialScores = new ArrayList<Double>();
+        List<Double> distances = new ArrayList<Double>();
+        List<Integer> codeIndexes = new ArrayList<Integer>();
+        Map<String, Integer> codes = new LinkedHashMap<String, Integer>();
+
+        for ( int c = 0; c < numChars; c++ ) {
+            Characteristic characteristic = characteristics.get( c );
+            double baseline = toDouble( characteristic.getBaselineScore(), defaultBaseline );
+            firstAttribute[ c ] = predicates.size();
+            attributeCount[ c ] = characteristic.getAttributes().size();
+            for ( Attribute attribute : characteristic.getAttributes() ) {
+                predicates.add( compileAttributePredicate( attribute, fields ) );
+                double partialScore = toDouble( attribute.getPartialScore(), 0.0 );
+                partialScores.add( partialScore );
+                distances.add( pointsAbove ? partialScore - baseline : baseline - partialScore );
+                String code = attribute.getReasonCode();
+                if ( code == null || code.length() == 0 ) {
+                    code = characteristic.getReasonCode();
+                }
+                if ( code == null || code.length() == 0 ) {
+                    codeIndexes.add( -1 );
+                } else {
+                    if ( !codes.containsKey( code ) ) {
+                        codes.put( code, codes.size() );
+                    }
+                    codeIndexes.add( codes.get( code ) );
+                }
+            }
+        }
+
+        CompiledPredicate[] compiledPredicates = predicates.toArray( new CompiledPredicate[ predicates.size() ] );
+        AttributeBinning[] binnings = new AttributeBinning[ numChars ];
+        for ( int c = 0; c < numChars; c++ ) {
+            binnings[ c ] = AttributeBinning.compile( compiledPredicates, firstAttribute[ c ], attributeCount[ c ], fields.size() );
+        }
+
+        double[] scores = new double[ partialScores.size() ];
+        double[] distanceArray = new double[ distances.size() ];
+        int[] codeIndexArray = new int[ codeIndexes.size() ];
+        for ( int i = 0; i < scores.length; i++ ) {
+            scores[ i ] = partialScores.get( i );
+            distanceArray[ i ] = distances.get( i );
+            codeIndexArray[ i ] = codeIndexes.get( i );
+        }
+        return new ScorecardEvaluator( scorecard.getModelName(),
+                                       fields,
+                                       toDouble( scorecard.getInitialScore(), 0.0 ),
+                                       useReasonCodes,
+                                       firstAttribute,
+                                       attributeCount,
+                                       binnings,
+                                       compiledPredicates,
+                                       scores,
+                                       distanceArray,
+                                       codeIndexArray,
+                                       codes.keySet().toArray( new String[ codes.size() ] ) );
+    }
+
+    private static CompiledPredicate compileAttributePredicate( Attribute attribute, FieldIndex fields ) {
+        if ( attribute.getSimplePredicate() != null ) {
+            return CompiledPredicate.compile( attribute.getSimplePredicate(), fields );
+        }
+        if ( attribute.getCompoundPredicate() != null ) {
+            return CompiledPredicate.compile( attribute.getCompoundPredicate(), fields );
+        }
+        if ( attribute.getSimpleSetPredicate() != null ) {
+            return CompiledPredicate.compile( attribute.getSimpleSetPredicate(), fields );
+        }
+        if ( attribute.getFalse() != null ) {
+            return CompiledPredicate.ALWAYS_FALSE;
+        }
+        return CompiledPredicate.ALWAYS_TRUE;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.pmml.pmml_4_2.evaluation;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * The outcome of a scorecard evaluation: the final score and the reason codes,
+ * ranked from the most to the least relevant one
+ */
+public class ScorecardResult implements Serializable {
+
+    private final double score;
+    private final List<String> reasonCodes;
+
+    public ScorecardResult( double score, List<String> reasonCodes ) {
+        this.score = score;
+        this.reasonCodes = reasonCodes;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public List<String> getReasonCodes() {
+        return reasonCodes;
+    }
+
+    @Override
+    public String toString() {
+        return "ScorecardResult{score=" + score + ", reasonCodes=" + reasonCodes + "}";
+    }
+}
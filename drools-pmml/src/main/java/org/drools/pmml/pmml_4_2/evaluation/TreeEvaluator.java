@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.pmml.pmml_4_2.evaluation;
+
+import org.dmg.pmml.pmml_4_2.descr.Node;
+import org.dmg.pmml.pmml_4_2.descr.TreeModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evaluates a decision tree flattened into arrays, the children of each node being stored contiguously.
+ * Supports the "none", "lastPrediction" and "nullPrediction" missing value strategies and both
+ * no-true-child strategies.
+ */
+public class TreeEvaluator extends AbstractPMMLEvaluator {
+
+    static final int MISSING_NONE = 0;
+    static final int MISSING_LAST_PREDICTION = 1;
+    static final int MISSING_NULL_PREDICTION = 2;
+
+    private final CompiledPredicate[] predicates;
+    private final String[] scores;
+    private final int[] firstChild;
+    private final int[] childCount;
+
+    private final int missingValueStrategy;
+    private final boolean returnLastPrediction;
+
+    TreeEvaluator( String modelName,
+                   FieldIndex fields,
+                   CompiledPredicate[] predicates,
+                   String[] scores,
+                   int[] firstChild,
+                   int[] childCount,
+                   int missingValueStrategy,
+                   boolean returnLastPrediction ) {
+        super( modelName, fields );
+        this.predicates = predicates;
+        this.scores = scores;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.missingValueStrategy = missingValueStrategy;
+        this.returnLastPrediction = returnLastPrediction;
+    }
+
+    public int getNodeCount() {
+        return scores.length;
+    }
+
+    @Override
+    protected Object evaluate( Object[] values ) {
+        if ( predicates[ 0 ].evaluate( values ) != CompiledPredicate.TRUE ) {
+            return null;
+        }
+        int current = 0;
+        while ( true ) {
+            int selected = -1;
+            int end = firstChild[ current ] + childCount[ current ];
+            for ( int child = firstChild[ current ]; child < end; child++ ) {
+                int res = predicates[ child ].evaluate( values );
+                if ( res == CompiledPredicate.TRUE ) {
+                    selected = child;
+                    break;
+                }
+                if ( res == CompiledPredicate.UNKNOWN ) {
+                    if ( missingValueStrategy == MISSING_LAST_PREDICTION ) {
+                        return scores[ current ];
+                    }
+                    if ( missingValueStrategy == MISSING_NULL_PREDICTION ) {
+                        return null;
+                    }
+                }
+            }
+            if ( selected < 0 ) {
+                if ( childCount[ current ] == 0 || returnLastPrediction ) {
+                    return scores[ current ];
+                }
+                return null;
+            }
+            current = selected;
+        }
+    }
+
+    static TreeEvaluator compile( TreeModel tree ) {
+        Node root = null;
+        for ( Object o : tree.getExtensionsAndNodesAndMiningSchemas() ) {
+            if ( o instanceof Node ) {
+                root = (Node) o;
+            }
+        }
+        if ( root == null ) {
+            throw new IllegalArgumentException( "Tree model " + tree.getModelName() + " has no root node" );
+        }
+
+        String missing = String.valueOf( tree.getMissingValueStrategy() );
+        int missingValueStrategy;
+        if ( "NONE".equals( missing ) || "null".equals( missing ) ) {
+            missingValueStrategy = MISSING_NONE;
+        } else if ( "LAST_PREDICTION".equals( missing ) ) {
+            missingValueStrategy = MISSING_LAST_PREDICTION;
+        } else if ( "NULL_PREDICTION".equals( missing ) ) {
+            missingValueStrategy = MISSING_NULL_PREDICTION;
+        } else {
+            throw new UnsupportedOperationException( "Missing value strategy " + missing + " is not supported by direct evaluation" );
+        }
+        boolean returnLastPrediction = "RETURN_LAST_PREDICTION".equals( String.valueOf( tree.getNoTrueChildStrategy() ) );
+
+        // breadth first visit, so that the children of each node get contiguous positions
+        FieldIndex fields = new FieldIndex();
+        List<Node> nodes = new ArrayList<Node>();
+        nodes.add( root );
+        List<Integer> firsts = new ArrayList<Integer>();
+        List<Integer> counts = new ArrayList<Integer>();
+        for ( int i = 0; i < nodes.size(); i++ ) {
+            List<Node> children = nodes.get( i ).getNodes();
+            firsts.add( nodes.size() );
+            counts.add( children.size() );
+            nodes.addAll( children );
+        }
+
+        int size = nodes.size();
+        CompiledPredicate[] predicates = new CompiledPredicate[ size ];
+        String[] scores = new String[ size ];
+        int[] firstChild = new int[ size ];
+        int[] childCount = new int[ size ];
+        for ( int i = 0; i < size; i++ ) {
+            Node node = nodes.get( i );
+            predicates[ i ] = compileNodePredicate( node, fields );
+            scores[ i ] = node.getScore();
+            firstChild[ i ] = firsts.get( i );
+            childCount[ i ] = counts.get( i );
+        }
+        return new TreeEvaluator( tree.getModelName(), fields, predicates, scores, firstChild, childCount, missingValueStrategy, returnLastPrediction );
+    }
+
+    private static CompiledPredicate compileNodePredicate( Node node, FieldIndex fields ) {
+        for ( Object o : node.getExtensionsAndSimplePredicatesAndCompoundPredicates() ) {
+            CompiledPredicate predicate = CompiledPredicate.compile( o, fields );
+            if ( predicate != null ) {
+                return predicate;
+            }
+        }
+        return CompiledPredicate.ALWAYS_TRUE;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.pmml.pmml_4_2.evaluation;
+
+import org.drools.pmml.pmml_4_2.PMML4Compiler;
+import org.drools.pmml.pmml_4_2.PMMLError;
+import org.drools.pmml.pmml_4_2.PMMLWarning;
+import org.drools.core.util.StringUtils;
+import org.junit.Test;
+import org.kie.internal.builder.KnowledgeBuilderResult;
+import org.kie.internal.io.ResourceFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class DirectEvaluationTest {
+
+    private static final String TREE = "org/drools/pmml/pmml_4_2/test_tree_simple.xml";
+    private static final String REGRESSION = "org/drools/pmml/pmml_4_2/test_regression.xml";
+    private static final String CLASSIFICATION = "org/drools/pmml/pmml_4_2/test_regression_clax.xml";
+    private static final String SCORECARD = "org/drools/pmml/pmml_4_2/test_scorecard.xml";
+    private static final String NAIVE_BAYES = "org/drools/pmml/pmml_4_2/test_naiveBayes.xml";
+    private static final String CLUSTERING = "org/drools/pmml/pmml_4_2/test_clustering.xml";
+
+    @Test
+    public void testTree() throws Exception {
+        PMMLEvaluator evaluator = compile( TREE );
+        assertTrue( evaluator instanceof TreeEvaluator );
+
+        assertEquals( "tgtX", evaluator.evaluate( record( "fld1", 20.0, "fld2", 30.0, "fld3", "true", "fld4", "optA" ) ) );
+        assertEquals( "tgtZ", evaluator.evaluate( record( "fld1", 20.0, "fld2", 20.0, "fld3", "true", "fld4", "optC" ) ) );
+    }
+
+    @Test
+    public void testRegression() throws Exception {
+        PMMLEvaluator evaluator = compile( REGRESSION );
+
+        double fld1 = 0.9;
+        double fld2 = 0.3;
+        double x = 0.5 + 5 * fld1 * fld1 + 2 * fld2 - 3.0 + 0.4 * fld1 * fld2;
+        x = 1.0 / ( 1.0 + Math.exp( -x ) );
+
+        Object result = evaluator.evaluate( record( "fld1", fld1, "fld2", fld2, "fld3", "x" ) );
+        assertEquals( x, (Double) result, 1e-6 );
+    }
+
+    @Test
+    public void testClassification() throws Exception {
+        RegressionEvaluator evaluator = (RegressionEvaluator) compile( CLASSIFICATION );
+        assertTrue( evaluator.isClassification() );
+
+        Map<String, Object> record = record( "fld1", 1.0, "fld2", 1.0, "fld3", "x" );
+        assertEquals( "catC", evaluator.evaluate( record ) );
+
+        Map<String, Double> probabilities = evaluator.evaluateProbabilities( record );
+        assertEquals( 0.709228, probabilities.get( "catC" ), 1e-6 );
+        assertEquals( 0.010635, probabilities.get( "catA" ), 1e-6 );
+    }
+
+    @Test
+    public void testScorecard() throws Exception {
+        PMMLEvaluator evaluator = compile( SCORECARD );
+
+        ScorecardResult result = (ScorecardResult) evaluator.evaluate( record( "age", 33.0,
+                                                                               "occupation", "SKYDIVER",
+                                                                               "residenceState", "KN",
+                                                                               "validLicense", true ) );
+        assertEquals( 41.345, result.getScore(), 1e-6 );
+        assertEquals( Arrays.asList( "LX00", "RES", "CX2" ), result.getReasonCodes() );
+    }
+
+    @Test
+    public void testBatchEvaluation() throws Exception {
+        PMMLEvaluators evaluators = compileAll( TREE );
+
+        List<Map<String, Object>> records = new ArrayList<Map<String, Object>>();
+        records.add( record( "fld1", 20.0, "fld2", 30.0, "fld3", "true", "fld4", "optA" ) );
+        records.add( record( "fld1", 20.0, "fld2", 20.0, "fld3", "true", "fld4", "optC" ) );
+        records.add( record( "fld1", 20.0, "fld2", 30.0, "fld3", "true", "fld4", "optA" ) );
+
+        assertEquals( Arrays.<Object>asList( "tgtX", "tgtZ", "tgtX" ), evaluators.evaluateAll( "TreeTest", records ) );
+    }
+
+    @Test
+    public void testRegistriesPerResource() throws Exception {
+        PMMLEvaluators trees = compileAll( TREE );
+        PMMLEvaluators otherTrees = compileAll( TREE );
+
+        // the same model name compiled twice doesn't overwrite the evaluator of the other resource
+        assertNotSame( trees.getEvaluator( "TreeTest" ), otherTrees.getEvaluator( "TreeTest" ) );
+        assertEquals( "tgtX", trees.evaluate( "TreeTest", record( "fld1", 20.0, "fld2", 30.0, "fld3", "true", "fld4", "optA" ) ) );
+
+        assertFalse( compileAll( REGRESSION ).contains( "TreeTest" ) );
+    }
+
+    @Test
+    public void testRuleBasedOnlyModels() throws Exception {
+        for ( String source : new String[] { NAIVE_BAYES, CLUSTERING } ) {
+            PMML4Compiler compiler = new PMML4Compiler();
+            PMMLEvaluators evaluators = compiler.compileEvaluators( ResourceFactory.newClassPathResource( source ).getInputStream() );
+            assertTrue( evaluators.getEvaluators().isEmpty() );
+
+            // not an error, the models keep being compiled into rules
+            boolean warned = false;
+            for ( KnowledgeBuilderResult result : compiler.getResults() ) {
+                assertFalse( result instanceof PMMLError );
+                warned |= result instanceof PMMLWarning;
+            }
+            assertTrue( warned );
+            assertNotNull( new PMML4Compiler().compile( ResourceFactory.newClassPathResource( source ).getInputStream(), null ) );
+        }
+    }
+
+    @Test
+    public void testUnsupportedNormalizationIsACompilationError() throws Exception {
+        String pmml = read( REGRESSION ).replace( "normalizationMethod=\"logit\"", "normalizationMethod=\"probit\"" );
+
+        PMML4Compiler compiler = new PMML4Compiler();
+        PMMLEvaluators evaluators = compiler.compileEvaluators( new ByteArrayInputStream( pmml.getBytes( "UTF-8" ) ) );
+        assertTrue( evaluators.getEvaluators().isEmpty() );
+
+        boolean failed = false;
+        for ( KnowledgeBuilderResult result : compiler.getResults() ) {
+            failed |= result instanceof PMMLError && result.getMessage().contains( "probit" );
+        }
+        assertTrue( failed );
+    }
+
+    private PMMLEvaluator compile( String source ) throws Exception {
+        PMMLEvaluators evaluators = compileAll( source );
+        assertEquals( 1, evaluators.getEvaluators().size() );
+        return evaluators.getEvaluators().iterator().next();
+    }
+
+    private PMMLEvaluators compileAll( String source ) throws Exception {
+        return new PMML4Compiler().compileEvaluators( ResourceFactory.newClassPathResource( source ).getInputStream() );
+    }
+
+    private String read( String source ) throws Exception {
+        InputStream in = ResourceFactory.newClassPathResource( source ).getInputStream();
+        try {
+            return StringUtils.readFileAsString( new InputStreamReader( in, "UTF-8" ) );
+        } finally {
+            in.close();
+        }
+    }
+
+    private static Map<String, Object> record( Object... keyValues ) {
+        Map<String, Object> record = new HashMap<String, Object>();
+        for ( int i = 0; i < keyValues.length; i += 2 ) {
+            record.put( (String) keyValues[ i ], keyValues[ i + 1 ] );
+        }
+        return record;
+    }
+}
@@ -36,6 +36,7 @@ import org.drools.core.common.InternalWorkingMemory;
 import org.drools.core.common.InternalWorkingMemoryEntryPoint;
 import org.drools.core.common.ScheduledAgendaItem;
 import org.drools.core.common.Scheduler;
+import org.drools.core.common.TruthMaintenanceBatch;
 import org.drools.core.common.TruthMaintenanceSystemHelper;
 import org.drools.core.definitions.rule.impl.RuleImpl;
 import org.drools.core.impl.InternalKnowledgeBase;
@@ -253,6 +254,11 @@ public class ReteAgenda<M extends ModedAssertion<M>>
         return item;
     }
 
+    public TruthMaintenanceBatch getTruthMaintenanceBatch() {
+        // the rete network propagates eagerly, so the justifications are never batched
+        return null;
+    }
+
     public void setWorkingMemory(final InternalWorkingMemory workingMemory) {
         this.workingMemory = workingMemory;
         RuleBaseConfiguration rbc = this.workingMemory.getKnowledgeBase().getConfiguration();
@@ -4,6 +4,7 @@ import java.io.InputStream;
 
 import org.drools.compiler.compiler.ScoreCardProvider;
 import org.drools.core.util.StringUtils;
+import org.drools.pmml.pmml_4_2.evaluation.ScorecardEvaluator;
 import org.kie.internal.builder.ScoreCardConfiguration;
 
 public class ScoreCardProviderImpl
@@ -17,9 +18,27 @@ public class ScoreCardProviderImpl
                               configuration );
     }
 
+    /**
+     * Loads a scorecard as a direct evaluator, suitable for scoring large batches of records
+     * without going through the rule engine
+     */
+    public ScorecardEvaluator loadEvaluatorFromInputStream( InputStream is,
+                                                           ScoreCardConfiguration configuration ) {
+
+        return compile( is,
+                        configuration ).getScorecardEvaluator();
+    }
+
     private String compileStream( InputStream is,
                                   ScoreCardConfiguration configuration ) {
 
+        return compile( is,
+                        configuration ).getDRL();
+    }
+
+    private ScorecardCompiler compile( InputStream is,
+                                       ScoreCardConfiguration configuration ) {
+
         ScorecardCompiler scorecardCompiler = new ScorecardCompiler();
         if ( configuration != null && configuration.IsUsingExternalTypes() ) {
             scorecardCompiler.setDrlType(ScorecardCompiler.DrlType.EXTERNAL_OBJECT_MODEL);
@@ -27,16 +46,14 @@ public class ScoreCardProviderImpl
         String inputTypeExcel = ScoreCardConfiguration.SCORECARD_INPUT_TYPE.EXCEL.toString();
         if ( configuration== null || configuration.getInputType() == null || inputTypeExcel.equalsIgnoreCase(configuration.getInputType())) {
             if ( configuration == null || StringUtils.isEmpty( configuration.getWorksheetName() ) ) {
-                boolean compileResult = scorecardCompiler.compileFromExcel( is );
-                return scorecardCompiler.getDRL();
+                scorecardCompiler.compileFromExcel( is );
+            } else {
+                scorecardCompiler.compileFromExcel( is, configuration.getWorksheetName() );
             }
-
-            boolean compileResult = scorecardCompiler.compileFromExcel( is, configuration.getWorksheetName() );
-
         } else if (ScoreCardConfiguration.SCORECARD_INPUT_TYPE.PMML.toString().equalsIgnoreCase(configuration.getInputType())){
             scorecardCompiler.compileFromPMML(is);
         }
-        return scorecardCompiler.getDRL();
+        return scorecardCompiler;
     }
 
 }
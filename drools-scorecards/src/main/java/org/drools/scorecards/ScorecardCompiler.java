@@ -19,6 +19,9 @@ package org.drools.scorecards;
 import org.dmg.pmml.pmml_4_2.descr.PMML;
 import org.drools.core.util.IoUtils;
 import org.drools.pmml.pmml_4_2.PMML4Compiler;
+import org.drools.pmml.pmml_4_2.evaluation.PMMLEvaluator;
+import org.drools.pmml.pmml_4_2.evaluation.PMMLEvaluatorCompiler;
+import org.drools.pmml.pmml_4_2.evaluation.ScorecardEvaluator;
 import org.drools.scorecards.parser.AbstractScorecardParser;
 import org.drools.scorecards.parser.ScorecardParseException;
 import org.drools.scorecards.parser.xls.XLSScorecardParser;
@@ -136,6 +139,26 @@ public class ScorecardCompiler {
         return drl;
     }
 
+    /**
+     * Compiles the scorecard into an evaluator that scores records directly, without generating
+     * and firing rules. Returns null if no scorecard has been compiled yet.
+     */
+    public ScorecardEvaluator getScorecardEvaluator(){
+        if (pmmlDocument == null) {
+            return null;
+        }
+        PMMLEvaluatorCompiler evaluatorCompiler = new PMMLEvaluatorCompiler();
+        for ( PMMLEvaluator evaluator : evaluatorCompiler.compile( pmmlDocument ).getEvaluators() ) {
+            if ( evaluator instanceof ScorecardEvaluator ) {
+                return (ScorecardEvaluator) evaluator;
+            }
+        }
+        for ( KnowledgeBuilderResult res : evaluatorCompiler.getResults() ) {
+            logger.error( res.getMessage() );
+        }
+        return null;
+    }
+
     /* convienence method for use from Guvnor*/
     public static String convertToDRL(PMML pmml, DrlType drlType) {
         if (pmml != null) {
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.scorecards;
+
+import java.io.InputStream;
+
+import org.drools.pmml.pmml_4_2.evaluation.ScorecardEvaluator;
+import org.kie.internal.builder.ScoreCardConfiguration;
+
+/**
+ * Loads scorecards as direct evaluators, that score single records or large batches of records
+ * (including columnar ones) without going through the rule engine.
+ * The scorecards are read from the same inputs, configured in the same way, accepted by
+ * {@link org.drools.compiler.compiler.ScoreCardFactory} to generate their rules.
+ */
+public class ScorecardEvaluatorFactory {
+
+    private ScorecardEvaluatorFactory() {
+    }
+
+    public static ScorecardEvaluator loadFromInputStream( InputStream is,
+                                                          ScoreCardConfiguration configuration ) {
+        return new ScoreCardProviderImpl().loadEvaluatorFromInputStream( is,
+                                                                         configuration );
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.scorecards;
+
+import org.drools.pmml.pmml_4_2.evaluation.ScorecardBatchResult;
+import org.drools.pmml.pmml_4_2.evaluation.ScorecardEvaluator;
+import org.drools.pmml.pmml_4_2.evaluation.ScorecardResult;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class ScorecardBatchScoringTest {
+
+    // same expectations as ScorecardReasonCodeTest.testReasonCodesCombinations, which scores through the rules
+    private static final Object[][] RECORDS = new Object[][] {
+            { 10.0, null, null, "FALSE" },
+            { 0.0, "SKYDIVER", null, "FALSE" },
+            { 20.0, "TEACHER", "AP", "TRUE" }
+    };
+
+    private static final double[] SCORES = new double[] { 129.0, 99.0, 141.0 };
+
+    private static final List<?>[] REASON_CODES = new List<?>[] {
+            Arrays.asList( "VL002", "AGE02" ),
+            Arrays.asList( "OCC01", "VL002", "AGE01" ),
+            Arrays.asList( "OCC02", "RS001", "VL001", "AGE03" )
+    };
+
+    @Test
+    public void testSingleRecordScoring() throws Exception {
+        ScorecardEvaluator evaluator = ScorecardEvaluatorFactory.loadFromInputStream( ScorecardBatchScoringTest.class.getResourceAsStream( "/scoremodel_reasoncodes.xls" ),
+                                                                                      null );
+        assertNotNull( evaluator );
+
+        for ( int i = 0; i < RECORDS.length; i++ ) {
+            ScorecardResult result = (ScorecardResult) evaluator.evaluate( toRecord( RECORDS[ i ] ) );
+            assertEquals( SCORES[ i ], result.getScore(), 1e-9 );
+            assertEquals( REASON_CODES[ i ], result.getReasonCodes() );
+        }
+    }
+
+    @Test
+    public void testColumnarBatchScoring() throws Exception {
+        ScorecardCompiler scorecardCompiler = new ScorecardCompiler();
+        scorecardCompiler.compileFromExcel( ScorecardBatchScoringTest.class.getResourceAsStream( "/scoremodel_reasoncodes.xls" ) );
+        ScorecardEvaluator evaluator = scorecardCompiler.getScorecardEvaluator();
+        assertNotNull( evaluator );
+
+        // more records than a single block, with the numeric field given as a primitive column
+        int rows = 1000;
+        double[] age = new double[ rows ];
+        String[] occupation = new String[ rows ];
+        String[] residenceState = new String[ rows ];
+        String[] validLicense = new String[ rows ];
+        for ( int r = 0; r < rows; r++ ) {
+            Object[] record = RECORDS[ r % RECORDS.length ];
+            age[ r ] = (Double) record[ 0 ];
+            occupation[ r ] = (String) record[ 1 ];
+            residenceState[ r ] = (String) record[ 2 ];
+            validLicense[ r ] = (String) record[ 3 ];
+        }
+        Map<String, Object> columns = new HashMap<String, Object>();
+        columns.put( "age", age );
+        columns.put( "occupation", occupation );
+        columns.put( "residenceState", residenceState );
+        columns.put( "validLicense", validLicense );
+
+        ScorecardBatchResult results = evaluator.evaluateColumns( columns, rows );
+        assertEquals( rows, results.size() );
+        for ( int r = 0; r < rows; r++ ) {
+            assertEquals( SCORES[ r % RECORDS.length ], results.getScore( r ), 1e-9 );
+            assertEquals( REASON_CODES[ r % RECORDS.length ], results.getReasonCodes( r ) );
+        }
+    }
+
+    private static Map<String, Object> toRecord( Object[] values ) {
+        Map<String, Object> record = new HashMap<String, Object>();
+        record.put( "age", values[ 0 ] );
+        record.put( "occupation", values[ 1 ] );
+        record.put( "residenceState", values[ 2 ] );
+        record.put( "validLicense", values[ 3 ] );
+        return record;
+    }
+}
@@ -15,10 +15,13 @@
  */
 package org.drools.template;
 
+import org.drools.compiler.builder.impl.KnowledgeBuilderImpl;
 import org.drools.template.parser.DataListener;
 import org.drools.template.parser.DefaultTemplateContainer;
+import org.drools.template.parser.RuleDescrDataListener;
 import org.drools.template.parser.TemplateContainer;
 import org.drools.template.parser.TemplateDataListener;
+import org.kie.internal.builder.KnowledgeBuilder;
 
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -117,6 +120,41 @@ public class DataProviderCompiler {
         return listener.renderDRL();
     }
 
+    /**
+     * Generates the rules from a data provider for the spreadsheet data and templates,
+     * streaming them into a knowledge builder as rule descriptors instead of generating DRL.
+     *
+     * @param dataProvider   the data provider for the spreadsheet data
+     * @param templateStream the InputStream for reading the templates
+     * @param kbuilder       the knowledge builder the rules are added to
+     * @return the number of generated rules
+     */
+    public int compile(final DataProvider dataProvider,
+                       final InputStream templateStream,
+                       final KnowledgeBuilder kbuilder) {
+        DefaultTemplateContainer tc = new DefaultTemplateContainer(templateStream);
+        closeStream(templateStream);
+        return compile(dataProvider,
+                       new RuleDescrDataListener(tc, (KnowledgeBuilderImpl) kbuilder));
+    }
+
+    /**
+     * Generates the rules from a data provider for the spreadsheet data and templates,
+     * streaming them into a knowledge builder as rule descriptors instead of generating DRL.
+     *
+     * @param dataProvider the data provider for the spreadsheet data
+     * @param listener     a rule descriptor data listener
+     * @return the number of generated rules
+     */
+    public int compile(final DataProvider dataProvider,
+                       final RuleDescrDataListener listener) {
+        List<DataListener> listeners = new ArrayList<DataListener>();
+        listeners.add(listener);
+        processData(dataProvider,
+                    listeners);
+        return listener.getRuleCount();
+    }
+
     private void processData(final DataProvider dataProvider,
                              List<DataListener> listeners) {
         for (int i = 0; dataProvider.hasNext(); i++) {
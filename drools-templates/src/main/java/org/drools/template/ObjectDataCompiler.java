@@ -1,9 +1,12 @@
 package org.drools.template;
 
+import org.drools.compiler.builder.impl.KnowledgeBuilderImpl;
 import org.drools.template.objects.ObjectDataProvider;
 import org.drools.template.parser.DefaultTemplateContainer;
+import org.drools.template.parser.RuleDescrDataListener;
 import org.drools.template.parser.TemplateContainer;
 import org.drools.template.parser.TemplateDataListener;
+import org.kie.internal.builder.KnowledgeBuilder;
 
 import java.io.InputStream;
 import java.util.Collection;
@@ -42,4 +45,23 @@ public class ObjectDataCompiler extends DataProviderCompiler {
         return compile(new ObjectDataProvider(tc, objs),
                        new TemplateDataListener(tc));
     }
+
+    /**
+     * Compile templates, substituting from a collection of maps or objects
+     * into the given template, and stream the expanded rules into a knowledge
+     * builder as rule descriptors.
+     *
+     * @param objs           the collection of maps or objects
+     * @param templateStream the template as a stream
+     * @param kbuilder       the knowledge builder the rules are added to
+     * @return the number of expanded rules
+     */
+    public int compile(final Collection<?> objs,
+                       final InputStream templateStream,
+                       final KnowledgeBuilder kbuilder) {
+        TemplateContainer tc = new DefaultTemplateContainer(templateStream);
+        closeStream(templateStream);
+        return compile(new ObjectDataProvider(tc, objs),
+                       new RuleDescrDataListener(tc, (KnowledgeBuilderImpl) kbuilder));
+    }
 }
@@ -1,9 +1,12 @@
 package org.drools.template.jdbc;
 
+import org.drools.compiler.builder.impl.KnowledgeBuilderImpl;
 import org.drools.template.parser.DataListener;
 import org.drools.template.parser.DefaultTemplateContainer;
+import org.drools.template.parser.RuleDescrDataListener;
 import org.drools.template.parser.TemplateContainer;
 import org.drools.template.parser.TemplateDataListener;
+import org.kie.internal.builder.KnowledgeBuilder;
 
 import java.io.InputStream;
 import java.sql.ResultSet;
@@ -65,6 +68,41 @@ public class ResultSetGenerator {
         return listener.renderDRL();
     }
 
+    /**
+     * Generates the rules from a resultset and templates, streaming them into a knowledge
+     * builder as rule descriptors while the resultset is read, instead of generating DRL.
+     *
+     * @param rs             the resultset for the table data
+     * @param templateStream the InputStream for reading the templates
+     * @param kbuilder       the knowledge builder the rules are added to
+     * @return the number of generated rules
+     */
+    public int compile(final ResultSet rs,
+                       final InputStream templateStream,
+                       final KnowledgeBuilder kbuilder) {
+        TemplateContainer tc = new DefaultTemplateContainer(templateStream);
+        closeStream(templateStream);
+        return compile(rs,
+                       new RuleDescrDataListener(tc, (KnowledgeBuilderImpl) kbuilder));
+    }
+
+    /**
+     * Generates the rules from a resultset and templates, streaming them into a knowledge
+     * builder as rule descriptors while the resultset is read, instead of generating DRL.
+     *
+     * @param rs       the resultset for the table data
+     * @param listener a rule descriptor data listener
+     * @return the number of generated rules
+     */
+    public int compile(final ResultSet rs,
+                       final RuleDescrDataListener listener) {
+        List<DataListener> listeners = new ArrayList<DataListener>();
+        listeners.add(listener);
+        processData(rs,
+                    listeners);
+        return listener.getRuleCount();
+    }
+
     /**
      * Iterate through the resultset.
      *
@@ -58,17 +58,7 @@ public class DefaultGenerator
         try {
             CompiledTemplate template = getTemplate( templateName );
             VariableResolverFactory factory = new MapVariableResolverFactory();
-            Map<String, Object> vars = new HashMap<String, Object>();
-
-            initializePriorCommaConstraints( vars );
-            initializeHasPriorJunctionConstraint( vars );
-
-            vars.put( "row",
-                      row );
-
-            for ( Cell cell : row.getCells() ) {
-                cell.addValue( vars );
-            }
+            Map<String, Object> vars = getVariables( row );
 
             String drl = String.valueOf( TemplateRuntime.execute( template,
                                                                   vars,
@@ -81,14 +71,32 @@ public class DefaultGenerator
         }
     }
 
-    private void initializePriorCommaConstraints( final Map<String, Object> vars ) {
+    /**
+     * Returns the variables available to the templates while rendering the given row
+     */
+    static Map<String, Object> getVariables( Row row ) {
+        Map<String, Object> vars = new HashMap<String, Object>();
+
+        initializePriorCommaConstraints( vars );
+        initializeHasPriorJunctionConstraint( vars );
+
+        vars.put( "row",
+                  row );
+
+        for ( Cell cell : row.getCells() ) {
+            cell.addValue( vars );
+        }
+        return vars;
+    }
+
+    private static void initializePriorCommaConstraints( final Map<String, Object> vars ) {
         for ( int depth = 0; depth < 10; depth++ ) {
             vars.put( "hasPriorCommaConstraint" + depth,
                       false );
         }
     }
 
-    private void initializeHasPriorJunctionConstraint( final Map<String, Object> vars ) {
+    private static void initializeHasPriorJunctionConstraint( final Map<String, Object> vars ) {
         for ( int depth = 0; depth < 10; depth++ ) {
             vars.put( "hasPriorJunctionConstraint" + depth,
                       false );
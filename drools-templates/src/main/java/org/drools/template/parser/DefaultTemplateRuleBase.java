@@ -101,7 +101,7 @@ public class DefaultTemplateRuleBase implements TemplateRuleBase {
 
     private void addGlobals(org.drools.template.model.Package p) {
         Global global = new Global();
-        global.setClassName(DefaultGenerator.class.getName());
+        global.setClassName(RowGenerator.class.getName());
         global.setIdentifier("generator");
         p.addVariable(global);
     }
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.template.parser;
+
+import org.drools.compiler.builder.impl.KnowledgeBuilderImpl;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.ObjectFilter;
+import org.kie.api.runtime.rule.FactHandle;
+
+import java.util.ArrayList;
+
+/**
+ * SheetListener for streaming the rules created from a template into a knowledge builder.
+ * <p/>
+ * Unlike the {@link TemplateDataListener}, which keeps all the rows in its session until the
+ * sheet is finished, the rules of each row are generated as soon as the row is complete,
+ * and then the row is removed from the session, so that the memory used doesn't depend
+ * on the number of rows.
+ */
+public class RuleDescrDataListener
+        implements
+        DataListener {
+
+    private static final ObjectFilter ROW_FACTS = new ObjectFilter() {
+        public boolean accept(Object object) {
+            return !(object instanceof Column);
+        }
+    };
+
+    private int startRow = -1;
+
+    private boolean tableFinished = false;
+
+    private Row currentRow;
+
+    private Column[] columns;
+
+    private KieSession session;
+
+    private int startCol;
+
+    private RuleDescrGenerator generator;
+
+    public RuleDescrDataListener(final TemplateContainer tc,
+                                 final KnowledgeBuilderImpl builder) {
+        this(1,
+             1,
+             tc,
+             builder,
+             RuleDescrGenerator.DEFAULT_CHUNK_SIZE);
+    }
+
+    public RuleDescrDataListener(final int startRow,
+                                 final int startCol,
+                                 final TemplateContainer tc,
+                                 final KnowledgeBuilderImpl builder,
+                                 final int chunkSize) {
+        this(startRow,
+             startCol,
+             tc,
+             new DefaultTemplateRuleBase(tc),
+             new RuleDescrGenerator(tc,
+                                    builder,
+                                    chunkSize));
+    }
+
+    public RuleDescrDataListener(final int startRow,
+                                 final int startCol,
+                                 final TemplateContainer tc,
+                                 final TemplateRuleBase ruleBase,
+                                 final RuleDescrGenerator generator) {
+        this.startRow = startRow - 1;
+        this.startCol = startCol - 1;
+        columns = tc.getColumns();
+        session = ruleBase.newStatefulSession();
+        this.generator = generator;
+        session.setGlobal("generator",
+                          generator);
+        for (int i = 0; i < columns.length; i++) {
+            session.insert(columns[i]);
+        }
+    }
+
+    public void finishSheet() {
+        generateCurrentRow();
+        session.dispose();
+        generator.flush();
+    }
+
+    public void newCell(int row,
+                        int column,
+                        String value,
+                        int mergedColStart) {
+        if (currentRow != null && column >= startCol && value != null && value.trim().length() > 0) {
+
+            int columnIndex = column - startCol;
+            if (columnIndex < columns.length) {
+                Cell cell = currentRow.getCell(columnIndex);
+                cell.setValue(value);
+                cell.insert(session);
+            }
+        }
+    }
+
+    public void newRow(int rowNumber,
+                       int columnCount) {
+        if (!tableFinished && rowNumber >= startRow) {
+            if (currentRow != null && currentRow.isEmpty()) {
+                currentRow = null;
+                tableFinished = true;
+            } else {
+                generateCurrentRow();
+                currentRow = new Row(rowNumber,
+                                     columns);
+            }
+        }
+    }
+
+    public void startSheet(String name) {
+
+    }
+
+    public int getRuleCount() {
+        return generator.getRuleCount();
+    }
+
+    /**
+     * The template rules only join the cells of a single row, so each row can be
+     * evaluated on its own and then removed from the session
+     */
+    private void generateCurrentRow() {
+        if (currentRow == null) {
+            return;
+        }
+        session.insert(currentRow);
+        session.fireAllRules();
+        for (FactHandle handle : new ArrayList<FactHandle>(session.getFactHandles(ROW_FACTS))) {
+            session.delete(handle);
+        }
+        currentRow = null;
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.template.parser;
+
+import org.drools.compiler.builder.impl.KnowledgeBuilderImpl;
+import org.drools.compiler.compiler.DrlParser;
+import org.drools.compiler.compiler.DroolsError;
+import org.drools.compiler.compiler.DroolsParserException;
+import org.drools.compiler.lang.descr.PackageDescr;
+import org.drools.compiler.lang.descr.RuleDescr;
+import org.mvel2.MVEL;
+import org.mvel2.integration.impl.MapVariableResolverFactory;
+import org.mvel2.templates.CompiledTemplate;
+import org.mvel2.templates.TemplateCompiler;
+import org.mvel2.templates.TemplateRuntime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generate the rules for a decision table row directly as rule descriptors,
+ * streaming them into a knowledge builder in chunks instead of rendering the DRL
+ * of all the rows and parsing it at once.
+ * <p/>
+ * Each template is parsed only once, with its <code>@{expression}</code> placeholders
+ * replaced by markers, into a skeleton of rule descriptors. The rules of a row are
+ * cloned from the skeleton, binding the values of the expressions in place of the markers.
+ * Templates using other MVEL orb tags (e.g. <code>@if{}</code> for optional columns)
+ * cannot be turned into a skeleton, so the rules of each row are rendered and parsed on their own.
+ * <p/>
+ * It is not a {@link Generator}, as there is no DRL to return: the rules are streamed into the builder.
+ */
+public class RuleDescrGenerator
+        implements
+        RowGenerator {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private static final Pattern PLACEHOLDER = Pattern.compile( "@\\{([^}]*)\\}" );
+
+    private static final Pattern ORB_TAG = Pattern.compile( "@[a-zA-Z]+\\{|@@" );
+
+    private static final String MARKER_PREFIX = "$tpl$";
+
+    private static final Pattern MARKER = Pattern.compile( "\\$tpl\\$([0-9]+)\\$" );
+
+    private final Map<String, RuleTemplate> ruleTemplates;
+
+    private final KnowledgeBuilderImpl builder;
+
+    private final int chunkSize;
+
+    private final Map<String, RuleSkeleton> skeletons = new HashMap<String, RuleSkeleton>();
+
+    private final Map<String, CompiledTemplate> compiledTemplates = new HashMap<String, CompiledTemplate>();
+
+    private String namespace;
+
+    private PackageDescr chunk;
+
+    private int ruleCount;
+
+    public RuleDescrGenerator( final TemplateContainer tc,
+                               final KnowledgeBuilderImpl builder ) {
+        this( tc,
+              builder,
+              DEFAULT_CHUNK_SIZE );
+    }
+
+    public RuleDescrGenerator( final TemplateContainer tc,
+                               final KnowledgeBuilderImpl builder,
+                               final int chunkSize ) {
+        this.ruleTemplates = tc.getTemplates();
+        this.builder = builder;
+        this.chunkSize = chunkSize;
+        addHeader( tc.getHeader() );
+    }
+
+    private void addHeader( String header ) {
+        DrlParser parser = new DrlParser( builder.getBuilderConfiguration().getLanguageLevel() );
+        PackageDescr pkg;
+        try {
+            pkg = parser.parse( false,
+                                header );
+        } catch ( DroolsParserException e ) {
+            throw new RuntimeException( e );
+        }
+        if ( reportErrors( parser ) || pkg == null ) {
+            return;
+        }
+        builder.addPackage( pkg );
+        namespace = pkg.getNamespace();
+    }
+
+    private boolean reportErrors( DrlParser parser ) {
+        if ( !parser.hasErrors() ) {
+            return false;
+        }
+        for ( DroolsError error : parser.getErrors() ) {
+            builder.addBuilderResult( error );
+        }
+        return true;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.drools.template.parser.RowGenerator#generate(java.lang.String,
+     *      org.drools.template.parser.Row)
+     */
+    public void generate( String templateName,
+                          Row row ) {
+        if ( namespace == null ) {
+            // the header couldn't be compiled, its errors are already reported by the builder
+            return;
+        }
+        try {
+            Map<String, Object> vars = DefaultGenerator.getVariables( row );
+            RuleSkeleton skeleton = getSkeleton( templateName );
+            List<RuleDescr> rules = skeleton != null ?
+                                    skeleton.bind( vars ) :
+                                    parseRules( templateName, vars );
+            if ( rules == null ) {
+                return;
+            }
+            if ( chunk == null ) {
+                chunk = new PackageDescr( namespace );
+            }
+            for ( RuleDescr rule : rules ) {
+                chunk.addRule( rule );
+            }
+            ruleCount += rules.size();
+            if ( chunk.getRules().size() >= chunkSize ) {
+                flush();
+            }
+        } catch ( Exception e ) {
+            throw new RuntimeException( e );
+        }
+    }
+
+    /**
+     * Compiles the rules generated since the last flush
+     */
+    public void flush() {
+        if ( chunk != null ) {
+            PackageDescr rules = chunk;
+            chunk = null;
+            builder.addPackageRules( rules );
+        }
+    }
+
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    private RuleSkeleton getSkeleton( String templateName ) {
+        if ( !skeletons.containsKey( templateName ) ) {
+            skeletons.put( templateName,
+                           RuleSkeleton.compile( ruleTemplates.get( templateName ).getContents(),
+                                                 new DrlParser( builder.getBuilderConfiguration().getLanguageLevel() ) ) );
+        }
+        return skeletons.get( templateName );
+    }
+
+    private List<RuleDescr> parseRules( String templateName,
+                                        Map<String, Object> vars ) throws DroolsParserException {
+        CompiledTemplate template = compiledTemplates.get( templateName );
+        if ( template == null ) {
+            template = TemplateCompiler.compileTemplate( ruleTemplates.get( templateName ).getContents() );
+            compiledTemplates.put( templateName,
+                                   template );
+        }
+        String drl = String.valueOf( TemplateRuntime.execute( template,
+                                                              vars,
+                                                              new MapVariableResolverFactory() ) );
+
+        DrlParser parser = new DrlParser( builder.getBuilderConfiguration().getLanguageLevel() );
+        PackageDescr pkg = parser.parse( false,
+                                         drl );
+        return reportErrors( parser ) ? null : pkg.getRules();
+    }
+
+    /**
+     * The rule descriptors parsed from a template, kept serialized so that they can be cloned
+     * for each row, together with the compiled expressions of the placeholders they contain
+     */
+    static class RuleSkeleton {
+
+        private final byte[]         descrs;
+
+        private final Serializable[] expressions;
+
+        private RuleSkeleton( byte[] descrs,
+                              Serializable[] expressions ) {
+            this.descrs = descrs;
+            this.expressions = expressions;
+        }
+
+        /**
+         * Returns the skeleton of the template contents, or null if they cannot be turned into one
+         */
+        static RuleSkeleton compile( String contents,
+                                     DrlParser parser ) {
+            if ( ORB_TAG.matcher( contents ).find() || contents.contains( MARKER_PREFIX ) ) {
+                return null;
+            }
+
+            List<Serializable> expressions = new ArrayList<Serializable>();
+            StringBuffer drl = new StringBuffer();
+            Matcher matcher = PLACEHOLDER.matcher( contents );
+            while ( matcher.find() ) {
+                matcher.appendReplacement( drl,
+                                           Matcher.quoteReplacement( MARKER_PREFIX + expressions.size() + "$" ) );
+                expressions.add( MVEL.compileExpression( matcher.group( 1 ).trim() ) );
+            }
+            matcher.appendTail( drl );
+
+            try {
+                PackageDescr pkg = parser.parse( false,
+                                                 drl.toString() );
+                if ( parser.hasErrors() || pkg == null || pkg.getRules().isEmpty() ||
+                     !pkg.getFunctions().isEmpty() || !pkg.getTypeDeclarations().isEmpty() ||
+                     !pkg.getGlobals().isEmpty() || !pkg.getImports().isEmpty() ) {
+                    return null;
+                }
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                MarkerTrackingOutputStream out = new MarkerTrackingOutputStream( bytes );
+                out.writeObject( new ArrayList<RuleDescr>( pkg.getRules() ) );
+                out.close();
+
+                // every placeholder must have ended up, unchanged, in the descriptors
+                if ( out.markers.cardinality() != expressions.size() ) {
+                    return null;
+                }
+                return new RuleSkeleton( bytes.toByteArray(),
+                                         expressions.toArray( new Serializable[expressions.size()] ) );
+            } catch ( Exception e ) {
+                return null;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        List<RuleDescr> bind( Map<String, Object> vars ) throws IOException, ClassNotFoundException {
+            String[] values = new String[expressions.length];
+            for ( int i = 0; i < expressions.length; i++ ) {
+                values[i] = String.valueOf( MVEL.executeExpression( expressions[i],
+                                                                    vars ) );
+            }
+            BindingInputStream in = new BindingInputStream( new ByteArrayInputStream( descrs ),
+                                                            values );
+            try {
+                return (List<RuleDescr>) in.readObject();
+            } finally {
+                in.close();
+            }
+        }
+    }
+
+    private static class MarkerTrackingOutputStream extends ObjectOutputStream {
+
+        private final BitSet markers = new BitSet();
+
+        MarkerTrackingOutputStream( OutputStream out ) throws IOException {
+            super( out );
+            enableReplaceObject( true );
+        }
+
+        @Override
+        protected Object replaceObject( Object obj ) throws IOException {
+            if ( obj instanceof String && ( (String) obj ).contains( MARKER_PREFIX ) ) {
+                Matcher matcher = MARKER.matcher( (String) obj );
+                while ( matcher.find() ) {
+                    markers.set( Integer.parseInt( matcher.group( 1 ) ) );
+                }
+            }
+            return obj;
+        }
+    }
+
+    private static class BindingInputStream extends ObjectInputStream {
+
+        private final String[] values;
+
+        BindingInputStream( InputStream in,
+                            String[] values ) throws IOException {
+            super( in );
+            this.values = values;
+            enableResolveObject( true );
+        }
+
+        @Override
+        protected Class<?> resolveClass( ObjectStreamClass desc ) throws IOException, ClassNotFoundException {
+            try {
+                return Class.forName( desc.getName(),
+                                      false,
+                                      RuleDescr.class.getClassLoader() );
+            } catch ( ClassNotFoundException e ) {
+                return super.resolveClass( desc );
+            }
+        }
+
+        @Override
+        protected Object resolveObject( Object obj ) throws IOException {
+            if ( obj instanceof String && ( (String) obj ).contains( MARKER_PREFIX ) ) {
+                Matcher matcher = MARKER.matcher( (String) obj );
+                StringBuffer bound = new StringBuffer();
+                while ( matcher.find() ) {
+                    matcher.appendReplacement( bound,
+                                               Matcher.quoteReplacement( values[Integer.parseInt( matcher.group( 1 ) )] ) );
+                }
+                matcher.appendTail( bound );
+                return bound.toString();
+            }
+            return obj;
+        }
+    }
+}
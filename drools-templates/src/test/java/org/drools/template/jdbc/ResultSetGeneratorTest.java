@@ -1,6 +1,10 @@
 package org.drools.template.jdbc;
 
+import org.drools.compiler.builder.impl.KnowledgeBuilderImpl;
 import org.drools.core.WorkingMemory;
+import org.drools.template.parser.DefaultTemplateContainer;
+import org.drools.template.parser.RuleDescrDataListener;
+import org.drools.template.parser.TemplateContainer;
 import org.junit.Test;
 import org.kie.api.io.ResourceType;
 import org.kie.internal.KnowledgeBase;
@@ -78,6 +82,53 @@ public class ResultSetGeneratorTest {
 
     }
 
+    @Test
+    public void testResultSetStreamedIntoBuilder() throws Exception {
+
+        Class.forName("org.hsqldb.jdbcDriver");
+        Connection conn = DriverManager.getConnection("jdbc:hsqldb:mem:drools-templates-streamed", "sa", "");
+
+        try {
+            update("CREATE TABLE cheese_rules ( id INTEGER IDENTITY, persons_age INTEGER, cheese_type VARCHAR(256), log VARCHAR(256) )", conn);
+
+            for (int i = 0; i < 50; i++) {
+                update("INSERT INTO cheese_rules(persons_age,cheese_type,log) VALUES(" + i + ", 'stilton', 'Stilton fan " + i + "')", conn);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not initialize in memory database", e);
+        }
+
+        Statement sta = conn.createStatement();
+        ResultSet rs = sta.executeQuery("SELECT persons_age, cheese_type, log " +
+                                        " FROM cheese_rules");
+
+        // the rules are added to the builder as descriptors, in chunks smaller than the number of rows
+        KnowledgeBuilder kbuilder = KnowledgeBuilderFactory.newKnowledgeBuilder();
+        TemplateContainer tc = new DefaultTemplateContainer(getRulesStream());
+        RuleDescrDataListener listener = new RuleDescrDataListener(1, 1, tc, (KnowledgeBuilderImpl) kbuilder, 20);
+        int rules = new ResultSetGenerator().compile(rs, listener);
+
+        sta.close();
+
+        assertFalse(kbuilder.getErrors().toString(), kbuilder.hasErrors());
+        assertEquals(50, rules);
+
+        KnowledgeBase kbase = KnowledgeBaseFactory.newKnowledgeBase();
+        kbase.addKnowledgePackages(kbuilder.getKnowledgePackages());
+        assertEquals(50, kbase.getKnowledgePackage("org.drools.template.jdbc").getRules().size());
+        StatefulKnowledgeSession kSession = kbase.newStatefulKnowledgeSession();
+
+        kSession.insert(new Cheese("stilton", 42));
+        kSession.insert(new Person("michael", "stilton", 42));
+        List<String> list = new ArrayList<String>();
+        kSession.setGlobal("list", list);
+
+        kSession.fireAllRules();
+
+        assertEquals(1, list.size());
+        assertEquals("Stilton fan 42", list.get(0));
+    }
+
      /**
      * simple getter method looks up our template as a Resource
      *
@@ -54,7 +54,7 @@ public class DefaultTemplateRuleBaseTest {
         InternalKnowledgePackage[] packages = ((KnowledgeBaseImpl)ruleBase.newStatefulSession().getKieBase()).getPackages();
         assertEquals(1, packages.length);
         Map<String, String> globals = packages[0].getGlobals();
-        assertEquals(DefaultGenerator.class.getName(), globals.get("generator"));
+        assertEquals(RowGenerator.class.getName(), globals.get("generator"));
         Collection<org.kie.api.definition.rule.Rule> rules = packages[0].getRules();
         assertEquals(1, rules.size());
         assertEquals("template1", rules.iterator().next().getName());
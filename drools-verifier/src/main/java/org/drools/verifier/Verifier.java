@@ -38,6 +38,18 @@ public interface Verifier {
     public void addResourcesToVerify(Resource resource,
             ResourceType type, ResourceConfiguration config);
 
+    /**
+     * Removes a rule, and everything the analysis has derived from it, from the verified rules.
+     * Adding again a rule with the same name replaces the previous version in the same way.
+     */
+    public void removeRule(String packageName,
+                           String ruleName);
+
+    /**
+     * Removes all the rules of a package, and everything the analysis has derived from them, from the verified rules.
+     */
+    public void removePackage(String packageName);
+
     /**
      * Give model info optionally as a jar. This way verifier doesn't have to figure out the field types.
      */
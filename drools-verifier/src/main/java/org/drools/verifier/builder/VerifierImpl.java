@@ -18,32 +18,62 @@ package org.drools.verifier.builder;
 
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.jar.JarInputStream;
 
 import org.drools.compiler.compiler.PackageBuilderErrors;
+import org.drools.compiler.lang.DrlDumper;
 import org.drools.compiler.lang.descr.PackageDescr;
+import org.drools.compiler.lang.descr.RuleDescr;
 import org.drools.verifier.DefaultVerifierConfiguration;
 import org.drools.verifier.Verifier;
 import org.drools.verifier.VerifierConfiguration;
 import org.drools.verifier.VerifierError;
+import org.drools.verifier.components.PackageComponent;
 import org.drools.verifier.components.RulePackage;
 import org.drools.verifier.components.VerifierRule;
+import org.drools.verifier.data.VerifierComponent;
+import org.drools.verifier.data.VerifierData;
 import org.drools.verifier.data.VerifierReport;
 import org.drools.verifier.data.VerifierReportFactory;
 import org.drools.verifier.misc.DrlPackageParser;
 import org.drools.verifier.misc.DrlRuleParser;
+import org.drools.verifier.report.components.Cause;
+import org.drools.verifier.report.components.Gap;
+import org.drools.verifier.report.components.MissingNumberPattern;
+import org.drools.verifier.report.components.MissingRange;
+import org.drools.verifier.report.components.Severity;
+import org.drools.verifier.report.components.VerifierMessageBase;
 import org.drools.verifier.visitor.PackageDescrVisitor;
 import org.kie.internal.KnowledgeBase;
 import org.kie.internal.builder.KnowledgeBuilderError;
 import org.kie.api.io.Resource;
 import org.kie.api.io.ResourceConfiguration;
 import org.kie.api.io.ResourceType;
+import org.kie.api.event.rule.ObjectDeletedEvent;
+import org.kie.api.event.rule.ObjectInsertedEvent;
+import org.kie.api.event.rule.ObjectUpdatedEvent;
+import org.kie.api.event.rule.RuleRuntimeEventListener;
+import org.kie.api.runtime.rule.FactHandle;
 import org.kie.internal.runtime.StatefulKnowledgeSession;
 
 /**
  * This is the main user class for verifier. This will use rules to validate
  * rules, caching the "knowledge base" of verifier rules.
+ *
+ * The analysis session is kept alive between the calls to fireAnalysis(), so that only the
+ * components added since the previous analysis are inserted. Adding again a package that has
+ * already been verified only analyses the rules whose DRL has changed: their old components are
+ * retracted, together with the facts and the report items that have been derived from them,
+ * before the new version is analysed. The derived facts and the report items are indexed by
+ * the causes they have been derived from, so the retraction only visits what depends on the
+ * retracted components.
  */
 public class VerifierImpl
     implements
@@ -62,6 +92,19 @@ public class VerifierImpl
 
     private VerifierPackageBuilder      verifierPackageBuilder = new VerifierPackageBuilder();
 
+    private Map<VerifierComponent, FactHandle> insertedComponents = new IdentityHashMap<VerifierComponent, FactHandle>();
+
+    // the facts inserted by the analysis rules, like subsumptions or redundancies
+    private Map<Object, FactHandle>     derivedFacts           = new IdentityHashMap<Object, FactHandle>();
+
+    // the derived facts and the report items, by each of their direct causes
+    private Map<Cause, List<Object>>    dependents             = new IdentityHashMap<Cause, List<Object>>();
+
+    // the DRL of the verified rules, by package and rule name
+    private Map<String, Map<String, String>> verifiedRules     = new HashMap<String, Map<String, String>>();
+
+    private DrlDumper                   drlDumper;
+
     public VerifierImpl(VerifierConfiguration conf) {
         this.conf = conf;
     }
@@ -83,16 +126,171 @@ public class VerifierImpl
     public void addPackageDescr(PackageDescr descr) {
         try {
 
-            PackageDescrVisitor ruleFlattener = new PackageDescrVisitor( result.getVerifierData(),
+            VerifierData data = result.getVerifierData();
+            boolean known = data.getPackageByName( descr.getName() ) != null;
+
+            Map<String, String> verified = verifiedRules.get( descr.getName() );
+            if ( verified == null ) {
+                verified = new HashMap<String, String>();
+                verifiedRules.put( descr.getName(),
+                                   verified );
+            }
+
+            // Only the rules that have changed since they were verified are analysed again
+            List<RuleDescr> changed = new ArrayList<RuleDescr>();
+            for ( RuleDescr ruleDescr : descr.getRules() ) {
+                String drl = dumpRule( descr,
+                                       ruleDescr );
+                if ( known && drl != null && drl.equals( verified.get( ruleDescr.getName() ) )
+                     && data.getRuleByName( ruleDescr.getName() ) != null ) {
+                    continue;
+                }
+                removeRule( descr.getName(),
+                            ruleDescr.getName() );
+                verified.put( ruleDescr.getName(),
+                              drl );
+                changed.add( ruleDescr );
+            }
+
+            PackageDescrVisitor ruleFlattener = new PackageDescrVisitor( data,
                                                                          jars );
 
-            ruleFlattener.visitPackageDescr( descr );
+            ruleFlattener.visitPackageDescr( descr,
+                                             changed );
 
         } catch ( Throwable t ) {
             t.printStackTrace();
         }
     }
 
+    /**
+     * Returns the DRL of the rule with the imports of its package, or null if it cannot be dumped
+     */
+    private String dumpRule(PackageDescr descr,
+                            RuleDescr ruleDescr) {
+        PackageDescr pkg = new PackageDescr( descr.getNamespace() );
+        pkg.addAllImports( descr.getImports() );
+        int loadOrder = ruleDescr.getLoadOrder();
+        pkg.addRule( ruleDescr );
+        ruleDescr.setLoadOrder( loadOrder );
+        try {
+            if ( drlDumper == null ) {
+                drlDumper = new DrlDumper();
+            }
+            return drlDumper.dump( pkg );
+        } catch ( RuntimeException e ) {
+            return null;
+        }
+    }
+
+    public void removeRule(String packageName,
+                           String ruleName) {
+        Map<String, String> verified = verifiedRules.get( packageName );
+        if ( verified != null ) {
+            verified.remove( ruleName );
+        }
+
+        VerifierRule rule = result.getVerifierData().getRuleByName( ruleName );
+        if ( rule == null || !packageName.equals( rule.getPackageName() ) ) {
+            return;
+        }
+
+        List<VerifierComponent> components = new ArrayList<VerifierComponent>();
+        components.add( rule );
+        components.addAll( result.getVerifierData().getRuleComponentsByRulePath( rule.getPath() ) );
+        removeComponents( components );
+    }
+
+    public void removePackage(String packageName) {
+        verifiedRules.remove( packageName );
+
+        List<VerifierComponent> components = new ArrayList<VerifierComponent>();
+        for ( VerifierComponent component : result.getVerifierData().getAll() ) {
+            if ( component instanceof PackageComponent && packageName.equals( ( (PackageComponent) component ).getPackageName() ) ) {
+                components.add( component );
+            } else if ( component instanceof RulePackage && packageName.equals( ( (RulePackage) component ).getName() ) ) {
+                components.add( component );
+            }
+        }
+        removeComponents( components );
+    }
+
+    private void removeComponents(Collection<VerifierComponent> components) {
+        if ( components.isEmpty() ) {
+            return;
+        }
+
+        Map<Object, Boolean> removed = new IdentityHashMap<Object, Boolean>();
+        LinkedList<Cause> causes = new LinkedList<Cause>();
+
+        VerifierData data = result.getVerifierData();
+        for ( VerifierComponent component : components ) {
+            data.remove( component );
+            FactHandle handle = insertedComponents.remove( component );
+            if ( handle != null ) {
+                ksession.delete( handle );
+            }
+            removed.put( component,
+                         Boolean.TRUE );
+            causes.add( component );
+        }
+
+        // Walk what has been derived from the removed components, and what has been derived from that
+        while ( !causes.isEmpty() ) {
+            List<Object> derived = dependents.remove( causes.removeFirst() );
+            if ( derived == null ) {
+                continue;
+            }
+            for ( Object object : derived ) {
+                if ( removed.put( object,
+                                  Boolean.TRUE ) != null ) {
+                    continue;
+                }
+
+                FactHandle handle = derivedFacts.remove( object );
+                if ( handle != null && ksession != null ) {
+                    ksession.delete( handle );
+                }
+
+                if ( object instanceof VerifierMessageBase ) {
+                    result.remove( (VerifierMessageBase) object );
+                } else if ( object instanceof Gap ) {
+                    result.remove( (Gap) object );
+                } else if ( object instanceof MissingNumberPattern ) {
+                    result.remove( (MissingNumberPattern) object );
+                }
+
+                if ( object instanceof Cause ) {
+                    causes.add( (Cause) object );
+                }
+            }
+        }
+    }
+
+    private void addDependent(Object dependent,
+                              Cause cause) {
+        if ( cause == null ) {
+            return;
+        }
+        List<Object> list = dependents.get( cause );
+        if ( list == null ) {
+            list = new ArrayList<Object>( 2 );
+            dependents.put( cause,
+                            list );
+        }
+        list.add( dependent );
+    }
+
+    private void addDependent(Object dependent,
+                              Collection<Cause> causes) {
+        if ( causes != null ) {
+            for ( Cause cause : causes ) {
+                addDependent( dependent,
+                              cause );
+            }
+        }
+    }
+
     public void addObjectModel(JarInputStream jar) {
         this.jars.add( jar );
     }
@@ -104,6 +302,9 @@ public class VerifierImpl
      */
     public synchronized void reloadVerifierKnowledgeBase() throws Exception {
         updateRuleBase();
+        if ( ksession != null ) {
+            updateKnowledgeSession();
+        }
     }
 
     /*
@@ -123,20 +324,26 @@ public class VerifierImpl
     private boolean analyse(ScopesAgendaFilter scopesAgendaFilter) {
         try {
 
-            if ( this.verifierKnowledgeBase == null ) {
-                synchronized ( this.getClass() ) {
+            synchronized ( this ) {
+                if ( this.verifierKnowledgeBase == null ) {
                     updateRuleBase();
+                }
+                if ( this.ksession == null ) {
                     updateKnowledgeSession();
                 }
             }
 
-            for ( Object object : result.getVerifierData().getAll() ) {
-                ksession.insert( object );
+            // Only the components added since the previous analysis are new to the session
+            for ( VerifierComponent object : result.getVerifierData().getAll() ) {
+                if ( !insertedComponents.containsKey( object ) ) {
+                    insertedComponents.put( object,
+                                            ksession.insert( object ) );
+                }
             }
 
-            // Object that returns the results.
+            // Object that returns the results, indexing what they are derived from.
             ksession.setGlobal( "result",
-                                result );
+                                new IndexingVerifierReport() );
 
             ksession.fireAllRules( scopesAgendaFilter );
 
@@ -156,7 +363,10 @@ public class VerifierImpl
             this.ksession.dispose();
         }
 
+        insertedComponents.clear();
+        derivedFacts.clear();
         ksession = verifierKnowledgeBase.newStatefulKnowledgeSession();
+        ksession.addEventListener( new DerivedFactsListener() );
     }
 
     /**
@@ -186,8 +396,11 @@ public class VerifierImpl
      */
     public void dispose() {
         if ( ksession != null ) {
-            synchronized ( this.getClass() ) {
+            synchronized ( this ) {
                 ksession.dispose();
+                ksession = null;
+                insertedComponents.clear();
+                derivedFacts.clear();
             }
         }
     }
@@ -294,4 +507,93 @@ public class VerifierImpl
     public boolean hasErrors() {
         return !errors.isEmpty();
     }
+
+    /**
+     * Indexes the facts inserted by the analysis rules by their causes
+     */
+    private class DerivedFactsListener
+        implements
+        RuleRuntimeEventListener {
+
+        public void objectInserted(ObjectInsertedEvent event) {
+            Object object = event.getObject();
+            if ( !(object instanceof VerifierComponent) && object instanceof Cause ) {
+                derivedFacts.put( object,
+                                  event.getFactHandle() );
+                addDependent( object,
+                              ( (Cause) object ).getCauses() );
+            }
+        }
+
+        public void objectUpdated(ObjectUpdatedEvent event) {
+        }
+
+        public void objectDeleted(ObjectDeletedEvent event) {
+            derivedFacts.remove( event.getOldObject() );
+        }
+    }
+
+    /**
+     * The report seen by the analysis rules, indexing the report items by their causes
+     */
+    private class IndexingVerifierReport
+        implements
+        VerifierReport {
+
+        public void add(Gap gap) {
+            addDependent( gap,
+                          gap.getCauses() );
+            result.add( gap );
+        }
+
+        public void remove(Gap gap) {
+            result.remove( gap );
+        }
+
+        public void add(MissingNumberPattern missingNumberPattern) {
+            addDependent( missingNumberPattern,
+                          missingNumberPattern.getCauses() );
+            result.add( missingNumberPattern );
+        }
+
+        public void remove(MissingNumberPattern missingNumberPattern) {
+            result.remove( missingNumberPattern );
+        }
+
+        public VerifierData getVerifierData(VerifierData data) {
+            return result.getVerifierData( data );
+        }
+
+        public VerifierData getVerifierData() {
+            return result.getVerifierData();
+        }
+
+        public Collection<MissingRange> getRangeCheckCauses() {
+            return result.getRangeCheckCauses();
+        }
+
+        public Collection<Gap> getGapsByFieldId(String fieldId) {
+            return result.getGapsByFieldId( fieldId );
+        }
+
+        public void add(VerifierMessageBase note) {
+            addDependent( note,
+                          note.getFaulty() );
+            addDependent( note,
+                          note.getCauses() );
+            result.add( note );
+        }
+
+        public void remove(VerifierMessageBase note) {
+            result.remove( note );
+        }
+
+        public Collection<VerifierMessageBase> getBySeverity(Severity severity) {
+            return result.getBySeverity( severity );
+        }
+
+        public Collection<MissingRange> getRangeCheckCausesByFieldPath(String path) {
+            return result.getRangeCheckCausesByFieldPath( path );
+        }
+    }
 }
@@ -25,6 +25,8 @@ public interface VerifierData {
 
     public void add(VerifierComponent object);
 
+    public void remove(VerifierComponent object);
+
     public <T extends VerifierComponent> T getVerifierObject(VerifierComponentType type,
                                                              String path);
 
@@ -60,4 +62,9 @@ public interface VerifierData {
                                                                   String packageName);
 
     public Import getImportByName(String name);
+
+    /**
+     * Returns the components of the rule with the given path, not including the rule itself
+     */
+    public Collection<RuleComponent> getRuleComponentsByRulePath(String rulePath);
 }
@@ -25,10 +25,12 @@ import org.drools.verifier.components.Field;
 import org.drools.verifier.components.Import;
 import org.drools.verifier.components.ObjectType;
 import org.drools.verifier.components.Restriction;
+import org.drools.verifier.components.RuleComponent;
 import org.drools.verifier.components.RulePackage;
 import org.drools.verifier.components.Variable;
 import org.drools.verifier.components.VerifierComponentType;
 import org.drools.verifier.components.VerifierRule;
+import org.kie.api.runtime.rule.FactHandle;
 import org.kie.internal.KnowledgeBase;
 import org.kie.internal.KnowledgeBaseFactory;
 import org.kie.internal.builder.KnowledgeBuilder;
@@ -105,10 +107,21 @@ class VerifierDataKnowledgeSession
         return null;
     }
 
+    public Collection<RuleComponent> getRuleComponentsByRulePath(String rulePath) {
+        return null;
+    }
+
     public void add(VerifierComponent object) {
         kSession.insert( object );
     }
 
+    public void remove(VerifierComponent object) {
+        FactHandle handle = kSession.getFactHandle( object );
+        if ( handle != null ) {
+            kSession.delete( handle );
+        }
+    }
+
     //    public <T extends VerifierComponent> Collection<T> getAll(VerifierComponentType type) {
     public Collection< ? extends VerifierComponent> getAll(VerifierComponentType type) {
         return null;
@@ -40,6 +40,7 @@ class VerifierDataMaps
     private Map<String, VerifierRule> rulesByName = new TreeMap<String, VerifierRule>(STRING_NULL_SAFE_COMPARATOR);
     private Map<String, Import> importsByName = new TreeMap<String, Import>(STRING_NULL_SAFE_COMPARATOR);
     private Multimap<String, VerifierRule> rulesByCategory = TreeMultimap.create();
+    private Multimap<String, RuleComponent> ruleComponentsByRulePath = TreeMultimap.create();
 
     public Collection<ObjectType> getObjectTypesByRuleName(String ruleName) {
         Set<ObjectType> set = new HashSet<ObjectType>();
@@ -114,6 +115,10 @@ class VerifierDataMaps
         return restrictionsByFieldId.get(id);
     }
 
+    public Collection<RuleComponent> getRuleComponentsByRulePath(String rulePath) {
+        return ruleComponentsByRulePath.get(rulePath);
+    }
+
     public void add(VerifierComponent object) {
         if (VerifierComponentType.FIELD.equals(object.getVerifierComponentType())) {
             Field field = (Field) object;
@@ -167,6 +172,11 @@ class VerifierDataMaps
                     entryPoint);
         }
 
+        if (object instanceof RuleComponent) {
+            ruleComponentsByRulePath.put(((RuleComponent) object).getRulePath(),
+                    (RuleComponent) object);
+        }
+
         Map<String, VerifierComponent> map = all.get(object.getVerifierComponentType());
 
         if (map == null) {
@@ -182,6 +192,67 @@ class VerifierDataMaps
 
     }
 
+    public void remove(VerifierComponent object) {
+        if (VerifierComponentType.FIELD.equals(object.getVerifierComponentType())) {
+            Field field = (Field) object;
+            ObjectType objectType = (ObjectType) getVerifierObject(VerifierComponentType.OBJECT_TYPE,
+                    field.getObjectTypePath());
+            if (objectType != null) {
+                fieldsByObjectTypeAndFieldName.remove(objectType.getFullName() + "." + field.getName());
+            }
+            fieldsByObjectTypeId.remove(field.getObjectTypePath(),
+                    field);
+        } else if (VerifierComponentType.RULE.equals(object.getVerifierComponentType())) {
+            VerifierRule rule = (VerifierRule) object;
+            if (rulesByName.get(rule.getName()) == rule) {
+                rulesByName.remove(rule.getName());
+            }
+            if (rule.getMetadata().containsKey("category")) {
+                rulesByCategory.remove(rule.getMetaAttribute("category"),
+                        rule);
+            }
+        } else if (isAVariable(object)) {
+            Variable variable = (Variable) object;
+            variablesByRuleAndVariableName.remove(variable.getRuleName() + "." + variable.getName());
+        } else if (VerifierComponentType.PATTERN.equals(object.getVerifierComponentType())) {
+            Pattern pattern = (Pattern) object;
+
+            patternsByObjectTypeId.remove(pattern.getObjectTypePath(),
+                    pattern);
+            patternsByRuleName.remove(pattern.getRuleName(),
+                    pattern);
+        } else if (VerifierComponentType.RESTRICTION.equals(object.getVerifierComponentType())) {
+            Restriction restriction = (Restriction) object;
+
+            restrictionsByFieldId.remove(restriction.getFieldPath(),
+                    restriction);
+        } else if (VerifierComponentType.RULE_PACKAGE.equals(object.getVerifierComponentType())) {
+            RulePackage rulePackage = (RulePackage) object;
+
+            packagesByName.remove(rulePackage.getName());
+        } else if (VerifierComponentType.IMPORT.equals(object.getVerifierComponentType())) {
+            Import objectImport = (Import) object;
+            importsByName.remove(objectImport.getName());
+        } else if (VerifierComponentType.OBJECT_TYPE.equals(object.getVerifierComponentType())) {
+            ObjectType objectType = (ObjectType) object;
+            objectTypesByFullName.remove(objectType.getFullName());
+        } else if (VerifierComponentType.ENTRY_POINT_DESCR.equals(object.getVerifierComponentType())) {
+            EntryPoint entryPoint = (EntryPoint) object;
+            entryPointsByEntryId.remove(entryPoint.getEntryPointName());
+        }
+
+        if (object instanceof RuleComponent) {
+            ruleComponentsByRulePath.remove(((RuleComponent) object).getRulePath(),
+                    object);
+        }
+
+        Map<String, VerifierComponent> map = all.get(object.getVerifierComponentType());
+
+        if (map != null && map.get(object.getPath()) == object) {
+            map.remove(object.getPath());
+        }
+    }
+
     private boolean isAVariable(VerifierComponent object) {
         return VerifierComponentType.PATTERN_LEVEL_VARIABLE.equals(object.getVerifierComponentType()) || VerifierComponentType.FIELD_LEVEL_VARIABLE.equals(object.getVerifierComponentType());
     }
@@ -32,6 +32,8 @@ public interface VerifierReport {
 
     public void add(MissingNumberPattern missingNumberPattern);
 
+    public void remove(MissingNumberPattern missingNumberPattern);
+
     public VerifierData getVerifierData(VerifierData data);
 
     public VerifierData getVerifierData();
@@ -42,6 +44,8 @@ public interface VerifierReport {
 
     public void add(VerifierMessageBase note);
 
+    public void remove(VerifierMessageBase note);
+
     /**
      * Return all the items that have given severity value.
      * 
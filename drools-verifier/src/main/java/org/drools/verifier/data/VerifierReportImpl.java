@@ -57,6 +57,12 @@ public class VerifierReportImpl
                                 message );
     }
 
+    public void remove(VerifierMessageBase message) {
+        messages.remove( message );
+        messagesBySeverity.remove( message.getSeverity(),
+                                   message );
+    }
+
     public Collection<VerifierMessageBase> getBySeverity(Severity severity) {
         Collection<VerifierMessageBase> result = messagesBySeverity.get( severity );
 
@@ -105,6 +111,13 @@ public class VerifierReportImpl
                                             missingNumberPattern );
     }
 
+    public void remove(MissingNumberPattern missingNumberPattern) {
+        missingNumberPatternsById.remove( missingNumberPattern.getGuid() );
+
+        missingNumberPatternsByFieldId.remove( missingNumberPattern.getField().getPath(),
+                                               missingNumberPattern );
+    }
+
     public Collection<MissingRange> getRangeCheckCausesByFieldPath(String id) {
         Collection<MissingRange> result = new ArrayList<MissingRange>();
 
@@ -46,6 +46,14 @@ public class PackageDescrVisitor {
     }
 
     public void visitPackageDescr(PackageDescr descr) throws UnknownDescriptionException, ClassNotFoundException, IOException {
+        visitPackageDescr(descr, descr.getRules());
+    }
+
+    /**
+     * Visits the package header and only the given rules of the package
+     */
+    public void visitPackageDescr(PackageDescr descr,
+                                  List<RuleDescr> rules) throws UnknownDescriptionException, ClassNotFoundException, IOException {
         rulePackage = data.getPackageByName(descr.getName());
 
         if (rulePackage == null) {
@@ -60,7 +68,7 @@ public class PackageDescrVisitor {
         TypeDeclarationDescrVisitor typeDeclarationDescrVisitor = new TypeDeclarationDescrVisitor(data);
         typeDeclarationDescrVisitor.visit(descr.getTypeDeclarations());
 
-        visitRules(descr.getRules());
+        visitRules(rules);
     }
 
     private void visitImports(List<ImportDescr> importDescrs) throws IOException, ClassNotFoundException {
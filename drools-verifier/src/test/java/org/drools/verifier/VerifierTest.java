@@ -19,11 +19,17 @@ package org.drools.verifier;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 import java.util.jar.JarInputStream;
 
 import org.drools.core.io.impl.ClassPathResource;
@@ -31,12 +37,17 @@ import org.drools.verifier.builder.VerifierBuilder;
 import org.drools.verifier.builder.VerifierBuilderFactory;
 import org.drools.verifier.components.Field;
 import org.drools.verifier.components.ObjectType;
+import org.drools.verifier.components.RuleComponent;
 import org.drools.verifier.components.VerifierComponentType;
+import org.drools.verifier.components.VerifierRule;
+import org.drools.verifier.data.VerifierData;
 import org.drools.verifier.data.VerifierReport;
+import org.drools.verifier.report.components.Cause;
 import org.drools.verifier.report.components.Severity;
 import org.drools.verifier.report.components.VerifierMessageBase;
 import org.junit.Test;
 import org.kie.api.io.ResourceType;
+import org.kie.internal.io.ResourceFactory;
 
 public class VerifierTest {
 
@@ -229,4 +240,171 @@ public class VerifierTest {
                           m.getMessage() );
         }
     }
+
+    @Test
+    public void testIncrementalAnalysis() {
+        VerifierBuilder vBuilder = VerifierBuilderFactory.newVerifierBuilder();
+
+        Verifier verifier = vBuilder.newVerifier();
+
+        verifier.addResourcesToVerify( new ClassPathResource( "Misc3.drl",
+                                                              Verifier.class ),
+                                       ResourceType.DRL );
+
+        assertTrue( verifier.fireAnalysis() );
+
+        VerifierReport result = verifier.getResult();
+        assertEquals( 6,
+                      result.getBySeverity( Severity.WARNING ).size() );
+        assertEquals( 1,
+                      result.getBySeverity( Severity.NOTE ).size() );
+
+        // Removing the package retracts everything that was derived from it
+        verifier.removePackage( "com.misc.missingRanges" );
+
+        assertTrue( verifier.fireAnalysis() );
+
+        assertEquals( 0,
+                      result.getBySeverity( Severity.WARNING ).size() );
+        assertEquals( 0,
+                      result.getBySeverity( Severity.NOTE ).size() );
+        assertNull( result.getVerifierData().getPackageByName( "com.misc.missingRanges" ) );
+
+        // Adding it back reuses the same session
+        verifier.addResourcesToVerify( new ClassPathResource( "Misc3.drl",
+                                                              Verifier.class ),
+                                       ResourceType.DRL );
+
+        assertTrue( verifier.fireAnalysis() );
+
+        assertEquals( 0,
+                      result.getBySeverity( Severity.ERROR ).size() );
+        assertEquals( 6,
+                      result.getBySeverity( Severity.WARNING ).size() );
+        assertEquals( 1,
+                      result.getBySeverity( Severity.NOTE ).size() );
+
+        verifier.dispose();
+    }
+
+    @Test
+    public void testIncrementalAnalysisOfEditedRule() {
+        String header = "package com.misc.incremental\n" +
+                        "\n" +
+                        "rule \"Redundant rule 2, rules\"\n" +
+                        "    when\n" +
+                        "        RedundancyPattern( a == 1 )\n" +
+                        "        RedundancyPattern2( a >= 1 )\n" +
+                        "        RedundancyPattern3( a == 1, a == 1 )\n" +
+                        "    then\n" +
+                        "        System.out.println(\"TEST\");\n" +
+                        "end\n" +
+                        "\n" +
+                        "rule \"Equivalent rule\"\n" +
+                        "    when\n" +
+                        "        BlaaBlaa( a == 1 )\n" +
+                        "        RedundancyPattern( a == 1 )\n" +
+                        "        RedundancyPattern2( a == 1 )\n" +
+                        "    then\n" +
+                        "        System.out.println(\"NOT A TEST\");\n" +
+                        "end\n" +
+                        "\n";
+
+        VerifierBuilder vBuilder = VerifierBuilderFactory.newVerifierBuilder();
+
+        Verifier verifier = vBuilder.newVerifier();
+
+        verifier.addResourcesToVerify( ResourceFactory.newByteArrayResource( ( header + editedRule( 1 ) ).getBytes() ),
+                                       ResourceType.DRL );
+
+        assertTrue( verifier.fireAnalysis() );
+
+        VerifierReport result = verifier.getResult();
+        VerifierData data = result.getVerifierData();
+
+        VerifierRule redundantRule = data.getRuleByName( "Redundant rule 2, rules" );
+        VerifierRule equivalentRule = data.getRuleByName( "Equivalent rule" );
+        VerifierRule editedRule = data.getRuleByName( "Edited rule" );
+        Set<Object> untouchedComponents = identitySet( data.getRuleComponentsByRulePath( redundantRule.getPath() ) );
+        untouchedComponents.addAll( data.getRuleComponentsByRulePath( equivalentRule.getPath() ) );
+
+        int[] counts = new int[Severity.values().length];
+        Set<Object> untouchedMessages = identitySet( Collections.emptyList() );
+        for ( Severity severity : Severity.values() ) {
+            counts[severity.ordinal()] = result.getBySeverity( severity ).size();
+            for ( VerifierMessageBase message : result.getBySeverity( severity ) ) {
+                if ( !dependsOnRule( message.getFaulty(), "Edited rule", identitySet( Collections.emptyList() ) )
+                     && !dependsOnRule( message.getCauses(), "Edited rule", identitySet( Collections.emptyList() ) ) ) {
+                    untouchedMessages.add( message );
+                }
+            }
+        }
+        assertFalse( untouchedMessages.isEmpty() );
+
+        // Only the edited rule is analysed again
+        verifier.addResourcesToVerify( ResourceFactory.newByteArrayResource( ( header + editedRule( 2 ) ).getBytes() ),
+                                       ResourceType.DRL );
+
+        assertTrue( verifier.fireAnalysis() );
+
+        assertSame( redundantRule, data.getRuleByName( "Redundant rule 2, rules" ) );
+        assertSame( equivalentRule, data.getRuleByName( "Equivalent rule" ) );
+        assertNotSame( editedRule, data.getRuleByName( "Edited rule" ) );
+
+        Set<Object> components = identitySet( data.getRuleComponentsByRulePath( redundantRule.getPath() ) );
+        components.addAll( data.getRuleComponentsByRulePath( equivalentRule.getPath() ) );
+        assertEquals( untouchedComponents, components );
+
+        Set<Object> messages = identitySet( Collections.emptyList() );
+        for ( Severity severity : Severity.values() ) {
+            assertEquals( counts[severity.ordinal()], result.getBySeverity( severity ).size() );
+            messages.addAll( result.getBySeverity( severity ) );
+        }
+        assertTrue( messages.containsAll( untouchedMessages ) );
+
+        verifier.dispose();
+    }
+
+    private static String editedRule(int value) {
+        return "rule \"Edited rule\"\n" +
+               "    when\n" +
+               "        Foo( b == " + value + " )\n" +
+               "    then\n" +
+               "        System.out.println(\"EDITED\");\n" +
+               "end\n";
+    }
+
+    private static Set<Object> identitySet(Collection<?> objects) {
+        Set<Object> set = Collections.newSetFromMap( new IdentityHashMap<Object, Boolean>() );
+        set.addAll( objects );
+        return set;
+    }
+
+    private static boolean dependsOnRule(Cause cause,
+                                         String ruleName,
+                                         Set<Object> visited) {
+        if ( cause == null || !visited.add( cause ) ) {
+            return false;
+        }
+        if ( cause instanceof VerifierRule && ruleName.equals( ( (VerifierRule) cause ).getName() ) ) {
+            return true;
+        }
+        if ( cause instanceof RuleComponent && ruleName.equals( ( (RuleComponent) cause ).getRuleName() ) ) {
+            return true;
+        }
+        return dependsOnRule( cause.getCauses(), ruleName, visited );
+    }
+
+    private static boolean dependsOnRule(Collection<Cause> causes,
+                                         String ruleName,
+                                         Set<Object> visited) {
+        if ( causes != null ) {
+            for ( Cause cause : causes ) {
+                if ( dependsOnRule( cause, ruleName, visited ) ) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.workbench.models.testscenarios.backend;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.drools.workbench.models.testscenarios.backend.populators.CompiledExpressionCache;
+import org.drools.workbench.models.testscenarios.shared.Scenario;
+import org.junit.internal.AssumptionViolatedException;
+import org.junit.internal.runners.model.EachTestNotifier;
+import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.model.InitializationError;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
+
+/**
+ * Runs the scenarios like {@link ScenarioRunner4JUnit}, but spreads them over a pool of threads.
+ * Each thread takes the sessions it needs from a pool of sessions created from the KieBase and with
+ * the configuration of the given session, that are emptied after each scenario and reused by the
+ * following ones. The fixture expressions are compiled only once, for all the scenarios.
+ *
+ * The results of the scenarios are reported in the order of the list, with the same descriptions
+ * and notifications as the serial runner, so the reports of the two runners are the same.
+ */
+public class ParallelScenarioRunner4JUnit extends Runner {
+
+    private final int maxRuleFirings;
+    private final int threads;
+    // The description of the test suite
+    private Description descr;
+    // the actual scenario test to be executed
+    private List<Scenario> scenarios;
+    private KieSession ksession;
+
+    private final BlockingQueue<KieSession> sessionPool = new LinkedBlockingQueue<KieSession>();
+    private final CompiledExpressionCache expressionCache = new CompiledExpressionCache();
+
+    public ParallelScenarioRunner4JUnit( final List<Scenario> scenarios,
+                                         final KieSession ksession ) throws InitializationError {
+        this( scenarios,
+              ksession,
+              0,
+              Runtime.getRuntime().availableProcessors() );
+    }
+
+    /**
+     * @param maxRuleFirings Limit for amount of rules that can fire in each scenario, 0 to use the one of the scenario.
+     * @param threads The number of scenarios run at the same time, and so of sessions used.
+     */
+    public ParallelScenarioRunner4JUnit( final List<Scenario> scenarios,
+                                         final KieSession ksession,
+                                         final int maxRuleFirings,
+                                         final int threads ) throws InitializationError {
+        if ( threads < 1 ) {
+            throw new InitializationError( "The number of threads must be positive: " + threads );
+        }
+        this.scenarios = scenarios;
+        this.ksession = ksession;
+        this.descr = Description.createSuiteDescription( "Scenario test cases" );
+        this.maxRuleFirings = maxRuleFirings;
+        this.threads = threads;
+    }
+
+    @Override
+    public Description getDescription() {
+        return descr;
+    }
+
+    @Override
+    public void run( RunNotifier notifier ) {
+        ExecutorService executor = Executors.newFixedThreadPool( Math.min( threads, Math.max( scenarios.size(), 1 ) ),
+                                                                 new ScenarioThreadFactory() );
+        if ( ksession != null ) {
+            sessionPool.add( ksession );
+        }
+        try {
+            List<Future<Throwable>> results = new ArrayList<Future<Throwable>>( scenarios.size() );
+            for ( Scenario scenario : scenarios ) {
+                results.add( executor.submit( new ScenarioTask( scenario ) ) );
+            }
+
+            for ( int i = 0; i < scenarios.size(); i++ ) {
+                Description childDescription = Description.createTestDescription( ScenarioRunner4JUnit.class,
+                                                                                  scenarios.get( i ).getName() );
+                descr.addChild( childDescription );
+                reportResult( new EachTestNotifier( notifier,
+                                                    childDescription ),
+                              scenarios.get( i ),
+                              results.get( i ) );
+            }
+        } finally {
+            executor.shutdownNow();
+            for ( KieSession pooled = sessionPool.poll(); pooled != null; pooled = sessionPool.poll() ) {
+                if ( pooled != ksession ) {
+                    pooled.dispose();
+                }
+            }
+        }
+    }
+
+    private void reportResult( final EachTestNotifier eachNotifier,
+                               final Scenario scenario,
+                               final Future<Throwable> result ) {
+        try {
+            eachNotifier.fireTestStarted();
+
+            Throwable failure = getResult( result );
+            if ( failure != null ) {
+                throw failure;
+            }
+            if ( !scenario.wasSuccessful() ) {
+                StringBuilder builder = new StringBuilder();
+                for ( String message : scenario.getFailureMessages() ) {
+                    builder.append( message ).append( "\n" );
+                }
+                eachNotifier.addFailedAssumption( new AssumptionViolatedException( builder.toString() ) );
+            }
+        } catch ( Throwable t ) {
+            eachNotifier.addFailure( t );
+        } finally {
+            // has to always be called as per junit docs
+            eachNotifier.fireTestFinished();
+        }
+    }
+
+    private Throwable getResult( final Future<Throwable> result ) {
+        try {
+            return result.get();
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            return e;
+        } catch ( ExecutionException e ) {
+            return e.getCause();
+        }
+    }
+
+    private KieSession borrowSession() {
+        KieSession pooled = sessionPool.poll();
+        if ( pooled != null ) {
+            return pooled;
+        }
+        // the same clock type is needed by the scenarios advancing the time
+        return ksession.getKieBase().newKieSession( ksession.getSessionConfiguration(),
+                                                    null );
+    }
+
+    private void returnSession( final KieSession pooled ) {
+        try {
+            // FLUSSSSSH!
+            for ( FactHandle factHandle : pooled.getFactHandles() ) {
+                pooled.delete( factHandle );
+            }
+            sessionPool.add( pooled );
+        } catch ( RuntimeException e ) {
+            // a session that can't be emptied would spoil the next scenarios
+            if ( pooled != ksession ) {
+                pooled.dispose();
+            }
+        }
+    }
+
+    /**
+     * Runs a scenario, returning the error that stopped it, if any
+     */
+    private class ScenarioTask
+            implements
+            Callable<Throwable> {
+
+        private final Scenario scenario;
+
+        private ScenarioTask( final Scenario scenario ) {
+            this.scenario = scenario;
+        }
+
+        public Throwable call() {
+            //If a KieSession is not available, fail fast
+            if ( ksession == null ) {
+                return new NullKieSessionException( "Unable to get a Session to run tests. Check the project for build errors." );
+            }
+            try {
+                KieSession pooled = borrowSession();
+                try {
+                    new ScenarioRunner( pooled,
+                                        maxRuleFirings,
+                                        expressionCache ).run( scenario );
+                } finally {
+                    returnSession( pooled );
+                }
+                return null;
+            } catch ( Throwable t ) {
+                return t;
+            }
+        }
+    }
+
+    private static class ScenarioThreadFactory
+            implements
+            ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread( final Runnable runnable ) {
+            Thread thread = new Thread( runnable,
+                                        "scenario-runner-" + count.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        }
+    }
+}
@@ -27,6 +27,7 @@ import java.util.Set;
 
 import org.drools.core.base.ClassTypeResolver;
 import org.drools.core.impl.InternalKnowledgeBase;
+import org.drools.workbench.models.testscenarios.backend.populators.CompiledExpressionCache;
 import org.drools.workbench.models.testscenarios.backend.populators.FactPopulator;
 import org.drools.workbench.models.testscenarios.backend.populators.FactPopulatorFactory;
 import org.drools.workbench.models.testscenarios.shared.ActivateRuleFlowGroup;
@@ -48,6 +49,7 @@ public class ScenarioRunner {
 
     private final KieSession ksession;
     private final int maximumAmountOfRuleFirings;
+    private final CompiledExpressionCache expressionCache;
     private TestScenarioKSessionWrapper workingMemoryWrapper;
     private FactPopulatorFactory factPopulatorFactory;
     private FactPopulator factPopulator;
@@ -77,8 +79,25 @@ public class ScenarioRunner {
      */
     public ScenarioRunner( final KieSession ksession,
                            final int maximumAmountOfRuleFirings ) throws ClassNotFoundException {
+        this( ksession,
+              maximumAmountOfRuleFirings,
+              null );
+    }
+
+    /**
+     * @param ksession A populated type resolved to be used to resolve the types in
+     * the scenario.
+     * @param maximumAmountOfRuleFirings Limit for amount of rules that can fire. To prevent infinite loops.
+     * @param expressionCache Where the fixture expressions are compiled, it can be shared by many runners.
+     * If null the expressions are interpreted.
+     * @throws ClassNotFoundException
+     */
+    public ScenarioRunner( final KieSession ksession,
+                           final int maximumAmountOfRuleFirings,
+                           final CompiledExpressionCache expressionCache ) throws ClassNotFoundException {
         this.ksession = ksession;
         this.maximumAmountOfRuleFirings = maximumAmountOfRuleFirings;
+        this.expressionCache = expressionCache;
     }
 
     public void run( final Scenario scenario ) throws ClassNotFoundException, IllegalAccessException, InstantiationException, InvocationTargetException, NoSuchMethodException {
@@ -99,7 +118,8 @@ public class ScenarioRunner {
                                                                      globalData );
         this.factPopulatorFactory = new FactPopulatorFactory( populatedData,
                                                               globalData,
-                                                              resolver );
+                                                              resolver,
+                                                              expressionCache );
         this.factPopulator = new FactPopulator( ksession,
                                                 populatedData );
 
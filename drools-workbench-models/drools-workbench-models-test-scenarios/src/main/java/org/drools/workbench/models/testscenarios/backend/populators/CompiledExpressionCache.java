@@ -0,0 +1,55 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.workbench.models.testscenarios.backend.populators;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.drools.core.util.MVELSafeHelper;
+import org.mvel2.MVEL;
+
+/**
+ * Keeps the fixture expressions compiled, so each of them is parsed only once however many
+ * times it is evaluated. It can be shared by the scenarios run concurrently against the same KieBase.
+ */
+public class CompiledExpressionCache {
+
+    private final ConcurrentMap<String, Serializable> expressions = new ConcurrentHashMap<String, Serializable>();
+
+    public Object evaluate(final String expression,
+                           final Map<String, Object> vars) {
+        return MVELSafeHelper.getEvaluator().executeExpression( getCompiledExpression( expression ),
+                                                                vars );
+    }
+
+    public Serializable getCompiledExpression(final String expression) {
+        Serializable compiled = expressions.get( expression );
+        if ( compiled == null ) {
+            // compiling twice on a race is harmless, both results are equivalent
+            compiled = MVEL.compileExpression( expression );
+            expressions.put( expression,
+                             compiled );
+        }
+        return compiled;
+    }
+
+    public int size() {
+        return expressions.size();
+    }
+}
@@ -30,9 +30,20 @@ class ExistingFactPopulator extends FactPopulatorBase {
     public ExistingFactPopulator( Map<String, Object> populatedData,
                                   TypeResolver typeResolver,
                                   FactData fact ) throws ClassNotFoundException {
+        this( populatedData,
+              typeResolver,
+              fact,
+              null );
+    }
+
+    public ExistingFactPopulator( Map<String, Object> populatedData,
+                                  TypeResolver typeResolver,
+                                  FactData fact,
+                                  CompiledExpressionCache expressionCache ) throws ClassNotFoundException {
         super( populatedData,
                typeResolver,
-               fact );
+               fact,
+               expressionCache );
     }
 
     protected Object resolveFactObject() throws ClassNotFoundException {
@@ -23,19 +23,37 @@ import org.drools.core.util.MVELSafeHelper;
 public class ExpressionFieldPopulator extends FieldPopulator {
 
     private final String expression;
+    private final CompiledExpressionCache expressionCache;
 
     public ExpressionFieldPopulator(Object factObject,
                                     String fieldName,
                                     String expression) {
+        this( factObject,
+              fieldName,
+              expression,
+              null );
+    }
+
+    public ExpressionFieldPopulator(Object factObject,
+                                    String fieldName,
+                                    String expression,
+                                    CompiledExpressionCache expressionCache) {
         super( factObject,
                fieldName );
         this.expression = expression;
+        this.expressionCache = expressionCache;
     }
 
     @Override
     public void populate(Map<String, Object> populatedData) {
-        populateField( MVELSafeHelper.getEvaluator().eval(expression,
-                                                          populatedData),
-                       populatedData );
+        if ( expressionCache != null ) {
+            populateField( expressionCache.evaluate( expression,
+                                                     populatedData ),
+                           populatedData );
+        } else {
+            populateField( MVELSafeHelper.getEvaluator().eval(expression,
+                                                              populatedData),
+                           populatedData );
+        }
     }
 }
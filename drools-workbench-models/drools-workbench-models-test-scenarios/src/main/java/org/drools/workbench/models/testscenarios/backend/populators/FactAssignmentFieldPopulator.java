@@ -35,19 +35,33 @@ public class FactAssignmentFieldPopulator
                                         FactAssignmentField field,
                                         TypeResolver resolver)
             throws ClassNotFoundException, IllegalAccessException, InstantiationException, InvocationTargetException, NoSuchMethodException {
+        this(factObject,
+                field,
+                resolver,
+                null);
+    }
+
+    public FactAssignmentFieldPopulator(Object factObject,
+                                        FactAssignmentField field,
+                                        TypeResolver resolver,
+                                        CompiledExpressionCache expressionCache)
+            throws ClassNotFoundException, IllegalAccessException, InstantiationException, InvocationTargetException, NoSuchMethodException {
         super(factObject,
                 field.getName());
         this.fact = resolver.resolveType(resolver.getFullTypeName(field.getFact().getType())).newInstance();
 
         initSubFieldPopulators(field,
-                resolver);
+                resolver,
+                expressionCache);
     }
 
     private void initSubFieldPopulators(FactAssignmentField field,
-                                        TypeResolver resolver)
+                                        TypeResolver resolver,
+                                        CompiledExpressionCache expressionCache)
             throws ClassNotFoundException, InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException {
         FieldPopulatorFactory fieldPopulatorFactory = new FieldPopulatorFactory(fact,
-                resolver);
+                resolver,
+                expressionCache);
         for (Field subField : field.getFact().getFieldData()) {
             try {
                 subFieldPopulators.add(fieldPopulatorFactory.getFieldPopulator(subField));
@@ -32,13 +32,25 @@ abstract class FactPopulatorBase
     protected final Map<String, Object> populatedData;
     protected final TypeResolver typeResolver;
     protected final FactData fact;
+    protected final CompiledExpressionCache expressionCache;
 
     public FactPopulatorBase(Map<String, Object> populatedData,
                              TypeResolver typeResolver,
                              FactData fact) throws ClassNotFoundException {
+        this(populatedData,
+                typeResolver,
+                fact,
+                null);
+    }
+
+    public FactPopulatorBase(Map<String, Object> populatedData,
+                             TypeResolver typeResolver,
+                             FactData fact,
+                             CompiledExpressionCache expressionCache) throws ClassNotFoundException {
         this.populatedData = populatedData;
         this.typeResolver = typeResolver;
         this.fact = fact;
+        this.expressionCache = expressionCache;
     }
 
     public String getName() {
@@ -49,7 +61,8 @@ abstract class FactPopulatorBase
             throws ClassNotFoundException, IllegalAccessException, InstantiationException, InvocationTargetException, NoSuchMethodException {
 
         FieldPopulatorFactory fieldPopulatorFactory = new FieldPopulatorFactory(factObject,
-                typeResolver);
+                typeResolver,
+                expressionCache);
 
         List<FieldPopulator> fieldPopulators = new ArrayList<FieldPopulator>();
         for (Field field : fact.getFieldData()) {
@@ -26,13 +26,29 @@ public class FactPopulatorFactory {
     private Map<String, Object> populatedData;
     private Map<String, Object> globalData;
     private final TypeResolver  typeResolver;
+    private final CompiledExpressionCache expressionCache;
 
     public FactPopulatorFactory(Map<String, Object> populatedData,
                                 Map<String, Object> globalData,
                                 TypeResolver typeResolver) {
+        this( populatedData,
+              globalData,
+              typeResolver,
+              null );
+    }
+
+    /**
+     * @param expressionCache the compiled fixture expressions, shared by all the facts of the scenario.
+     * If null the expressions are interpreted each time they are evaluated.
+     */
+    public FactPopulatorFactory(Map<String, Object> populatedData,
+                                Map<String, Object> globalData,
+                                TypeResolver typeResolver,
+                                CompiledExpressionCache expressionCache) {
         this.populatedData = populatedData;
         this.globalData = globalData;
         this.typeResolver = typeResolver;
+        this.expressionCache = expressionCache;
     }
 
     public Populator createFactPopulator(FactData fact) throws ClassNotFoundException,
@@ -42,12 +58,14 @@ public class FactPopulatorFactory {
             return new ExistingFactPopulator(
                                               populatedData,
                                               typeResolver,
-                                              fact );
+                                              fact,
+                                              expressionCache );
         } else {
             return new NewFactPopulator(
                                          populatedData,
                                          typeResolver,
-                                         fact );
+                                         fact,
+                                         expressionCache );
         }
     }
 
@@ -58,6 +76,7 @@ public class FactPopulatorFactory {
                                         populatedData,
                                         typeResolver,
                                         fact,
-                                        globalData );
+                                        globalData,
+                                        expressionCache );
     }
 }
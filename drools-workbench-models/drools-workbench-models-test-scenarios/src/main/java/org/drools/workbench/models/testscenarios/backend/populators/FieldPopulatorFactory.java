@@ -29,11 +29,21 @@ class FieldPopulatorFactory {
 
     private final Object factObject;
     private final TypeResolver typeResolver;
+    private final CompiledExpressionCache expressionCache;
 
     public FieldPopulatorFactory(Object factObject,
                                  TypeResolver typeResolver) {
+        this(factObject,
+                typeResolver,
+                null);
+    }
+
+    public FieldPopulatorFactory(Object factObject,
+                                 TypeResolver typeResolver,
+                                 CompiledExpressionCache expressionCache) {
         this.factObject = factObject;
         this.typeResolver = typeResolver;
+        this.expressionCache = expressionCache;
     }
 
     public FieldPopulator getFieldPopulator(Field field) throws ClassNotFoundException,
@@ -50,7 +60,8 @@ class FieldPopulatorFactory {
         } else if (field instanceof FactAssignmentField ) {
             return new FactAssignmentFieldPopulator(factObject,
                     (FactAssignmentField) field,
-                    typeResolver);
+                    typeResolver,
+                    expressionCache);
         } else if (field instanceof CollectionFieldData) {
             return new CollectionFieldPopulator(
                     factObject,
@@ -70,7 +81,8 @@ class FieldPopulatorFactory {
         if (fieldData.getValue().startsWith("=")) {
             return new ExpressionFieldPopulator(factObject,
                     fieldData.getName(),
-                    fieldData.getValue().substring(1));
+                    fieldData.getValue().substring(1),
+                    expressionCache);
 
         } else if (fieldData.getNature() == FieldData.TYPE_ENUM) {
             return new EnumFieldPopulator(factObject,
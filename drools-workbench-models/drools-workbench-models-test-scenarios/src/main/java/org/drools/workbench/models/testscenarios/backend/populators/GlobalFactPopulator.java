@@ -35,9 +35,24 @@ class GlobalFactPopulator extends FactPopulatorBase {
                                 Map<String, Object> globalData ) throws ClassNotFoundException,
             InstantiationException,
             IllegalAccessException {
+        this( populatedData,
+              typeResolver,
+              fact,
+              globalData,
+              null );
+    }
+
+    public GlobalFactPopulator( Map<String, Object> populatedData,
+                                TypeResolver typeResolver,
+                                FactData fact,
+                                Map<String, Object> globalData,
+                                CompiledExpressionCache expressionCache ) throws ClassNotFoundException,
+            InstantiationException,
+            IllegalAccessException {
         super( populatedData,
                typeResolver,
-               fact );
+               fact,
+               expressionCache );
 
         factObject = resolveFactObject();
         globalData.put( fact.getName(),
@@ -35,9 +35,23 @@ class NewFactPopulator extends FactPopulatorBase {
             FactData fact ) throws ClassNotFoundException,
             InstantiationException,
             IllegalAccessException {
+        this( populatedData,
+              typeResolver,
+              fact,
+              null );
+    }
+
+    public NewFactPopulator(
+            Map<String, Object> populatedData,
+            TypeResolver typeResolver,
+            FactData fact,
+            CompiledExpressionCache expressionCache ) throws ClassNotFoundException,
+            InstantiationException,
+            IllegalAccessException {
         super( populatedData,
                typeResolver,
-               fact );
+               fact,
+               expressionCache );
         factObject = resolveFactObject();
     }
 
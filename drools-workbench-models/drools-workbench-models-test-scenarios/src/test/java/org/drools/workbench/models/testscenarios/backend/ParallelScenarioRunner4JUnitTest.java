@@ -0,0 +1,166 @@
+/*
+ * Copyright 2015 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.workbench.models.testscenarios.backend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.drools.workbench.models.datamodel.imports.Import;
+import org.drools.workbench.models.testscenarios.shared.ExecutionTrace;
+import org.drools.workbench.models.testscenarios.shared.Field;
+import org.drools.workbench.models.testscenarios.shared.FactData;
+import org.drools.workbench.models.testscenarios.shared.FieldData;
+import org.drools.workbench.models.testscenarios.shared.Scenario;
+import org.drools.workbench.models.testscenarios.shared.VerifyFact;
+import org.drools.workbench.models.testscenarios.shared.VerifyField;
+import org.drools.workbench.models.testscenarios.shared.VerifyRuleFired;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+import org.kie.api.runtime.KieSession;
+
+import static org.junit.Assert.*;
+
+public class ParallelScenarioRunner4JUnitTest extends RuleUnit {
+
+    private static final int SCENARIOS = 40;
+
+    @Test
+    public void testSameNotificationsAsSerialRun() throws Exception {
+        KieSession ksession = getKieSession( "test_rules2.drl" );
+
+        List<Scenario> serialScenarios = createScenarios();
+        List<String> serialEvents = run( new ScenarioRunner4JUnit( serialScenarios,
+                                                                   ksession ) );
+
+        List<Scenario> parallelScenarios = createScenarios();
+        List<String> parallelEvents = run( new ParallelScenarioRunner4JUnit( parallelScenarios,
+                                                                             ksession,
+                                                                             0,
+                                                                             4 ) );
+
+        assertEquals( serialEvents,
+                      parallelEvents );
+        for ( int i = 0; i < SCENARIOS; i++ ) {
+            assertEquals( i % 5 != 0,
+                          parallelScenarios.get( i ).wasSuccessful() );
+        }
+    }
+
+    @Test
+    public void testSessionsAreEmptiedBetweenScenarios() throws Exception {
+        KieSession ksession = getKieSession( "test_rules2.drl" );
+
+        List<Scenario> scenarios = createScenarios();
+        run( new ParallelScenarioRunner4JUnit( scenarios,
+                                               ksession,
+                                               0,
+                                               2 ) );
+
+        for ( Scenario scenario : scenarios ) {
+            ExecutionTrace executionTrace = (ExecutionTrace) scenario.getFixtures().get( 1 );
+            assertEquals( 3,
+                          executionTrace.getNumberOfRulesFired().intValue() );
+        }
+        assertEquals( 0,
+                      ksession.getFactCount() );
+    }
+
+    @Test
+    public void testNullKieSession() throws Exception {
+        List<String> events = run( new ParallelScenarioRunner4JUnit( createScenarios().subList( 0, 2 ),
+                                                                     null ) );
+
+        assertEquals( Arrays.asList( "started scenario 0",
+                                     "failure scenario 0 NullKieSessionException",
+                                     "finished scenario 0",
+                                     "started scenario 1",
+                                     "failure scenario 1 NullKieSessionException",
+                                     "finished scenario 1" ),
+                      events );
+    }
+
+    private List<String> run( final Runner runner ) {
+        final List<String> events = new ArrayList<String>();
+        RunNotifier notifier = new RunNotifier();
+        notifier.addListener( new RunListener() {
+            @Override
+            public void testStarted( Description description ) {
+                events.add( "started " + description.getMethodName() );
+            }
+
+            @Override
+            public void testFailure( Failure failure ) {
+                events.add( "failure " + failure.getDescription().getMethodName() + " " + failure.getException().getClass().getSimpleName() );
+            }
+
+            @Override
+            public void testAssumptionFailure( Failure failure ) {
+                events.add( "assumption " + failure.getDescription().getMethodName() + " " + failure.getMessage() );
+            }
+
+            @Override
+            public void testFinished( Description description ) {
+                events.add( "finished " + description.getMethodName() );
+            }
+        } );
+        runner.run( notifier );
+        return events;
+    }
+
+    /**
+     * Every fifth scenario expects the wrong price, so it fails
+     */
+    private List<Scenario> createScenarios() {
+        List<Scenario> scenarios = new ArrayList<Scenario>();
+        for ( int i = 0; i < SCENARIOS; i++ ) {
+            Scenario scenario = new Scenario();
+            scenario.setName( "scenario " + i );
+            scenario.getImports().addImport( new Import( "org.drools.workbench.models.testscenarios.backend.Cheese" ) );
+            scenario.getImports().addImport( new Import( "org.drools.workbench.models.testscenarios.backend.Person" ) );
+            scenario.getGlobals().add( new FactData( "Person",
+                                                     "p",
+                                                     new ArrayList<Field>(),
+                                                     false ) );
+            scenario.getFixtures().add( new FactData( "Cheese",
+                                                      "c1",
+                                                      Arrays.<Field>asList( new FieldData( "type",
+                                                                                           "cheddar" ),
+                                                                            new FieldData( "price",
+                                                                                           "=40 + 2" ) ),
+                                                      false ) );
+            scenario.getFixtures().add( new ExecutionTrace() );
+            scenario.getFixtures().add( new VerifyFact( "c1",
+                                                        ls( new VerifyField( "price",
+                                                                             i % 5 == 0 ? "41" : "42",
+                                                                             "==" ) ) ) );
+            scenario.getFixtures().add( new VerifyRuleFired( "rule1",
+                                                             1,
+                                                             null ) );
+            scenarios.add( scenario );
+        }
+        return scenarios;
+    }
+
+    private List<VerifyField> ls( final VerifyField... fields ) {
+        return new ArrayList<VerifyField>( Arrays.asList( fields ) );
+    }
+}
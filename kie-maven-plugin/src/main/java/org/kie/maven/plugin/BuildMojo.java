@@ -19,6 +19,7 @@ import org.drools.compiler.kie.builder.impl.ResultsImpl;
 import org.drools.compiler.kie.builder.impl.ZipKieModule;
 import org.drools.compiler.kproject.ReleaseIdImpl;
 import org.drools.compiler.kproject.models.KieModuleModelImpl;
+import org.drools.compiler.rule.builder.dialect.java.PersistentClassFileCache;
 import org.kie.api.KieServices;
 import org.kie.api.builder.KieRepository;
 import org.kie.api.builder.Message;
@@ -70,6 +71,21 @@ public class BuildMojo extends AbstractMojo {
      */
     private MavenProject project;
 
+    /**
+     * Directory where the bytecode generated for the rules is cached across builds,
+     * so that only the rules changed since the last build (or depending on changed classes) are recompiled.
+     *
+     * @parameter default-value="${project.build.directory}/drools-class-file-cache"
+     */
+    private File classFileCacheDirectory;
+
+    /**
+     * Set to true to reuse the bytecode cached in the classFileCacheDirectory by the previous builds.
+     *
+     * @parameter default-value="false"
+     */
+    private boolean useClassFileCache;
+
     public void execute() throws MojoExecutionException, MojoFailureException {
         ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
 
@@ -116,6 +132,11 @@ public class BuildMojo extends AbstractMojo {
         try {
             KieRepository kr = ks.getRepository();
             InternalKieModule kModule = (InternalKieModule)kr.addKieModule(ks.getResources().newFileSystemResource(sourceFolder));
+            if (useClassFileCache && classFileCacheDirectory != null) {
+                // the builders of this module only, so concurrent builds can use different directories
+                kModule.getKieModuleModel().setConfigurationProperty(PersistentClassFileCache.PROPERTY_NAME,
+                                                                     classFileCacheDirectory.getAbsolutePath());
+            }
             for (InternalKieModule kmoduleDep : kmoduleDeps) {
                 kModule.addKieDependency(kmoduleDep);
             }